@@ -0,0 +1,80 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+/**
+ * Fake {@link Context} implementation to be used by benchmarks.
+ *
+ * @author serkan
+ */
+public class FakeContext implements Context {
+
+    private final int remainingTimeInMillis;
+
+    public FakeContext(int remainingTimeInMillis) {
+        this.remainingTimeInMillis = remainingTimeInMillis;
+    }
+
+    @Override
+    public String getAwsRequestId() {
+        return "benchmark-request";
+    }
+
+    @Override
+    public String getLogGroupName() {
+        return "/aws/lambda/thundra-lambda-warmup";
+    }
+
+    @Override
+    public String getLogStreamName() {
+        return "benchmark";
+    }
+
+    @Override
+    public String getFunctionName() {
+        return "thundra-lambda-warmup";
+    }
+
+    @Override
+    public String getFunctionVersion() {
+        return "$LATEST";
+    }
+
+    @Override
+    public String getInvokedFunctionArn() {
+        return "arn:aws:lambda:us-west-2:123456789012:function:thundra-lambda-warmup";
+    }
+
+    @Override
+    public CognitoIdentity getIdentity() {
+        return null;
+    }
+
+    @Override
+    public ClientContext getClientContext() {
+        return null;
+    }
+
+    @Override
+    public int getRemainingTimeInMillis() {
+        return remainingTimeInMillis;
+    }
+
+    @Override
+    public int getMemoryLimitInMB() {
+        return 512;
+    }
+
+    @Override
+    public LambdaLogger getLogger() {
+        return new LambdaLogger() {
+            @Override
+            public void log(String message) {
+            }
+        };
+    }
+
+}
@@ -0,0 +1,165 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.model.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *      In-process fake {@link LambdaService} implementation to be used by benchmarks.
+ * </p>
+ * <p>
+ *      Invocations are completed with the configured response payload after the configured latency.
+ *      If the latency is <code>0</code>, invocations are completed on the caller thread,
+ *      so only the dispatch path of the caller is measured.
+ *      Functions are listed from the configured function configurations by pages of the configured size.
+ * </p>
+ *
+ * @author serkan
+ */
+public class FakeLambdaService implements LambdaService {
+
+    private final long latencyMicros;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private volatile byte[] responsePayload = new byte[0];
+    private volatile List<FunctionConfiguration> functions = Collections.emptyList();
+    private volatile int pageSize = 50;
+    private volatile List<AliasConfiguration> aliases = Collections.emptyList();
+
+    public FakeLambdaService(long latencyMicros) {
+        this(latencyMicros, Runtime.getRuntime().availableProcessors());
+    }
+
+    public FakeLambdaService(long latencyMicros, int completionThreadCount) {
+        this.latencyMicros = latencyMicros;
+        if (latencyMicros > 0) {
+            this.scheduledExecutorService =
+                    Executors.newScheduledThreadPool(completionThreadCount, new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, "fake-lambda-service");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        } else {
+            this.scheduledExecutorService = null;
+        }
+    }
+
+    public FakeLambdaService withResponsePayload(String responsePayload) {
+        this.responsePayload = responsePayload.getBytes(StandardCharsets.UTF_8);
+        return this;
+    }
+
+    public FakeLambdaService withFunctions(List<FunctionConfiguration> functions, int pageSize) {
+        this.functions = new ArrayList<FunctionConfiguration>(functions);
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public FakeLambdaService withAliases(List<AliasConfiguration> aliases) {
+        this.aliases = new ArrayList<AliasConfiguration>(aliases);
+        return this;
+    }
+
+    private InvokeResult createInvokeResult() {
+        return new InvokeResult().
+                    withStatusCode(200).
+                    withPayload(ByteBuffer.wrap(responsePayload));
+    }
+
+    @Override
+    public InvokeResult invoke(InvokeRequest request) {
+        if (latencyMicros > 0) {
+            try {
+                TimeUnit.MICROSECONDS.sleep(latencyMicros);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return createInvokeResult();
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request) {
+        return invokeAsync(request, null);
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(final InvokeRequest request,
+                                            final AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+        if (latencyMicros <= 0) {
+            InvokeResult result = createInvokeResult();
+            if (asyncHandler != null) {
+                asyncHandler.onSuccess(request, result);
+            }
+            return CompletableFuture.completedFuture(result);
+        }
+        return scheduledExecutorService.schedule(new Callable<InvokeResult>() {
+            @Override
+            public InvokeResult call() {
+                InvokeResult result = createInvokeResult();
+                if (asyncHandler != null) {
+                    asyncHandler.onSuccess(request, result);
+                }
+                return result;
+            }
+        }, latencyMicros, TimeUnit.MICROSECONDS);
+    }
+
+    @Override
+    public ListFunctionsResult listFunctions(ListFunctionsRequest request) {
+        List<FunctionConfiguration> functions = this.functions;
+        int start = request.getMarker() != null ? Integer.parseInt(request.getMarker()) : 0;
+        int end = Math.min(start + pageSize, functions.size());
+        ListFunctionsResult result =
+                new ListFunctionsResult().
+                    withFunctions(functions.subList(start, end));
+        if (end < functions.size()) {
+            result.setNextMarker(String.valueOf(end));
+        }
+        return result;
+    }
+
+    @Override
+    public ListAliasesResult listAliases(ListAliasesRequest request) {
+        return new ListAliasesResult().withAliases(aliases);
+    }
+
+    @Override
+    public ListProvisionedConcurrencyConfigsResult listProvisionedConcurrencyConfigs(
+            ListProvisionedConcurrencyConfigsRequest request) {
+        return new ListProvisionedConcurrencyConfigsResult().
+                    withProvisionedConcurrencyConfigs(
+                        Collections.<ProvisionedConcurrencyConfigListItem>emptyList());
+    }
+
+    @Override
+    public GetAccountSettingsResult getAccountSettings(GetAccountSettingsRequest request) {
+        return new GetAccountSettingsResult().
+                    withAccountLimit(
+                        new AccountLimit().
+                            withConcurrentExecutions(1000).
+                            withUnreservedConcurrentExecutions(1000));
+    }
+
+    public void shutdown() {
+        if (scheduledExecutorService != null) {
+            scheduledExecutorService.shutdownNow();
+        }
+    }
+
+}
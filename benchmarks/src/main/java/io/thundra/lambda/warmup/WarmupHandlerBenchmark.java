@@ -0,0 +1,140 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.AliasConfiguration;
+import com.amazonaws.services.lambda.model.EnvironmentResponse;
+import com.amazonaws.services.lambda.model.FunctionConfiguration;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import io.thundra.lambda.warmup.strategy.WarmupStrategy;
+import io.thundra.lambda.warmup.strategy.WarmupStrategyProvider;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategyProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for function declaration parsing and function discovery of {@link WarmupHandler}.
+ *
+ * @author serkan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WarmupHandlerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class DeclarationState {
+
+        @Param({"10", "100", "1000"})
+        public int functionCount;
+
+        public WarmupPropertyProvider warmupPropertyProvider;
+        public WarmupStrategyProvider warmupStrategyProvider;
+        public WarmupStrategy warmupStrategy;
+        public LambdaService lambdaService;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Map<String, Object> props = new HashMap<String, Object>();
+            // Spread declarations over multiple properties as they are configured from multiple env vars
+            int declarationPerProperty = 10;
+            for (int i = 0; i < functionCount; i += declarationPerProperty) {
+                StringBuilder sb = new StringBuilder();
+                for (int j = i; j < Math.min(i + declarationPerProperty, functionCount); j++) {
+                    if (sb.length() > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append("function-").append(j);
+                    if (j % 2 == 0) {
+                        sb.append("[alias=live; invocationCount=16; invocationData={\"warmup\":true}]");
+                    }
+                }
+                props.put(WarmupHandler.WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX + i, sb.toString());
+            }
+            warmupPropertyProvider = new MapWarmupPropertyProvider(props);
+            warmupStrategyProvider = new StandardWarmupStrategyProvider();
+            warmupStrategy = new StandardWarmupStrategy(warmupPropertyProvider);
+            lambdaService = new FakeLambdaService(0);
+        }
+
+    }
+
+    @State(Scope.Benchmark)
+    public static class DiscoveryState {
+
+        @Param({"1000", "10000"})
+        public int functionCount;
+
+        @Param({"50"})
+        public int pageSize;
+
+        @Param({"true", "false"})
+        public boolean aliasDiscovery;
+
+        public WarmupHandler warmupHandler;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            List<FunctionConfiguration> functions = new ArrayList<FunctionConfiguration>(functionCount);
+            for (int i = 0; i < functionCount; i++) {
+                Map<String, String> variables = new HashMap<String, String>();
+                variables.put("AWS_NODEJS_CONNECTION_REUSE_ENABLED", "1");
+                variables.put("LOG_LEVEL", "info");
+                // Only some of the functions are warmup aware as in real accounts
+                if (i % 4 == 0) {
+                    variables.put(WarmupHandler.WARMUP_AWARE_ENV_VAR_NAME, "true");
+                    variables.put(WarmupHandler.INVOCATION_COUNT_ENV_VAR_NAME, "10");
+                }
+                functions.add(
+                        new FunctionConfiguration().
+                            withFunctionName("function-" + i).
+                            withFunctionArn("arn:aws:lambda:us-west-2:123456789012:function:function-" + i).
+                            withRevisionId("revision-" + i).
+                            withEnvironment(new EnvironmentResponse().withVariables(variables)));
+            }
+            List<AliasConfiguration> aliases = new ArrayList<AliasConfiguration>();
+            for (int i = 1; i <= 5; i++) {
+                aliases.add(new AliasConfiguration().withName("v" + i).withFunctionVersion(String.valueOf(i)));
+            }
+            aliases.add(new AliasConfiguration().withName("latest").withFunctionVersion("$LATEST"));
+
+            LambdaService lambdaService =
+                    new FakeLambdaService(0).
+                        withFunctions(functions, pageSize).
+                        withAliases(aliases);
+            Map<String, Object> props = new HashMap<String, Object>();
+            props.put(WarmupHandler.DISABLE_ALIAS_DISCOVERY_PROP_NAME, !aliasDiscovery);
+            WarmupPropertyProvider warmupPropertyProvider = new MapWarmupPropertyProvider(props);
+            warmupHandler =
+                    new WarmupHandler(
+                            lambdaService,
+                            warmupPropertyProvider,
+                            new StandardWarmupStrategyProvider(),
+                            new StandardWarmupStrategy(warmupPropertyProvider));
+        }
+
+    }
+
+    @Benchmark
+    public WarmupFunctionRegistry parseFunctionDeclarations(DeclarationState state) {
+        WarmupHandler warmupHandler =
+                new WarmupHandler(
+                        state.lambdaService,
+                        state.warmupPropertyProvider,
+                        state.warmupStrategyProvider,
+                        state.warmupStrategy);
+        return warmupHandler.warmupFunctionRegistry;
+    }
+
+    @Benchmark
+    public Map<String, WarmupFunctionInfo> getFunctionsToWarmup(DiscoveryState state) {
+        return state.warmupHandler.getFunctionsToWarmup();
+    }
+
+}
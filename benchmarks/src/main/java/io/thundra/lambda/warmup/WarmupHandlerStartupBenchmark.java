@@ -0,0 +1,64 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.EnvironmentResponse;
+import com.amazonaws.services.lambda.model.FunctionConfiguration;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *      Benchmark for the time-to-first-invoke of {@link WarmupHandler} on a fresh JVM,
+ *      which is the time from loading the handler (including its static initialization)
+ *      to completing its first warmup invocation against {@link FakeLambdaService} without latency.
+ * </p>
+ * <p>
+ *      Every measurement is taken on its own fork, as class loading and static initialization happen only once.
+ *      To see the effect of the AppCDS archive generated by the <code>cold-start</code> build profile,
+ *      run with <code>-jvmArgsAppend -XX:SharedArchiveFile=&lt;archive-file&gt;</code> on JDK 13+.
+ *      Note that the archive is only used if the classpath of the benchmark starts with the one it was recorded with.
+ * </p>
+ *
+ * @author serkan
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class WarmupHandlerStartupBenchmark {
+
+    @Benchmark
+    public Object timeToFirstInvoke() {
+        // Everything is created here, so nothing from the handler is loaded before the measurement
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(StandardWarmupStrategy.ITERATION_COUNT_PROP_NAME, 1);
+        props.put(StandardWarmupStrategy.INVOCATION_COUNT_PROP_NAME, 1);
+        props.put(StandardWarmupStrategy.DISABLE_RANDOMIZATION_PROP_NAME, true);
+        props.put(StandardWarmupStrategy.DONT_WAIT_BETWEEN_INVOCATION_ROUNDS, true);
+        props.put(WarmupHandler.DISABLE_ALIAS_DISCOVERY_PROP_NAME, true);
+        WarmupPropertyProvider warmupPropertyProvider = new MapWarmupPropertyProvider(props);
+
+        Map<String, String> variables = new HashMap<String, String>();
+        variables.put(WarmupHandler.WARMUP_AWARE_ENV_VAR_NAME, "true");
+        LambdaService lambdaService =
+                new FakeLambdaService(0).
+                    withFunctions(
+                        Collections.singletonList(
+                            new FunctionConfiguration().
+                                withFunctionName("function-1").
+                                withFunctionArn("arn:aws:lambda:us-west-2:123456789012:function:function-1").
+                                withEnvironment(new EnvironmentResponse().withVariables(variables))),
+                        50);
+
+        WarmupHandler warmupHandler = new WarmupHandler(lambdaService, warmupPropertyProvider, null, null);
+        return warmupHandler.handleRequest(null, new FakeContext(60 * 1000));
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.thundra.lambda.warmup.strategy.impl;
+
+import io.thundra.lambda.warmup.FakeContext;
+import io.thundra.lambda.warmup.FakeLambdaService;
+import io.thundra.lambda.warmup.WarmupFunctionInfo;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *      Benchmarks for the warmup invocation dispatch path of {@link StandardWarmupStrategy}
+ *      against {@link FakeLambdaService} with configurable latency.
+ * </p>
+ * <p>
+ *      Waiting between invocation rounds is disabled, so the measured time is the time
+ *      to dispatch all the invocations and to collect all of their results.
+ *      Run with <code>-prof gc</code> to see allocation rate per warmup.
+ * </p>
+ *
+ * @author serkan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StandardWarmupStrategyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int functionCount;
+
+    @Param({"8"})
+    public int invocationCount;
+
+    @Param({"0", "100", "10000"})
+    public long latencyMicros;
+
+    private FakeLambdaService lambdaService;
+    private FakeContext context;
+    private StandardWarmupStrategy warmupStrategy;
+    private Map<String, WarmupFunctionInfo> functionsToWarmup;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(StandardWarmupStrategy.INVOCATION_COUNT_PROP_NAME, invocationCount);
+        props.put(StandardWarmupStrategy.DISABLE_RANDOMIZATION_PROP_NAME, true);
+        props.put(StandardWarmupStrategy.DONT_WAIT_BETWEEN_INVOCATION_ROUNDS, true);
+        WarmupPropertyProvider warmupPropertyProvider = new MapWarmupPropertyProvider(props);
+
+        lambdaService = new FakeLambdaService(latencyMicros);
+        context = new FakeContext(60 * 1000);
+        warmupStrategy = new StandardWarmupStrategy(warmupPropertyProvider);
+        functionsToWarmup = new HashMap<String, WarmupFunctionInfo>(functionCount);
+        for (int i = 0; i < functionCount; i++) {
+            functionsToWarmup.put("function-" + i, new WarmupFunctionInfo());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        lambdaService.shutdown();
+    }
+
+    @Benchmark
+    public void warmup() throws IOException {
+        warmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+    }
+
+}
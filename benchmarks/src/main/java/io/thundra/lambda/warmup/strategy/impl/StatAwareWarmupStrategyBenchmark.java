@@ -0,0 +1,85 @@
+package io.thundra.lambda.warmup.strategy.impl;
+
+import com.amazonaws.services.lambda.model.InvokeResult;
+import com.opsgenie.sirocco.api.control.ControlRequestConstants;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for parsing warmup invocation responses by
+ * {@link StatAwareWarmupStrategy#handleInvokeResult(StandardWarmupStrategy.InvokeResultInfo)}
+ * and handling all of them at the end of warmup by
+ * {@link StatAwareWarmupStrategy#handleInvokeResultInfos(Map)}.
+ *
+ * @author serkan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatAwareWarmupStrategyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int functionCount;
+
+    @Param({"8"})
+    public int invocationCount;
+
+    private StatAwareWarmupStrategy warmupStrategy;
+    private Map<String, List<StandardWarmupStrategy.InvokeResultInfo>> invokeResultInfosMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        warmupStrategy =
+                new StatAwareWarmupStrategy(
+                        new MapWarmupPropertyProvider(new HashMap<String, Object>()));
+        invokeResultInfosMap = new HashMap<String, List<StandardWarmupStrategy.InvokeResultInfo>>(functionCount);
+        String latestRequestTime;
+        synchronized (ControlRequestConstants.DATE_FORMAT) {
+            latestRequestTime = ControlRequestConstants.DATE_FORMAT.format(new Date());
+        }
+        for (int i = 0; i < functionCount; i++) {
+            String functionName = "function-" + i;
+            List<StandardWarmupStrategy.InvokeResultInfo> invokeResultInfos =
+                    new ArrayList<StandardWarmupStrategy.InvokeResultInfo>(invocationCount);
+            for (int j = 0; j < invocationCount; j++) {
+                String response =
+                        "{" +
+                            "\"instanceId\":\"" + UUID.randomUUID() + "\"," +
+                            "\"latestRequestTime\":\"" + latestRequestTime + "\"" +
+                        "}";
+                StandardWarmupStrategy.InvokeResultInfo invokeResultInfo =
+                        new StandardWarmupStrategy.InvokeResultInfo(1, j + 1, functionName);
+                invokeResultInfo.invokeResult =
+                        new InvokeResult().
+                            withStatusCode(200).
+                            withPayload(ByteBuffer.wrap(response.getBytes(StandardCharsets.UTF_8)));
+                invokeResultInfos.add(invokeResultInfo);
+            }
+            invokeResultInfosMap.put(functionName, invokeResultInfos);
+        }
+    }
+
+    @Benchmark
+    public void handleInvokeResultInfos() {
+        for (List<StandardWarmupStrategy.InvokeResultInfo> invokeResultInfos : invokeResultInfosMap.values()) {
+            for (StandardWarmupStrategy.InvokeResultInfo invokeResultInfo : invokeResultInfos) {
+                warmupStrategy.handleInvokeResult(invokeResultInfo);
+            }
+        }
+        warmupStrategy.handleInvokeResultInfos(invokeResultInfosMap);
+    }
+
+}
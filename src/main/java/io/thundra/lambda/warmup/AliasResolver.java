@@ -0,0 +1,119 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.AliasConfiguration;
+import com.amazonaws.services.lambda.model.ListAliasesRequest;
+import com.amazonaws.services.lambda.model.ListAliasesResult;
+import com.opsgenie.core.util.ExceptionUtil;
+import org.apache.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * <p>
+ *      Resolves the alias to be used as qualifier while invoking a function to warmup.
+ *      If there is an alias pointing to the <code>$LATEST</code> version, it is used.
+ *      Otherwise, the alias pointing to the latest (maximum) version is used.
+ * </p>
+ * <p>
+ *      Concurrent resolutions of the same function (for example, when the same function
+ *      is both declared and discovered) are coalesced, so aliases of the function are listed only once
+ *      and all the callers get the same result.
+ *      Resolved aliases are not kept between resolutions, caching of the listed aliases between warmup runs
+ *      is left to the given {@link LambdaService} (see {@link io.thundra.lambda.warmup.impl.CachingLambdaService}).
+ *      This class is thread-safe.
+ * </p>
+ *
+ * @author serkan
+ */
+public class AliasResolver {
+
+    private static final Logger LOGGER = Logger.getLogger(AliasResolver.class);
+
+    private static final String LATEST_VERSION = "$LATEST";
+
+    private final LambdaService lambdaService;
+    private final ConcurrentMap<String, CompletableFuture<String>> inFlightResolutions =
+            new ConcurrentHashMap<String, CompletableFuture<String>>();
+
+    public AliasResolver(LambdaService lambdaService) {
+        this.lambdaService = lambdaService;
+    }
+
+    /**
+     * Resolves the alias of the given function to be used as qualifier.
+     * If the same function is already being resolved by another caller,
+     * waits for and returns its result instead of listing the aliases again.
+     *
+     * @param functionName name of the function
+     * @return the resolved alias, <code>null</code> if the function has no alias
+     */
+    public String resolve(String functionName) {
+        CompletableFuture<String> resolution = new CompletableFuture<String>();
+        CompletableFuture<String> inFlightResolution = inFlightResolutions.putIfAbsent(functionName, resolution);
+        if (inFlightResolution != null) {
+            return awaitResolution(inFlightResolution);
+        }
+        try {
+            String alias = doResolve(functionName);
+            resolution.complete(alias);
+            return alias;
+        } catch (Throwable t) {
+            resolution.completeExceptionally(t);
+            ExceptionUtil.sneakyThrow(t);
+            return null;
+        } finally {
+            inFlightResolutions.remove(functionName, resolution);
+        }
+    }
+
+    private String awaitResolution(CompletableFuture<String> resolution) {
+        try {
+            return resolution.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            ExceptionUtil.sneakyThrow(e.getCause());
+            return null;
+        }
+    }
+
+    private String doResolve(String functionName) {
+        ListAliasesResult listAliasesResult =
+                lambdaService.listAliases(new ListAliasesRequest().withFunctionName(functionName));
+        if (listAliasesResult == null) {
+            return null;
+        }
+        List<AliasConfiguration> aliases = listAliasesResult.getAliases();
+        return aliases != null ? findBestAlias(functionName, aliases) : null;
+    }
+
+    private static String findBestAlias(String functionName, List<AliasConfiguration> aliases) {
+        String bestAlias = null;
+        int bestVersionNo = Integer.MIN_VALUE;
+        for (AliasConfiguration aliasConfiguration : aliases) {
+            String aliasVersion = aliasConfiguration.getFunctionVersion();
+            String aliasName = aliasConfiguration.getName();
+            if (LATEST_VERSION.equals(aliasVersion)) {
+                return aliasName;
+            }
+            int aliasVersionNo = Integer.parseInt(aliasVersion);
+            if (bestAlias != null && aliasVersionNo == bestVersionNo) {
+                LOGGER.warn(String.format(
+                        "There are multiple aliases ('%s' and '%s') for function '%s' which are mapped to same version '%s'. " +
+                        "So overriding and going on with '%s' ...",
+                        bestAlias, aliasName, functionName, aliasVersionNo, aliasName));
+            }
+            if (bestAlias == null || aliasVersionNo >= bestVersionNo) {
+                bestAlias = aliasName;
+                bestVersionNo = aliasVersionNo;
+            }
+        }
+        return bestAlias;
+    }
+
+}
@@ -0,0 +1,243 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.AccountLimit;
+import com.amazonaws.services.lambda.model.GetAccountSettingsRequest;
+import com.amazonaws.services.lambda.model.GetAccountSettingsResult;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ *      Plans a global budget for the concurrent warmup invocations of all the functions to warmup,
+ *      so warmup doesn't take over the concurrency limit of the account shared with the real requests.
+ *      The budget is the {@link #INVOCATION_BUDGET_FRACTION_PROP_NAME configured fraction}
+ *      of the account concurrency limit, which is either
+ *      {@link #ACCOUNT_CONCURRENCY_LIMIT_PROP_NAME configured} or retrieved from the account settings
+ *      (unreserved concurrency if there is, total concurrency otherwise).
+ * </p>
+ * <p>
+ *      The budget is allocated to the functions by weighted water-filling:
+ *      every function gets a share of the remaining budget in proportion to its weight
+ *      but not more than its demand, and the budget left from the satisfied functions
+ *      is shared again between the unsatisfied ones until the budget or the demands are exhausted.
+ *      When the shares get smaller than a single invocation,
+ *      the remaining invocations are given by the priorities and then the weights of the functions.
+ *      Demand of a function is the invocation count reported by the warmup strategy at the previous run
+ *      (see {@link WarmupFunctionInfo#getDemandedInvocationCount()}) if there is,
+ *      its configured invocation count otherwise.
+ *      Planned budgets are set to {@link WarmupFunctionInfo#setInvocationBudget(int)}
+ *      to be enforced by the warmup strategies.
+ * </p>
+ *
+ * @author serkan
+ */
+public class InvocationBudgetPlanner {
+
+    /**
+     * Name of the <code>float</code> typed property
+     * which configures the fraction of the account concurrency limit
+     * to be used by the concurrent warmup invocations of all the functions.
+     * Invocation budget planning is enabled only if this property is configured
+     * with a value between <code>0</code> and <code>1</code>.
+     */
+    public static final String INVOCATION_BUDGET_FRACTION_PROP_NAME =
+            "thundra.lambda.warmup.invocationBudgetFraction";
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the account concurrency limit to plan invocation budget by.
+     * If it is not specified, the limit is retrieved from the account settings.
+     */
+    public static final String ACCOUNT_CONCURRENCY_LIMIT_PROP_NAME =
+            "thundra.lambda.warmup.accountConcurrencyLimit";
+
+    private static final Logger LOGGER = Logger.getLogger(InvocationBudgetPlanner.class);
+
+    private final float invocationBudgetFraction;
+    private final int accountConcurrencyLimit;
+    private final int defaultInvocationCount;
+    private final ConcurrentMap<String, Integer> observedDemands = new ConcurrentHashMap<String, Integer>();
+
+    public InvocationBudgetPlanner() {
+        this(WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
+    }
+
+    public InvocationBudgetPlanner(WarmupPropertyProvider warmupPropertyProvider) {
+        this.invocationBudgetFraction =
+                warmupPropertyProvider.getFloat(INVOCATION_BUDGET_FRACTION_PROP_NAME, 0.0F);
+        this.accountConcurrencyLimit =
+                warmupPropertyProvider.getInteger(ACCOUNT_CONCURRENCY_LIMIT_PROP_NAME, 0);
+        this.defaultInvocationCount =
+                warmupPropertyProvider.getInteger(
+                        StandardWarmupStrategy.INVOCATION_COUNT_PROP_NAME,
+                        StandardWarmupStrategy.DEFAULT_INVOCATION_COUNT);
+        if (invocationBudgetFraction > 1.0F) {
+            throw new IllegalArgumentException(
+                    "Invocation budget fraction must not be greater than 1: " + invocationBudgetFraction);
+        }
+    }
+
+    public boolean isEnabled() {
+        return invocationBudgetFraction > 0.0F;
+    }
+
+    /**
+     * Plans invocation budgets of the given functions.
+     * If the account concurrency limit couldn't be resolved, the functions are not limited.
+     *
+     * @param lambdaService     the {@link LambdaService} to retrieve the account settings
+     * @param functionsToWarmup the functions to warmup to be planned
+     */
+    public void plan(LambdaService lambdaService, Map<String, WarmupFunctionInfo> functionsToWarmup) {
+        int concurrencyLimit = getAccountConcurrencyLimit(lambdaService);
+        if (concurrencyLimit <= 0) {
+            LOGGER.warn("Couldn't resolve account concurrency limit, so not limiting warmup invocations");
+            return;
+        }
+        int totalBudget = (int) (concurrencyLimit * invocationBudgetFraction);
+
+        List<Allocation> allocations = new ArrayList<Allocation>(functionsToWarmup.size());
+        for (Map.Entry<String, WarmupFunctionInfo> entry : functionsToWarmup.entrySet()) {
+            allocations.add(new Allocation(entry.getValue(), getDemand(entry.getKey(), entry.getValue())));
+        }
+        int remainingBudget = allocate(allocations, totalBudget);
+        for (Allocation allocation : allocations) {
+            allocation.info.setInvocationBudget(allocation.allocated);
+        }
+
+        LOGGER.info(String.format(
+                "Planned invocation budget of %d functions: %d of %d (account concurrency limit: %d)",
+                allocations.size(), totalBudget - remainingBudget, totalBudget, concurrencyLimit));
+    }
+
+    /**
+     * Records the invocation counts demanded by the warmup strategy for the given functions
+     * to plan their budgets by at the next runs.
+     *
+     * @param functionsToWarmup the warmed-up functions
+     */
+    public void recordDemands(Map<String, WarmupFunctionInfo> functionsToWarmup) {
+        for (Map.Entry<String, WarmupFunctionInfo> entry : functionsToWarmup.entrySet()) {
+            int demandedInvocationCount = entry.getValue().getDemandedInvocationCount();
+            if (demandedInvocationCount >= 0) {
+                observedDemands.put(entry.getKey(), demandedInvocationCount);
+            }
+        }
+    }
+
+    protected int getAccountConcurrencyLimit(LambdaService lambdaService) {
+        if (accountConcurrencyLimit > 0) {
+            return accountConcurrencyLimit;
+        }
+        try {
+            GetAccountSettingsResult result = lambdaService.getAccountSettings(new GetAccountSettingsRequest());
+            if (result == null || result.getAccountLimit() == null) {
+                return 0;
+            }
+            AccountLimit accountLimit = result.getAccountLimit();
+            if (accountLimit.getUnreservedConcurrentExecutions() != null) {
+                return accountLimit.getUnreservedConcurrentExecutions();
+            }
+            if (accountLimit.getConcurrentExecutions() != null) {
+                return accountLimit.getConcurrentExecutions();
+            }
+            return 0;
+        } catch (Throwable t) {
+            LOGGER.error("Error occurred while getting account settings", t);
+            return 0;
+        }
+    }
+
+    private int getDemand(String functionName, WarmupFunctionInfo info) {
+        Integer observedDemand = observedDemands.get(functionName);
+        if (observedDemand != null) {
+            return observedDemand;
+        }
+        return info.getInvocationCount() > 0 ? info.getInvocationCount() : defaultInvocationCount;
+    }
+
+    /**
+     * Allocates the given budget to the given allocations by weighted water-filling.
+     *
+     * @param allocations the allocations to be filled
+     * @param budget      the budget to allocate
+     * @return the remaining budget which is not allocated as all the demands are satisfied
+     */
+    private static int allocate(List<Allocation> allocations, int budget) {
+        int remainingBudget = budget;
+        List<Allocation> unsatisfiedAllocations = new ArrayList<Allocation>();
+        for (Allocation allocation : allocations) {
+            if (allocation.demand > 0) {
+                unsatisfiedAllocations.add(allocation);
+            }
+        }
+        while (remainingBudget > 0 && !unsatisfiedAllocations.isEmpty()) {
+            long totalWeight = 0;
+            for (Allocation allocation : unsatisfiedAllocations) {
+                totalWeight += allocation.weight;
+            }
+            int allocatedBudget = 0;
+            for (Allocation allocation : unsatisfiedAllocations) {
+                int share = (int) ((long) remainingBudget * allocation.weight / totalWeight);
+                int allocated = Math.min(share, allocation.demand - allocation.allocated);
+                allocation.allocated += allocated;
+                allocatedBudget += allocated;
+            }
+            if (allocatedBudget == 0) {
+                // Shares are smaller than a single invocation,
+                // so the remaining invocations are given one by one by priority and weight
+                Collections.sort(unsatisfiedAllocations, ALLOCATION_ORDER);
+                for (int i = 0; i < unsatisfiedAllocations.size() && allocatedBudget < remainingBudget; i++) {
+                    unsatisfiedAllocations.get(i).allocated++;
+                    allocatedBudget++;
+                }
+            }
+            remainingBudget -= allocatedBudget;
+            Iterator<Allocation> allocationIterator = unsatisfiedAllocations.iterator();
+            while (allocationIterator.hasNext()) {
+                Allocation allocation = allocationIterator.next();
+                if (allocation.allocated >= allocation.demand) {
+                    allocationIterator.remove();
+                }
+            }
+        }
+        return remainingBudget;
+    }
+
+    private static final Comparator<Allocation> ALLOCATION_ORDER = new Comparator<Allocation>() {
+        @Override
+        public int compare(Allocation a1, Allocation a2) {
+            if (a1.priority != a2.priority) {
+                return a1.priority > a2.priority ? -1 : 1;
+            }
+            return Integer.compare(a2.weight, a1.weight);
+        }
+    };
+
+    private static final class Allocation {
+
+        private final WarmupFunctionInfo info;
+        private final int priority;
+        private final int weight;
+        private final int demand;
+        private int allocated;
+
+        private Allocation(WarmupFunctionInfo info, int demand) {
+            this.info = info;
+            this.priority = info.getPriority();
+            this.weight = info.getWeight();
+            this.demand = demand;
+        }
+
+    }
+
+}
@@ -1,8 +1,14 @@
 package io.thundra.lambda.warmup;
 
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.lambda.model.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * Interface for implementations which provide various services for AWS Lambda
@@ -28,6 +34,60 @@ public interface LambdaService {
      */
     Future<InvokeResult> invokeAsync(InvokeRequest request);
 
+    /**
+     * Invokes Lambda function asynchronously and notifies the given {@link AsyncHandler}
+     * as soon as the invocation completes successfully or fails.
+     * By default, it delegates to {@link #invokeAsync(InvokeRequest)} and notifies the handler
+     * on completion of the returned {@link Future}. If the returned {@link Future} is not
+     * a {@link CompletableFuture}, a thread is blocked until it completes,
+     * so implementations are expected to override this method to notify the handler by themselves.
+     *
+     * @param request      the {@link InvokeRequest invocation request}
+     * @param asyncHandler the {@link AsyncHandler} to be notified on completion
+     * @return the {@link Future} which provides the {@link InvokeResult invocation result}
+     */
+    default Future<InvokeResult> invokeAsync(final InvokeRequest request,
+                                             final AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+        final Future<InvokeResult> future = invokeAsync(request);
+        if (asyncHandler == null) {
+            return future;
+        }
+        CompletableFuture<InvokeResult> completableFuture;
+        if (future instanceof CompletableFuture) {
+            completableFuture = (CompletableFuture<InvokeResult>) future;
+        } else {
+            completableFuture = CompletableFuture.supplyAsync(new Supplier<InvokeResult>() {
+                @Override
+                public InvokeResult get() {
+                    try {
+                        return future.get();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new CompletionException(e);
+                    } catch (ExecutionException e) {
+                        throw new CompletionException(e.getCause());
+                    }
+                }
+            });
+        }
+        return completableFuture.whenComplete(new BiConsumer<InvokeResult, Throwable>() {
+            @Override
+            public void accept(InvokeResult result, Throwable error) {
+                if (error == null) {
+                    asyncHandler.onSuccess(request, result);
+                    return;
+                }
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                asyncHandler.onError(
+                        cause instanceof Exception
+                                ? (Exception) cause
+                                : new ExecutionException(cause));
+            }
+        });
+    }
+
     /**
      * Lists Lambda functions.
      *
@@ -44,4 +104,29 @@ public interface LambdaService {
      */
     ListAliasesResult listAliases(ListAliasesRequest request);
 
+    /**
+     * Lists provisioned concurrency configurations of Lambda function.
+     * By default, it returns <code>null</code>, so provisioned concurrency is not taken into account.
+     *
+     * @param request the {@link ListProvisionedConcurrencyConfigsRequest list provisioned concurrency configs request}
+     * @return the {@link ListProvisionedConcurrencyConfigsResult list provisioned concurrency configs result},
+     *         <code>null</code> if provisioned concurrency configurations cannot be listed
+     */
+    default ListProvisionedConcurrencyConfigsResult listProvisionedConcurrencyConfigs(
+            ListProvisionedConcurrencyConfigsRequest request) {
+        return null;
+    }
+
+    /**
+     * Gets limits and usage of the account such as the concurrency limit.
+     * By default, it returns <code>null</code>, so the account limits are not taken into account.
+     *
+     * @param request the {@link GetAccountSettingsRequest get account settings request}
+     * @return the {@link GetAccountSettingsResult get account settings result},
+     *         <code>null</code> if account settings cannot be retrieved
+     */
+    default GetAccountSettingsResult getAccountSettings(GetAccountSettingsRequest request) {
+        return null;
+    }
+
 }
@@ -0,0 +1,327 @@
+package io.thundra.lambda.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ *      Parser which compiles function declarations into a {@link WarmupFunctionRegistry}.
+ * </p>
+ * <p>
+ *      Declarations are in <code>function1[key1=value1;key2=value2],function2,...</code> format
+ *      (see {@link WarmupHandler#WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX}) and every declaration value
+ *      is parsed in a single pass. Commas between <code>[</code> and <code>]</code> don't separate declarations
+ *      and only the first <code>=</code> separates the key from the value.
+ *      Brackets, braces and double quoted strings in configuration values are scanned as balanced,
+ *      so <code>]</code> and <code>;</code> inside of them neither close the configurations nor separate them.
+ *      Therefore, configuration values (such as JSON invocation data) can contain all of these separators.
+ *      Functions can also be declared in a JSON resource on the classpath in the following format:
+ * </p>
+ * <pre> {@code
+ * {
+ *   "functions": {
+ *     "function1": { "alias": "live", "invocationCount": 16, "invocationData": { "warmup": true } },
+ *     "function2": {}
+ *   }
+ * }
+ * }</pre>
+ * <p>
+ *      Configurations of a function declared more than once are merged.
+ *      Errors are not thrown on the first invalid declaration but collected,
+ *      so all of them are reported at once by {@link #build()}.
+ * </p>
+ *
+ * @author serkan
+ */
+public class WarmupFunctionDeclarationParser {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String defaultInvocationData;
+    private final InfoHandler infoHandler;
+    private final Map<String, WarmupFunctionInfo> functionInfos = new LinkedHashMap<String, WarmupFunctionInfo>();
+    private final List<String> errors = new ArrayList<String>();
+
+    /**
+     * @param defaultInvocationData invocation data of the functions which don't configure their own
+     * @param infoHandler           the {@link InfoHandler} to apply configurations of the functions
+     */
+    public WarmupFunctionDeclarationParser(String defaultInvocationData, InfoHandler infoHandler) {
+        this.defaultInvocationData = defaultInvocationData;
+        this.infoHandler = infoHandler;
+    }
+
+    /**
+     * Parses the given comma separated function declarations.
+     *
+     * @param source       source of the declarations (such as the property name) to be reported in errors
+     * @param declarations the function declarations
+     */
+    public void parse(String source, String declarations) {
+        if (declarations == null) {
+            return;
+        }
+        int length = declarations.length();
+        int declarationStart = 0;
+        int infoStart = -1;
+        int infoEnd = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? declarations.charAt(i) : ',';
+            if (c == '[') {
+                if (infoStart >= 0) {
+                    addError(source, declarations.substring(declarationStart, i + 1).trim(),
+                             "unexpected '[' after configurations");
+                }
+                infoStart = i;
+                infoEnd = indexOfUnnested(declarations, ']', i + 1, length);
+                if (infoEnd < 0) {
+                    addError(source, declarations.substring(declarationStart).trim(), "missing ']'");
+                    return;
+                }
+                // Skip the configurations, so separators inside of them are not meaningful
+                i = infoEnd;
+            } else if (c == ',') {
+                parseDeclaration(source, declarations, declarationStart, infoStart, infoEnd, i);
+                declarationStart = i + 1;
+                infoStart = -1;
+                infoEnd = -1;
+            } else if (infoEnd >= 0 && !Character.isWhitespace(c)) {
+                addError(source, declarations.substring(declarationStart, i + 1).trim(),
+                         "unexpected character '" + c + "' after configurations");
+                // Skip to the next declaration
+                int nextDeclarationStart = declarations.indexOf(',', i);
+                if (nextDeclarationStart < 0) {
+                    return;
+                }
+                i = nextDeclarationStart;
+                declarationStart = i + 1;
+                infoStart = -1;
+                infoEnd = -1;
+            }
+        }
+    }
+
+    /**
+     * Finds the given character in the given range which is not nested
+     * in brackets, braces or double quoted strings (with backslash escapes).
+     *
+     * @param str   the string to search in
+     * @param ch    the character to find
+     * @param start start index (inclusive) of the range
+     * @param end   end index (exclusive) of the range
+     * @return index of the found character, <code>-1</code> if it is not found
+     */
+    private static int indexOfUnnested(String str, char ch, int start, int end) {
+        int depth = 0;
+        boolean quoted = false;
+        boolean escaped = false;
+        for (int i = start; i < end; i++) {
+            char c = str.charAt(i);
+            if (quoted) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    quoted = false;
+                }
+            } else if (c == ch && depth == 0) {
+                return i;
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == '[' || c == '{') {
+                depth++;
+            } else if ((c == ']' || c == '}') && depth > 0) {
+                depth--;
+            }
+        }
+        return -1;
+    }
+
+    private void parseDeclaration(String source, String declarations,
+                                  int declarationStart, int infoStart, int infoEnd, int declarationEnd) {
+        String functionName =
+                declarations.substring(declarationStart, infoStart >= 0 ? infoStart : declarationEnd).trim();
+        if (functionName.isEmpty()) {
+            if (infoStart >= 0) {
+                addError(source, declarations.substring(declarationStart, declarationEnd).trim(),
+                         "missing function name");
+            }
+            return;
+        }
+        WarmupFunctionInfo info = getOrCreateFunctionInfo(functionName);
+        if (infoStart < 0) {
+            return;
+        }
+        String declaration = declarations.substring(declarationStart, declarationEnd).trim();
+        int configStart = infoStart + 1;
+        while (configStart <= infoEnd) {
+            int configEnd = indexOfUnnested(declarations, ';', configStart, infoEnd);
+            if (configEnd < 0) {
+                configEnd = infoEnd;
+            }
+            int separatorIdx = declarations.indexOf('=', configStart);
+            if (separatorIdx < 0 || separatorIdx > configEnd) {
+                String config = declarations.substring(configStart, configEnd).trim();
+                // Empty configurations (such as "[]" or trailing ';') are ignored
+                if (!config.isEmpty()) {
+                    addError(source, declaration, "configuration '" + config + "' must be in 'key=value' format");
+                }
+            } else {
+                String infoKey = declarations.substring(configStart, separatorIdx).trim();
+                String infoValue = declarations.substring(separatorIdx + 1, configEnd).trim();
+                handleInfo(source, declaration, info, infoKey, infoValue);
+            }
+            configStart = configEnd + 1;
+        }
+    }
+
+    /**
+     * Loads the function declarations from the given JSON resource on the classpath.
+     *
+     * @param resourceName name of the resource
+     * @param classLoader  the {@link ClassLoader} to load the resource
+     * @return <code>true</code> if the resource exists, <code>false</code> otherwise
+     */
+    public boolean load(String resourceName, ClassLoader classLoader) {
+        InputStream in = classLoader.getResourceAsStream(resourceName);
+        if (in == null) {
+            return false;
+        }
+        try {
+            load(resourceName, in);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // Nothing to do
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads the function declarations in JSON format from the given {@link InputStream}.
+     *
+     * @param source source of the declarations to be reported in errors
+     * @param in     the {@link InputStream} to read the declarations from
+     */
+    public void load(String source, InputStream in) {
+        JsonNode rootNode;
+        try {
+            rootNode = OBJECT_MAPPER.readTree(in);
+        } catch (IOException e) {
+            errors.add(source + ": couldn't read function declarations (" + e.getMessage() + ")");
+            return;
+        }
+        JsonNode functionsNode = rootNode != null ? rootNode.get("functions") : null;
+        if (functionsNode == null || !functionsNode.isObject()) {
+            errors.add(source + ": function declarations must be an object under 'functions' field");
+            return;
+        }
+        Iterator<Map.Entry<String, JsonNode>> functionIter = functionsNode.fields();
+        while (functionIter.hasNext()) {
+            Map.Entry<String, JsonNode> functionEntry = functionIter.next();
+            String functionName = functionEntry.getKey().trim();
+            JsonNode functionNode = functionEntry.getValue();
+            if (functionName.isEmpty()) {
+                errors.add(source + ": missing function name");
+                continue;
+            }
+            if (!functionNode.isObject() && !functionNode.isNull()) {
+                addError(source, functionName, "configurations must be an object");
+                continue;
+            }
+            WarmupFunctionInfo info = getOrCreateFunctionInfo(functionName);
+            if (functionNode.isNull()) {
+                continue;
+            }
+            Iterator<Map.Entry<String, JsonNode>> infoIter = functionNode.fields();
+            while (infoIter.hasNext()) {
+                Map.Entry<String, JsonNode> infoEntry = infoIter.next();
+                JsonNode valueNode = infoEntry.getValue();
+                // Structured values (such as invocation data) are passed as JSON
+                String infoValue = valueNode.isContainerNode() ? valueNode.toString() : valueNode.asText();
+                handleInfo(source, functionName, info, infoEntry.getKey(), infoValue);
+            }
+        }
+    }
+
+    private WarmupFunctionInfo getOrCreateFunctionInfo(String functionName) {
+        WarmupFunctionInfo info = functionInfos.get(functionName);
+        if (info == null) {
+            info = new WarmupFunctionInfo();
+            info.invocationData = defaultInvocationData;
+            functionInfos.put(functionName, info);
+        }
+        return info;
+    }
+
+    private void handleInfo(String source, String declaration,
+                            WarmupFunctionInfo info, String infoKey, String infoValue) {
+        try {
+            infoHandler.handleInfo(info, infoKey, infoValue);
+        } catch (NumberFormatException e) {
+            addError(source, declaration, "invalid number for '" + infoKey + "': " + infoValue);
+        } catch (RuntimeException e) {
+            addError(source, declaration, e.getMessage());
+        }
+    }
+
+    private void addError(String source, String declaration, String error) {
+        errors.add(source + ": " + error + " in declaration '" + declaration + "'");
+    }
+
+    /**
+     * Gets the errors collected so far.
+     *
+     * @return the collected errors
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Compiles the parsed declarations into a {@link WarmupFunctionRegistry}.
+     *
+     * @return the compiled {@link WarmupFunctionRegistry}
+     * @throws IllegalArgumentException if there is any invalid declaration, reporting all of them
+     */
+    public WarmupFunctionRegistry build() {
+        if (!errors.isEmpty()) {
+            StringBuilder errorMessageBuilder = new StringBuilder("Invalid function declarations:");
+            for (String error : errors) {
+                errorMessageBuilder.append("\n\t- ").append(error);
+            }
+            throw new IllegalArgumentException(errorMessageBuilder.toString());
+        }
+        return new WarmupFunctionRegistry(functionInfos);
+    }
+
+    /**
+     * Interface for implementations which apply a configuration to the {@link WarmupFunctionInfo} of a function.
+     */
+    public interface InfoHandler {
+
+        /**
+         * Applies the given configuration to the given {@link WarmupFunctionInfo}.
+         *
+         * @param info      the {@link WarmupFunctionInfo} to be configured
+         * @param infoKey   key of the configuration
+         * @param infoValue value of the configuration
+         * @throws IllegalArgumentException if the configuration is not supported or its value is invalid
+         */
+        void handleInfo(WarmupFunctionInfo info, String infoKey, String infoValue);
+
+    }
+
+}
@@ -9,14 +9,43 @@ import io.thundra.lambda.warmup.strategy.WarmupStrategy;
  */
 public class WarmupFunctionInfo {
 
+    /**
+     * The default priority of the functions.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+    /**
+     * The default weight of the functions.
+     */
+    public static final int DEFAULT_WEIGHT = 1;
+    /**
+     * The invocation budget of the functions which are not limited by any budget.
+     */
+    public static final int NO_INVOCATION_BUDGET = -1;
+
     String alias;
     WarmupStrategy warmupStrategy;
     int invocationCount;
     String invocationData;
+    // Functions with higher priority are invoked before the ones with lower priority
+    int priority = DEFAULT_PRIORITY;
+    // Share of the function from the invocations dispatched for the functions with the same priority
+    int weight = DEFAULT_WEIGHT;
+    // Planned per run, so budget and demand are not part of the configuration (equality) of the function
+    volatile int invocationBudget = NO_INVOCATION_BUDGET;
+    volatile int demandedInvocationCount = -1;
 
     public WarmupFunctionInfo() {
     }
 
+    public WarmupFunctionInfo(WarmupFunctionInfo info) {
+        this.alias = info.alias;
+        this.warmupStrategy = info.warmupStrategy;
+        this.invocationCount = info.invocationCount;
+        this.invocationData = info.invocationData;
+        this.priority = info.priority;
+        this.weight = info.weight;
+    }
+
     public String getAlias() {
         return alias;
     }
@@ -53,6 +82,57 @@ public class WarmupFunctionInfo {
         return this;
     }
 
+    public int getPriority() {
+        return priority;
+    }
+
+    public WarmupFunctionInfo setPriority(int priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public WarmupFunctionInfo setWeight(int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        this.weight = weight;
+        return this;
+    }
+
+    /**
+     * Gets the maximum count of the concurrent warmup invocations planned for this function
+     * by {@link InvocationBudgetPlanner}.
+     *
+     * @return the invocation budget, {@link #NO_INVOCATION_BUDGET} if the function is not limited
+     */
+    public int getInvocationBudget() {
+        return invocationBudget;
+    }
+
+    public WarmupFunctionInfo setInvocationBudget(int invocationBudget) {
+        this.invocationBudget = invocationBudget;
+        return this;
+    }
+
+    /**
+     * Gets the count of the concurrent warmup invocations demanded by the warmup strategy for this function
+     * before it is limited by the invocation budget.
+     *
+     * @return the demanded invocation count, <code>-1</code> if it has not been reported
+     */
+    public int getDemandedInvocationCount() {
+        return demandedInvocationCount;
+    }
+
+    public WarmupFunctionInfo setDemandedInvocationCount(int demandedInvocationCount) {
+        this.demandedInvocationCount = demandedInvocationCount;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -61,6 +141,8 @@ public class WarmupFunctionInfo {
         WarmupFunctionInfo that = (WarmupFunctionInfo) o;
 
         if (invocationCount != that.invocationCount) return false;
+        if (priority != that.priority) return false;
+        if (weight != that.weight) return false;
         if (alias != null ? !alias.equals(that.alias) : that.alias != null) return false;
         if (warmupStrategy != null ? !warmupStrategy.equals(that.warmupStrategy) : that.warmupStrategy != null)
             return false;
@@ -73,6 +155,8 @@ public class WarmupFunctionInfo {
         result = 31 * result + (warmupStrategy != null ? warmupStrategy.hashCode() : 0);
         result = 31 * result + invocationCount;
         result = 31 * result + (invocationData != null ? invocationData.hashCode() : 0);
+        result = 31 * result + priority;
+        result = 31 * result + weight;
         return result;
     }
 
@@ -83,6 +167,9 @@ public class WarmupFunctionInfo {
                 ", warmupStrategy=" + (warmupStrategy != null ? '\'' + (warmupStrategy.getName() + '\'') : "null") +
                 ", invocationCount=" + invocationCount +
                 ", invocationData=" + invocationData +
+                ", priority=" + priority +
+                ", weight=" + weight +
+                ", invocationBudget=" + invocationBudget +
                 '}';
     }
 
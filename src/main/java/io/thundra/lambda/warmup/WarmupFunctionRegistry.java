@@ -0,0 +1,85 @@
+package io.thundra.lambda.warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ *      Immutable registry of the declared functions to warmup and their {@link WarmupFunctionInfo}s
+ *      which is compiled once by {@link WarmupFunctionDeclarationParser}.
+ * </p>
+ * <p>
+ *      {@link WarmupFunctionInfo}s are mutable and they are configured further by discovery on every warmup,
+ *      so the registry hands out copies of them and the declared configurations are never changed.
+ * </p>
+ *
+ * @author serkan
+ */
+public final class WarmupFunctionRegistry {
+
+    public static final WarmupFunctionRegistry EMPTY =
+            new WarmupFunctionRegistry(Collections.<String, WarmupFunctionInfo>emptyMap());
+
+    private final Map<String, WarmupFunctionInfo> functionInfos;
+
+    public WarmupFunctionRegistry(Map<String, WarmupFunctionInfo> functionInfos) {
+        Map<String, WarmupFunctionInfo> copiedFunctionInfos =
+                new LinkedHashMap<String, WarmupFunctionInfo>(functionInfos.size());
+        for (Map.Entry<String, WarmupFunctionInfo> entry : functionInfos.entrySet()) {
+            copiedFunctionInfos.put(entry.getKey(), new WarmupFunctionInfo(entry.getValue()));
+        }
+        this.functionInfos = Collections.unmodifiableMap(copiedFunctionInfos);
+    }
+
+    public int size() {
+        return functionInfos.size();
+    }
+
+    public boolean isEmpty() {
+        return functionInfos.isEmpty();
+    }
+
+    public Set<String> getFunctionNames() {
+        return functionInfos.keySet();
+    }
+
+    public boolean contains(String functionName) {
+        return functionInfos.containsKey(functionName);
+    }
+
+    /**
+     * Gets a copy of the {@link WarmupFunctionInfo} of the given function.
+     *
+     * @param functionName name of the function
+     * @return a copy of the {@link WarmupFunctionInfo} of the function,
+     *         <code>null</code> if the function is not declared
+     */
+    public WarmupFunctionInfo getFunctionInfo(String functionName) {
+        WarmupFunctionInfo functionInfo = functionInfos.get(functionName);
+        return functionInfo != null ? new WarmupFunctionInfo(functionInfo) : null;
+    }
+
+    /**
+     * Gets copies of the {@link WarmupFunctionInfo}s of all the declared functions
+     * in a new map which can be modified by the caller.
+     *
+     * @return copies of the {@link WarmupFunctionInfo}s of all the declared functions
+     */
+    public Map<String, WarmupFunctionInfo> getFunctionInfos() {
+        Map<String, WarmupFunctionInfo> copiedFunctionInfos =
+                new HashMap<String, WarmupFunctionInfo>(functionInfos.size());
+        for (Map.Entry<String, WarmupFunctionInfo> entry : functionInfos.entrySet()) {
+            copiedFunctionInfos.put(entry.getKey(), new WarmupFunctionInfo(entry.getValue()));
+        }
+        return copiedFunctionInfos;
+    }
+
+    @Override
+    public String toString() {
+        return functionInfos.toString();
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.thundra.lambda.warmup;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * <p>
+ *      Stream of the functions to warmup which are published by producers (such as function discovery)
+ *      as soon as they are ready and consumed by a warmup strategy concurrently,
+ *      so warmup of the early published functions overlaps with discovery of the others.
+ * </p>
+ * <p>
+ *      Consumer side is an {@link Iterator} whose {@link #hasNext()} blocks
+ *      until a new function is published or the stream is completed.
+ *      A function is published only once, so the following publishes of the same function are ignored.
+ *      Stream supports multiple producers (such as alias discovery threads publishing concurrently)
+ *      and single consumer. Stream must be completed by {@link #complete()} only after all the producers
+ *      have finished publishing, otherwise functions published after completion are not consumed.
+ * </p>
+ *
+ * @author serkan
+ */
+public class WarmupFunctionStream implements Iterator<Map.Entry<String, WarmupFunctionInfo>> {
+
+    private static final Map.Entry<String, WarmupFunctionInfo> END_OF_STREAM =
+            new AbstractMap.SimpleImmutableEntry<String, WarmupFunctionInfo>(null, null);
+
+    private final BlockingQueue<Map.Entry<String, WarmupFunctionInfo>> queue =
+            new LinkedBlockingQueue<Map.Entry<String, WarmupFunctionInfo>>();
+    private final Set<String> publishedFunctionNames =
+            ConcurrentHashMap.<String>newKeySet();
+    private Map.Entry<String, WarmupFunctionInfo> next;
+    private boolean completed;
+
+    /**
+     * Publishes the given function to be consumed.
+     *
+     * @param functionName name of the function to warmup
+     * @param info         the {@link WarmupFunctionInfo} of the function to warmup
+     * @return <code>true</code> if the function is published,
+     *         <code>false</code> if it has already been published before
+     */
+    public boolean publish(String functionName, WarmupFunctionInfo info) {
+        if (!publishedFunctionNames.add(functionName)) {
+            return false;
+        }
+        queue.add(new AbstractMap.SimpleImmutableEntry<String, WarmupFunctionInfo>(functionName, info));
+        return true;
+    }
+
+    /**
+     * Completes the stream, so the consumer finishes
+     * after consuming the already published functions.
+     */
+    public void complete() {
+        queue.add(END_OF_STREAM);
+    }
+
+    /**
+     * Checks whether {@link #hasNext()} can return without blocking,
+     * which is the case when a published function is waiting to be consumed or the stream is completed.
+     *
+     * @return <code>true</code> if {@link #hasNext()} doesn't block, <code>false</code> otherwise
+     */
+    public boolean isReady() {
+        return next != null || completed || !queue.isEmpty();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (completed) {
+            return false;
+        }
+        try {
+            Map.Entry<String, WarmupFunctionInfo> entry = queue.take();
+            if (entry == END_OF_STREAM) {
+                completed = true;
+                return false;
+            }
+            next = entry;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed = true;
+            return false;
+        }
+    }
+
+    @Override
+    public Map.Entry<String, WarmupFunctionInfo> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Map.Entry<String, WarmupFunctionInfo> entry = next;
+        next = null;
+        return entry;
+    }
+
+}
@@ -1,10 +1,15 @@
 package io.thundra.lambda.warmup;
 
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.lambda.AWSLambdaAsyncClient;
 import com.amazonaws.services.lambda.model.*;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
+import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClientBuilder;
 import com.amazonaws.util.StringUtils;
 import com.opsgenie.aws.core.property.AwsPropertyAccessors;
 import com.opsgenie.core.initialize.EnvironmentInitializerManager;
@@ -12,6 +17,10 @@ import com.opsgenie.core.instance.InstanceProvider;
 import com.opsgenie.core.instance.InstanceScope;
 import com.opsgenie.core.util.ExceptionUtil;
 import com.opsgenie.sirocco.api.util.LambdaUtil;
+import io.thundra.lambda.warmup.concurrency.WarmupExecutionRuntime;
+import io.thundra.lambda.warmup.impl.CachingLambdaService;
+import io.thundra.lambda.warmup.impl.ConcurrencyLimitingLambdaService;
+import io.thundra.lambda.warmup.impl.RoutingLambdaService;
 import io.thundra.lambda.warmup.impl.SdkLambdaService;
 import io.thundra.lambda.warmup.impl.SystemPropertyWarmupPropertyProvider;
 import io.thundra.lambda.warmup.strategy.WarmupStrategy;
@@ -23,6 +32,9 @@ import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * <p>
@@ -46,6 +58,17 @@ import java.util.*;
  *          This permission is needed when any configuration discovery is used (enabled by default)
  *          for retrieving configurations of functions to warmup.
  *      </li>
+ *      <li>
+ *          <code>lambda:ListProvisionedConcurrencyConfigs</code>:
+ *          This permission is needed when the provisioned concurrency awareness is used (enabled by default)
+ *          for not warming-up the provisioned containers of the invoked aliases.
+ *      </li>
+ *      <li>
+ *          <code>lambda:GetAccountSettings</code>:
+ *          This permission is needed when the invocation budget planning is used (disabled by default)
+ *          without configuring the account concurrency limit
+ *          for retrieving the account concurrency limit to plan the budget by.
+ *      </li>
  * </ul>
  *
  * @author serkan
@@ -87,6 +110,17 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
      *          Configures invocation data to be used as invocation request while warming-up the defined function.
      *          By default empty message is used.
      *      </li>
+     *      <li>
+     *          <code>priority</code>:
+     *          Configures priority of the defined function while dispatching warmup invocations.
+     *          Invocations of the functions with higher priority are dispatched first. Default priority is <code>0</code>.
+     *      </li>
+     *      <li>
+     *          <code>weight</code>:
+     *          Configures positive weight of the defined function while dispatching warmup invocations.
+     *          Invocations of the functions with the same priority are interleaved in proportion to their weights.
+     *          Default weight is <code>1</code>.
+     *      </li>
      * </ul>
      */
     public static final String WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX =
@@ -203,6 +237,28 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
     public static final String DISABLE_INVOCATION_COUNT_DISCOVERY_PROP_NAME =
             "thundra.lambda.warmup.disableWarmupInvocationCountDiscovery";
 
+    /**
+     * Name of the <code>integer</code> typed environment variable
+     * to be used for discovering specific warmup priority configuration
+     * of Lambda functions to warmup.
+     */
+    public static final String PRIORITY_ENV_VAR_NAME =
+            "thundra_lambda_warmup_warmupPriority";
+    /**
+     * Name of the <code>integer</code> typed environment variable
+     * to be used for discovering specific warmup weight configuration
+     * of Lambda functions to warmup.
+     */
+    public static final String WEIGHT_ENV_VAR_NAME =
+            "thundra_lambda_warmup_warmupWeight";
+    /**
+     * Name of the <code>boolean</code> typed property which disables
+     * discovery mechanism for warmup priority and weight configurations
+     * specified by {@link #PRIORITY_ENV_VAR_NAME} and {@link #WEIGHT_ENV_VAR_NAME}.
+     */
+    public static final String DISABLE_PRIORITY_DISCOVERY_PROP_NAME =
+            "thundra.lambda.warmup.disableWarmupPriorityDiscovery";
+
     /**
      * Name of the <code>boolean</code> typed property which disables
      * alias discovery mechanism to be used as qualifier while invoking
@@ -214,21 +270,123 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
     public static final String DISABLE_ALIAS_DISCOVERY_PROP_NAME =
             "thundra.lambda.warmup.disableAliasDiscovery";
 
-    public static final LambdaService DEFAULT_LAMBDA_SERVICE =
-            createDefaultLambdaService();
+    /**
+     * Name of the <code>integer</code> typed property which configures
+     * the maximum number of concurrent alias discovery requests.
+     * Alias discovery of the functions in a listed page is started
+     * as soon as the page is retrieved, so it overlaps with listing of the next pages.
+     */
+    public static final String ALIAS_DISCOVERY_CONCURRENCY_PROP_NAME =
+            "thundra.lambda.warmup.aliasDiscoveryConcurrency";
+    /**
+     * Default value for {@link #ALIAS_DISCOVERY_CONCURRENCY_PROP_NAME} property.
+     * The default value is <code>8</code>.
+     */
+    public static final int DEFAULT_ALIAS_DISCOVERY_CONCURRENCY = 8;
+
+    /**
+     * Name of the <code>boolean</code> typed property which disables
+     * caching of discovered function configurations and aliases between warmup runs.
+     * See {@link CachingLambdaService} for the details.
+     */
+    public static final String DISABLE_DISCOVERY_CACHE_PROP_NAME =
+            "thundra.lambda.warmup.disableDiscoveryCache";
+
+    /**
+     * Name of the <code>boolean</code> typed property which enables
+     * adaptive limiting of concurrent warmup invocations by throttles.
+     * See {@link ConcurrencyLimitingLambdaService} for the details.
+     */
+    public static final String ENABLE_ADAPTIVE_CONCURRENCY_LIMIT_PROP_NAME =
+            "thundra.lambda.warmup.enableAdaptiveConcurrencyLimit";
+
+    /**
+     * Name of the <code>string</code> typed property which configures
+     * the comma separated regions of the functions to warmup.
+     * If it is not specified, only the functions in the region of this handler are warmed-up.
+     * See {@link RoutingLambdaService} for the details.
+     */
+    public static final String REGIONS_PROP_NAME =
+            "thundra.lambda.warmup.regions";
+
+    /**
+     * Name of the <code>string</code> typed property which configures
+     * the comma separated ARNs of the roles to be assumed
+     * for warming-up the functions of the other accounts in all the configured regions.
+     * See {@link RoutingLambdaService} for the details.
+     */
+    public static final String ASSUME_ROLE_ARNS_PROP_NAME =
+            "thundra.lambda.warmup.assumeRoleArns";
+
+    /**
+     * Name of the <code>integer</code> typed property which configures
+     * the maximum number of open HTTP connections of the AWS Lambda client,
+     * which limits the number of in-flight warmup invocations.
+     */
+    public static final String LAMBDA_CLIENT_MAX_CONNECTIONS_PROP_NAME =
+            "thundra.lambda.warmup.lambdaClientMaxConnections";
+    /**
+     * Default value for {@link #LAMBDA_CLIENT_MAX_CONNECTIONS_PROP_NAME} property
+     * when tasks are executed on platform threads.
+     * The default value is same with the thread count of the AWS Lambda client pool.
+     */
+    public static final int DEFAULT_LAMBDA_CLIENT_MAX_CONNECTIONS =
+            WarmupExecutionRuntime.DEFAULT_LAMBDA_CLIENT_POOL_SIZE;
+    /**
+     * Default value for {@link #LAMBDA_CLIENT_MAX_CONNECTIONS_PROP_NAME} property
+     * when tasks are executed on virtual threads
+     * (see {@link WarmupExecutionRuntime#ENABLE_VIRTUAL_THREADS_PROP_NAME}).
+     * The default value is <code>1024</code>.
+     */
+    public static final int DEFAULT_VIRTUAL_THREAD_LAMBDA_CLIENT_MAX_CONNECTIONS = 1024;
+
+    /**
+     * Name of the <code>boolean</code> typed property which enables streaming discovery.
+     * When it is enabled, discovered functions are streamed to the warmup strategy
+     * as soon as their configurations (including aliases) are resolved,
+     * so warmup of the functions on the early listed pages overlaps with listing of the next pages.
+     * Otherwise, warmup is started after all the functions are discovered.
+     */
+    public static final String ENABLE_STREAMING_DISCOVERY_PROP_NAME =
+            "thundra.lambda.warmup.enableStreamingDiscovery";
+
+    /**
+     * Name of the <code>String</code> typed property
+     * which configures the name of the JSON resource on the classpath to load the function declarations from.
+     * Functions declared in the resource are merged with the ones declared by
+     * {@link #WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX} properties
+     * (see {@link WarmupFunctionDeclarationParser} for the format).
+     * If the resource doesn't exist, it is ignored.
+     */
+    public static final String DECLARATION_RESOURCE_PROP_NAME =
+            "thundra.lambda.warmup.declarationResource";
+    /**
+     * Default value for {@link #DECLARATION_RESOURCE_PROP_NAME} property.
+     * The default value is <code>thundra-lambda-warmup.json</code>.
+     */
+    public static final String DEFAULT_DECLARATION_RESOURCE = "thundra-lambda-warmup.json";
+
+    private static final String ENV_VAR_NAME_PREFIX = "thundra_";
+
+    private static final String ASSUME_ROLE_SESSION_NAME = "thundra-lambda-warmup";
+
     public static final WarmupPropertyProvider DEFAULT_WARMUP_PROPERTY_PROVIDER =
             new SystemPropertyWarmupPropertyProvider();
+    public static final LambdaService DEFAULT_LAMBDA_SERVICE =
+            createDefaultLambdaService(DEFAULT_WARMUP_PROPERTY_PROVIDER);
     public static final WarmupStrategyProvider DEFAULT_WARMUP_STRATEGY_PROVIDER =
             new StandardWarmupStrategyProvider();
     public static final WarmupStrategy DEFAULT_WARMUP_STRATEGY =
             createDefaultWarmupStrategy(DEFAULT_WARMUP_PROPERTY_PROVIDER);
 
     protected final LambdaService lambdaService;
+    protected final AliasResolver aliasResolver;
     protected final WarmupPropertyProvider warmupPropertyProvider;
     protected final WarmupStrategyProvider warmupStrategyProvider;
     protected final WarmupStrategy warmupStrategy;
-    protected final Map<String, WarmupFunctionInfo> registeredFunctionsToWarmup =
-            new HashMap<String, WarmupFunctionInfo>();
+    protected final WarmupFunctionRegistry warmupFunctionRegistry;
+    // Null if invocation budget planning is disabled
+    protected final InvocationBudgetPlanner invocationBudgetPlanner;
 
     protected final boolean disableAllDiscoveries;
     protected final boolean disableWarmupAwareDiscovery;
@@ -238,24 +396,141 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
     protected final String invocationData;
     protected final boolean disableInvocationDataDiscovery;
     protected final boolean disableInvocationCountDiscovery;
+    protected final boolean disablePriorityDiscovery;
     protected final boolean disableAliasDiscovery;
+    protected final int aliasDiscoveryConcurrency;
+    protected final WarmupExecutionRuntime executionRuntime;
+    protected final ExecutorService aliasDiscoveryExecutorService;
+    protected final boolean enableStreamingDiscovery;
 
     private static void init() {
         Map<String, String> envMap = System.getenv();
-        for (String envVarName : envMap.keySet()) {
-            String envVarValue = envMap.get(envVarName).trim();
+        for (Map.Entry<String, String> envVarEntry : envMap.entrySet()) {
+            String envVarName = envVarEntry.getKey();
+            // Only the configurations of this handler are exposed as system properties,
+            // so the rest of the environment (and its secrets) is not copied on every cold start
+            if (!envVarName.regionMatches(true, 0, ENV_VAR_NAME_PREFIX, 0, ENV_VAR_NAME_PREFIX.length())) {
+                continue;
+            }
+            String envVarValue = envVarEntry.getValue().trim();
             String processedEnvVarName = envVarName.replace("_", ".");
             System.setProperty(processedEnvVarName, envVarValue);
         }
     }
 
-    private static LambdaService createDefaultLambdaService() {
-        AWSLambdaAsyncClient lambdaClient = new AWSLambdaAsyncClient(AwsPropertyAccessors.getDefaultCredentialsProvider());
+    private static LambdaService createDefaultLambdaService(WarmupPropertyProvider warmupPropertyProvider) {
+        WarmupExecutionRuntime executionRuntime = WarmupExecutionRuntime.getInstance(warmupPropertyProvider);
+        // Every in-flight invocation holds a connection, so there is no point of having
+        // many virtual threads if they are waiting for the connections
+        int maxConnections =
+                warmupPropertyProvider.getInteger(
+                        LAMBDA_CLIENT_MAX_CONNECTIONS_PROP_NAME,
+                        executionRuntime.isUsingVirtualThreads()
+                                ? DEFAULT_VIRTUAL_THREAD_LAMBDA_CLIENT_MAX_CONNECTIONS
+                                : DEFAULT_LAMBDA_CLIENT_MAX_CONNECTIONS);
+        ClientConfiguration clientConfiguration = new ClientConfiguration().withMaxConnections(maxConnections);
+        // Saturated client pool blocks the dispatching thread until there is space in its queue
+        // instead of running the blocking SDK calls on it or rejecting the invocations
+        ExecutorService lambdaClientExecutorService =
+                executionRuntime.getExecutor(
+                        WarmupExecutionRuntime.LAMBDA_CLIENT_POOL_NAME,
+                        WarmupExecutionRuntime.DEFAULT_LAMBDA_CLIENT_POOL_SIZE,
+                        true);
+        AWSCredentialsProvider credentialsProvider = AwsPropertyAccessors.getDefaultCredentialsProvider();
         String regionStr = LambdaUtil.getRegion();
-        if (StringUtils.hasValue(regionStr)) {
-            lambdaClient.withRegion(Regions.fromName(regionStr));
+        List<String> regions = splitPropertyValues(warmupPropertyProvider.getString(REGIONS_PROP_NAME));
+        List<String> assumeRoleArns = splitPropertyValues(warmupPropertyProvider.getString(ASSUME_ROLE_ARNS_PROP_NAME));
+        LambdaService lambdaService;
+        if (regions.isEmpty() && assumeRoleArns.isEmpty()) {
+            lambdaService =
+                    new SdkLambdaService(
+                            createLambdaClient(
+                                    credentialsProvider, clientConfiguration, lambdaClientExecutorService, regionStr));
+        } else {
+            if (regions.isEmpty()) {
+                regions.add(regionStr);
+            } else if (regions.remove(regionStr)) {
+                // Own region with default credentials is the default target to route the plain function names
+                regions.add(0, regionStr);
+            }
+            List<AWSCredentialsProvider> assumeRoleCredentialsProviders = new ArrayList<AWSCredentialsProvider>();
+            if (!assumeRoleArns.isEmpty()) {
+                AWSSecurityTokenServiceClientBuilder stsClientBuilder =
+                        AWSSecurityTokenServiceClientBuilder.standard().withCredentials(credentialsProvider);
+                if (StringUtils.hasValue(regionStr)) {
+                    stsClientBuilder.withRegion(regionStr);
+                }
+                AWSSecurityTokenService stsClient = stsClientBuilder.build();
+                for (String assumeRoleArn : assumeRoleArns) {
+                    assumeRoleCredentialsProviders.add(
+                            new STSAssumeRoleSessionCredentialsProvider.Builder(assumeRoleArn, ASSUME_ROLE_SESSION_NAME).
+                                    withStsClient(stsClient).
+                                    build());
+                }
+            }
+            List<RoutingLambdaService.Target> targets = new ArrayList<RoutingLambdaService.Target>();
+            for (String region : regions) {
+                targets.add(new RoutingLambdaService.Target(
+                        region,
+                        null,
+                        new SdkLambdaService(
+                                createLambdaClient(
+                                        credentialsProvider, clientConfiguration, lambdaClientExecutorService, region))));
+                for (int i = 0; i < assumeRoleArns.size(); i++) {
+                    // arn:aws:iam::<account-id>:role/<role-name>
+                    String[] roleArnParts = assumeRoleArns.get(i).split(":");
+                    if (roleArnParts.length < 6) {
+                        throw new IllegalArgumentException("Invalid role ARN to assume: " + assumeRoleArns.get(i));
+                    }
+                    targets.add(new RoutingLambdaService.Target(
+                            region,
+                            roleArnParts[4],
+                            new SdkLambdaService(
+                                    createLambdaClient(
+                                            assumeRoleCredentialsProviders.get(i), clientConfiguration,
+                                            lambdaClientExecutorService, region))));
+                }
+            }
+            LOGGER.info("Routing requests to targets: " + targets);
+            lambdaService =
+                    new RoutingLambdaService(
+                            targets,
+                            executionRuntime.getExecutor(
+                                    WarmupExecutionRuntime.ROUTING_POOL_NAME,
+                                    targets.size()));
+        }
+        if (!warmupPropertyProvider.getBoolean(DISABLE_DISCOVERY_CACHE_PROP_NAME)) {
+            lambdaService = new CachingLambdaService(lambdaService, warmupPropertyProvider);
         }
-        return new SdkLambdaService(lambdaClient);
+        if (warmupPropertyProvider.getBoolean(ENABLE_ADAPTIVE_CONCURRENCY_LIMIT_PROP_NAME)) {
+            lambdaService = new ConcurrencyLimitingLambdaService(lambdaService, warmupPropertyProvider);
+        }
+        return lambdaService;
+    }
+
+    private static AWSLambdaAsyncClient createLambdaClient(AWSCredentialsProvider credentialsProvider,
+                                                          ClientConfiguration clientConfiguration,
+                                                          ExecutorService executorService,
+                                                          String region) {
+        AWSLambdaAsyncClient lambdaClient =
+                new AWSLambdaAsyncClient(credentialsProvider, clientConfiguration, executorService);
+        if (StringUtils.hasValue(region)) {
+            lambdaClient.withRegion(Regions.fromName(region));
+        }
+        return lambdaClient;
+    }
+
+    private static List<String> splitPropertyValues(String propertyValue) {
+        List<String> values = new ArrayList<String>();
+        if (StringUtils.hasValue(propertyValue)) {
+            for (String value : propertyValue.split(",")) {
+                value = value.trim();
+                if (!value.isEmpty()) {
+                    values.add(value);
+                }
+            }
+        }
+        return values;
     }
 
     protected static String getWarmupStartegyName(WarmupStrategy warmupStrategy) {
@@ -282,9 +557,10 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
             return new StrategyAwareWarmupStrategy(
                     InstanceProvider.getInstance(
                             StandardWarmupStrategy.class,
-                            InstanceScope.GLOBAL));
+                            InstanceScope.GLOBAL),
+                    warmupPropertyProvider);
         } else {
-            return new StrategyAwareWarmupStrategy(configuredWarmupStrategy);
+            return new StrategyAwareWarmupStrategy(configuredWarmupStrategy, warmupPropertyProvider);
         }
     }
 
@@ -303,6 +579,7 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
                 lambdaService != null
                         ? lambdaService
                         : DEFAULT_LAMBDA_SERVICE;
+        this.aliasResolver = new AliasResolver(this.lambdaService);
         this.warmupPropertyProvider =
                 warmupPropertyProvider != null
                         ? warmupPropertyProvider
@@ -334,55 +611,88 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
                 warmupPropertyProvider.getBoolean(DISABLE_INVOCATION_DATA_DISCOVERY_PROP_NAME);
         this.disableInvocationCountDiscovery =
                 warmupPropertyProvider.getBoolean(DISABLE_INVOCATION_COUNT_DISCOVERY_PROP_NAME);
+        this.disablePriorityDiscovery =
+                warmupPropertyProvider.getBoolean(DISABLE_PRIORITY_DISCOVERY_PROP_NAME);
         this.disableAliasDiscovery =
                 warmupPropertyProvider.getBoolean(DISABLE_ALIAS_DISCOVERY_PROP_NAME);
+        this.aliasDiscoveryConcurrency =
+                warmupPropertyProvider.getInteger(
+                        ALIAS_DISCOVERY_CONCURRENCY_PROP_NAME,
+                        DEFAULT_ALIAS_DISCOVERY_CONCURRENCY);
+        this.executionRuntime =
+                WarmupExecutionRuntime.getInstance(this.warmupPropertyProvider);
+        this.aliasDiscoveryExecutorService =
+                executionRuntime.getExecutor(
+                        WarmupExecutionRuntime.ALIAS_DISCOVERY_POOL_NAME,
+                        aliasDiscoveryConcurrency);
+        this.enableStreamingDiscovery =
+                warmupPropertyProvider.getBoolean(ENABLE_STREAMING_DISCOVERY_PROP_NAME);
 
         LOGGER.info("Using " + getWarmupStartegyName(warmupStrategy) + " warmup strategy ...");
 
-        // Discover registered functions
+        this.warmupFunctionRegistry = createWarmupFunctionRegistry();
+
+        LOGGER.info("Registered functions to warmup: " + warmupFunctionRegistry);
+
+        this.invocationBudgetPlanner = createInvocationBudgetPlanner();
+    }
+
+    /**
+     * Creates the {@link InvocationBudgetPlanner} to limit the concurrent warmup invocations of all the functions
+     * by the account concurrency limit.
+     *
+     * @return the created {@link InvocationBudgetPlanner},
+     *         <code>null</code> if invocation budget planning is disabled
+     */
+    protected InvocationBudgetPlanner createInvocationBudgetPlanner() {
+        InvocationBudgetPlanner planner = new InvocationBudgetPlanner(warmupPropertyProvider);
+        if (!planner.isEnabled()) {
+            return null;
+        }
+        if (enableStreamingDiscovery) {
+            // Budget is planned over all the functions, but streamed functions are warmed-up before all are known
+            LOGGER.warn("Invocation budget planning is not supported with streaming discovery, so it is disabled");
+            return null;
+        }
+        return planner;
+    }
+
+    /**
+     * Compiles the declared functions to warmup from the bundled declaration resource
+     * (see {@link #DECLARATION_RESOURCE_PROP_NAME}) and from the properties
+     * (see {@link #WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX}) into a {@link WarmupFunctionRegistry}.
+     *
+     * @return the compiled {@link WarmupFunctionRegistry}
+     * @throws IllegalArgumentException if there is any invalid declaration, reporting all of them
+     */
+    protected WarmupFunctionRegistry createWarmupFunctionRegistry() {
+        WarmupFunctionDeclarationParser declarationParser =
+                new WarmupFunctionDeclarationParser(
+                        invocationData,
+                        new WarmupFunctionDeclarationParser.InfoHandler() {
+                            @Override
+                            public void handleInfo(WarmupFunctionInfo info, String infoKey, String infoValue) {
+                                WarmupHandler.this.handleInfo(info, infoKey, infoValue);
+                            }
+                        });
+
+        String declarationResource =
+                warmupPropertyProvider.getString(
+                        DECLARATION_RESOURCE_PROP_NAME,
+                        DEFAULT_DECLARATION_RESOURCE);
+        if (StringUtils.hasValue(declarationResource)) {
+            if (declarationParser.load(declarationResource, getClass().getClassLoader())) {
+                LOGGER.info("Loaded function declarations from " + declarationResource);
+            }
+        }
+
         for (String propertyName : warmupPropertyProvider.getPropertyNames()) {
             if (propertyName.startsWith(WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX)) {
-                String functionDeclarationsValue = warmupPropertyProvider.getString(propertyName);
-                String[] functionDeclarations = functionDeclarationsValue.split(",");
-                for (String functionDeclaration : functionDeclarations) {
-                    functionDeclaration = functionDeclaration.trim();
-                    if (StringUtils.isNullOrEmpty(functionDeclaration)) {
-                        continue;
-                    }
-                    int infoStartIdx = functionDeclaration.indexOf("[");
-                    int infoEndIdx = functionDeclaration.indexOf("]");
-                    String functionName;
-                    if (infoStartIdx > 0) {
-                        functionName = functionDeclaration.substring(0, infoStartIdx);
-                    } else {
-                        functionName = functionDeclaration;
-                    }
-                    WarmupFunctionInfo info = registeredFunctionsToWarmup.get(functionName);
-                    if (info == null) {
-                        info = new WarmupFunctionInfo();
-                        info.invocationData = invocationData;
-                        registeredFunctionsToWarmup.put(functionName, info);
-                    }
-                    if (infoStartIdx > 0 && infoEndIdx > 0) {
-                        String infoStr = functionDeclaration.substring(infoStartIdx + 1, infoEndIdx);
-                        String[] infoStrParts = infoStr.split(";");
-                        for (String infoStrPart : infoStrParts) {
-                            infoStrPart = infoStrPart.trim();
-                            String[] infoKeyValues = infoStrPart.split("=");
-                            if (infoKeyValues.length != 2) {
-                                throw new IllegalArgumentException(
-                                        "Function informations must be in 'key=value' format!");
-                            }
-                            String infoKey = infoKeyValues[0].trim();
-                            String infoValue = infoKeyValues[1].trim();
-                            handleInfo(info, infoKey, infoValue);
-                        }
-                    }
-                }
+                declarationParser.parse(propertyName, warmupPropertyProvider.getString(propertyName));
             }
         }
 
-        LOGGER.info("Registered functions to warmup: " + registeredFunctionsToWarmup);
+        return declarationParser.build();
     }
 
     protected void handleInfo(WarmupFunctionInfo info, String infoKey, String infoValue) {
@@ -397,17 +707,35 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
             info.invocationCount = Integer.parseInt(infoValue);
         } else if ("invocationData".equalsIgnoreCase(infoKey)) {
             info.invocationData = infoValue;
+        } else if ("priority".equalsIgnoreCase(infoKey)) {
+            info.setPriority(Integer.parseInt(infoValue));
+        } else if ("weight".equalsIgnoreCase(infoKey)) {
+            info.setWeight(Integer.parseInt(infoValue));
         } else {
             throw new IllegalArgumentException("Not supported function information key: " + infoKey);
         }
     }
 
     protected Map<String, WarmupFunctionInfo> getFunctionsToWarmup() {
-        Map<String, WarmupFunctionInfo> functionsToWarmup =
-                new HashMap<String, WarmupFunctionInfo>(registeredFunctionsToWarmup.size());
-        functionsToWarmup.putAll(registeredFunctionsToWarmup);
+        return getFunctionsToWarmup(null);
+    }
+
+    /**
+     * Gets the registered and discovered functions to warmup.
+     * If a {@link WarmupFunctionStream} is given, every discovered function is also published to it
+     * as soon as its configurations are resolved, the registered ones which are not discovered are published
+     * after the discovery and then the stream is completed.
+     *
+     * @param functionStream the {@link WarmupFunctionStream} to publish functions as they are resolved,
+     *                       <code>null</code> if functions should not be streamed
+     * @return the functions to warmup
+     */
+    protected Map<String, WarmupFunctionInfo> getFunctionsToWarmup(WarmupFunctionStream functionStream) {
+        // Registry gives copies, so discovered configurations don't leak into the declared ones
+        Map<String, WarmupFunctionInfo> functionsToWarmup = warmupFunctionRegistry.getFunctionInfos();
 
         if (!disableAllDiscoveries && !disableWarmupAwareDiscovery) {
+            List<Future> aliasDiscoveryFutures = new ArrayList<Future>();
             try {
                 String marker = null;
                 do {
@@ -438,12 +766,20 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
                                     if (!skip) {
                                         String functionName = fc.getFunctionName();
                                         WarmupFunctionInfo info = functionsToWarmup.get(functionName);
+                                        if (info == null && fc.getFunctionArn() != null
+                                                && functionsToWarmup.containsKey(fc.getFunctionArn())) {
+                                            // Function is declared by its ARN, so it is handled by its ARN
+                                            // without modifying the listed configuration
+                                            functionName = fc.getFunctionArn();
+                                            info = functionsToWarmup.get(functionName);
+                                            fc = fc.clone().withFunctionName(functionName);
+                                        }
                                         if (info == null) {
                                             info = new WarmupFunctionInfo();
                                             info.invocationData = invocationData;
                                             functionsToWarmup.put(functionName, info);
                                         }
-                                        handleConfig(fc, info);
+                                        handleConfig(fc, info, aliasDiscoveryFutures, functionStream);
                                         LOGGER.info("Auto discovered function to warmup: " + fc.getFunctionName());
                                     }
                                 }
@@ -456,10 +792,18 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
                         "Error occurred while discovering warmup functions! " +
                         "Skipping warmup function discovery ...", t);
             }
+            awaitAliasDiscoveries(aliasDiscoveryFutures);
         }
 
         LOGGER.info("Functions to warmup: " + functionsToWarmup);
 
+        if (functionStream != null) {
+            // Already published functions are ignored by the stream
+            for (Map.Entry<String, WarmupFunctionInfo> entry : functionsToWarmup.entrySet()) {
+                functionStream.publish(entry.getKey(), entry.getValue());
+            }
+        }
+
         return functionsToWarmup;
     }
 
@@ -468,49 +812,84 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
         handleWarmupStrategyConfig(config, info);
         handleInvocationCountConfig(config, info);
         handleInvocationDataConfig(config, info);
+        handlePriorityConfig(config, info);
     }
 
-    protected void handleAliasConfig(FunctionConfiguration config, WarmupFunctionInfo info) {
+    /**
+     * Handles configurations of the given function as {@link #handleConfig(FunctionConfiguration, WarmupFunctionInfo)}
+     * but alias discovery, which requires a remote call per function, is submitted to be handled asynchronously.
+     * The submitted alias discoveries must be awaited by {@link #awaitAliasDiscoveries(List)}
+     * before the given {@link WarmupFunctionInfo} is used.
+     *
+     * @param config                the {@link FunctionConfiguration function configuration}
+     * @param info                  the {@link WarmupFunctionInfo} to be configured
+     * @param aliasDiscoveryFutures the {@link Future}s of the submitted alias discoveries
+     */
+    protected void handleConfig(FunctionConfiguration config, WarmupFunctionInfo info,
+                                List<Future> aliasDiscoveryFutures) {
+        handleConfig(config, info, aliasDiscoveryFutures, null);
+    }
+
+    /**
+     * Handles configurations of the given function as {@link #handleConfig(FunctionConfiguration, WarmupFunctionInfo, List)}
+     * and publishes the function to the given {@link WarmupFunctionStream} once all of its configurations are resolved.
+     *
+     * @param config                the {@link FunctionConfiguration function configuration}
+     * @param info                  the {@link WarmupFunctionInfo} to be configured
+     * @param aliasDiscoveryFutures the {@link Future}s of the submitted alias discoveries
+     * @param functionStream        the {@link WarmupFunctionStream} to publish the function,
+     *                              <code>null</code> if the function should not be streamed
+     */
+    protected void handleConfig(FunctionConfiguration config, WarmupFunctionInfo info,
+                                List<Future> aliasDiscoveryFutures, WarmupFunctionStream functionStream) {
+        handleWarmupStrategyConfig(config, info);
+        handleInvocationCountConfig(config, info);
+        handleInvocationDataConfig(config, info);
+        handlePriorityConfig(config, info);
         if (disableAllDiscoveries || disableAliasDiscovery) {
+            if (functionStream != null) {
+                functionStream.publish(config.getFunctionName(), info);
+            }
             return;
         }
-        try {
-            String latestVersionedAlias = null;
-            Map<Integer, String> versionedAliases =
-                    new TreeMap<Integer, String>(new Comparator<Integer>() {
-                        @Override
-                        public int compare(Integer o1, Integer o2) {
-                            return o2 - o1; // Descending order, max first
+        Future future =
+                aliasDiscoveryExecutorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            handleAliasConfig(config, info);
+                        } finally {
+                            if (functionStream != null) {
+                                functionStream.publish(config.getFunctionName(), info);
+                            }
                         }
-                    });
-            ListAliasesResult listAliasesResult =
-                    lambdaService.listAliases(
-                            new ListAliasesRequest().withFunctionName(config.getFunctionName()));
-            if (listAliasesResult == null) {
-                return;
-            }
-            for (AliasConfiguration aliasConfiguration : listAliasesResult.getAliases()) {
-                String aliasVersion = aliasConfiguration.getFunctionVersion();
-                String aliasName = aliasConfiguration.getName();
-                if ("$LATEST".equals(aliasVersion)) {
-                    latestVersionedAlias = aliasConfiguration.getName();
-                    break;
-                } else {
-                    Integer aliasVersionNo = Integer.parseInt(aliasVersion);
-                    String existingAliasName = versionedAliases.put(aliasVersionNo, aliasName);
-                    if (existingAliasName != null) {
-                        LOGGER.warn(String.format(
-                                "There are multiple aliases ('%s' and '%s') for function '%s' which are mapped to same version '%s'. " +
-                                "So overriding and going on with '%s' ...",
-                                existingAliasName, aliasName, config.getFunctionName(), aliasVersionNo, aliasName));
                     }
-                }
+                });
+        aliasDiscoveryFutures.add(future);
+    }
+
+    protected void awaitAliasDiscoveries(List<Future> aliasDiscoveryFutures) {
+        for (Future future : aliasDiscoveryFutures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("Interrupted while waiting alias discoveries! Skipping remaining ones ...", e);
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.error("Error occurred while discovering aliases!", e.getCause());
             }
-            if (latestVersionedAlias != null) {
-                info.alias = latestVersionedAlias;
-            } else if (!versionedAliases.isEmpty()) {
-                String aliasWithMaxVersion = versionedAliases.values().iterator().next();
-                info.alias = aliasWithMaxVersion;
+        }
+    }
+
+    protected void handleAliasConfig(FunctionConfiguration config, WarmupFunctionInfo info) {
+        if (disableAllDiscoveries || disableAliasDiscovery) {
+            return;
+        }
+        try {
+            String alias = aliasResolver.resolve(config.getFunctionName());
+            if (alias != null) {
+                info.alias = alias;
             }
         } catch (Throwable t) {
             LOGGER.error(
@@ -570,6 +949,26 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
         }
     }
 
+    protected void handlePriorityConfig(FunctionConfiguration config, WarmupFunctionInfo info) {
+        if (disableAllDiscoveries || disablePriorityDiscovery) {
+            return;
+        }
+        EnvironmentResponse er = config.getEnvironment();
+        if (er != null) {
+            Map<String, String> variables = er.getVariables();
+            if (variables != null) {
+                String priority = variables.get(PRIORITY_ENV_VAR_NAME);
+                if (StringUtils.hasValue(priority)) {
+                    info.setPriority(Integer.parseInt(priority));
+                }
+                String weight = variables.get(WEIGHT_ENV_VAR_NAME);
+                if (StringUtils.hasValue(weight)) {
+                    info.setWeight(Integer.parseInt(weight));
+                }
+            }
+        }
+    }
+
     @Override
     public Object handleRequest(Object input, Context context) {
         String warmupStartegyName = getWarmupStartegyName(warmupStrategy);
@@ -577,18 +976,70 @@ public class WarmupHandler implements RequestHandler<Object, Object> {
         LOGGER.info("Starting warmup via " + warmupStartegyName + " warmup strategy ...");
         long start = System.currentTimeMillis();
 
-        Map<String, WarmupFunctionInfo> functionsToWarmup = getFunctionsToWarmup();
-        try {
-            warmupStrategy.warmup(context, lambdaService, Collections.unmodifiableMap(functionsToWarmup));
-        } catch (IOException e) {
-            LOGGER.error("[ERROR] " + e.getMessage(), e);
-            ExceptionUtil.sneakyThrow(e);
+        if (enableStreamingDiscovery) {
+            warmupByStreamingDiscovery(context);
+        } else {
+            Map<String, WarmupFunctionInfo> functionsToWarmup = getFunctionsToWarmup();
+            if (invocationBudgetPlanner != null) {
+                invocationBudgetPlanner.plan(lambdaService, functionsToWarmup);
+            }
+            try {
+                warmupStrategy.warmup(context, lambdaService, Collections.unmodifiableMap(functionsToWarmup));
+            } catch (IOException e) {
+                LOGGER.error("[ERROR] " + e.getMessage(), e);
+                ExceptionUtil.sneakyThrow(e);
+            } finally {
+                if (invocationBudgetPlanner != null) {
+                    invocationBudgetPlanner.recordDemands(functionsToWarmup);
+                }
+            }
         }
 
         LOGGER.info("Finished warmup via " + warmupStartegyName +
                     " warmup strategy in " + (System.currentTimeMillis() - start) + " milliseconds");
 
+        executionRuntime.logPoolStats();
+
         return null;
     }
 
+    /**
+     * Discovers functions in background and streams them to the warmup strategy
+     * to be warmed-up while the others are still being discovered.
+     *
+     * @param context the {@link Context Lambda context}
+     */
+    protected void warmupByStreamingDiscovery(Context context) {
+        WarmupFunctionStream functionStream = new WarmupFunctionStream();
+        ExecutorService discoveryExecutorService =
+                executionRuntime.getExecutor(
+                        WarmupExecutionRuntime.DISCOVERY_POOL_NAME,
+                        WarmupExecutionRuntime.DEFAULT_DISCOVERY_POOL_SIZE);
+        Future discoveryFuture =
+                discoveryExecutorService.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            getFunctionsToWarmup(functionStream);
+                        } finally {
+                            functionStream.complete();
+                        }
+                    }
+                });
+        try {
+            warmupStrategy.warmup(context, lambdaService, functionStream);
+        } catch (IOException e) {
+            LOGGER.error("[ERROR] " + e.getMessage(), e);
+            ExceptionUtil.sneakyThrow(e);
+        } finally {
+            try {
+                discoveryFuture.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LOGGER.error("Error occurred while discovering functions to warmup!", e.getCause());
+            }
+        }
+    }
+
 }
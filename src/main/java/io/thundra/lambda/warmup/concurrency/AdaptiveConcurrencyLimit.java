@@ -0,0 +1,148 @@
+package io.thundra.lambda.warmup.concurrency;
+
+/**
+ * <p>
+ *      Concurrency limit which adapts itself by
+ *      <b>AIMD</b> (additive increase, multiplicative decrease) scheme.
+ * </p>
+ * <p>
+ *      Every successfully completed operation increases the limit by <code>1 / limit</code>,
+ *      so the limit grows by one after a full window of successful operations.
+ *      A throttled operation decreases the limit by multiplying it with the backoff ratio.
+ *      Throttles of the operations which were started before the latest decrease are ignored,
+ *      so a burst of throttles from the same window decreases the limit only once.
+ *      Increases and decreases of the window (the integer limit) are counted,
+ *      so changes of the window can be reported as metrics.
+ * </p>
+ *
+ * @author serkan
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private double limit;
+    private int inFlight;
+    private long nextTicket;
+    private long lastDecreaseTicket;
+    private long increaseCount;
+    private long decreaseCount;
+
+    public AdaptiveConcurrencyLimit(String name, int initialLimit, int minLimit, int maxLimit, double backoffRatio) {
+        if (minLimit < 1) {
+            throw new IllegalArgumentException("Minimum concurrency limit must be positive: " + minLimit);
+        }
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "Maximum concurrency limit (" + maxLimit + ") must not be " +
+                    "less than minimum concurrency limit (" + minLimit + ")");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be between 0 and 1: " + backoffRatio);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Acquires a permit by waiting until the in-flight operation count is below the current limit.
+     *
+     * @return the ticket of the acquired permit to be passed on {@link #release(long, boolean)}
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public synchronized long acquire() throws InterruptedException {
+        while (inFlight >= getLimit()) {
+            wait();
+        }
+        inFlight++;
+        return nextTicket++;
+    }
+
+    /**
+     * Releases the permit of a completed operation and adapts the limit by its outcome.
+     *
+     * @param ticket    the ticket returned from {@link #acquire()}
+     * @param throttled <code>true</code> if the operation has been throttled,
+     *                  <code>false</code> otherwise
+     * @return <code>true</code> if the limit has been decreased by this release,
+     *         <code>false</code> otherwise
+     */
+    public synchronized boolean release(long ticket, boolean throttled) {
+        boolean decreased = false;
+        int previousLimit = getLimit();
+        inFlight--;
+        if (throttled) {
+            if (ticket >= lastDecreaseTicket) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseTicket = nextTicket;
+                decreased = true;
+            }
+        } else {
+            limit = Math.min(maxLimit, limit + (1.0 / limit));
+        }
+        int currentLimit = getLimit();
+        if (currentLimit > previousLimit) {
+            increaseCount++;
+        } else if (currentLimit < previousLimit) {
+            decreaseCount++;
+        }
+        notifyAll();
+        return decreased;
+    }
+
+    /**
+     * Gets the current limit (the window) of concurrent operations.
+     *
+     * @return the current limit of concurrent operations
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Gets the count of the increases of the window since this limit has been created.
+     *
+     * @return the count of the increases of the window
+     */
+    public synchronized long getIncreaseCount() {
+        return increaseCount;
+    }
+
+    /**
+     * Gets the count of the decreases of the window since this limit has been created.
+     *
+     * @return the count of the decreases of the window
+     */
+    public synchronized long getDecreaseCount() {
+        return decreaseCount;
+    }
+
+    /**
+     * Gets the current in-flight operation count.
+     *
+     * @return the current in-flight operation count
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "AdaptiveConcurrencyLimit{" +
+                "name='" + name + '\'' +
+                ", limit=" + getLimit() +
+                ", inFlight=" + inFlight +
+                '}';
+    }
+
+}
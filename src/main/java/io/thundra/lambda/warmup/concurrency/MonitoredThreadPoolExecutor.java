@@ -0,0 +1,119 @@
+package io.thundra.lambda.warmup.concurrency;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ *      Named and bounded {@link ThreadPoolExecutor} which tracks depth of its task queue.
+ * </p>
+ * <p>
+ *      Pool threads are daemon threads and they are terminated when they are idle
+ *      for <code>keepAliveMillis</code>, so an idle pool doesn't hold any thread
+ *      between scheduled warmup runs. When both of the pool and the queue are full,
+ *      the submitted task is handled by the given {@link RejectedExecutionHandler}.
+ *      By default, it is executed by the submitting thread itself
+ *      to slow down the submitter instead of rejecting the task.
+ * </p>
+ *
+ * @author serkan
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final int queueCapacity;
+    private final AtomicInteger peakQueueDepth = new AtomicInteger();
+
+    public MonitoredThreadPoolExecutor(String name, int poolSize, int queueCapacity, long keepAliveMillis) {
+        this(name, poolSize, queueCapacity, keepAliveMillis, new CallerRunsPolicy());
+    }
+
+    public MonitoredThreadPoolExecutor(String name, int poolSize, int queueCapacity, long keepAliveMillis,
+                                       RejectedExecutionHandler rejectedExecutionHandler) {
+        super(poolSize, poolSize,
+              keepAliveMillis, TimeUnit.MILLISECONDS,
+              new LinkedBlockingQueue<Runnable>(queueCapacity),
+              new NamedDaemonThreadFactory(name),
+              rejectedExecutionHandler);
+        if (keepAliveMillis > 0) {
+            allowCoreThreadTimeOut(true);
+        }
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the count of the tasks waiting in the queue.
+     *
+     * @return the current queue depth
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * Gets the maximum observed count of the tasks waiting in the queue.
+     *
+     * @return the peak queue depth
+     */
+    public int getPeakQueueDepth() {
+        return peakQueueDepth.get();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command);
+        int queueDepth = getQueue().size();
+        int peak;
+        while (queueDepth > (peak = peakQueueDepth.get())) {
+            if (peakQueueDepth.compareAndSet(peak, queueDepth)) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoredThreadPoolExecutor{" +
+                "name='" + name + '\'' +
+                ", poolSize=" + getPoolSize() +
+                ", maxPoolSize=" + getMaximumPoolSize() +
+                ", activeCount=" + getActiveCount() +
+                ", queueDepth=" + getQueueDepth() +
+                ", peakQueueDepth=" + getPeakQueueDepth() +
+                ", queueCapacity=" + queueCapacity +
+                ", completedTaskCount=" + getCompletedTaskCount() +
+                '}';
+    }
+
+    private static class NamedDaemonThreadFactory implements ThreadFactory {
+
+        private final String name;
+        private final AtomicInteger threadCounter = new AtomicInteger();
+
+        private NamedDaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "thundra-warmup-" + name + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.thundra.lambda.warmup.concurrency;
+
+import org.apache.log4j.Logger;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * <p>
+ *      Utility to create virtual thread based executors
+ *      when the running JVM supports virtual threads (Java 21+).
+ * </p>
+ * <p>
+ *      Virtual thread API is accessed by reflection,
+ *      so this project is still compiled and run on Java 8.
+ * </p>
+ *
+ * @author serkan
+ */
+public final class VirtualThreads {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreads.class);
+
+    private static final Method OF_VIRTUAL_METHOD;
+    private static final Method BUILDER_NAME_METHOD;
+    private static final Method BUILDER_FACTORY_METHOD;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR_METHOD;
+
+    static {
+        Method ofVirtualMethod = null;
+        Method builderNameMethod = null;
+        Method builderFactoryMethod = null;
+        Method newThreadPerTaskExecutorMethod = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtualMethod = Thread.class.getMethod("ofVirtual");
+            builderNameMethod = builderClass.getMethod("name", String.class, long.class);
+            builderFactoryMethod = builderClass.getMethod("factory");
+            newThreadPerTaskExecutorMethod = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            ofVirtualMethod = null;
+        }
+        OF_VIRTUAL_METHOD = ofVirtualMethod;
+        BUILDER_NAME_METHOD = builderNameMethod;
+        BUILDER_FACTORY_METHOD = builderFactoryMethod;
+        NEW_THREAD_PER_TASK_EXECUTOR_METHOD = newThreadPerTaskExecutorMethod;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Checks whether virtual threads are supported by the running JVM.
+     *
+     * @return <code>true</code> if virtual threads are supported,
+     *         <code>false</code> otherwise
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL_METHOD != null;
+    }
+
+    /**
+     * Creates an {@link ExecutorService} which starts a new virtual thread for each task.
+     *
+     * @param name name of the executor to be used as prefix of the virtual thread names
+     * @return the created {@link ExecutorService},
+     *         <code>null</code> if virtual threads are not supported
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            Object builder = OF_VIRTUAL_METHOD.invoke(null);
+            builder = BUILDER_NAME_METHOD.invoke(builder, "thundra-warmup-" + name + "-", 1L);
+            ThreadFactory threadFactory = (ThreadFactory) BUILDER_FACTORY_METHOD.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR_METHOD.invoke(null, threadFactory);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            LOGGER.warn("Couldn't create virtual thread executor for " + name, e);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,393 @@
+package io.thundra.lambda.warmup.concurrency;
+
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.ScopedWarmupPropertyProvider;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *      Shared execution runtime which provides named and bounded thread pools
+ *      ({@link MonitoredThreadPoolExecutor}) to all the warmup components
+ *      (warmup strategies, alias discovery and AWS Lambda client),
+ *      so a warmup handler doesn't hold separate thread pools for each of them.
+ * </p>
+ * <p>
+ *      Size and queue capacity of a pool named <code>name</code> can be configured by
+ *      <code>thundra.lambda.warmup.&lt;name&gt;PoolSize</code> and
+ *      <code>thundra.lambda.warmup.&lt;name&gt;QueueCapacity</code> properties.
+ *      All pools are shutdown gracefully by a shutdown hook when the JVM exits.
+ *      The pool of the AWS Lambda client blocks the submitting thread until there is space in the queue
+ *      when both of the pool and the queue are full, so blocking SDK calls are never executed
+ *      by the thread dispatching the invocations and invocations are never rejected.
+ *      Other pools execute the task on the submitting thread to slow the submitter down instead.
+ * </p>
+ * <p>
+ *      There is a shared runtime for each {@link WarmupPropertyProvider},
+ *      so the pools are configured by the properties of the components using them.
+ *      {@link ScopedWarmupPropertyProvider}s share the runtime of their root provider,
+ *      so scoped components (such as warmup strategies) don't create their own pools.
+ *      Note that when the same pool is requested by multiple components with different default sizes,
+ *      the default size given by the first one is used unless the size is configured by property.
+ * </p>
+ * <p>
+ *      If {@link #ENABLE_VIRTUAL_THREADS_PROP_NAME} is enabled and the JVM supports virtual threads (Java 21+),
+ *      pools start a new virtual thread for each task instead, so blocking waits (such as in-flight invocations)
+ *      don't hold platform threads. Otherwise, bounded platform thread pools are used as before.
+ * </p>
+ *
+ * @author serkan
+ */
+public class WarmupExecutionRuntime {
+
+    private static final Logger LOGGER = Logger.getLogger(WarmupExecutionRuntime.class);
+
+    /**
+     * Name of the pool on which delegated warmup strategies are executed.
+     */
+    public static final String STRATEGY_POOL_NAME = "strategy";
+    /**
+     * Default thread count of the {@link #STRATEGY_POOL_NAME} pool.
+     * The default value is <code>4</code>.
+     */
+    public static final int DEFAULT_STRATEGY_POOL_SIZE = 4;
+    /**
+     * Name of the pool on which aliases of the functions are discovered.
+     */
+    public static final String ALIAS_DISCOVERY_POOL_NAME = "aliasDiscovery";
+    /**
+     * Name of the pool on which AWS Lambda client executes the requests and their callbacks.
+     */
+    public static final String LAMBDA_CLIENT_POOL_NAME = "lambdaClient";
+    /**
+     * Default thread count of the {@link #LAMBDA_CLIENT_POOL_NAME} pool
+     * which is same with the default thread count of the AWS SDK async clients.
+     * The default value is <code>50</code>.
+     */
+    public static final int DEFAULT_LAMBDA_CLIENT_POOL_SIZE = 50;
+
+    /**
+     * Name of the pool on which functions of multiple regions and accounts are listed in parallel.
+     */
+    public static final String ROUTING_POOL_NAME = "routing";
+
+    /**
+     * Name of the pool on which functions are discovered
+     * while they are being warmed-up concurrently by streaming discovery.
+     */
+    public static final String DISCOVERY_POOL_NAME = "discovery";
+    /**
+     * Default thread count of the {@link #DISCOVERY_POOL_NAME} pool.
+     * The default value is <code>1</code>.
+     */
+    public static final int DEFAULT_DISCOVERY_POOL_SIZE = 1;
+
+    /**
+     * Name of the pool on which provisioned concurrencies of the functions are looked up
+     * in parallel while their invocations are being queued.
+     */
+    public static final String PROVISIONED_CONCURRENCY_DISCOVERY_POOL_NAME = "provisionedConcurrencyDiscovery";
+    /**
+     * Default thread count of the {@link #PROVISIONED_CONCURRENCY_DISCOVERY_POOL_NAME} pool.
+     * The default value is <code>8</code>.
+     */
+    public static final int DEFAULT_PROVISIONED_CONCURRENCY_DISCOVERY_POOL_SIZE = 8;
+
+    /**
+     * Suffix of the <code>integer</code> typed properties
+     * which configure thread counts of the pools.
+     */
+    public static final String POOL_SIZE_PROP_NAME_SUFFIX = "PoolSize";
+
+    /**
+     * Suffix of the <code>integer</code> typed properties
+     * which configure task queue capacities of the pools.
+     */
+    public static final String QUEUE_CAPACITY_PROP_NAME_SUFFIX = "QueueCapacity";
+    /**
+     * Default value for the properties with {@link #QUEUE_CAPACITY_PROP_NAME_SUFFIX} suffix.
+     * The default value is <code>1024</code>.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the time in milliseconds for idle pool threads to wait before terminating.
+     */
+    public static final String THREAD_KEEP_ALIVE_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.threadKeepAlive";
+    /**
+     * Default value for {@link #THREAD_KEEP_ALIVE_MILLIS_PROP_NAME} property.
+     * The default value is <code>60 seconds</code>.
+     */
+    public static final long DEFAULT_THREAD_KEEP_ALIVE_MILLIS = 60 * 1000; // 60 sec
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the time in milliseconds to wait for running tasks while shutting down.
+     */
+    public static final String SHUTDOWN_TIMEOUT_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.shutdownTimeout";
+    /**
+     * Default value for {@link #SHUTDOWN_TIMEOUT_MILLIS_PROP_NAME} property.
+     * The default value is <code>1 second</code>.
+     */
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * Name of the <code>boolean</code> typed property
+     * which enables executing tasks on virtual threads
+     * if the JVM supports virtual threads (Java 21+).
+     * On older JVMs, this property is ignored and bounded platform thread pools are used.
+     */
+    public static final String ENABLE_VIRTUAL_THREADS_PROP_NAME =
+            "thundra.lambda.warmup.enableVirtualThreads";
+
+    private static final ConcurrentMap<WarmupPropertyProvider, WarmupExecutionRuntime> INSTANCES =
+            new ConcurrentHashMap<WarmupPropertyProvider, WarmupExecutionRuntime>();
+
+    private final WarmupPropertyProvider warmupPropertyProvider;
+    private final long threadKeepAliveMillis;
+    private final long shutdownTimeoutMillis;
+    private final boolean useVirtualThreads;
+    private final ConcurrentMap<String, ExecutorService> pools =
+            new ConcurrentHashMap<String, ExecutorService>();
+    private volatile boolean shutdown;
+
+    public WarmupExecutionRuntime(WarmupPropertyProvider warmupPropertyProvider) {
+        this.warmupPropertyProvider = warmupPropertyProvider;
+        this.threadKeepAliveMillis =
+                warmupPropertyProvider.getLong(
+                        THREAD_KEEP_ALIVE_MILLIS_PROP_NAME,
+                        DEFAULT_THREAD_KEEP_ALIVE_MILLIS);
+        this.shutdownTimeoutMillis =
+                warmupPropertyProvider.getLong(
+                        SHUTDOWN_TIMEOUT_MILLIS_PROP_NAME,
+                        DEFAULT_SHUTDOWN_TIMEOUT_MILLIS);
+        boolean enableVirtualThreads =
+                warmupPropertyProvider.getBoolean(ENABLE_VIRTUAL_THREADS_PROP_NAME);
+        if (enableVirtualThreads && !VirtualThreads.isSupported()) {
+            LOGGER.info("Virtual threads are not supported by the JVM. Going on with platform thread pools ...");
+        }
+        this.useVirtualThreads = enableVirtualThreads && VirtualThreads.isSupported();
+    }
+
+    /**
+     * Checks whether tasks are executed on virtual threads.
+     *
+     * @return <code>true</code> if tasks are executed on virtual threads,
+     *         <code>false</code> otherwise
+     */
+    public boolean isUsingVirtualThreads() {
+        return useVirtualThreads;
+    }
+
+    /**
+     * Gets the shared {@link WarmupExecutionRuntime} instance
+     * configured by the given {@link WarmupPropertyProvider}.
+     * It is created on first access and shutdown on JVM exit.
+     * For a {@link ScopedWarmupPropertyProvider}, the runtime of its root provider is returned.
+     *
+     * @param warmupPropertyProvider the {@link WarmupPropertyProvider} to configure the runtime
+     * @return the shared {@link WarmupExecutionRuntime} instance of the given {@link WarmupPropertyProvider}
+     */
+    public static WarmupExecutionRuntime getInstance(WarmupPropertyProvider warmupPropertyProvider) {
+        while (warmupPropertyProvider instanceof ScopedWarmupPropertyProvider) {
+            warmupPropertyProvider = ((ScopedWarmupPropertyProvider) warmupPropertyProvider).getParent();
+        }
+        WarmupExecutionRuntime runtime = INSTANCES.get(warmupPropertyProvider);
+        if (runtime == null) {
+            synchronized (INSTANCES) {
+                runtime = INSTANCES.get(warmupPropertyProvider);
+                if (runtime == null) {
+                    runtime = new WarmupExecutionRuntime(warmupPropertyProvider);
+                    runtime.registerShutdownHook();
+                    INSTANCES.put(warmupPropertyProvider, runtime);
+                }
+            }
+        }
+        return runtime;
+    }
+
+    /**
+     * Registers a JVM shutdown hook which shuts this runtime down.
+     */
+    public void registerShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(new Thread("thundra-warmup-shutdown") {
+            @Override
+            public void run() {
+                shutdown();
+            }
+        });
+    }
+
+    /**
+     * Gets the pool with the given name, creates it if it doesn't exist.
+     * When the pool is saturated, submitted tasks are executed by the submitting thread.
+     *
+     * @param name            name of the pool
+     * @param defaultPoolSize thread count of the pool if it is not configured by properties,
+     *                        ignored if tasks are executed on virtual threads
+     * @return the {@link ExecutorService} of the pool
+     */
+    public ExecutorService getExecutor(String name, int defaultPoolSize) {
+        return getExecutor(name, defaultPoolSize, false);
+    }
+
+    /**
+     * Gets the pool with the given name, creates it if it doesn't exist.
+     *
+     * @param name                name of the pool
+     * @param defaultPoolSize     thread count of the pool if it is not configured by properties,
+     *                            ignored if tasks are executed on virtual threads
+     * @param blockWhenSaturated  <code>true</code> if the submitting thread should wait
+     *                            until there is space in the queue when the pool is saturated,
+     *                            <code>false</code> if the submitted tasks should be executed
+     *                            by the submitting thread. Only applied on creation of the pool.
+     * @return the {@link ExecutorService} of the pool
+     */
+    public ExecutorService getExecutor(String name, int defaultPoolSize, boolean blockWhenSaturated) {
+        ExecutorService pool = pools.get(name);
+        if (pool == null) {
+            if (shutdown) {
+                throw new IllegalStateException("Warmup execution runtime has been shutdown");
+            }
+            if (useVirtualThreads) {
+                ExecutorService virtualThreadExecutor = VirtualThreads.newVirtualThreadPerTaskExecutor(name);
+                if (virtualThreadExecutor != null) {
+                    pool = pools.putIfAbsent(name, virtualThreadExecutor);
+                    if (pool == null) {
+                        pool = virtualThreadExecutor;
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug(String.format("Created %s pool with virtual threads", name));
+                        }
+                    } else {
+                        virtualThreadExecutor.shutdown();
+                    }
+                    return pool;
+                }
+            }
+            int poolSize =
+                    warmupPropertyProvider.getInteger(
+                            "thundra.lambda.warmup." + name + POOL_SIZE_PROP_NAME_SUFFIX,
+                            defaultPoolSize);
+            int queueCapacity =
+                    warmupPropertyProvider.getInteger(
+                            "thundra.lambda.warmup." + name + QUEUE_CAPACITY_PROP_NAME_SUFFIX,
+                            DEFAULT_QUEUE_CAPACITY);
+            if (poolSize < 1) {
+                throw new IllegalArgumentException("Size of " + name + " pool must be positive: " + poolSize);
+            }
+            if (queueCapacity < 1) {
+                throw new IllegalArgumentException(
+                        "Queue capacity of " + name + " pool must be positive: " + queueCapacity);
+            }
+            MonitoredThreadPoolExecutor newPool =
+                    new MonitoredThreadPoolExecutor(
+                            name, poolSize, queueCapacity, threadKeepAliveMillis,
+                            blockWhenSaturated
+                                    ? new BlockingPolicy()
+                                    : new ThreadPoolExecutor.CallerRunsPolicy());
+            pool = pools.putIfAbsent(name, newPool);
+            if (pool == null) {
+                pool = newPool;
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug(String.format(
+                            "Created %s pool with %d threads and %d queue capacity",
+                            name, poolSize, queueCapacity));
+                }
+            } else {
+                newPool.shutdown();
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Gets the created platform thread pools to monitor their statistics such as queue depths.
+     *
+     * @return the created platform thread pools
+     */
+    public Collection<MonitoredThreadPoolExecutor> getPools() {
+        List<MonitoredThreadPoolExecutor> monitoredPools = new ArrayList<MonitoredThreadPoolExecutor>();
+        for (ExecutorService pool : pools.values()) {
+            if (pool instanceof MonitoredThreadPoolExecutor) {
+                monitoredPools.add((MonitoredThreadPoolExecutor) pool);
+            }
+        }
+        return monitoredPools;
+    }
+
+    /**
+     * Logs statistics of the created pools in debug level.
+     */
+    public void logPoolStats() {
+        if (LOGGER.isDebugEnabled()) {
+            for (Map.Entry<String, ExecutorService> entry : pools.entrySet()) {
+                if (entry.getValue() instanceof MonitoredThreadPoolExecutor) {
+                    LOGGER.debug("Pool stats: " + entry.getValue());
+                } else {
+                    LOGGER.debug("Pool stats: " + entry.getKey() + " pool runs tasks on virtual threads");
+                }
+            }
+        }
+    }
+
+    /**
+     * Shuts all the pools down by waiting running tasks for a while.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (ExecutorService pool : pools.values()) {
+            pool.shutdown();
+        }
+        long deadline = System.currentTimeMillis() + shutdownTimeoutMillis;
+        for (Map.Entry<String, ExecutorService> entry : pools.entrySet()) {
+            ExecutorService pool = entry.getValue();
+            try {
+                long remainingMillis = deadline - System.currentTimeMillis();
+                if (remainingMillis <= 0 || !pool.awaitTermination(remainingMillis, TimeUnit.MILLISECONDS)) {
+                    LOGGER.warn("Couldn't shutdown " + entry.getKey() + " pool gracefully, so interrupting its tasks");
+                    pool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                pool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * {@link RejectedExecutionHandler} which puts the task into the queue of the saturated pool
+     * by waiting for space, so the submitter is slowed down without executing the task itself.
+     * Tasks are only rejected if the pool has been shutdown or the submitter is interrupted.
+     */
+    private static class BlockingPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Pool has been shutdown");
+            }
+            try {
+                executor.getQueue().put(r);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for space in the pool", e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+package io.thundra.lambda.warmup.concurrency;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * <p>
+ *      Queue which orders dispatch units (such as invocations) of multiple flows (such as functions)
+ *      by strict priority tiers and by <b>weighted fair queueing</b> within the same priority tier.
+ * </p>
+ * <p>
+ *      All units of the flows with higher priority are dispatched before the flows with lower priority.
+ *      In the same priority tier, every dispatched unit of a flow advances the virtual finish time of that flow
+ *      by <code>1 / weight</code> and the flow with the earliest virtual finish time is dispatched next,
+ *      so the flows are interleaved in proportion to their weights
+ *      (a flow with weight <code>2</code> gets two units dispatched for every unit of a flow with weight <code>1</code>)
+ *      and a flow with many units cannot delay the others in its tier until all of its units are dispatched.
+ *      Flows with equal virtual finish times are dispatched in their insertion order.
+ * </p>
+ * <p>
+ *      Flows added later start from the virtual time of their tier,
+ *      so they neither wait for the earlier flows to complete nor take over the tier by catching up.
+ *      This class is not thread-safe.
+ * </p>
+ *
+ * @param <T> type of the flows
+ *
+ * @author serkan
+ */
+public class WeightedFairDispatchQueue<T> {
+
+    private final PriorityQueue<Flow<T>> flows = new PriorityQueue<Flow<T>>();
+    private long flowSequence;
+    private int size;
+    // Virtual times of the priority tiers, which are the start times of their latest dispatched units
+    private final Map<Integer, Double> virtualTimes = new HashMap<Integer, Double>();
+
+    /**
+     * Adds a flow to be dispatched.
+     *
+     * @param item     the flow to be returned for each of its dispatch units
+     * @param priority priority of the flow, the higher one is dispatched first
+     * @param weight   weight of the flow in its priority tier, must be positive
+     * @param count    count of the dispatch units of the flow
+     */
+    public void add(T item, int priority, int weight, int count) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        if (count <= 0) {
+            return;
+        }
+        Double virtualTime = virtualTimes.get(priority);
+        double startTime = virtualTime != null ? virtualTime : 0;
+        flows.add(new Flow<T>(item, priority, 1.0 / weight, count, startTime, flowSequence++));
+        size += count;
+    }
+
+    /**
+     * Gets and removes the next dispatch unit.
+     *
+     * @return the flow of the next dispatch unit, <code>null</code> if the queue is empty
+     */
+    public T poll() {
+        Flow<T> flow = flows.poll();
+        if (flow == null) {
+            return null;
+        }
+        size--;
+        virtualTimes.put(flow.priority, flow.finishTime - flow.cost);
+        if (--flow.remaining > 0) {
+            flow.finishTime += flow.cost;
+            flows.add(flow);
+        }
+        return flow.item;
+    }
+
+    /**
+     * Gets the count of the remaining dispatch units of all the flows.
+     *
+     * @return the count of the remaining dispatch units
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static final class Flow<T> implements Comparable<Flow<T>> {
+
+        private final T item;
+        private final int priority;
+        private final double cost;
+        private final long sequence;
+        private int remaining;
+        private double finishTime;
+
+        private Flow(T item, int priority, double cost, int count, double startTime, long sequence) {
+            this.item = item;
+            this.priority = priority;
+            this.cost = cost;
+            this.remaining = count;
+            this.finishTime = startTime + cost;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Flow<T> other) {
+            if (priority != other.priority) {
+                return priority > other.priority ? -1 : 1;
+            }
+            int finishTimeComparison = Double.compare(finishTime, other.finishTime);
+            if (finishTimeComparison != 0) {
+                return finishTimeComparison;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+
+    }
+
+}
@@ -0,0 +1,337 @@
+package io.thundra.lambda.warmup.impl;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.model.*;
+import io.thundra.lambda.warmup.LambdaService;
+import io.thundra.lambda.warmup.WarmupHandler;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import org.apache.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ *      {@link LambdaService} implementation which caches discovered function configurations
+ *      and their aliases in front of the given {@link LambdaService}.
+ * </p>
+ * <p>
+ *      Functions are still listed on every call, but listed function configurations are
+ *      kept by their revisions (<code>RevisionId</code> or <code>LastModified</code> if there is no revision id).
+ *      Aliases of a function are listed again only if revision of the function has changed
+ *      since its aliases were listed or cached aliases are expired.
+ *      Cache entries are expired after {@link #DISCOVERY_CACHE_TTL_MILLIS_PROP_NAME} milliseconds
+ *      and the least recently used ones are evicted
+ *      when there are more than {@link #DISCOVERY_CACHE_SIZE_PROP_NAME} functions.
+ * </p>
+ * <p>
+ *      Provisioned concurrency configurations of a function are also cached,
+ *      but they are expired after {@link #PROVISIONED_CONCURRENCY_CACHE_TTL_MILLIS_PROP_NAME} milliseconds
+ *      regardless of the revision of the function,
+ *      as they are configured on the aliases and versions without changing the function itself.
+ *      Account settings are cached for {@link #DISCOVERY_CACHE_TTL_MILLIS_PROP_NAME} milliseconds.
+ * </p>
+ *
+ * @author serkan
+ */
+public class CachingLambdaService implements LambdaService {
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the time in milliseconds
+     * to keep discovered function configurations and aliases in the cache.
+     */
+    public static final String DISCOVERY_CACHE_TTL_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.discoveryCacheTTL";
+    /**
+     * Default value for {@link #DISCOVERY_CACHE_TTL_MILLIS_PROP_NAME} property.
+     * The default value is <code>1 hour</code>.
+     */
+    public static final long DEFAULT_DISCOVERY_CACHE_TTL_MILLIS = 60 * 60 * 1000; // 1 hour
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the maximum number of functions
+     * to keep in the cache.
+     */
+    public static final String DISCOVERY_CACHE_SIZE_PROP_NAME =
+            "thundra.lambda.warmup.discoveryCacheSize";
+    /**
+     * Default value for {@link #DISCOVERY_CACHE_SIZE_PROP_NAME} property.
+     * The default value is <code>1024</code>.
+     */
+    public static final int DEFAULT_DISCOVERY_CACHE_SIZE = 1024;
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the time in milliseconds
+     * to keep provisioned concurrency configurations of functions in the cache.
+     */
+    public static final String PROVISIONED_CONCURRENCY_CACHE_TTL_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.provisionedConcurrencyCacheTTL";
+    /**
+     * Default value for {@link #PROVISIONED_CONCURRENCY_CACHE_TTL_MILLIS_PROP_NAME} property.
+     * The default value is <code>15 minutes</code>,
+     * which is longer than the default warmup schedule, so only every few runs look them up.
+     */
+    public static final long DEFAULT_PROVISIONED_CONCURRENCY_CACHE_TTL_MILLIS = 15 * 60 * 1000; // 15 minutes
+
+    private static final Logger LOGGER = Logger.getLogger(CachingLambdaService.class);
+
+    private final LambdaService lambdaService;
+    private final long discoveryCacheTTLMillis;
+    private final int discoveryCacheSize;
+    private final long provisionedConcurrencyCacheTTLMillis;
+    private final Map<String, FunctionEntry> functionEntries;
+    // Guarded by "functionEntries"
+    private GetAccountSettingsResult accountSettingsResult;
+    private long accountSettingsExpireTime;
+
+    public CachingLambdaService(LambdaService lambdaService) {
+        this(lambdaService, WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
+    }
+
+    public CachingLambdaService(LambdaService lambdaService, WarmupPropertyProvider warmupPropertyProvider) {
+        this(lambdaService,
+             warmupPropertyProvider.getLong(
+                    DISCOVERY_CACHE_TTL_MILLIS_PROP_NAME,
+                    DEFAULT_DISCOVERY_CACHE_TTL_MILLIS),
+             warmupPropertyProvider.getInteger(
+                    DISCOVERY_CACHE_SIZE_PROP_NAME,
+                    DEFAULT_DISCOVERY_CACHE_SIZE),
+             warmupPropertyProvider.getLong(
+                    PROVISIONED_CONCURRENCY_CACHE_TTL_MILLIS_PROP_NAME,
+                    DEFAULT_PROVISIONED_CONCURRENCY_CACHE_TTL_MILLIS));
+    }
+
+    public CachingLambdaService(LambdaService lambdaService, long discoveryCacheTTLMillis, int discoveryCacheSize) {
+        this(lambdaService, discoveryCacheTTLMillis, discoveryCacheSize,
+             DEFAULT_PROVISIONED_CONCURRENCY_CACHE_TTL_MILLIS);
+    }
+
+    public CachingLambdaService(LambdaService lambdaService, long discoveryCacheTTLMillis, int discoveryCacheSize,
+                                long provisionedConcurrencyCacheTTLMillis) {
+        this.lambdaService = lambdaService;
+        this.discoveryCacheTTLMillis = discoveryCacheTTLMillis;
+        this.discoveryCacheSize = discoveryCacheSize;
+        this.provisionedConcurrencyCacheTTLMillis = provisionedConcurrencyCacheTTLMillis;
+        this.functionEntries =
+                new LinkedHashMap<String, FunctionEntry>(16, 0.75F, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, FunctionEntry> eldest) {
+                        return size() > CachingLambdaService.this.discoveryCacheSize;
+                    }
+                };
+    }
+
+    public LambdaService getLambdaService() {
+        return lambdaService;
+    }
+
+    @Override
+    public InvokeResult invoke(InvokeRequest request) {
+        return lambdaService.invoke(request);
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request) {
+        return lambdaService.invokeAsync(request);
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request,
+                                            AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+        return lambdaService.invokeAsync(request, asyncHandler);
+    }
+
+    @Override
+    public ListFunctionsResult listFunctions(ListFunctionsRequest request) {
+        ListFunctionsResult result = lambdaService.listFunctions(request);
+        if (result != null && result.getFunctions() != null) {
+            long currentTime = System.currentTimeMillis();
+            synchronized (functionEntries) {
+                for (FunctionConfiguration config : result.getFunctions()) {
+                    String functionName = config.getFunctionName();
+                    String revision = getRevision(config);
+                    FunctionEntry entry = functionEntries.get(functionName);
+                    if (entry == null) {
+                        entry = new FunctionEntry();
+                        functionEntries.put(functionName, entry);
+                    } else if (!isSameRevision(entry.revision, revision)) {
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug(String.format(
+                                    "Revision of function %s has changed from '%s' to '%s'",
+                                    functionName, entry.revision, revision));
+                        }
+                        entry.aliasesResult = null;
+                    }
+                    entry.config = config;
+                    entry.revision = revision;
+                    entry.configExpireTime = currentTime + discoveryCacheTTLMillis;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ListAliasesResult listAliases(ListAliasesRequest request) {
+        if (!isCacheable(request)) {
+            return lambdaService.listAliases(request);
+        }
+        String functionName = request.getFunctionName();
+        String revision;
+        synchronized (functionEntries) {
+            FunctionEntry entry = functionEntries.get(functionName);
+            if (entry != null
+                    && entry.aliasesResult != null
+                    && isSameRevision(entry.aliasesRevision, entry.revision)
+                    && System.currentTimeMillis() < entry.aliasesExpireTime) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Using cached aliases of function " + functionName);
+                }
+                return entry.aliasesResult.clone();
+            }
+            revision = entry != null ? entry.revision : null;
+        }
+
+        ListAliasesResult result = lambdaService.listAliases(request);
+        if (result != null) {
+            synchronized (functionEntries) {
+                FunctionEntry entry = functionEntries.get(functionName);
+                if (entry == null) {
+                    entry = new FunctionEntry();
+                    functionEntries.put(functionName, entry);
+                }
+                // Cache only if function has not been changed while its aliases are being listed
+                if (isSameRevision(entry.revision, revision)) {
+                    entry.aliasesResult = result.clone();
+                    entry.aliasesRevision = revision;
+                    entry.aliasesExpireTime = System.currentTimeMillis() + discoveryCacheTTLMillis;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ListProvisionedConcurrencyConfigsResult listProvisionedConcurrencyConfigs(
+            ListProvisionedConcurrencyConfigsRequest request) {
+        if (!isCacheable(request)) {
+            return lambdaService.listProvisionedConcurrencyConfigs(request);
+        }
+        String functionName = request.getFunctionName();
+        synchronized (functionEntries) {
+            FunctionEntry entry = functionEntries.get(functionName);
+            if (entry != null
+                    && entry.provisionedConcurrencyConfigsResult != null
+                    && System.currentTimeMillis() < entry.provisionedConcurrencyConfigsExpireTime) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Using cached provisioned concurrency configurations of function " + functionName);
+                }
+                return entry.provisionedConcurrencyConfigsResult.clone();
+            }
+        }
+
+        ListProvisionedConcurrencyConfigsResult result = lambdaService.listProvisionedConcurrencyConfigs(request);
+        if (result != null) {
+            synchronized (functionEntries) {
+                FunctionEntry entry = functionEntries.get(functionName);
+                if (entry == null) {
+                    entry = new FunctionEntry();
+                    functionEntries.put(functionName, entry);
+                }
+                entry.provisionedConcurrencyConfigsResult = result.clone();
+                entry.provisionedConcurrencyConfigsExpireTime =
+                        System.currentTimeMillis() + provisionedConcurrencyCacheTTLMillis;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public GetAccountSettingsResult getAccountSettings(GetAccountSettingsRequest request) {
+        synchronized (functionEntries) {
+            if (accountSettingsResult != null && System.currentTimeMillis() < accountSettingsExpireTime) {
+                return accountSettingsResult.clone();
+            }
+        }
+        GetAccountSettingsResult result = lambdaService.getAccountSettings(request);
+        if (result != null) {
+            synchronized (functionEntries) {
+                accountSettingsResult = result.clone();
+                accountSettingsExpireTime = System.currentTimeMillis() + discoveryCacheTTLMillis;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the cached configuration of the given function.
+     *
+     * @param functionName name of the function
+     * @return the cached {@link FunctionConfiguration} of the function if there is and it is not expired,
+     *         <code>null</code> otherwise
+     */
+    public FunctionConfiguration getFunctionConfiguration(String functionName) {
+        synchronized (functionEntries) {
+            FunctionEntry entry = functionEntries.get(functionName);
+            if (entry == null
+                    || entry.config == null
+                    || System.currentTimeMillis() >= entry.configExpireTime) {
+                return null;
+            }
+            return entry.config;
+        }
+    }
+
+    /**
+     * Clears all the cached function configurations, aliases, provisioned concurrency configurations
+     * and account settings.
+     */
+    public void clear() {
+        synchronized (functionEntries) {
+            functionEntries.clear();
+            accountSettingsResult = null;
+        }
+    }
+
+    private static boolean isCacheable(ListAliasesRequest request) {
+        return request.getFunctionName() != null
+                && request.getFunctionVersion() == null
+                && request.getMarker() == null
+                && request.getMaxItems() == null;
+    }
+
+    private static boolean isCacheable(ListProvisionedConcurrencyConfigsRequest request) {
+        return request.getFunctionName() != null
+                && request.getMarker() == null
+                && request.getMaxItems() == null;
+    }
+
+    private static String getRevision(FunctionConfiguration config) {
+        if (config.getRevisionId() != null) {
+            return config.getRevisionId();
+        }
+        return config.getLastModified();
+    }
+
+    private static boolean isSameRevision(String revision1, String revision2) {
+        return revision1 != null ? revision1.equals(revision2) : revision2 == null;
+    }
+
+    private static class FunctionEntry {
+
+        private FunctionConfiguration config;
+        private String revision;
+        private long configExpireTime;
+        private ListAliasesResult aliasesResult;
+        private String aliasesRevision;
+        private long aliasesExpireTime;
+        private ListProvisionedConcurrencyConfigsResult provisionedConcurrencyConfigsResult;
+        private long provisionedConcurrencyConfigsExpireTime;
+
+    }
+
+}
@@ -0,0 +1,347 @@
+package io.thundra.lambda.warmup.impl;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.model.*;
+import io.thundra.lambda.warmup.LambdaService;
+import io.thundra.lambda.warmup.WarmupHandler;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.concurrency.AdaptiveConcurrencyLimit;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>
+ *      {@link LambdaService} implementation which limits concurrent invocations
+ *      through the given {@link LambdaService} by {@link AdaptiveConcurrencyLimit}s.
+ * </p>
+ * <p>
+ *      There is a global limit for all the invocations and a limit for each function.
+ *      Invocations wait (so the caller dispatching the invocations is slowed down)
+ *      until both of the limits have room. Limits are increased additively by every successful invocation
+ *      and decreased multiplicatively by every throttled (rejected with {@link TooManyRequestsException}) invocation
+ *      and by every invocation rejected by the saturated AWS Lambda client pool.
+ *      Note that function limit should not be configured below the invocation count of the function to warmup,
+ *      otherwise invocations cannot be concurrent and might be dispatched to the same container.
+ *      Current windows of the limits and their changes are published with the warmup metrics
+ *      when metrics are enabled.
+ * </p>
+ *
+ * @author serkan
+ */
+public class ConcurrencyLimitingLambdaService implements LambdaService {
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the initial limit of all concurrent invocations.
+     */
+    public static final String INITIAL_CONCURRENCY_LIMIT_PROP_NAME =
+            "thundra.lambda.warmup.initialConcurrencyLimit";
+    /**
+     * Default value for {@link #INITIAL_CONCURRENCY_LIMIT_PROP_NAME} property.
+     * The default value is <code>200</code>.
+     */
+    public static final int DEFAULT_INITIAL_CONCURRENCY_LIMIT = 200;
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the maximum limit of all concurrent invocations.
+     */
+    public static final String MAX_CONCURRENCY_LIMIT_PROP_NAME =
+            "thundra.lambda.warmup.maxConcurrencyLimit";
+    /**
+     * Default value for {@link #MAX_CONCURRENCY_LIMIT_PROP_NAME} property.
+     * The default value is <code>1000</code>.
+     */
+    public static final int DEFAULT_MAX_CONCURRENCY_LIMIT = 1000;
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the initial limit of concurrent invocations for each function.
+     */
+    public static final String INITIAL_FUNCTION_CONCURRENCY_LIMIT_PROP_NAME =
+            "thundra.lambda.warmup.initialFunctionConcurrencyLimit";
+    /**
+     * Default value for {@link #INITIAL_FUNCTION_CONCURRENCY_LIMIT_PROP_NAME} property.
+     * The default value is <code>100</code>.
+     */
+    public static final int DEFAULT_INITIAL_FUNCTION_CONCURRENCY_LIMIT = 100;
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the maximum limit of concurrent invocations for each function.
+     */
+    public static final String MAX_FUNCTION_CONCURRENCY_LIMIT_PROP_NAME =
+            "thundra.lambda.warmup.maxFunctionConcurrencyLimit";
+    /**
+     * Default value for {@link #MAX_FUNCTION_CONCURRENCY_LIMIT_PROP_NAME} property.
+     * The default value is <code>1000</code>.
+     */
+    public static final int DEFAULT_MAX_FUNCTION_CONCURRENCY_LIMIT = 1000;
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the minimum limit of concurrent invocations
+     * (both for all invocations and for each function).
+     */
+    public static final String MIN_CONCURRENCY_LIMIT_PROP_NAME =
+            "thundra.lambda.warmup.minConcurrencyLimit";
+    /**
+     * Default value for {@link #MIN_CONCURRENCY_LIMIT_PROP_NAME} property.
+     * The default value is <code>1</code>.
+     */
+    public static final int DEFAULT_MIN_CONCURRENCY_LIMIT = 1;
+
+    /**
+     * Name of the <code>double</code> typed property
+     * which configures the ratio to multiply concurrency limits with on throttles.
+     */
+    public static final String CONCURRENCY_LIMIT_BACKOFF_RATIO_PROP_NAME =
+            "thundra.lambda.warmup.concurrencyLimitBackoffRatio";
+    /**
+     * Default value for {@link #CONCURRENCY_LIMIT_BACKOFF_RATIO_PROP_NAME} property.
+     * The default value is <code>0.5</code>.
+     */
+    public static final double DEFAULT_CONCURRENCY_LIMIT_BACKOFF_RATIO = 0.5;
+
+    private static final Logger LOGGER = Logger.getLogger(ConcurrencyLimitingLambdaService.class);
+
+    private final LambdaService lambdaService;
+    private final int initialFunctionConcurrencyLimit;
+    private final int maxFunctionConcurrencyLimit;
+    private final int minConcurrencyLimit;
+    private final double concurrencyLimitBackoffRatio;
+    private final AdaptiveConcurrencyLimit globalConcurrencyLimit;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimit> functionConcurrencyLimits =
+            new ConcurrentHashMap<String, AdaptiveConcurrencyLimit>();
+
+    public ConcurrencyLimitingLambdaService(LambdaService lambdaService) {
+        this(lambdaService, WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
+    }
+
+    public ConcurrencyLimitingLambdaService(LambdaService lambdaService,
+                                            WarmupPropertyProvider warmupPropertyProvider) {
+        this.lambdaService = lambdaService;
+        this.initialFunctionConcurrencyLimit =
+                warmupPropertyProvider.getInteger(
+                        INITIAL_FUNCTION_CONCURRENCY_LIMIT_PROP_NAME,
+                        DEFAULT_INITIAL_FUNCTION_CONCURRENCY_LIMIT);
+        this.maxFunctionConcurrencyLimit =
+                warmupPropertyProvider.getInteger(
+                        MAX_FUNCTION_CONCURRENCY_LIMIT_PROP_NAME,
+                        DEFAULT_MAX_FUNCTION_CONCURRENCY_LIMIT);
+        this.minConcurrencyLimit =
+                warmupPropertyProvider.getInteger(
+                        MIN_CONCURRENCY_LIMIT_PROP_NAME,
+                        DEFAULT_MIN_CONCURRENCY_LIMIT);
+        this.concurrencyLimitBackoffRatio =
+                warmupPropertyProvider.getDouble(
+                        CONCURRENCY_LIMIT_BACKOFF_RATIO_PROP_NAME,
+                        DEFAULT_CONCURRENCY_LIMIT_BACKOFF_RATIO);
+        this.globalConcurrencyLimit =
+                new AdaptiveConcurrencyLimit(
+                        "global",
+                        warmupPropertyProvider.getInteger(
+                                INITIAL_CONCURRENCY_LIMIT_PROP_NAME,
+                                DEFAULT_INITIAL_CONCURRENCY_LIMIT),
+                        minConcurrencyLimit,
+                        warmupPropertyProvider.getInteger(
+                                MAX_CONCURRENCY_LIMIT_PROP_NAME,
+                                DEFAULT_MAX_CONCURRENCY_LIMIT),
+                        concurrencyLimitBackoffRatio);
+    }
+
+    public LambdaService getLambdaService() {
+        return lambdaService;
+    }
+
+    /**
+     * Gets the current global limit (the window) of concurrent invocations.
+     *
+     * @return the current global limit of concurrent invocations
+     */
+    public int getGlobalConcurrencyLimit() {
+        return globalConcurrencyLimit.getLimit();
+    }
+
+    /**
+     * Gets the current limit (the window) of concurrent invocations for the given function.
+     *
+     * @param functionName name of the function
+     * @return the current limit of concurrent invocations for the function
+     *         or <code>-1</code> if the function has not been invoked yet
+     */
+    public int getFunctionConcurrencyLimit(String functionName) {
+        AdaptiveConcurrencyLimit functionConcurrencyLimit = functionConcurrencyLimits.get(functionName);
+        if (functionConcurrencyLimit == null) {
+            return -1;
+        }
+        return functionConcurrencyLimit.getLimit();
+    }
+
+    /**
+     * Gets the global and the function concurrency limits,
+     * so their current windows and their changes can be reported.
+     *
+     * @return the global concurrency limit followed by the function concurrency limits
+     */
+    public List<AdaptiveConcurrencyLimit> getConcurrencyLimits() {
+        List<AdaptiveConcurrencyLimit> concurrencyLimits =
+                new ArrayList<AdaptiveConcurrencyLimit>(functionConcurrencyLimits.size() + 1);
+        concurrencyLimits.add(globalConcurrencyLimit);
+        concurrencyLimits.addAll(functionConcurrencyLimits.values());
+        return concurrencyLimits;
+    }
+
+    @Override
+    public InvokeResult invoke(InvokeRequest request) {
+        Permit permit = acquire(request.getFunctionName());
+        boolean throttled = false;
+        try {
+            return lambdaService.invoke(request);
+        } catch (TooManyRequestsException e) {
+            throttled = true;
+            throw e;
+        } finally {
+            permit.release(throttled);
+        }
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request) {
+        return invokeAsync(request, null);
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request,
+                                            AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+        Permit permit = acquire(request.getFunctionName());
+        try {
+            return lambdaService.invokeAsync(request, new PermitReleasingAsyncHandler(permit, asyncHandler));
+        } catch (RuntimeException e) {
+            // Rejection by the saturated client pool is handled as throttling to back-off the dispatching
+            permit.release(e instanceof TooManyRequestsException || e instanceof RejectedExecutionException);
+            throw e;
+        }
+    }
+
+    @Override
+    public ListFunctionsResult listFunctions(ListFunctionsRequest request) {
+        return lambdaService.listFunctions(request);
+    }
+
+    @Override
+    public ListAliasesResult listAliases(ListAliasesRequest request) {
+        return lambdaService.listAliases(request);
+    }
+
+    @Override
+    public ListProvisionedConcurrencyConfigsResult listProvisionedConcurrencyConfigs(
+            ListProvisionedConcurrencyConfigsRequest request) {
+        return lambdaService.listProvisionedConcurrencyConfigs(request);
+    }
+
+    @Override
+    public GetAccountSettingsResult getAccountSettings(GetAccountSettingsRequest request) {
+        return lambdaService.getAccountSettings(request);
+    }
+
+    private AdaptiveConcurrencyLimit getOrCreateFunctionConcurrencyLimit(String functionName) {
+        AdaptiveConcurrencyLimit functionConcurrencyLimit = functionConcurrencyLimits.get(functionName);
+        if (functionConcurrencyLimit == null) {
+            functionConcurrencyLimit =
+                    new AdaptiveConcurrencyLimit(
+                            functionName,
+                            initialFunctionConcurrencyLimit,
+                            minConcurrencyLimit,
+                            maxFunctionConcurrencyLimit,
+                            concurrencyLimitBackoffRatio);
+            AdaptiveConcurrencyLimit existingFunctionConcurrencyLimit =
+                    functionConcurrencyLimits.putIfAbsent(functionName, functionConcurrencyLimit);
+            if (existingFunctionConcurrencyLimit != null) {
+                functionConcurrencyLimit = existingFunctionConcurrencyLimit;
+            }
+        }
+        return functionConcurrencyLimit;
+    }
+
+    private Permit acquire(String functionName) {
+        AdaptiveConcurrencyLimit functionConcurrencyLimit = getOrCreateFunctionConcurrencyLimit(functionName);
+        try {
+            // Function limit is always acquired before the global one, so there is no lock ordering issue
+            long functionTicket = functionConcurrencyLimit.acquire();
+            try {
+                long globalTicket = globalConcurrencyLimit.acquire();
+                return new Permit(functionConcurrencyLimit, functionTicket, globalTicket);
+            } catch (InterruptedException e) {
+                functionConcurrencyLimit.release(functionTicket, false);
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException("Interrupted while waiting concurrency limit for function " + functionName, e);
+        }
+    }
+
+    private class Permit {
+
+        private final AdaptiveConcurrencyLimit functionConcurrencyLimit;
+        private final long functionTicket;
+        private final long globalTicket;
+
+        private Permit(AdaptiveConcurrencyLimit functionConcurrencyLimit, long functionTicket, long globalTicket) {
+            this.functionConcurrencyLimit = functionConcurrencyLimit;
+            this.functionTicket = functionTicket;
+            this.globalTicket = globalTicket;
+        }
+
+        private void release(boolean throttled) {
+            if (globalConcurrencyLimit.release(globalTicket, throttled)) {
+                LOGGER.info("Decreased global invocation concurrency limit to " +
+                            globalConcurrencyLimit.getLimit() + " because of throttling");
+            }
+            if (functionConcurrencyLimit.release(functionTicket, throttled)) {
+                LOGGER.info("Decreased invocation concurrency limit of function " +
+                            functionConcurrencyLimit.getName() + " to " +
+                            functionConcurrencyLimit.getLimit() + " because of throttling");
+            }
+        }
+
+    }
+
+    private static class PermitReleasingAsyncHandler implements AsyncHandler<InvokeRequest, InvokeResult> {
+
+        private final Permit permit;
+        private final AsyncHandler<InvokeRequest, InvokeResult> asyncHandler;
+
+        private PermitReleasingAsyncHandler(Permit permit,
+                                            AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+            this.permit = permit;
+            this.asyncHandler = asyncHandler;
+        }
+
+        @Override
+        public void onSuccess(InvokeRequest request, InvokeResult result) {
+            permit.release(false);
+            if (asyncHandler != null) {
+                asyncHandler.onSuccess(request, result);
+            }
+        }
+
+        @Override
+        public void onError(Exception error) {
+            permit.release(error instanceof TooManyRequestsException);
+            if (asyncHandler != null) {
+                asyncHandler.onError(error);
+            }
+        }
+
+    }
+
+}
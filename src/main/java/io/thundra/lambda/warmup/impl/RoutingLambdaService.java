@@ -0,0 +1,338 @@
+package io.thundra.lambda.warmup.impl;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.model.*;
+import com.amazonaws.util.StringUtils;
+import io.thundra.lambda.warmup.LambdaService;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>
+ *      {@link LambdaService} implementation which routes requests
+ *      to the {@link LambdaService}s of multiple regions and accounts
+ *      (such as accessed by assumed roles), so a single warmup handler
+ *      can warmup functions of all of them.
+ * </p>
+ * <p>
+ *      The first target is the default target (the region and the account of the warmup handler itself).
+ *      Listed functions of the default target keep their names, so they match with the functions
+ *      declared by their names, and requests for functions which are not specified by their ARNs
+ *      are routed to the default target. Listed functions of the other targets are named by their ARNs,
+ *      so the following requests (invocations and alias listings) for them are routed to the target
+ *      by the region and the account in the ARN. If there is no target for the exact account of an ARN,
+ *      the target of the region with unspecified account is used.
+ * </p>
+ * <p>
+ *      Pages of the targets are returned one by one as they are listed, and first pages of all the targets
+ *      are listed in parallel, so the functions of the early listed pages can be handled
+ *      while the others are still being listed. Listing is expected to be done by a single caller at a time,
+ *      otherwise pages are listed on request without prefetching.
+ *      Failure of a target is logged and its remaining functions are skipped,
+ *      so the functions of the other targets are still warmed-up.
+ * </p>
+ * <p>
+ *      Account settings are retrieved from all the targets and the most restrictive concurrency limits of them
+ *      are returned, so a budget planned by these limits fits into every target.
+ *      Targets whose account settings cannot be retrieved are skipped.
+ * </p>
+ *
+ * @author serkan
+ */
+public class RoutingLambdaService implements LambdaService {
+
+    private static final Logger LOGGER = Logger.getLogger(RoutingLambdaService.class);
+
+    private static final String ARN_PREFIX = "arn:";
+    private static final String MARKER_SEPARATOR = ":";
+
+    private final List<Target> targets;
+    private final ExecutorService executorService;
+    private final ConcurrentMap<String, Future<ListFunctionsResult>> prefetchedPages =
+            new ConcurrentHashMap<String, Future<ListFunctionsResult>>();
+
+    public RoutingLambdaService(List<Target> targets, ExecutorService executorService) {
+        if (targets == null || targets.isEmpty()) {
+            throw new IllegalArgumentException("There must be at least one target to route!");
+        }
+        this.targets = Collections.unmodifiableList(new ArrayList<Target>(targets));
+        this.executorService = executorService;
+    }
+
+    public List<Target> getTargets() {
+        return targets;
+    }
+
+    protected Target findTarget(String functionName) {
+        if (functionName == null || !functionName.startsWith(ARN_PREFIX)) {
+            return targets.get(0);
+        }
+        // arn:<partition>:lambda:<region>:<account-id>:function:<function-name>[:<qualifier>]
+        String[] arnParts = functionName.split(":");
+        if (arnParts.length < 7) {
+            return targets.get(0);
+        }
+        String region = arnParts[3];
+        String accountId = arnParts[4];
+        Target regionTarget = null;
+        for (Target target : targets) {
+            if (target.region == null || target.region.equals(region)) {
+                if (accountId.equals(target.accountId)) {
+                    return target;
+                }
+                if (target.accountId == null && regionTarget == null) {
+                    regionTarget = target;
+                }
+            }
+        }
+        return regionTarget != null ? regionTarget : targets.get(0);
+    }
+
+    @Override
+    public InvokeResult invoke(InvokeRequest request) {
+        return findTarget(request.getFunctionName()).lambdaService.invoke(request);
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request) {
+        return findTarget(request.getFunctionName()).lambdaService.invokeAsync(request);
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request,
+                                            AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+        return findTarget(request.getFunctionName()).lambdaService.invokeAsync(request, asyncHandler);
+    }
+
+    /**
+     * Lists functions of the targets page by page.
+     * Pages of a target are returned as they are listed and then the pages of the next target are returned,
+     * so the caller can handle the functions of a page while the next pages are still being listed.
+     * When listing is started, first pages of all the targets are listed in parallel
+     * and the next page of a target is listed in background while its current page is being handled.
+     *
+     * @param request the {@link ListFunctionsRequest list functions request}
+     * @return the {@link ListFunctionsResult list functions result} of the page
+     */
+    @Override
+    public ListFunctionsResult listFunctions(ListFunctionsRequest request) {
+        int targetIndex = 0;
+        String targetMarker = null;
+        String marker = request.getMarker();
+        if (StringUtils.hasValue(marker)) {
+            int separatorIndex = marker.indexOf(MARKER_SEPARATOR);
+            try {
+                targetIndex = Integer.parseInt(marker.substring(0, separatorIndex));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid marker: " + marker, e);
+            }
+            if (targetIndex < 0 || targetIndex >= targets.size()) {
+                throw new IllegalArgumentException("Invalid marker: " + marker);
+            }
+            targetMarker = marker.substring(separatorIndex + 1);
+        } else {
+            // Listing is started over, so pages prefetched for the previous listing are not needed anymore
+            cancelPrefetchedPages();
+            for (int i = 1; i < targets.size(); i++) {
+                prefetchPage(i, null);
+            }
+        }
+        Target target = targets.get(targetIndex);
+        List<FunctionConfiguration> functions = new ArrayList<FunctionConfiguration>();
+        String nextMarker;
+        try {
+            ListFunctionsResult targetResult = getPage(targetIndex, targetMarker);
+            String targetNextMarker = targetResult != null ? targetResult.getNextMarker() : null;
+            if (targetResult != null && targetResult.getFunctions() != null) {
+                for (FunctionConfiguration config : targetResult.getFunctions()) {
+                    functions.add(toRoutedConfig(targetIndex, config));
+                }
+            }
+            if (StringUtils.hasValue(targetNextMarker)) {
+                prefetchPage(targetIndex, targetNextMarker);
+                nextMarker = toMarker(targetIndex, targetNextMarker);
+            } else {
+                nextMarker = toNextTargetMarker(targetIndex);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.error("Couldn't list functions of " + target + "! Skipping its remaining functions ...", e);
+            nextMarker = toNextTargetMarker(targetIndex);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Listed " + functions.size() + " functions of " + target);
+        }
+        return new ListFunctionsResult().withFunctions(functions).withNextMarker(nextMarker);
+    }
+
+    private static String toMarker(int targetIndex, String targetMarker) {
+        return targetIndex + MARKER_SEPARATOR + (targetMarker != null ? targetMarker : "");
+    }
+
+    private String toNextTargetMarker(int targetIndex) {
+        return targetIndex + 1 < targets.size() ? toMarker(targetIndex + 1, null) : null;
+    }
+
+    private FunctionConfiguration toRoutedConfig(int targetIndex, FunctionConfiguration config) {
+        if (targetIndex == 0 || !StringUtils.hasValue(config.getFunctionArn())) {
+            return config;
+        }
+        // Functions of the other targets are named by their ARNs, so their requests are routed to their targets.
+        // Configuration is copied not to modify the one which might be held by the target.
+        return config.clone().withFunctionName(config.getFunctionArn());
+    }
+
+    private ListFunctionsResult getPage(int targetIndex, String targetMarker) {
+        Future<ListFunctionsResult> future = prefetchedPages.remove(toMarker(targetIndex, targetMarker));
+        if (future == null) {
+            return listPage(targets.get(targetIndex), targetMarker);
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while listing functions", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void prefetchPage(final int targetIndex, final String targetMarker) {
+        final Target target = targets.get(targetIndex);
+        try {
+            prefetchedPages.put(
+                    toMarker(targetIndex, targetMarker),
+                    executorService.submit(new Callable<ListFunctionsResult>() {
+                        @Override
+                        public ListFunctionsResult call() {
+                            return listPage(target, targetMarker);
+                        }
+                    }));
+        } catch (RejectedExecutionException e) {
+            // Page is listed when it is requested
+        }
+    }
+
+    private void cancelPrefetchedPages() {
+        for (Future<ListFunctionsResult> future : prefetchedPages.values()) {
+            future.cancel(true);
+        }
+        prefetchedPages.clear();
+    }
+
+    private static ListFunctionsResult listPage(Target target, String targetMarker) {
+        ListFunctionsRequest listFunctionsRequest = new ListFunctionsRequest();
+        if (StringUtils.hasValue(targetMarker)) {
+            listFunctionsRequest.withMarker(targetMarker);
+        }
+        return target.lambdaService.listFunctions(listFunctionsRequest);
+    }
+
+    @Override
+    public ListAliasesResult listAliases(ListAliasesRequest request) {
+        return findTarget(request.getFunctionName()).lambdaService.listAliases(request);
+    }
+
+    @Override
+    public ListProvisionedConcurrencyConfigsResult listProvisionedConcurrencyConfigs(
+            ListProvisionedConcurrencyConfigsRequest request) {
+        return findTarget(request.getFunctionName()).lambdaService.listProvisionedConcurrencyConfigs(request);
+    }
+
+    @Override
+    public GetAccountSettingsResult getAccountSettings(GetAccountSettingsRequest request) {
+        GetAccountSettingsResult mostRestrictiveResult = null;
+        for (Target target : targets) {
+            GetAccountSettingsResult result;
+            try {
+                result = target.lambdaService.getAccountSettings(request);
+            } catch (Throwable t) {
+                LOGGER.error("Error occurred while getting account settings of " + target, t);
+                continue;
+            }
+            if (result == null || result.getAccountLimit() == null) {
+                continue;
+            }
+            if (mostRestrictiveResult == null) {
+                mostRestrictiveResult = result.clone();
+                continue;
+            }
+            AccountLimit accountLimit = result.getAccountLimit();
+            AccountLimit mostRestrictiveAccountLimit = mostRestrictiveResult.getAccountLimit();
+            mostRestrictiveAccountLimit.setConcurrentExecutions(
+                    min(mostRestrictiveAccountLimit.getConcurrentExecutions(),
+                        accountLimit.getConcurrentExecutions()));
+            mostRestrictiveAccountLimit.setUnreservedConcurrentExecutions(
+                    min(mostRestrictiveAccountLimit.getUnreservedConcurrentExecutions(),
+                        accountLimit.getUnreservedConcurrentExecutions()));
+        }
+        return mostRestrictiveResult;
+    }
+
+    private static Integer min(Integer value1, Integer value2) {
+        if (value1 == null) {
+            return value2;
+        }
+        if (value2 == null) {
+            return value1;
+        }
+        return Math.min(value1, value2);
+    }
+
+    /**
+     * Target region and account to route the requests.
+     */
+    public static class Target {
+
+        private final String region;
+        private final String accountId;
+        private final LambdaService lambdaService;
+
+        /**
+         * @param region        region of the target, <code>null</code> if it is the default region
+         * @param accountId     id of the account of the target,
+         *                      <code>null</code> if it is the account of the default credentials
+         * @param lambdaService the {@link LambdaService} to which the requests are routed
+         */
+        public Target(String region, String accountId, LambdaService lambdaService) {
+            this.region = region;
+            this.accountId = accountId;
+            this.lambdaService = lambdaService;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public LambdaService getLambdaService() {
+            return lambdaService;
+        }
+
+        @Override
+        public String toString() {
+            return "Target{" +
+                    "region='" + region + '\'' +
+                    ", accountId='" + accountId + '\'' +
+                    '}';
+        }
+
+    }
+
+}
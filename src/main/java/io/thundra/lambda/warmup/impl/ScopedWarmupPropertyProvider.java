@@ -0,0 +1,104 @@
+package io.thundra.lambda.warmup.impl;
+
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * <p>
+ *      {@link WarmupPropertyProvider} implementation which overlays a scope on another {@link WarmupPropertyProvider}.
+ *      A property whose name starts with the base prefix is looked up under the scope prefix first
+ *      (for example <code>thundra.lambda.warmup.invocationCount</code> is looked up as
+ *      <code>thundra.lambda.warmup.strategies.standard.invocationCount</code> for the
+ *      <code>thundra.lambda.warmup.strategies.standard.</code> scope prefix)
+ *      and falls back to the property itself if it is not defined in the scope.
+ * </p>
+ * <p>
+ *      Scoped property names are collected once on creation,
+ *      so properties defined in the scope afterwards are not taken into account.
+ * </p>
+ *
+ * @author serkan
+ */
+public class ScopedWarmupPropertyProvider implements WarmupPropertyProvider {
+
+    private final WarmupPropertyProvider warmupPropertyProvider;
+    private final String basePrefix;
+    private final String scopePrefix;
+    private final Set<String> scopedPropertyNames = new HashSet<String>();
+
+    public ScopedWarmupPropertyProvider(WarmupPropertyProvider warmupPropertyProvider,
+                                        String basePrefix,
+                                        String scopePrefix) {
+        this.warmupPropertyProvider = warmupPropertyProvider;
+        this.basePrefix = basePrefix;
+        this.scopePrefix = scopePrefix;
+        for (String propertyName : warmupPropertyProvider.getPropertyNames()) {
+            if (propertyName.startsWith(scopePrefix)) {
+                scopedPropertyNames.add(propertyName);
+            }
+        }
+    }
+
+    public String getScopePrefix() {
+        return scopePrefix;
+    }
+
+    /**
+     * Gets the {@link WarmupPropertyProvider} which this scope is overlaid on.
+     *
+     * @return the parent {@link WarmupPropertyProvider}
+     */
+    public WarmupPropertyProvider getParent() {
+        return warmupPropertyProvider;
+    }
+
+    private String resolvePropertyName(String name) {
+        if (scopedPropertyNames.isEmpty() || !name.startsWith(basePrefix)) {
+            return name;
+        }
+        String scopedName = scopePrefix + name.substring(basePrefix.length());
+        return scopedPropertyNames.contains(scopedName) ? scopedName : name;
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+        Set<String> propertyNames = new HashSet<String>(warmupPropertyProvider.getPropertyNames());
+        for (String scopedPropertyName : scopedPropertyNames) {
+            propertyNames.add(basePrefix + scopedPropertyName.substring(scopePrefix.length()));
+        }
+        return propertyNames;
+    }
+
+    @Override
+    public Boolean getBoolean(String name) {
+        return warmupPropertyProvider.getBoolean(resolvePropertyName(name));
+    }
+
+    @Override
+    public Integer getInteger(String name) {
+        return warmupPropertyProvider.getInteger(resolvePropertyName(name));
+    }
+
+    @Override
+    public Float getFloat(String name) {
+        return warmupPropertyProvider.getFloat(resolvePropertyName(name));
+    }
+
+    @Override
+    public Long getLong(String name) {
+        return warmupPropertyProvider.getLong(resolvePropertyName(name));
+    }
+
+    @Override
+    public Double getDouble(String name) {
+        return warmupPropertyProvider.getDouble(resolvePropertyName(name));
+    }
+
+    @Override
+    public String getString(String name) {
+        return warmupPropertyProvider.getString(resolvePropertyName(name));
+    }
+
+}
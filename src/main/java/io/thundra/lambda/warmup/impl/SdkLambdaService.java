@@ -1,5 +1,6 @@
 package io.thundra.lambda.warmup.impl;
 
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.lambda.AWSLambdaAsyncClient;
 import com.amazonaws.services.lambda.model.*;
 import io.thundra.lambda.warmup.LambdaService;
@@ -33,6 +34,12 @@ public class SdkLambdaService implements LambdaService {
         return lambdaClient.invokeAsync(request);
     }
 
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request,
+                                            AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+        return lambdaClient.invokeAsync(request, asyncHandler);
+    }
+
     @Override
     public ListFunctionsResult listFunctions(ListFunctionsRequest request) {
         return lambdaClient.listFunctions(request);
@@ -43,4 +50,15 @@ public class SdkLambdaService implements LambdaService {
         return lambdaClient.listAliases(request);
     }
 
+    @Override
+    public ListProvisionedConcurrencyConfigsResult listProvisionedConcurrencyConfigs(
+            ListProvisionedConcurrencyConfigsRequest request) {
+        return lambdaClient.listProvisionedConcurrencyConfigs(request);
+    }
+
+    @Override
+    public GetAccountSettingsResult getAccountSettings(GetAccountSettingsRequest request) {
+        return lambdaClient.getAccountSettings(request);
+    }
+
 }
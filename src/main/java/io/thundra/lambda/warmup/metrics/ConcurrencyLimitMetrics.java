@@ -0,0 +1,69 @@
+package io.thundra.lambda.warmup.metrics;
+
+/**
+ * Metrics of an adaptive concurrency limit (the global one or the one of a function) in a warmup run.
+ *
+ * @author serkan
+ */
+public class ConcurrencyLimitMetrics {
+
+    private final String name;
+    private final int limit;
+    private final long increaseCount;
+    private final long decreaseCount;
+
+    public ConcurrencyLimitMetrics(String name, int limit, long increaseCount, long decreaseCount) {
+        this.name = name;
+        this.limit = limit;
+        this.increaseCount = increaseCount;
+        this.decreaseCount = decreaseCount;
+    }
+
+    /**
+     * Gets the name of the concurrency limit,
+     * which is <code>global</code> for the global limit and the function name for the function limits.
+     *
+     * @return the name of the concurrency limit
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the current limit (the window) of concurrent invocations at the end of the warmup run.
+     *
+     * @return the current limit of concurrent invocations
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Gets the count of the increases of the window in the warmup run.
+     *
+     * @return the count of the increases of the window
+     */
+    public long getIncreaseCount() {
+        return increaseCount;
+    }
+
+    /**
+     * Gets the count of the decreases of the window in the warmup run.
+     *
+     * @return the count of the decreases of the window
+     */
+    public long getDecreaseCount() {
+        return decreaseCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyLimitMetrics{" +
+                "name='" + name + '\'' +
+                ", limit=" + limit +
+                ", increaseCount=" + increaseCount +
+                ", decreaseCount=" + decreaseCount +
+                '}';
+    }
+
+}
@@ -0,0 +1,141 @@
+package io.thundra.lambda.warmup.metrics;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Warmup metrics of a function (and alias) in a warmup run.
+ *
+ * @author serkan
+ */
+public class FunctionWarmupMetrics {
+
+    private final String functionName;
+    private final String alias;
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private final AtomicLong coldStartCount = new AtomicLong();
+    private final AtomicLong warmStartCount = new AtomicLong();
+    private final AtomicLong throttleCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final Set<String> instanceIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    public FunctionWarmupMetrics(String functionName, String alias) {
+        this.functionName = functionName;
+        this.alias = alias;
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    /**
+     * Gets the alias which the function has been invoked with.
+     *
+     * @return the alias of the function, <code>null</code> if the function has been invoked without alias
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    /**
+     * Gets the histogram of the latencies of the successful warmup invocations.
+     *
+     * @return the {@link LatencyHistogram} of the successful warmup invocations
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Gets the count of the successful warmup invocations.
+     *
+     * @return the count of the successful warmup invocations
+     */
+    public long getInvocationCount() {
+        return latencyHistogram.getTotalCount();
+    }
+
+    /**
+     * Gets the count of the warmup invocations which have been classified as cold start.
+     *
+     * @return the count of the cold starts
+     */
+    public long getColdStartCount() {
+        return coldStartCount.get();
+    }
+
+    /**
+     * Gets the count of the warmup invocations which have been classified as warm start.
+     *
+     * @return the count of the warm starts
+     */
+    public long getWarmStartCount() {
+        return warmStartCount.get();
+    }
+
+    /**
+     * Gets the count of the throttled warmup invocations.
+     *
+     * @return the count of the throttled warmup invocations
+     */
+    public long getThrottleCount() {
+        return throttleCount.get();
+    }
+
+    /**
+     * Gets the count of the failed (except throttled) warmup invocations.
+     *
+     * @return the count of the failed warmup invocations
+     */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * Gets the count of the distinct containers (by their reported instance ids)
+     * which have responded to the warmup invocations.
+     *
+     * @return the count of the distinct containers
+     */
+    public int getContainerCount() {
+        return instanceIds.size();
+    }
+
+    Set<String> getInstanceIds() {
+        return instanceIds;
+    }
+
+    void recordInvocation(long latencyMicros, boolean coldStart) {
+        latencyHistogram.record(latencyMicros);
+        if (coldStart) {
+            coldStartCount.incrementAndGet();
+        } else {
+            warmStartCount.incrementAndGet();
+        }
+    }
+
+    void recordThrottle() {
+        throttleCount.incrementAndGet();
+    }
+
+    void recordError() {
+        errorCount.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "FunctionWarmupMetrics{" +
+                "functionName='" + functionName + '\'' +
+                ", alias='" + alias + '\'' +
+                ", latencyHistogram=" + latencyHistogram +
+                ", coldStartCount=" + coldStartCount +
+                ", warmStartCount=" + warmStartCount +
+                ", throttleCount=" + throttleCount +
+                ", errorCount=" + errorCount +
+                ", containerCount=" + getContainerCount() +
+                '}';
+    }
+
+}
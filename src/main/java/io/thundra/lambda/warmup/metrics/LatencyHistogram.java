@@ -0,0 +1,154 @@
+package io.thundra.lambda.warmup.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ *      Thread-safe, fixed size latency histogram with logarithmic buckets in the spirit of HDR histogram.
+ * </p>
+ * <p>
+ *      Latencies are recorded in microseconds. Every power of two range is split into
+ *      <code>16</code> linear sub-buckets, so the recorded values are kept with at most
+ *      <code>6.25%</code> relative error in a constant (a few kilobytes) memory
+ *      regardless of the number of recorded values.
+ *      Values greater than {@link #MAX_TRACKABLE_VALUE} are recorded as {@link #MAX_TRACKABLE_VALUE}.
+ * </p>
+ *
+ * @author serkan
+ */
+public class LatencyHistogram {
+
+    /**
+     * The maximum trackable latency value in microseconds (<code>1 hour</code>).
+     */
+    public static final long MAX_TRACKABLE_VALUE = 60L * 60 * 1000 * 1000;
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong();
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    private static long lowestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        return (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+    }
+
+    private static long highestValueAt(int index) {
+        return lowestValueAt(index + 1) - 1;
+    }
+
+    /**
+     * Records the given latency.
+     *
+     * @param valueMicros the latency in microseconds
+     */
+    public void record(long valueMicros) {
+        long value = Math.max(0, Math.min(valueMicros, MAX_TRACKABLE_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        long min;
+        while (value < (min = minValue.get())) {
+            if (minValue.compareAndSet(min, value)) {
+                break;
+            }
+        }
+        long max;
+        while (value > (max = maxValue.get())) {
+            if (maxValue.compareAndSet(max, value)) {
+                break;
+            }
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Gets the minimum recorded latency in microseconds.
+     *
+     * @return the minimum recorded latency, <code>0</code> if there is no recorded latency
+     */
+    public long getMinValue() {
+        return totalCount.get() > 0 ? minValue.get() : 0;
+    }
+
+    /**
+     * Gets the maximum recorded latency in microseconds.
+     *
+     * @return the maximum recorded latency, <code>0</code> if there is no recorded latency
+     */
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * Gets the mean of the recorded latencies in microseconds.
+     *
+     * @return the mean of the recorded latencies, <code>0</code> if there is no recorded latency
+     */
+    public double getMean() {
+        long count = totalCount.get();
+        return count > 0 ? (double) totalValue.get() / count : 0;
+    }
+
+    /**
+     * Gets the latency in microseconds at the given percentile.
+     * The returned value is the highest value which is equivalent to the values in the same bucket
+     * (but not greater than the maximum recorded value),
+     * so the given percentage of the recorded values are less than or equal to it.
+     *
+     * @param percentile the percentile between <code>0</code> and <code>100</code>
+     * @return the latency at the given percentile, <code>0</code> if there is no recorded latency
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        double requestedPercentile = Math.max(0, Math.min(100, percentile));
+        long countAtPercentile = Math.max(1, (long) Math.ceil((requestedPercentile / 100.0) * count));
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulativeCount += counts.get(i);
+            if (cumulativeCount >= countAtPercentile) {
+                return Math.min(highestValueAt(i), getMaxValue());
+            }
+        }
+        return getMaxValue();
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyHistogram{" +
+                "totalCount=" + getTotalCount() +
+                ", min=" + getMinValue() +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p90=" + getValueAtPercentile(90) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + getMaxValue() +
+                '}';
+    }
+
+}
@@ -0,0 +1,87 @@
+package io.thundra.lambda.warmup.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Warmup metrics of all the warmed-up functions in a warmup run.
+ *
+ * @author serkan
+ */
+public class WarmupMetrics {
+
+    private final String warmupStrategyName;
+    private final long startTime;
+    private final long duration;
+    private final Collection<FunctionWarmupMetrics> functionMetrics;
+    private final Collection<ConcurrencyLimitMetrics> concurrencyLimitMetrics;
+
+    public WarmupMetrics(String warmupStrategyName, long startTime, long duration,
+                         Collection<FunctionWarmupMetrics> functionMetrics) {
+        this(warmupStrategyName, startTime, duration,
+             functionMetrics, Collections.<ConcurrencyLimitMetrics>emptyList());
+    }
+
+    public WarmupMetrics(String warmupStrategyName, long startTime, long duration,
+                         Collection<FunctionWarmupMetrics> functionMetrics,
+                         Collection<ConcurrencyLimitMetrics> concurrencyLimitMetrics) {
+        this.warmupStrategyName = warmupStrategyName;
+        this.startTime = startTime;
+        this.duration = duration;
+        this.functionMetrics = functionMetrics;
+        this.concurrencyLimitMetrics = concurrencyLimitMetrics;
+    }
+
+    public String getWarmupStrategyName() {
+        return warmupStrategyName;
+    }
+
+    /**
+     * Gets the start time of the warmup run in milliseconds.
+     *
+     * @return the start time of the warmup run
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Gets the duration of the warmup run in milliseconds.
+     *
+     * @return the duration of the warmup run
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the metrics of the warmed-up functions (and aliases).
+     *
+     * @return the {@link FunctionWarmupMetrics} of the warmed-up functions
+     */
+    public Collection<FunctionWarmupMetrics> getFunctionMetrics() {
+        return functionMetrics;
+    }
+
+    /**
+     * Gets the metrics of the adaptive concurrency limits.
+     *
+     * @return the {@link ConcurrencyLimitMetrics} of the adaptive concurrency limits,
+     *         empty if adaptive concurrency limit is not enabled
+     */
+    public Collection<ConcurrencyLimitMetrics> getConcurrencyLimitMetrics() {
+        return concurrencyLimitMetrics;
+    }
+
+    @Override
+    public String toString() {
+        return "WarmupMetrics{" +
+                "warmupStrategyName='" + warmupStrategyName + '\'' +
+                ", startTime=" + startTime +
+                ", duration=" + duration +
+                ", functionMetrics=" + functionMetrics +
+                ", concurrencyLimitMetrics=" + concurrencyLimitMetrics +
+                '}';
+    }
+
+}
@@ -0,0 +1,207 @@
+package io.thundra.lambda.warmup.metrics;
+
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.concurrency.AdaptiveConcurrencyLimit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ *      Collects {@link WarmupMetrics} of warmup runs from the results of warmup invocations.
+ * </p>
+ * <p>
+ *      A successful warmup invocation is classified as cold start
+ *      if the responded container (by its reported instance id) has not been seen
+ *      in the current and the previous warmup runs, so it is a new container from the warmup perspective.
+ *      If the function doesn't report its instance id, or no previous run of the function has been seen yet
+ *      (such as after the cold start of the warmup function itself, when its known containers are lost),
+ *      the warmup invocation is classified as cold start
+ *      when its latency exceeds {@link #COLD_START_LATENCY_THRESHOLD_PROP_NAME} milliseconds.
+ * </p>
+ * <p>
+ *      If adaptive concurrency limits are given at the end of a run, their current windows
+ *      and the increases and decreases of their windows since the previous run are collected as well.
+ * </p>
+ *
+ * @author serkan
+ */
+public class WarmupMetricsCollector {
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the latency threshold in milliseconds to classify a warmup invocation
+     * as cold start when the function doesn't report its instance id.
+     */
+    public static final String COLD_START_LATENCY_THRESHOLD_PROP_NAME =
+            "thundra.lambda.warmup.coldStartLatencyThreshold";
+    /**
+     * Default value for {@link #COLD_START_LATENCY_THRESHOLD_PROP_NAME} property.
+     * The default value is <code>1000 milliseconds</code>.
+     */
+    public static final long DEFAULT_COLD_START_LATENCY_THRESHOLD = 1000;
+
+    private final long coldStartLatencyThresholdMicros;
+    private final ConcurrentMap<String, Set<String>> knownInstanceIds = new ConcurrentHashMap<String, Set<String>>();
+    // Window change counts of the concurrency limits at the end of the previous run
+    private final Map<String, long[]> lastConcurrencyLimitChangeCounts = new HashMap<String, long[]>();
+    private volatile ConcurrentMap<String, FunctionWarmupMetrics> functionMetrics =
+            new ConcurrentHashMap<String, FunctionWarmupMetrics>();
+    private volatile long runStartTime = System.currentTimeMillis();
+
+    public WarmupMetricsCollector(WarmupPropertyProvider warmupPropertyProvider) {
+        this(warmupPropertyProvider.getLong(
+                COLD_START_LATENCY_THRESHOLD_PROP_NAME,
+                DEFAULT_COLD_START_LATENCY_THRESHOLD));
+    }
+
+    public WarmupMetricsCollector(long coldStartLatencyThresholdMillis) {
+        this.coldStartLatencyThresholdMicros = TimeUnit.MILLISECONDS.toMicros(coldStartLatencyThresholdMillis);
+    }
+
+    /**
+     * Starts collecting metrics of a new warmup run.
+     */
+    public void startRun() {
+        functionMetrics = new ConcurrentHashMap<String, FunctionWarmupMetrics>();
+        runStartTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Finishes the current warmup run and returns its collected metrics.
+     *
+     * @param warmupStrategyName name of the warmup strategy which has run
+     * @return the collected {@link WarmupMetrics} of the finished run
+     */
+    public WarmupMetrics finishRun(String warmupStrategyName) {
+        return finishRun(warmupStrategyName, Collections.<AdaptiveConcurrencyLimit>emptyList());
+    }
+
+    /**
+     * Finishes the current warmup run and returns its collected metrics
+     * including the metrics of the given concurrency limits.
+     *
+     * @param warmupStrategyName name of the warmup strategy which has run
+     * @param concurrencyLimits  the {@link AdaptiveConcurrencyLimit}s which the invocations have been limited by
+     * @return the collected {@link WarmupMetrics} of the finished run
+     */
+    public WarmupMetrics finishRun(String warmupStrategyName, Collection<AdaptiveConcurrencyLimit> concurrencyLimits) {
+        Map<String, FunctionWarmupMetrics> finishedFunctionMetrics = functionMetrics;
+        Map<String, Set<String>> runInstanceIds = new HashMap<String, Set<String>>();
+        for (FunctionWarmupMetrics metrics : finishedFunctionMetrics.values()) {
+            if (metrics.getInstanceIds().isEmpty()) {
+                // Containers of the function are still unknown if none of them has responded with its id
+                continue;
+            }
+            Set<String> instanceIds = runInstanceIds.get(metrics.getFunctionName());
+            if (instanceIds == null) {
+                instanceIds = new HashSet<String>();
+                runInstanceIds.put(metrics.getFunctionName(), instanceIds);
+            }
+            instanceIds.addAll(metrics.getInstanceIds());
+        }
+        // Only the containers seen in the latest run are remembered
+        // as the older ones are likely to be evicted already.
+        // Remembered sets are never modified after they are published, so they are safe to be read concurrently.
+        knownInstanceIds.putAll(runInstanceIds);
+        return new WarmupMetrics(
+                warmupStrategyName,
+                runStartTime,
+                System.currentTimeMillis() - runStartTime,
+                new ArrayList<FunctionWarmupMetrics>(finishedFunctionMetrics.values()),
+                collectConcurrencyLimitMetrics(concurrencyLimits));
+    }
+
+    private synchronized List<ConcurrencyLimitMetrics> collectConcurrencyLimitMetrics(
+            Collection<AdaptiveConcurrencyLimit> concurrencyLimits) {
+        List<ConcurrencyLimitMetrics> concurrencyLimitMetrics =
+                new ArrayList<ConcurrencyLimitMetrics>(concurrencyLimits.size());
+        for (AdaptiveConcurrencyLimit concurrencyLimit : concurrencyLimits) {
+            long increaseCount = concurrencyLimit.getIncreaseCount();
+            long decreaseCount = concurrencyLimit.getDecreaseCount();
+            long[] lastChangeCounts = lastConcurrencyLimitChangeCounts.put(
+                    concurrencyLimit.getName(), new long[] { increaseCount, decreaseCount });
+            if (lastChangeCounts != null) {
+                increaseCount -= lastChangeCounts[0];
+                decreaseCount -= lastChangeCounts[1];
+            }
+            concurrencyLimitMetrics.add(
+                    new ConcurrencyLimitMetrics(
+                            concurrencyLimit.getName(), concurrencyLimit.getLimit(),
+                            increaseCount, decreaseCount));
+        }
+        return concurrencyLimitMetrics;
+    }
+
+    private FunctionWarmupMetrics getOrCreateFunctionMetrics(String functionName, String alias) {
+        String key = alias != null ? functionName + ":" + alias : functionName;
+        FunctionWarmupMetrics metrics = functionMetrics.get(key);
+        if (metrics == null) {
+            FunctionWarmupMetrics newMetrics = new FunctionWarmupMetrics(functionName, alias);
+            metrics = functionMetrics.putIfAbsent(key, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Records a successful warmup invocation.
+     *
+     * @param functionName  name of the invoked function
+     * @param alias         alias which the function has been invoked with, might be <code>null</code>
+     * @param latencyMicros latency of the invocation in microseconds
+     * @param instanceId    id of the responded container if it is reported, <code>null</code> otherwise
+     */
+    public void recordInvocation(String functionName, String alias, long latencyMicros, String instanceId) {
+        FunctionWarmupMetrics metrics = getOrCreateFunctionMetrics(functionName, alias);
+        boolean coldStart;
+        if (instanceId != null) {
+            if (metrics.getInstanceIds().add(instanceId)) {
+                Set<String> instanceIds = knownInstanceIds.get(functionName);
+                if (instanceIds != null) {
+                    coldStart = !instanceIds.contains(instanceId);
+                } else {
+                    // Containers from before the first seen run are unknown, so they cannot be told apart by id
+                    coldStart = latencyMicros > coldStartLatencyThresholdMicros;
+                }
+            } else {
+                coldStart = false;
+            }
+        } else {
+            coldStart = latencyMicros > coldStartLatencyThresholdMicros;
+        }
+        metrics.recordInvocation(latencyMicros, coldStart);
+    }
+
+    /**
+     * Records a throttled warmup invocation.
+     *
+     * @param functionName name of the invoked function
+     * @param alias        alias which the function has been invoked with, might be <code>null</code>
+     */
+    public void recordThrottle(String functionName, String alias) {
+        getOrCreateFunctionMetrics(functionName, alias).recordThrottle();
+    }
+
+    /**
+     * Records a failed warmup invocation.
+     *
+     * @param functionName name of the invoked function
+     * @param alias        alias which the function has been invoked with, might be <code>null</code>
+     */
+    public void recordError(String functionName, String alias) {
+        getOrCreateFunctionMetrics(functionName, alias).recordError();
+    }
+
+}
@@ -0,0 +1,21 @@
+package io.thundra.lambda.warmup.metrics;
+
+import java.io.IOException;
+
+/**
+ * Interface for implementations which export {@link WarmupMetrics} of warmup runs.
+ *
+ * @author serkan
+ */
+public interface WarmupMetricsSink {
+
+    /**
+     * Publishes the given metrics of a warmup run.
+     *
+     * @param warmupMetrics the {@link WarmupMetrics} to be published
+     *
+     * @throws IOException if there is any I/O related exception
+     */
+    void publish(WarmupMetrics warmupMetrics) throws IOException;
+
+}
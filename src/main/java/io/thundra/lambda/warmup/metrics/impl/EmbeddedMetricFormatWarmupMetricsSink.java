@@ -0,0 +1,194 @@
+package io.thundra.lambda.warmup.metrics.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.thundra.lambda.warmup.WarmupHandler;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.metrics.ConcurrencyLimitMetrics;
+import io.thundra.lambda.warmup.metrics.FunctionWarmupMetrics;
+import io.thundra.lambda.warmup.metrics.LatencyHistogram;
+import io.thundra.lambda.warmup.metrics.WarmupMetrics;
+import io.thundra.lambda.warmup.metrics.WarmupMetricsSink;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+
+/**
+ * <p>
+ *      {@link WarmupMetricsSink} implementation which writes metrics
+ *      as <a href="https://docs.aws.amazon.com/AmazonCloudWatch/latest/monitoring/CloudWatch_Embedded_Metric_Format_Specification.html">
+ *      CloudWatch embedded metric format</a> JSON log lines to the standard output,
+ *      so they are extracted as CloudWatch metrics from the logs of the warmup Lambda function
+ *      without any additional API call.
+ * </p>
+ * <p>
+ *      A log line is written for every warmed-up function (and alias) with
+ *      <code>FunctionName</code> and <code>Alias</code> (<code>$LATEST</code> if there is no alias) dimensions.
+ *      Latency percentiles are reported in milliseconds.
+ *      If adaptive concurrency limit is enabled, a log line is also written for every concurrency limit
+ *      with <code>ConcurrencyLimitName</code> dimension (<code>global</code> or the function name)
+ *      to report its current window and the increases and decreases of its window.
+ * </p>
+ *
+ * @author serkan
+ */
+public class EmbeddedMetricFormatWarmupMetricsSink implements WarmupMetricsSink {
+
+    /**
+     * Name of the <code>string</code> typed property
+     * which configures the CloudWatch namespace of the warmup metrics.
+     */
+    public static final String METRICS_NAMESPACE_PROP_NAME =
+            "thundra.lambda.warmup.metricsNamespace";
+    /**
+     * Default value for {@link #METRICS_NAMESPACE_PROP_NAME} property.
+     * The default value is <code>ThundraLambdaWarmup</code>.
+     */
+    public static final String DEFAULT_METRICS_NAMESPACE = "ThundraLambdaWarmup";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String[][] METRICS = {
+            { "Invocations", "Count" },
+            { "ColdStarts", "Count" },
+            { "WarmStarts", "Count" },
+            { "Throttles", "Count" },
+            { "Errors", "Count" },
+            { "Containers", "Count" },
+            { "LatencyP50", "Milliseconds" },
+            { "LatencyP90", "Milliseconds" },
+            { "LatencyP99", "Milliseconds" },
+            { "LatencyMax", "Milliseconds" },
+    };
+    private static final String[][] CONCURRENCY_LIMIT_METRICS = {
+            { "ConcurrencyLimit", "Count" },
+            { "ConcurrencyLimitIncreases", "Count" },
+            { "ConcurrencyLimitDecreases", "Count" },
+    };
+
+    private final String namespace;
+    private final PrintStream out;
+
+    public EmbeddedMetricFormatWarmupMetricsSink() {
+        this(WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
+    }
+
+    public EmbeddedMetricFormatWarmupMetricsSink(WarmupPropertyProvider warmupPropertyProvider) {
+        this(warmupPropertyProvider.getString(METRICS_NAMESPACE_PROP_NAME, DEFAULT_METRICS_NAMESPACE), System.out);
+    }
+
+    public EmbeddedMetricFormatWarmupMetricsSink(String namespace, PrintStream out) {
+        this.namespace = namespace;
+        this.out = out;
+    }
+
+    @Override
+    public void publish(WarmupMetrics warmupMetrics) throws IOException {
+        for (FunctionWarmupMetrics functionMetrics : warmupMetrics.getFunctionMetrics()) {
+            String logLine = toLogLine(warmupMetrics, functionMetrics);
+            // Every metric line must be written as a single log event
+            synchronized (out) {
+                out.println(logLine);
+            }
+        }
+        for (ConcurrencyLimitMetrics concurrencyLimitMetrics : warmupMetrics.getConcurrencyLimitMetrics()) {
+            String logLine = toLogLine(warmupMetrics, concurrencyLimitMetrics);
+            synchronized (out) {
+                out.println(logLine);
+            }
+        }
+        out.flush();
+    }
+
+    private void writeMetadata(JsonGenerator generator, long timestamp,
+                               String[] dimensions, String[][] metrics) throws IOException {
+        generator.writeObjectFieldStart("_aws");
+        generator.writeNumberField("Timestamp", timestamp);
+        generator.writeArrayFieldStart("CloudWatchMetrics");
+        generator.writeStartObject();
+        generator.writeStringField("Namespace", namespace);
+        generator.writeArrayFieldStart("Dimensions");
+        generator.writeStartArray();
+        for (String dimension : dimensions) {
+            generator.writeString(dimension);
+        }
+        generator.writeEndArray();
+        generator.writeEndArray();
+        generator.writeArrayFieldStart("Metrics");
+        for (String[] metric : metrics) {
+            generator.writeStartObject();
+            generator.writeStringField("Name", metric[0]);
+            generator.writeStringField("Unit", metric[1]);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private String toLogLine(WarmupMetrics warmupMetrics,
+                             ConcurrencyLimitMetrics concurrencyLimitMetrics) throws IOException {
+        StringWriter writer = new StringWriter(512);
+        JsonGenerator generator = JSON_FACTORY.createGenerator(writer);
+        try {
+            generator.writeStartObject();
+
+            writeMetadata(
+                    generator, warmupMetrics.getStartTime(),
+                    new String[] { "ConcurrencyLimitName" }, CONCURRENCY_LIMIT_METRICS);
+
+            generator.writeStringField("ConcurrencyLimitName", concurrencyLimitMetrics.getName());
+            generator.writeStringField("WarmupStrategy", warmupMetrics.getWarmupStrategyName());
+
+            generator.writeNumberField("ConcurrencyLimit", concurrencyLimitMetrics.getLimit());
+            generator.writeNumberField("ConcurrencyLimitIncreases", concurrencyLimitMetrics.getIncreaseCount());
+            generator.writeNumberField("ConcurrencyLimitDecreases", concurrencyLimitMetrics.getDecreaseCount());
+
+            generator.writeEndObject();
+        } finally {
+            generator.close();
+        }
+        return writer.toString();
+    }
+
+    private String toLogLine(WarmupMetrics warmupMetrics, FunctionWarmupMetrics functionMetrics) throws IOException {
+        StringWriter writer = new StringWriter(1024);
+        JsonGenerator generator = JSON_FACTORY.createGenerator(writer);
+        try {
+            generator.writeStartObject();
+
+            writeMetadata(
+                    generator, warmupMetrics.getStartTime(),
+                    new String[] { "FunctionName", "Alias" }, METRICS);
+
+            generator.writeStringField("FunctionName", functionMetrics.getFunctionName());
+            generator.writeStringField(
+                    "Alias",
+                    functionMetrics.getAlias() != null ? functionMetrics.getAlias() : "$LATEST");
+            generator.writeStringField("WarmupStrategy", warmupMetrics.getWarmupStrategyName());
+
+            LatencyHistogram latencyHistogram = functionMetrics.getLatencyHistogram();
+            generator.writeNumberField("Invocations", functionMetrics.getInvocationCount());
+            generator.writeNumberField("ColdStarts", functionMetrics.getColdStartCount());
+            generator.writeNumberField("WarmStarts", functionMetrics.getWarmStartCount());
+            generator.writeNumberField("Throttles", functionMetrics.getThrottleCount());
+            generator.writeNumberField("Errors", functionMetrics.getErrorCount());
+            generator.writeNumberField("Containers", functionMetrics.getContainerCount());
+            generator.writeNumberField("LatencyP50", toMillis(latencyHistogram.getValueAtPercentile(50)));
+            generator.writeNumberField("LatencyP90", toMillis(latencyHistogram.getValueAtPercentile(90)));
+            generator.writeNumberField("LatencyP99", toMillis(latencyHistogram.getValueAtPercentile(99)));
+            generator.writeNumberField("LatencyMax", toMillis(latencyHistogram.getMaxValue()));
+
+            generator.writeEndObject();
+        } finally {
+            generator.close();
+        }
+        return writer.toString();
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+}
@@ -0,0 +1,19 @@
+package io.thundra.lambda.warmup.metrics.impl;
+
+import io.thundra.lambda.warmup.metrics.WarmupMetrics;
+import io.thundra.lambda.warmup.metrics.WarmupMetricsSink;
+
+/**
+ * {@link WarmupMetricsSink} implementation which doesn't export any metric.
+ *
+ * @author serkan
+ */
+public class NoOpWarmupMetricsSink implements WarmupMetricsSink {
+
+    public static final NoOpWarmupMetricsSink INSTANCE = new NoOpWarmupMetricsSink();
+
+    @Override
+    public void publish(WarmupMetrics warmupMetrics) {
+    }
+
+}
@@ -0,0 +1,242 @@
+package io.thundra.lambda.warmup.state;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *      Snapshot of warmup strategy state to be persisted by {@link WarmupStateStore}s.
+ * </p>
+ * <p>
+ *      Snapshots are encoded in a compact binary format:
+ *      a magic number and format version header, followed by a base time (the latest time in the snapshot)
+ *      and the function call times and the latest request times of function instances.
+ *      All the times are encoded as variable length differences from the base time,
+ *      so the recent times, which are the common case, take only a few bytes.
+ * </p>
+ * <p>
+ *      Since version <code>2</code>, snapshots also contain the concurrency histories of functions
+ *      whose values are encoded as variable length fixed point numbers. Snapshots of version <code>1</code>
+ *      are still decoded, so the state persisted before an upgrade is not lost.
+ * </p>
+ *
+ * @author serkan
+ */
+public class WarmupStateSnapshot {
+
+    private static final int MAGIC = 0x54574D53; // "TWMS"
+    private static final byte VERSION = 2;
+    private static final byte MIN_SUPPORTED_VERSION = 1;
+    private static final float HISTORY_VALUE_SCALE = 100.0F;
+
+    private final Map<String, Long> functionCallTimes = new HashMap<String, Long>();
+    private final Map<String, Map<String, Long>> functionLatestRequestTimes =
+            new HashMap<String, Map<String, Long>>();
+    private final Map<String, float[]> functionConcurrencyHistories = new HashMap<String, float[]>();
+
+    public WarmupStateSnapshot() {
+    }
+
+    /**
+     * Gets the latest call times of functions
+     * as function name to call time (in milliseconds) mappings.
+     *
+     * @return the latest call times of functions
+     */
+    public Map<String, Long> getFunctionCallTimes() {
+        return functionCallTimes;
+    }
+
+    /**
+     * Gets the latest request times of function instances
+     * as function name to instance id to request time (in milliseconds) mappings.
+     *
+     * @return the latest request times of function instances
+     */
+    public Map<String, Map<String, Long>> getFunctionLatestRequestTimes() {
+        return functionLatestRequestTimes;
+    }
+
+    /**
+     * Gets the concurrency histories of functions
+     * as function name to history buckets mappings.
+     * Buckets without any observation are represented by {@link Float#NaN}.
+     *
+     * @return the concurrency histories of functions
+     */
+    public Map<String, float[]> getFunctionConcurrencyHistories() {
+        return functionConcurrencyHistories;
+    }
+
+    public boolean isEmpty() {
+        return functionCallTimes.isEmpty()
+                && functionLatestRequestTimes.isEmpty()
+                && functionConcurrencyHistories.isEmpty();
+    }
+
+    /**
+     * Encodes this snapshot into the given {@link DataOutput}.
+     *
+     * @param out the {@link DataOutput} to encode into
+     *
+     * @throws IOException if there is any I/O related exception
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        long baseTime = getLatestTime();
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(baseTime);
+
+        writeVarLong(out, functionCallTimes.size());
+        for (Map.Entry<String, Long> entry : functionCallTimes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeVarLong(out, baseTime - entry.getValue());
+        }
+
+        writeVarLong(out, functionLatestRequestTimes.size());
+        for (Map.Entry<String, Map<String, Long>> entry : functionLatestRequestTimes.entrySet()) {
+            out.writeUTF(entry.getKey());
+            Map<String, Long> latestRequestTimes = entry.getValue();
+            writeVarLong(out, latestRequestTimes.size());
+            for (Map.Entry<String, Long> e : latestRequestTimes.entrySet()) {
+                out.writeUTF(e.getKey());
+                writeVarLong(out, baseTime - e.getValue());
+            }
+        }
+
+        writeVarLong(out, functionConcurrencyHistories.size());
+        for (Map.Entry<String, float[]> entry : functionConcurrencyHistories.entrySet()) {
+            out.writeUTF(entry.getKey());
+            float[] history = entry.getValue();
+            writeVarLong(out, history.length);
+            for (float value : history) {
+                // Zero is reserved for the buckets without any observation
+                writeVarLong(out, Float.isNaN(value) ? 0 : Math.round(Math.max(value, 0) * HISTORY_VALUE_SCALE) + 1);
+            }
+        }
+    }
+
+    /**
+     * Decodes a snapshot from the given {@link DataInput}.
+     *
+     * @param in the {@link DataInput} to decode from
+     * @return the decoded {@link WarmupStateSnapshot}
+     *
+     * @throws IOException if there is any I/O related exception
+     *                     or the encoded data is not a valid snapshot
+     */
+    public static WarmupStateSnapshot readFrom(DataInput in) throws IOException {
+        int magic = in.readInt();
+        if (magic != MAGIC) {
+            throw new IOException("Invalid warmup state snapshot magic: " + Integer.toHexString(magic));
+        }
+        byte version = in.readByte();
+        if (version < MIN_SUPPORTED_VERSION || version > VERSION) {
+            throw new IOException("Unsupported warmup state snapshot version: " + version);
+        }
+        long baseTime = in.readLong();
+
+        WarmupStateSnapshot snapshot = new WarmupStateSnapshot();
+
+        long functionCallTimeCount = readVarLong(in);
+        for (long i = 0; i < functionCallTimeCount; i++) {
+            String functionName = in.readUTF();
+            long callTime = baseTime - readVarLong(in);
+            snapshot.functionCallTimes.put(functionName, callTime);
+        }
+
+        long functionCount = readVarLong(in);
+        for (long i = 0; i < functionCount; i++) {
+            String functionName = in.readUTF();
+            long instanceCount = readVarLong(in);
+            Map<String, Long> latestRequestTimes = new HashMap<String, Long>();
+            for (long j = 0; j < instanceCount; j++) {
+                String instanceId = in.readUTF();
+                long latestRequestTime = baseTime - readVarLong(in);
+                latestRequestTimes.put(instanceId, latestRequestTime);
+            }
+            snapshot.functionLatestRequestTimes.put(functionName, latestRequestTimes);
+        }
+
+        if (version >= 2) {
+            long historyCount = readVarLong(in);
+            for (long i = 0; i < historyCount; i++) {
+                String functionName = in.readUTF();
+                long bucketCount = readVarLong(in);
+                if (bucketCount > Integer.MAX_VALUE) {
+                    throw new IOException("Invalid concurrency history bucket count: " + bucketCount);
+                }
+                float[] history = new float[(int) bucketCount];
+                for (int j = 0; j < history.length; j++) {
+                    long encodedValue = readVarLong(in);
+                    history[j] = encodedValue == 0 ? Float.NaN : (encodedValue - 1) / HISTORY_VALUE_SCALE;
+                }
+                snapshot.functionConcurrencyHistories.put(functionName, history);
+            }
+        }
+
+        return snapshot;
+    }
+
+    public byte[] toByteArray() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        writeTo(out);
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    public static WarmupStateSnapshot fromByteArray(byte[] data) throws IOException {
+        return readFrom(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    private long getLatestTime() {
+        long latestTime = 0;
+        for (Long callTime : functionCallTimes.values()) {
+            latestTime = Math.max(latestTime, callTime);
+        }
+        for (Map<String, Long> latestRequestTimes : functionLatestRequestTimes.values()) {
+            for (Long latestRequestTime : latestRequestTimes.values()) {
+                latestTime = Math.max(latestTime, latestRequestTime);
+            }
+        }
+        return latestTime;
+    }
+
+    private static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length value in warmup state snapshot");
+    }
+
+    @Override
+    public String toString() {
+        return "WarmupStateSnapshot{" +
+                "functionCallTimes=" + functionCallTimes +
+                ", functionLatestRequestTimes=" + functionLatestRequestTimes +
+                ", functionConcurrencyHistories=" + functionConcurrencyHistories.keySet() +
+                '}';
+    }
+
+}
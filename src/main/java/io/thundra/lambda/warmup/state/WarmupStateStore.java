@@ -0,0 +1,35 @@
+package io.thundra.lambda.warmup.state;
+
+import java.io.IOException;
+
+/**
+ * Interface for implementations which persist states of
+ * {@link io.thundra.lambda.warmup.strategy.WarmupStrategy}s as {@link WarmupStateSnapshot}s,
+ * so the states can be restored when the warmup handler is started again.
+ *
+ * @author serkan
+ */
+public interface WarmupStateStore {
+
+    /**
+     * Loads the latest saved state snapshot.
+     *
+     * @param name name of the state (for example, name of the owner warmup strategy)
+     * @return the latest saved {@link WarmupStateSnapshot} if there is,
+     *         <code>null</code> otherwise
+     *
+     * @throws IOException if there is any I/O related exception
+     */
+    WarmupStateSnapshot load(String name) throws IOException;
+
+    /**
+     * Saves the given state snapshot by replacing the previous one.
+     *
+     * @param name     name of the state (for example, name of the owner warmup strategy)
+     * @param snapshot the {@link WarmupStateSnapshot} to be saved
+     *
+     * @throws IOException if there is any I/O related exception
+     */
+    void save(String name, WarmupStateSnapshot snapshot) throws IOException;
+
+}
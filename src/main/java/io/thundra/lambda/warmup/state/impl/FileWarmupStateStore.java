@@ -0,0 +1,119 @@
+package io.thundra.lambda.warmup.state.impl;
+
+import io.thundra.lambda.warmup.WarmupHandler;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.state.WarmupStateSnapshot;
+import io.thundra.lambda.warmup.state.WarmupStateStore;
+import org.apache.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>
+ *      Local file based {@link WarmupStateStore} implementation.
+ *      Every state is stored as <code>&lt;name&gt;.state</code> file
+ *      under the directory configured by {@link #STATE_STORE_DIRECTORY_PROP_NAME}.
+ * </p>
+ * <p>
+ *      Snapshots are written to a temporary file first and then moved over the previous one,
+ *      so a partially written snapshot is never loaded. Saving a snapshot which is
+ *      identical to the previously saved one is skipped.
+ * </p>
+ *
+ * @author serkan
+ */
+public class FileWarmupStateStore implements WarmupStateStore {
+
+    /**
+     * Name of the <code>string</code> typed property
+     * which configures the directory to store state files in.
+     */
+    public static final String STATE_STORE_DIRECTORY_PROP_NAME =
+            "thundra.lambda.warmup.stateStoreDirectory";
+    /**
+     * Default value for {@link #STATE_STORE_DIRECTORY_PROP_NAME} property.
+     * The default value is <code>/tmp/thundra-lambda-warmup</code>,
+     * which only survives re-initialization of the runtime in the same container.
+     */
+    public static final String DEFAULT_STATE_STORE_DIRECTORY = "/tmp/thundra-lambda-warmup";
+
+    private static final String STATE_FILE_EXTENSION = ".state";
+
+    private static final Logger LOGGER = Logger.getLogger(FileWarmupStateStore.class);
+
+    private final File directory;
+    private final Map<String, byte[]> lastSavedStates = new ConcurrentHashMap<String, byte[]>();
+
+    public FileWarmupStateStore() {
+        this(WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
+    }
+
+    public FileWarmupStateStore(WarmupPropertyProvider warmupPropertyProvider) {
+        this(new File(
+                warmupPropertyProvider.getString(
+                        STATE_STORE_DIRECTORY_PROP_NAME,
+                        DEFAULT_STATE_STORE_DIRECTORY)));
+    }
+
+    public FileWarmupStateStore(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public WarmupStateSnapshot load(String name) throws IOException {
+        File stateFile = getStateFile(name);
+        if (!stateFile.exists()) {
+            return null;
+        }
+        byte[] data = Files.readAllBytes(stateFile.toPath());
+        WarmupStateSnapshot snapshot = WarmupStateSnapshot.fromByteArray(data);
+        lastSavedStates.put(name, data);
+        LOGGER.info(String.format(
+                "Loaded state '%s' (%d bytes) from %s", name, data.length, stateFile.getAbsolutePath()));
+        return snapshot;
+    }
+
+    @Override
+    public void save(String name, WarmupStateSnapshot snapshot) throws IOException {
+        byte[] data = snapshot.toByteArray();
+        if (Arrays.equals(data, lastSavedStates.get(name))) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(String.format("Skipped saving state '%s' as it has not been changed", name));
+            }
+            return;
+        }
+        if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+            throw new IOException("Couldn't create state store directory: " + directory.getAbsolutePath());
+        }
+        Path stateFilePath = getStateFile(name).toPath();
+        Path tempFilePath = Files.createTempFile(directory.toPath(), name, STATE_FILE_EXTENSION + ".tmp");
+        try {
+            Files.write(tempFilePath, data);
+            Files.move(tempFilePath, stateFilePath,
+                       StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFilePath);
+        }
+        lastSavedStates.put(name, data);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format(
+                    "Saved state '%s' (%d bytes) to %s", name, data.length, stateFilePath));
+        }
+    }
+
+    private File getStateFile(String name) {
+        return new File(directory, name + STATE_FILE_EXTENSION);
+    }
+
+}
@@ -0,0 +1,24 @@
+package io.thundra.lambda.warmup.state.impl;
+
+import io.thundra.lambda.warmup.state.WarmupStateSnapshot;
+import io.thundra.lambda.warmup.state.WarmupStateStore;
+
+/**
+ * {@link WarmupStateStore} implementation which doesn't persist any state.
+ *
+ * @author serkan
+ */
+public class NoOpWarmupStateStore implements WarmupStateStore {
+
+    public static final NoOpWarmupStateStore INSTANCE = new NoOpWarmupStateStore();
+
+    @Override
+    public WarmupStateSnapshot load(String name) {
+        return null;
+    }
+
+    @Override
+    public void save(String name, WarmupStateSnapshot snapshot) {
+    }
+
+}
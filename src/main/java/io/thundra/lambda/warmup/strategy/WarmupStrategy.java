@@ -5,6 +5,8 @@ import io.thundra.lambda.warmup.LambdaService;
 import io.thundra.lambda.warmup.WarmupFunctionInfo;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -35,4 +37,31 @@ public interface WarmupStrategy {
                 LambdaService lambdaService,
                 Map<String, WarmupFunctionInfo> functionsToWarmup) throws IOException;
 
+    /**
+     * Executes warmup action for the functions which are streamed by the given iterator
+     * while they are still being discovered.
+     * Default implementation waits until all the functions are streamed and
+     * then delegates to {@link #warmup(Context, LambdaService, Map)}.
+     * Implementations can override this method to start warming-up
+     * the early streamed functions while the others are still being discovered.
+     *
+     * @param context           the {@link Context Lambda context}
+     * @param lambdaService     the {@link LambdaService Lambda service}
+     *                          to be used for Lambda related operations
+     * @param functionsToWarmup iterator of the Lambda functions to warmup
+     *                          whose {@link Iterator#hasNext()} may block until a new function is discovered
+     *
+     * @throws IOException if there is any I/O related exception
+     */
+    default void warmup(Context context,
+                        LambdaService lambdaService,
+                        Iterator<Map.Entry<String, WarmupFunctionInfo>> functionsToWarmup) throws IOException {
+        Map<String, WarmupFunctionInfo> functionsToWarmupMap = new LinkedHashMap<String, WarmupFunctionInfo>();
+        while (functionsToWarmup.hasNext()) {
+            Map.Entry<String, WarmupFunctionInfo> entry = functionsToWarmup.next();
+            functionsToWarmupMap.put(entry.getKey(), entry.getValue());
+        }
+        warmup(context, lambdaService, functionsToWarmupMap);
+    }
+
 }
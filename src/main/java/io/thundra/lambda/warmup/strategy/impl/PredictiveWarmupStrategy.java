@@ -0,0 +1,208 @@
+package io.thundra.lambda.warmup.strategy.impl;
+
+import io.thundra.lambda.warmup.WarmupFunctionInfo;
+import io.thundra.lambda.warmup.WarmupHandler;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.metrics.WarmupMetricsSink;
+import io.thundra.lambda.warmup.state.WarmupStateSnapshot;
+import io.thundra.lambda.warmup.state.WarmupStateStore;
+import io.thundra.lambda.warmup.state.impl.NoOpWarmupStateStore;
+import io.thundra.lambda.warmup.strategy.WarmupStrategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ *      {@link WarmupStrategy} implementation which
+ *      predicts the concurrency of the functions from their historical traffic curves
+ *      and scales warmup invocation counts ahead of the predicted peaks.
+ *      Name of this strategy is <code>predictive</code> ({@link #NAME}.
+ * </p>
+ * <p>
+ *      Active instance counts of the functions detected as in {@link StatAwareWarmupStrategy}
+ *      are recorded into {@link TimeOfWeekConcurrencyHistory}s at every warmup.
+ *      While warming-up, the peak concurrency predicted for the time range from now
+ *      to {@link #PREDICTION_LOOKAHEAD_MILLIS_PROP_NAME} later is scaled by
+ *      {@link StatAwareWarmupStrategy#WARMUP_SCALE_FACTOR_PROP_NAME} and limited by
+ *      {@link StatAwareWarmupStrategy#MIN_INVOCATION_COUNT_PROP_NAME} and
+ *      {@link StatAwareWarmupStrategy#MAX_INVOCATION_COUNT_PROP_NAME}.
+ *      So functions are warmed-up with more invocations just before their recurring ramp-ups.
+ *      Prediction never lowers the invocation count below the one calculated from the currently
+ *      active instances as in {@link StatAwareWarmupStrategy}, so an unexpected burst is still followed.
+ *      For the functions without any history for that time of week yet,
+ *      invocation count is calculated as in {@link StatAwareWarmupStrategy}.
+ * </p>
+ * <p>
+ *      Histories are persisted with the rest of the warmup state when state store is enabled
+ *      (see {@link StandardWarmupStrategy#ENABLE_STATE_STORE_PROP_NAME}),
+ *      otherwise they are kept only during the lifetime of the warmup handler container.
+ *      As the histories are learned over weeks and a container lives much shorter,
+ *      the state store directory must be on a durable file system shared by the containers
+ *      (such as Amazon EFS) for the weekly predictions to be effective.
+ *      With the default <code>/tmp</code> directory, this strategy mostly behaves as {@link StatAwareWarmupStrategy}.
+ * </p>
+ *
+ * @author serkan
+ */
+public class PredictiveWarmupStrategy extends StatAwareWarmupStrategy {
+
+    /**
+     * Name of the {@link PredictiveWarmupStrategy}.
+     */
+    public static final String NAME = "predictive";
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the size of the time of week buckets of the concurrency histories in milliseconds.
+     */
+    public static final String PREDICTION_BUCKET_SIZE_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.predictionBucketSize";
+    /**
+     * Default value for {@link #PREDICTION_BUCKET_SIZE_MILLIS_PROP_NAME} property.
+     * The default value is <code>30 minutes</code>.
+     */
+    public static final long DEFAULT_PREDICTION_BUCKET_SIZE_MILLIS = 30 * 60 * 1000; // 30 min
+
+    /**
+     * Name of the <code>float</code> typed property
+     * which configures the weight of a new concurrency observation
+     * against the average of the previous ones in the same time of week bucket.
+     */
+    public static final String PREDICTION_SMOOTHING_FACTOR_PROP_NAME =
+            "thundra.lambda.warmup.predictionSmoothingFactor";
+    /**
+     * Default value for {@link #PREDICTION_SMOOTHING_FACTOR_PROP_NAME} property.
+     * The default value is <code>0.3</code>.
+     */
+    public static final float DEFAULT_PREDICTION_SMOOTHING_FACTOR = 0.3F;
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures how far in milliseconds to look ahead for the predicted peaks.
+     */
+    public static final String PREDICTION_LOOKAHEAD_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.predictionLookahead";
+    /**
+     * Default value for {@link #PREDICTION_LOOKAHEAD_MILLIS_PROP_NAME} property.
+     * The default value is <code>30 minutes</code>.
+     */
+    public static final long DEFAULT_PREDICTION_LOOKAHEAD_MILLIS = 30 * 60 * 1000; // 30 min
+
+    private final ConcurrentMap<String, TimeOfWeekConcurrencyHistory> functionConcurrencyHistories =
+            new ConcurrentHashMap<String, TimeOfWeekConcurrencyHistory>();
+    private final long predictionBucketSizeMillis;
+    private final float predictionSmoothingFactor;
+    private final long predictionLookaheadMillis;
+
+    public PredictiveWarmupStrategy() {
+        this(WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
+    }
+
+    public PredictiveWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider) {
+        this(warmupPropertyProvider, createDefaultWarmupStateStore(warmupPropertyProvider));
+    }
+
+    public PredictiveWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider,
+                                    WarmupStateStore warmupStateStore) {
+        this(warmupPropertyProvider, warmupStateStore, createDefaultWarmupMetricsSink(warmupPropertyProvider));
+    }
+
+    public PredictiveWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider,
+                                    WarmupStateStore warmupStateStore,
+                                    WarmupMetricsSink warmupMetricsSink) {
+        super(warmupPropertyProvider, warmupStateStore, warmupMetricsSink);
+        this.predictionBucketSizeMillis =
+                warmupPropertyProvider.getLong(
+                        PREDICTION_BUCKET_SIZE_MILLIS_PROP_NAME,
+                        DEFAULT_PREDICTION_BUCKET_SIZE_MILLIS);
+        this.predictionSmoothingFactor =
+                warmupPropertyProvider.getFloat(
+                        PREDICTION_SMOOTHING_FACTOR_PROP_NAME,
+                        DEFAULT_PREDICTION_SMOOTHING_FACTOR);
+        this.predictionLookaheadMillis =
+                warmupPropertyProvider.getLong(
+                        PREDICTION_LOOKAHEAD_MILLIS_PROP_NAME,
+                        DEFAULT_PREDICTION_LOOKAHEAD_MILLIS);
+        if (warmupStateStore == NoOpWarmupStateStore.INSTANCE) {
+            logger.warn(
+                    "State store is not enabled, so concurrency histories are lost with the container " +
+                    "and weekly predictions will not be effective");
+        }
+        if (restoredWarmupState != null) {
+            for (Map.Entry<String, float[]> entry :
+                    restoredWarmupState.getFunctionConcurrencyHistories().entrySet()) {
+                // Histories with different bucket size are discarded by the history itself
+                functionConcurrencyHistories.put(
+                        entry.getKey(),
+                        new TimeOfWeekConcurrencyHistory(
+                                predictionBucketSizeMillis, predictionSmoothingFactor, entry.getValue()));
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected int getInvocationCount(String functionName, int defaultInvocationCount, int configuredInvocationCount,
+                                     WarmupFunctionInfo functionInfo) {
+        // Live signal from the currently active instances
+        int currentInvocationCount =
+                super.getInvocationCount(functionName, defaultInvocationCount, configuredInvocationCount, functionInfo);
+        TimeOfWeekConcurrencyHistory concurrencyHistory = functionConcurrencyHistories.get(functionName);
+        if (concurrencyHistory != null) {
+            long currentTime = System.currentTimeMillis();
+            float predictedConcurrency =
+                    concurrencyHistory.predictPeak(currentTime, currentTime + predictionLookaheadMillis);
+            if (!Float.isNaN(predictedConcurrency)) {
+                int invocationCount = (int) Math.ceil(predictedConcurrency * warmupScaleFactor);
+                invocationCount = Math.max(invocationCount, minInvocationCount);
+                invocationCount = Math.min(invocationCount, maxInvocationCount);
+                logger.info(
+                        "Calculated invocation count by predicted peak concurrency " + predictedConcurrency +
+                        " for function " + functionName + ": " + invocationCount +
+                        " (by current active instances: " + currentInvocationCount + ")");
+                return Math.max(invocationCount, currentInvocationCount);
+            }
+        }
+        return currentInvocationCount;
+    }
+
+    @Override
+    protected void handleInvokeResultInfos(Map<String, List<InvokeResultInfo>> invokeResultInfosMap) {
+        super.handleInvokeResultInfos(invokeResultInfosMap);
+
+        long currentTime = System.currentTimeMillis();
+        for (String functionName : invokeResultInfosMap.keySet()) {
+            int activeInstanceCount = getActiveInstanceCount(functionName);
+            if (activeInstanceCount < 0) {
+                // There is no stat returned by the function, so there is nothing to learn
+                continue;
+            }
+            TimeOfWeekConcurrencyHistory concurrencyHistory = functionConcurrencyHistories.get(functionName);
+            if (concurrencyHistory == null) {
+                TimeOfWeekConcurrencyHistory newConcurrencyHistory =
+                        new TimeOfWeekConcurrencyHistory(predictionBucketSizeMillis, predictionSmoothingFactor);
+                concurrencyHistory = functionConcurrencyHistories.putIfAbsent(functionName, newConcurrencyHistory);
+                if (concurrencyHistory == null) {
+                    concurrencyHistory = newConcurrencyHistory;
+                }
+            }
+            concurrencyHistory.observe(currentTime, activeInstanceCount);
+        }
+    }
+
+    @Override
+    protected void fillWarmupState(WarmupStateSnapshot warmupState) {
+        super.fillWarmupState(warmupState);
+        for (Map.Entry<String, TimeOfWeekConcurrencyHistory> entry : functionConcurrencyHistories.entrySet()) {
+            warmupState.getFunctionConcurrencyHistories().put(entry.getKey(), entry.getValue().getBuckets());
+        }
+    }
+
+}
@@ -1,21 +1,48 @@
 package io.thundra.lambda.warmup.strategy.impl;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.lambda.model.InvokeRequest;
 import com.amazonaws.services.lambda.model.InvokeResult;
+import com.amazonaws.services.lambda.model.ListProvisionedConcurrencyConfigsRequest;
+import com.amazonaws.services.lambda.model.ListProvisionedConcurrencyConfigsResult;
+import com.amazonaws.services.lambda.model.ProvisionedConcurrencyConfigListItem;
+import com.amazonaws.services.lambda.model.TooManyRequestsException;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.util.StringUtils;
 import io.thundra.lambda.warmup.LambdaService;
 import io.thundra.lambda.warmup.WarmupFunctionInfo;
+import io.thundra.lambda.warmup.WarmupFunctionStream;
 import io.thundra.lambda.warmup.WarmupHandler;
 import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.concurrency.AdaptiveConcurrencyLimit;
+import io.thundra.lambda.warmup.concurrency.WarmupExecutionRuntime;
+import io.thundra.lambda.warmup.concurrency.WeightedFairDispatchQueue;
+import io.thundra.lambda.warmup.impl.ConcurrencyLimitingLambdaService;
+import io.thundra.lambda.warmup.metrics.WarmupMetrics;
+import io.thundra.lambda.warmup.metrics.WarmupMetricsCollector;
+import io.thundra.lambda.warmup.metrics.WarmupMetricsSink;
+import io.thundra.lambda.warmup.metrics.impl.EmbeddedMetricFormatWarmupMetricsSink;
+import io.thundra.lambda.warmup.metrics.impl.NoOpWarmupMetricsSink;
+import io.thundra.lambda.warmup.state.WarmupStateSnapshot;
+import io.thundra.lambda.warmup.state.WarmupStateStore;
+import io.thundra.lambda.warmup.state.impl.FileWarmupStateStore;
+import io.thundra.lambda.warmup.state.impl.NoOpWarmupStateStore;
 import io.thundra.lambda.warmup.strategy.WarmupStrategy;
 import org.apache.log4j.Logger;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -69,13 +96,21 @@ public class StandardWarmupStrategy implements WarmupStrategy {
      * Name of the <code>integer</code> typed property
      * which configures the count of consumers
      * to get results of warmup invocations.
+     *
+     * @deprecated Not used anymore as results of warmup invocations are
+     *             handled by completion callbacks of the invocations
      */
+    @Deprecated
     public static final String INVOCATION_RESULT_CONSUMER_COUNT_PROP_NAME =
             "thundra.lambda.warmup.invocationResultConsumerCount";
     /**
      * Default value for {@link #DEFAULT_INVOCATION_RESULT_CONSUMER_COUNT} property.
      * The default value is two times of available CPU processors.
+     *
+     * @deprecated Not used anymore as results of warmup invocations are
+     *             handled by completion callbacks of the invocations
      */
+    @Deprecated
     public static final int DEFAULT_INVOCATION_RESULT_CONSUMER_COUNT =
             2 * Runtime.getRuntime().availableProcessors();
 
@@ -146,10 +181,80 @@ public class StandardWarmupStrategy implements WarmupStrategy {
     public static final String DONT_WAIT_BETWEEN_INVOCATION_ROUNDS =
             "thundra.lambda.warmup.dontWaitBetweenInvocationRounds";
 
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the minimum time in milliseconds to be reserved
+     * at the end of the execution time budget for draining results of the warmup invocations.
+     * Note that the reserved time is extended by the observed invocation latencies if they need more.
+     */
+    public static final String RESULT_DRAIN_RESERVE_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.resultDrainReserve";
+    /**
+     * Default value for {@link #RESULT_DRAIN_RESERVE_MILLIS_PROP_NAME} property.
+     * The default value is <code>3 seconds</code>.
+     */
+    public static final long DEFAULT_RESULT_DRAIN_RESERVE_MILLIS = 3 * 1000; // 3 sec
+
+    /**
+     * Name of the <code>long</code> typed property
+     * which configures the minimum interval in milliseconds between warmup invocation rounds.
+     * If the execution time budget is too tight to keep this interval,
+     * the remaining rounds are compressed into a single round.
+     */
+    public static final String MIN_ITERATION_INTERVAL_MILLIS_PROP_NAME =
+            "thundra.lambda.warmup.minIterationInterval";
+    /**
+     * Default value for {@link #MIN_ITERATION_INTERVAL_MILLIS_PROP_NAME} property.
+     * The default value is <code>100 milliseconds</code>.
+     */
+    public static final long DEFAULT_MIN_ITERATION_INTERVAL_MILLIS = 100;
+
+    /**
+     * Name of the <code>boolean</code> typed property
+     * which enables persisting state of the strategy (such as function call times)
+     * through {@link WarmupStateStore}, so the state is restored
+     * when the warmup handler is started again.
+     * By default, {@link FileWarmupStateStore} is used, which stores under <code>/tmp</code> by default.
+     * As <code>/tmp</code> is private to a container, the state is restored on a new container
+     * only if the state directory is on a mounted durable file system (such as Amazon EFS).
+     */
+    public static final String ENABLE_STATE_STORE_PROP_NAME =
+            "thundra.lambda.warmup.enableStateStore";
+
+    /**
+     * Name of the <code>boolean</code> typed property
+     * which enables collecting warmup metrics (latency histograms, cold start, throttle and error counts)
+     * per function and alias and publishing them at the end of every warmup run
+     * through {@link WarmupMetricsSink}.
+     * By default, {@link EmbeddedMetricFormatWarmupMetricsSink} is used.
+     */
+    public static final String ENABLE_METRICS_PROP_NAME =
+            "thundra.lambda.warmup.enableMetrics";
+
+    /**
+     * Name of the <code>boolean</code> typed property
+     * which disables provisioned concurrency awareness.
+     * When it is enabled (enabled by default), the function is skipped
+     * if provisioned concurrency allocated for the alias to be invoked already covers the invocation count,
+     * as provisioned containers are always kept warm by AWS Lambda.
+     * Otherwise, the function is invoked for the whole invocation count,
+     * because warmup invocations are routed to the provisioned containers first.
+     * Provisioned concurrencies are looked up in parallel on the
+     * {@link WarmupExecutionRuntime#PROVISIONED_CONCURRENCY_DISCOVERY_POOL_NAME} pool.
+     * Note that the <code>lambda:ListProvisionedConcurrencyConfigs</code> permission is needed for this,
+     * otherwise provisioned concurrency is not taken into account.
+     */
+    public static final String DISABLE_PROVISIONED_CONCURRENCY_AWARENESS_PROP_NAME =
+            "thundra.lambda.warmup.disableProvisionedConcurrencyAwareness";
+
+    /**
+     * Shared read-only empty invocation payload.
+     */
+    protected static final ByteBuffer EMPTY_PAYLOAD = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
     protected final Logger logger = Logger.getLogger(getClass());
 
     protected final int invocationCount;
-    protected final int invocationResultConsumerCount;
     protected final int iterationCount;
     protected final boolean splitIterations;
     protected int currentIterationCount = 0;
@@ -158,9 +263,21 @@ public class StandardWarmupStrategy implements WarmupStrategy {
     protected final String warmupFunctionAlias;
     protected final boolean throwErrorOnFailure;
     protected final boolean dontWaitBetweenInvocationRounds;
+    protected final long resultDrainReserveMillis;
+    protected final long minIterationIntervalMillis;
+    protected final WarmupStateStore warmupStateStore;
+    protected final WarmupStateSnapshot restoredWarmupState;
+    protected final WarmupMetricsSink warmupMetricsSink;
+    // Null if metrics are disabled, so there is no overhead on the invocation path
+    protected final WarmupMetricsCollector warmupMetricsCollector;
+    // Disabled also when provisioned concurrency configurations are not allowed to be listed
+    protected volatile boolean provisionedConcurrencyAwarenessEnabled;
+    protected final WarmupExecutionRuntime executionRuntime;
 
     protected final Map<String, Long> functionCallTimes = new HashMap<String, Long>();
-    protected final ExecutorService executorService;
+    protected final Map<String, ByteBuffer> invocationPayloadCache = new ConcurrentHashMap<String, ByteBuffer>();
+    // Set if the deprecated byte array payload method is overridden by a subclass, so it is still used
+    protected final boolean invokeRequestPayloadBytesOverridden = isInvokeRequestPayloadBytesOverridden();
     protected final Random random = new Random();
 
     public StandardWarmupStrategy() {
@@ -168,14 +285,21 @@ public class StandardWarmupStrategy implements WarmupStrategy {
     }
 
     public StandardWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider) {
+        this(warmupPropertyProvider, createDefaultWarmupStateStore(warmupPropertyProvider));
+    }
+
+    public StandardWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider,
+                                  WarmupStateStore warmupStateStore) {
+        this(warmupPropertyProvider, warmupStateStore, createDefaultWarmupMetricsSink(warmupPropertyProvider));
+    }
+
+    public StandardWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider,
+                                  WarmupStateStore warmupStateStore,
+                                  WarmupMetricsSink warmupMetricsSink) {
         this.invocationCount =
                 warmupPropertyProvider.getInteger(
                         INVOCATION_COUNT_PROP_NAME,
                         DEFAULT_INVOCATION_COUNT);
-        this.invocationResultConsumerCount =
-                warmupPropertyProvider.getInteger(
-                        INVOCATION_RESULT_CONSUMER_COUNT_PROP_NAME,
-                        DEFAULT_INVOCATION_RESULT_CONSUMER_COUNT);
         this.iterationCount =
                 warmupPropertyProvider.getInteger(
                         ITERATION_COUNT_PROP_NAME,
@@ -194,8 +318,49 @@ public class StandardWarmupStrategy implements WarmupStrategy {
                 warmupPropertyProvider.getBoolean(THROW_ERROR_ON_FAILURE_PROP_NAME);
         this.dontWaitBetweenInvocationRounds =
                 warmupPropertyProvider.getBoolean(DONT_WAIT_BETWEEN_INVOCATION_ROUNDS);
-        this.executorService =
-                Executors.newFixedThreadPool(invocationResultConsumerCount);
+        this.resultDrainReserveMillis =
+                warmupPropertyProvider.getLong(
+                        RESULT_DRAIN_RESERVE_MILLIS_PROP_NAME,
+                        DEFAULT_RESULT_DRAIN_RESERVE_MILLIS);
+        this.minIterationIntervalMillis =
+                warmupPropertyProvider.getLong(
+                        MIN_ITERATION_INTERVAL_MILLIS_PROP_NAME,
+                        DEFAULT_MIN_ITERATION_INTERVAL_MILLIS);
+        this.warmupStateStore =
+                warmupStateStore != null
+                        ? warmupStateStore
+                        : NoOpWarmupStateStore.INSTANCE;
+        this.restoredWarmupState = loadWarmupState();
+        if (restoredWarmupState != null) {
+            functionCallTimes.putAll(restoredWarmupState.getFunctionCallTimes());
+        }
+        this.warmupMetricsSink =
+                warmupMetricsSink != null
+                        ? warmupMetricsSink
+                        : NoOpWarmupMetricsSink.INSTANCE;
+        this.warmupMetricsCollector =
+                this.warmupMetricsSink != NoOpWarmupMetricsSink.INSTANCE
+                        ? new WarmupMetricsCollector(warmupPropertyProvider)
+                        : null;
+        this.provisionedConcurrencyAwarenessEnabled =
+                !warmupPropertyProvider.getBoolean(DISABLE_PROVISIONED_CONCURRENCY_AWARENESS_PROP_NAME);
+        this.executionRuntime = WarmupExecutionRuntime.getInstance(warmupPropertyProvider);
+    }
+
+    public static WarmupStateStore createDefaultWarmupStateStore(WarmupPropertyProvider warmupPropertyProvider) {
+        if (warmupPropertyProvider.getBoolean(ENABLE_STATE_STORE_PROP_NAME)) {
+            return new FileWarmupStateStore(warmupPropertyProvider);
+        } else {
+            return NoOpWarmupStateStore.INSTANCE;
+        }
+    }
+
+    public static WarmupMetricsSink createDefaultWarmupMetricsSink(WarmupPropertyProvider warmupPropertyProvider) {
+        if (warmupPropertyProvider.getBoolean(ENABLE_METRICS_PROP_NAME)) {
+            return new EmbeddedMetricFormatWarmupMetricsSink(warmupPropertyProvider);
+        } else {
+            return NoOpWarmupMetricsSink.INSTANCE;
+        }
     }
 
     @Override
@@ -207,57 +372,78 @@ public class StandardWarmupStrategy implements WarmupStrategy {
     public void warmup(Context context,
                        LambdaService lambdaService,
                        Map<String, WarmupFunctionInfo> functionsToWarmup) throws IOException {
+        warmup(context, lambdaService, functionsToWarmup.entrySet().iterator());
+    }
+
+    /**
+     * Executes warmup action for the streamed functions.
+     * Functions are invoked for the first iteration round as soon as they are streamed
+     * and collected to be invoked again by the following iteration rounds,
+     * so warmup of the early streamed functions overlaps with discovery of the others.
+     */
+    @Override
+    public void warmup(Context context,
+                       LambdaService lambdaService,
+                       Iterator<Map.Entry<String, WarmupFunctionInfo>> functionsToWarmup) throws IOException {
         int defaultInvocationCount = getDefaultInvocationCount();
 
         logger.info("Default invocation count per function: " + defaultInvocationCount);
 
-        long remainingMillis = context.getRemainingTimeInMillis();
-        long iterationDurationMillis = remainingMillis / iterationCount;
+        WarmupRoundScheduler roundScheduler = createRoundScheduler(context);
         int invocationCountPerIteration = defaultInvocationCount / iterationCount;
-        int remainingInvocationCountAtFinalRound =
-                defaultInvocationCount - (invocationCountPerIteration * iterationCount);
 
         logger.info("Iteration count: " + iterationCount);
 
         ///////////////////////////////////////////////////////////////////////////////
 
-        AtomicLong invocationResultCounter = new AtomicLong(0L);
-        LinkedBlockingQueue<InvokeResultInfo> invocationResultFutures = new LinkedBlockingQueue<>();
+        InvocationResultCounter invocationResultCounter = new InvocationResultCounter();
         List<InvokeResultError> errors = new CopyOnWriteArrayList<>();
-        AtomicBoolean stopFlag = new AtomicBoolean(false);
-        List<Future> futures = new ArrayList<>(invocationResultConsumerCount);
 
-        try {
-            for (int i = 0; i < invocationResultConsumerCount; i++) {
-                InvocationResultConsumer invocationResultConsumer =
-                        new InvocationResultConsumer(
-                                invocationResultCounter,
-                                invocationResultFutures,
-                                errors,
-                                stopFlag);
-                Future future = executorService.submit(invocationResultConsumer);
-                futures.add(future);
-            }
+        // Payloads are encoded once per run, so changed invocation data is picked up by the next run
+        invocationPayloadCache.clear();
 
-            ///////////////////////////////////////////////////////////////////////////////
+        if (warmupMetricsCollector != null) {
+            warmupMetricsCollector.startRun();
+        }
 
+        try {
             Map<String, List<InvokeResultInfo>> invokeResultInfosMap = new HashMap<String, List<InvokeResultInfo>>();
+            Map<String, WarmupFunctionInfo> streamedFunctionsToWarmup = new LinkedHashMap<String, WarmupFunctionInfo>();
+            Map<String, InvocationContext> invocationContexts = new HashMap<String, InvocationContext>();
+            // Provisioned concurrencies are looked up once per run
+            Map<String, Future<Integer>> provisionedConcurrencies = new HashMap<String, Future<Integer>>();
 
             logger.info("Starting iterations to warmup ...");
 
             int invokeCount = (currentIterationCount + 1) * invocationCountPerIteration;
+            // When containers are targeted, functions are invoked in a single round and then topped-up by the results
+            boolean compressRounds = isContainerTargetingEnabled();
             for (int i = currentIterationCount; i < iterationCount; i++) {
-                long startTime = System.currentTimeMillis();
+                roundScheduler.onRoundStarted();
+
+                boolean finalRound = compressRounds || i + 1 == iterationCount;
+                if (finalRound) {
+                    // Final round (or remaining rounds compressed into a single one) completes the invocation count
+                    invokeCount = defaultInvocationCount;
+                }
 
                 logger.info(String.format("Iteration round %d ...", (i + 1)));
-                for (Map.Entry<String, WarmupFunctionInfo> entry : functionsToWarmup.entrySet()) {
+                // Functions are streamed at the first round and replayed from the collected ones at the next rounds
+                boolean streamingRound = i == currentIterationCount;
+                Iterator<Map.Entry<String, WarmupFunctionInfo>> functionIterator =
+                        streamingRound
+                                ? functionsToWarmup
+                                : streamedFunctionsToWarmup.entrySet().iterator();
+                // Invocations are dispatched by the priorities and the weights of their functions
+                WarmupFairDispatcher dispatcher = new WarmupFairDispatcher(i + 1);
+                while (functionIterator.hasNext()) {
+                    Map.Entry<String, WarmupFunctionInfo> entry = functionIterator.next();
+                    if (streamingRound) {
+                        streamedFunctionsToWarmup.put(entry.getKey(), entry.getValue());
+                    }
                     String functionToBeWarmup = entry.getKey();
                     WarmupFunctionInfo functionInfo = entry.getValue();
 
-                    if (i + 1 == iterationCount) {
-                        invokeCount += remainingInvocationCountAtFinalRound;
-                    }
-
                     int actualInvocationCount = invokeCount;
                     boolean randomize = !disableRandomization;
                     Long callTime = functionCallTimes.get(functionToBeWarmup);
@@ -295,6 +481,38 @@ public class StandardWarmupStrategy implements WarmupStrategy {
                         alias = functionInfo.getAlias();
                     }
 
+                    // Demand of the whole run is reported before limiting, so the budget can follow it at the next runs
+                    functionInfo.setDemandedInvocationCount(
+                            functionInvocationCount > 0 ? functionInvocationCount : defaultInvocationCount);
+
+                    int invocationBudget = functionInfo.getInvocationBudget();
+                    if (invocationBudget != WarmupFunctionInfo.NO_INVOCATION_BUDGET
+                            && actualInvocationCount > invocationBudget) {
+                        if (invocationBudget <= 0) {
+                            logger.info(String.format(
+                                    "Skipping function %s as it has no invocation budget",
+                                    functionToBeWarmup));
+                            continue;
+                        }
+                        logger.info(String.format(
+                                "Limiting invocation count of function %s from %d to %d by its invocation budget",
+                                functionToBeWarmup, actualInvocationCount, invocationBudget));
+                        actualInvocationCount = invocationBudget;
+                    }
+
+                    // Provisioned concurrency is looked up in parallel with the other functions
+                    // and awaited when the invocations of the function are dispatched
+                    Future<Integer> provisionedConcurrencyFuture = null;
+                    if (provisionedConcurrencyAwarenessEnabled && alias != null) {
+                        String provisionedConcurrencyKey = getFunctionKey(functionToBeWarmup, alias);
+                        provisionedConcurrencyFuture = provisionedConcurrencies.get(provisionedConcurrencyKey);
+                        if (provisionedConcurrencyFuture == null) {
+                            provisionedConcurrencyFuture =
+                                    lookupProvisionedConcurrency(lambdaService, functionToBeWarmup, alias);
+                            provisionedConcurrencies.put(provisionedConcurrencyKey, provisionedConcurrencyFuture);
+                        }
+                    }
+
                     if (alias != null) {
                         logger.info(String.format(
                                 "Invoking function %s with alias '%s' to warmup for %d times ...",
@@ -307,45 +525,51 @@ public class StandardWarmupStrategy implements WarmupStrategy {
 
                     InvocationContext invocationContext =
                             createInvocationContext(functionInfo, functionToBeWarmup, alias, actualInvocationCount);
-                    for (int j = 0; j < actualInvocationCount; j++) {
-                        if (logger.isDebugEnabled()) {
-                            logger.debug(String.format("Invocation round %d ...", (j + 1)));
-                        }
-                        InvokeRequest invokeRequest = createInvokeRequest(invocationContext, j + 1);
-                        Future<InvokeResult> invokeResultFuture = lambdaService.invokeAsync(invokeRequest);
-                        invocationResultCounter.incrementAndGet();
-                        InvokeResultInfo invokeResultInfo =
-                                new InvokeResultInfo(
-                                        (i + 1), (j + 1),
-                                        functionToBeWarmup, invokeResultFuture);
-                        List<InvokeResultInfo> invokeResultInfos = invokeResultInfosMap.get(functionToBeWarmup);
-                        if (invokeResultInfos == null) {
-                            invokeResultInfos = new ArrayList<InvokeResultInfo>();
-                            invokeResultInfosMap.put(functionToBeWarmup, invokeResultInfos);
-                        }
-                        invokeResultInfos.add(invokeResultInfo);
-                        invocationResultFutures.offer(invokeResultInfo);
-                    }
+                    invocationContext.provisionedConcurrencyFuture = provisionedConcurrencyFuture;
+                    invocationContexts.put(functionToBeWarmup, invocationContext);
+                    dispatcher.add(invocationContext);
 
                     functionCallTimes.putIfAbsent(functionToBeWarmup, System.currentTimeMillis());
+
+                    // While the next streamed function is not ready yet,
+                    // the queued invocations are dispatched instead of waiting for it
+                    if (functionIterator instanceof WarmupFunctionStream
+                            && !((WarmupFunctionStream) functionIterator).isReady()) {
+                        dispatcher.dispatch(
+                                lambdaService,
+                                invocationResultCounter, errors, roundScheduler, invokeResultInfosMap);
+                    }
                 }
 
+                dispatcher.dispatch(
+                        lambdaService,
+                        invocationResultCounter, errors, roundScheduler, invokeResultInfosMap);
+
                 invokeCount += invocationCountPerIteration;
                 invokeCount = Math.min(invokeCount, defaultInvocationCount);
 
-                if (splitIterations) {
+                // No need to plan next round after last round
+                if (splitIterations || finalRound) {
                     break;
                 }
 
-                // No need to sleep at last round
-                if (i < iterationCount - 1 && !dontWaitBetweenInvocationRounds) {
-                    long passedTime = System.currentTimeMillis() - startTime;
-                    long iterationRemainingMillis = iterationDurationMillis - passedTime;
+                WarmupRoundScheduler.RoundPlan roundPlan = roundScheduler.planNextRound(iterationCount - (i + 1));
+                if (roundPlan == WarmupRoundScheduler.RoundPlan.COMPRESS) {
+                    logger.warn(String.format(
+                            "Not enough time for %d more iterations, so compressing them into a single one " +
+                            "(remaining time: %d millis, reserved time for results: %d millis)",
+                            iterationCount - (i + 1),
+                            roundScheduler.getDeadline() - System.currentTimeMillis(),
+                            roundScheduler.getReservedMillis()));
+                    compressRounds = true;
+                } else if (!dontWaitBetweenInvocationRounds) {
+                    long iterationRemainingMillis = roundScheduler.getMillisUntilNextRound();
                     try {
                         logger.info(String.format(
                                 "Sleeping %d millis for next iteration ...", iterationRemainingMillis));
                         Thread.sleep(iterationRemainingMillis);
                     } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
                     }
                 }
             }
@@ -360,25 +584,25 @@ public class StandardWarmupStrategy implements WarmupStrategy {
                 // We don't wait by timeout but wait infinite on purpose.
                 // Because while waiting, if there is a timeout for this warmup handler function,
                 // we should be aware of it
-                while (invocationResultCounter.get() > 0) {
-                    Thread.sleep(1000);
-                }
+                invocationResultCounter.await();
             } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
 
-            stopFlag.set(true);
-
-            Iterator<Future> iter = futures.iterator();
-            while (iter.hasNext()) {
-                Future future = iter.next();
-                future.cancel(true);
-                iter.remove();
+            if (isContainerTargetingEnabled()) {
+                topUpContainers(
+                        lambdaService, invocationContexts,
+                        invocationResultCounter, errors, roundScheduler, invokeResultInfosMap);
             }
 
             ///////////////////////////////////////////////////////////////////////////////
 
             handleInvokeResultInfos(invokeResultInfosMap);
 
+            saveWarmupState();
+
+            publishWarmupMetrics(lambdaService);
+
             if (!errors.isEmpty()) {
                 handleErrors(errors);
             }
@@ -388,10 +612,289 @@ public class StandardWarmupStrategy implements WarmupStrategy {
             if (splitIterations) {
                 currentIterationCount = (currentIterationCount + 1) % iterationCount;
             }
-            for (Future future : futures) {
-                future.cancel(true);
+        }
+    }
+
+    private Future<Integer> lookupProvisionedConcurrency(final LambdaService lambdaService,
+                                                         final String functionName, final String alias) {
+        ExecutorService executorService =
+                executionRuntime.getExecutor(
+                        WarmupExecutionRuntime.PROVISIONED_CONCURRENCY_DISCOVERY_POOL_NAME,
+                        WarmupExecutionRuntime.DEFAULT_PROVISIONED_CONCURRENCY_DISCOVERY_POOL_SIZE);
+        return executorService.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return getProvisionedConcurrency(lambdaService, functionName, alias);
+            }
+        });
+    }
+
+    private boolean isCoveredByProvisionedConcurrency(InvocationContext invocationContext) {
+        Future<Integer> provisionedConcurrencyFuture = invocationContext.provisionedConcurrencyFuture;
+        if (provisionedConcurrencyFuture == null) {
+            return false;
+        }
+        int provisionedConcurrency;
+        try {
+            provisionedConcurrency = provisionedConcurrencyFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+        if (provisionedConcurrency < invocationContext.actualInvocationCount) {
+            return false;
+        }
+        logger.info(String.format(
+                "Skipping function %s as its %d provisioned concurrency covers %d invocations",
+                invocationContext.functionToBeWarmup, provisionedConcurrency,
+                invocationContext.actualInvocationCount));
+        WarmupFunctionInfo functionInfo = invocationContext.functionInfo;
+        if (provisionedConcurrency >= functionInfo.getDemandedInvocationCount()) {
+            functionInfo.setDemandedInvocationCount(0);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the provisioned concurrency allocated for the given alias of the given function.
+     *
+     * @param lambdaService the {@link LambdaService} to list provisioned concurrency configurations
+     * @param functionName  name of the function
+     * @param alias         the alias to be invoked, <code>null</code> if the function is invoked without alias
+     * @return the allocated provisioned concurrency, <code>0</code> if there is no or it couldn't be retrieved
+     */
+    protected int getProvisionedConcurrency(LambdaService lambdaService, String functionName, String alias) {
+        // Provisioned concurrency cannot be configured for the unpublished version
+        if (alias == null) {
+            return 0;
+        }
+        try {
+            String qualifierSuffix = ":" + alias;
+            int provisionedConcurrency = 0;
+            String marker = null;
+            do {
+                ListProvisionedConcurrencyConfigsResult result =
+                        lambdaService.listProvisionedConcurrencyConfigs(
+                                new ListProvisionedConcurrencyConfigsRequest().
+                                        withFunctionName(functionName).
+                                        withMarker(marker));
+                if (result == null || result.getProvisionedConcurrencyConfigs() == null) {
+                    break;
+                }
+                for (ProvisionedConcurrencyConfigListItem config : result.getProvisionedConcurrencyConfigs()) {
+                    if (config.getFunctionArn() != null
+                            && config.getFunctionArn().endsWith(qualifierSuffix)
+                            && config.getAllocatedProvisionedConcurrentExecutions() != null) {
+                        provisionedConcurrency += config.getAllocatedProvisionedConcurrentExecutions();
+                    }
+                }
+                marker = result.getNextMarker();
+            } while (StringUtils.hasValue(marker));
+            return provisionedConcurrency;
+        } catch (AmazonServiceException e) {
+            if (e.getStatusCode() == 403) {
+                logger.warn(
+                        "Not allowed to list provisioned concurrency configurations, " +
+                        "so disabling provisioned concurrency awareness: " + e.getMessage());
+                provisionedConcurrencyAwarenessEnabled = false;
+            } else {
+                logger.error(
+                        String.format(
+                                "Error occurred while listing provisioned concurrency configurations of function '%s'",
+                                functionName),
+                        e);
             }
+            return 0;
+        } catch (Throwable t) {
+            logger.error(
+                    String.format(
+                            "Error occurred while listing provisioned concurrency configurations of function '%s'",
+                            functionName),
+                    t);
+            return 0;
+        }
+    }
+
+    private String getFunctionKey(String functionName, String alias) {
+        return alias != null ? functionName + ":" + alias : functionName;
+    }
+
+    private void invokeFunction(LambdaService lambdaService, InvocationContext invocationContext,
+                                int iterationNo, int invocationNo,
+                                InvocationResultCounter invocationResultCounter, List<InvokeResultError> errors,
+                                WarmupRoundScheduler roundScheduler,
+                                Map<String, List<InvokeResultInfo>> invokeResultInfosMap) {
+        String functionToBeWarmup = invocationContext.functionToBeWarmup;
+        InvokeRequest invokeRequest = createInvokeRequest(invocationContext, invocationNo);
+        InvokeResultInfo invokeResultInfo =
+                new InvokeResultInfo(
+                        iterationNo, invocationNo,
+                        functionToBeWarmup, invocationContext.alias);
+        InvocationResultConsumer invocationResultConsumer =
+                new InvocationResultConsumer(
+                        invokeResultInfo,
+                        invocationResultCounter,
+                        errors,
+                        roundScheduler);
+        invocationResultCounter.increment();
+        invokeResultInfo.startTime = System.nanoTime();
+        try {
+            invokeResultInfo.invokeResultFuture =
+                    lambdaService.invokeAsync(invokeRequest, invocationResultConsumer);
+        } catch (Exception e) {
+            invocationResultConsumer.onError(e);
+        }
+        List<InvokeResultInfo> invokeResultInfos = invokeResultInfosMap.get(functionToBeWarmup);
+        if (invokeResultInfos == null) {
+            invokeResultInfos = new ArrayList<InvokeResultInfo>();
+            invokeResultInfosMap.put(functionToBeWarmup, invokeResultInfos);
         }
+        invokeResultInfos.add(invokeResultInfo);
+    }
+
+    /**
+     * Checks whether warmup targets distinct containers (function instances) in closed-loop.
+     * If it is enabled, every function is invoked in a single round and then,
+     * as long as the distinct instance ids in the responses are fewer than the invocation count,
+     * topped-up by waves. A top-up wave is started after the results of the previous one,
+     * so it invokes the function as many times as its invocation count
+     * to occupy the touched (now idle) containers and to start the missing ones.
+     * Total count of the top-up invocations of a function is limited by {@link #getMaxTopUpInvocationRatio()}.
+     * Requires the responses to be parsed for instance ids by {@link #handleInvokeResult(InvokeResultInfo)},
+     * so it is not supported by this strategy itself.
+     *
+     * @return <code>true</code> if container targeting is enabled, <code>false</code> otherwise
+     */
+    protected boolean isContainerTargetingEnabled() {
+        return false;
+    }
+
+    /**
+     * Gets the maximum count of top-up waves when container targeting is enabled.
+     *
+     * @return the maximum count of top-up waves
+     */
+    protected int getMaxTopUpWaveCount() {
+        return 0;
+    }
+
+    /**
+     * Gets the maximum count of top-up invocations of a function over all the top-up waves
+     * as ratio to its invocation count when container targeting is enabled.
+     *
+     * @return the maximum ratio of the top-up invocations to the invocation count
+     */
+    protected float getMaxTopUpInvocationRatio() {
+        return 0;
+    }
+
+    /**
+     * Counts the distinct function instances which have responded to the given invocations.
+     *
+     * @param invokeResultInfos the invocations of a function
+     * @return the distinct count of the responded instances,
+     *         <code>-1</code> if no response reported its instance id
+     */
+    protected int getTouchedContainerCount(List<InvokeResultInfo> invokeResultInfos) {
+        if (invokeResultInfos == null) {
+            return -1;
+        }
+        Set<String> instanceIds = new HashSet<String>();
+        for (InvokeResultInfo invokeResultInfo : invokeResultInfos) {
+            String instanceId = invokeResultInfo.instanceId;
+            if (instanceId != null) {
+                instanceIds.add(instanceId);
+            }
+        }
+        return instanceIds.isEmpty() ? -1 : instanceIds.size();
+    }
+
+    private void topUpContainers(LambdaService lambdaService, Map<String, InvocationContext> invocationContexts,
+                                 InvocationResultCounter invocationResultCounter, List<InvokeResultError> errors,
+                                 WarmupRoundScheduler roundScheduler,
+                                 Map<String, List<InvokeResultInfo>> invokeResultInfosMap) {
+        int maxTopUpWaveCount = getMaxTopUpWaveCount();
+        float maxTopUpInvocationRatio = getMaxTopUpInvocationRatio();
+        Map<String, Integer> topUpInvocationCounts = new HashMap<String, Integer>();
+        for (int wave = 1; wave <= maxTopUpWaveCount; wave++) {
+            long remainingMillis = roundScheduler.getDeadline() - System.currentTimeMillis();
+            if (remainingMillis < roundScheduler.getReservedMillis()) {
+                logger.warn(String.format(
+                        "Not enough time for top-up wave %d (remaining time: %d millis, reserved time for results: %d millis)",
+                        wave, remainingMillis, roundScheduler.getReservedMillis()));
+                return;
+            }
+            boolean toppedUp = false;
+            for (InvocationContext invocationContext : invocationContexts.values()) {
+                if (invocationContext.skipped) {
+                    continue;
+                }
+                String functionToBeWarmup = invocationContext.functionToBeWarmup;
+                List<InvokeResultInfo> invokeResultInfos = invokeResultInfosMap.get(functionToBeWarmup);
+                int touchedContainerCount = getTouchedContainerCount(invokeResultInfos);
+                if (touchedContainerCount < 0) {
+                    // Containers of the function cannot be distinguished, so there is nothing to target
+                    continue;
+                }
+                int missingContainerCount = invocationContext.actualInvocationCount - touchedContainerCount;
+                if (missingContainerCount <= 0) {
+                    continue;
+                }
+                Integer topUpInvocationCount = topUpInvocationCounts.get(functionToBeWarmup);
+                int remainingTopUpInvocationCount =
+                        (int) (invocationContext.actualInvocationCount * maxTopUpInvocationRatio)
+                                - (topUpInvocationCount != null ? topUpInvocationCount : 0);
+                // All the results have been awaited, so the touched containers are idle now.
+                // Invocations are routed to the idle containers first, so only invoking for the missing ones
+                // would land on the touched containers again. Therefore, the touched containers are occupied too
+                // and only the invocations exceeding them start the missing containers.
+                int waveInvocationCount =
+                        Math.min(touchedContainerCount + missingContainerCount, remainingTopUpInvocationCount);
+                if (waveInvocationCount <= touchedContainerCount) {
+                    // Invocations would only land on the touched containers
+                    logger.info(String.format(
+                            "Touched %d of %d containers of function %s, " +
+                            "but reached the top-up invocation limit, so not topping-up anymore",
+                            touchedContainerCount, invocationContext.actualInvocationCount, functionToBeWarmup));
+                    continue;
+                }
+                logger.info(String.format(
+                        "Touched %d of %d containers of function %s, so invoking %d more times " +
+                        "to occupy the touched containers and start %d more at top-up wave %d ...",
+                        touchedContainerCount, invocationContext.actualInvocationCount,
+                        functionToBeWarmup, waveInvocationCount,
+                        waveInvocationCount - touchedContainerCount, wave));
+                topUpInvocationCounts.put(
+                        functionToBeWarmup,
+                        (topUpInvocationCount != null ? topUpInvocationCount : 0) + waveInvocationCount);
+                int invocationNo = invokeResultInfos.size();
+                for (int j = 0; j < waveInvocationCount; j++) {
+                    invokeFunction(
+                            lambdaService, invocationContext, currentIterationCount + 1, ++invocationNo,
+                            invocationResultCounter, errors, roundScheduler, invokeResultInfosMap);
+                }
+                toppedUp = true;
+            }
+            if (!toppedUp) {
+                logger.info("Touched all the targeted containers, so stopping top-up waves");
+                return;
+            }
+            try {
+                invocationResultCounter.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    protected WarmupRoundScheduler createRoundScheduler(Context context) {
+        return new WarmupRoundScheduler(
+                context.getRemainingTimeInMillis(),
+                resultDrainReserveMillis,
+                minIterationIntervalMillis);
     }
 
     protected int calculateRandomizedInvocationCount(int actualInvocationCount, int invocationCountPerIteration) {
@@ -421,25 +924,141 @@ public class StandardWarmupStrategy implements WarmupStrategy {
         InvokeRequest invokeRequest =
             new InvokeRequest().
                     withFunctionName(invocationContext.functionToBeWarmup).
-                    withPayload(ByteBuffer.wrap(createInvokeRequestPayload(invocationContext, invocationNo)));
+                    withPayload(createInvokeRequestPayloadBuffer(invocationContext, invocationNo));
         if (invocationContext.alias != null) {
             invokeRequest.withQualifier(invocationContext.alias);
         }
         return invokeRequest;
     }
 
+    /**
+     * Creates payload of the warmup invocation request.
+     * Returned buffer must not be modified as its content might be shared with other invocation requests.
+     * If {@link #createInvokeRequestPayload(InvocationContext, int)} is overridden by a subclass,
+     * the payload returned by it is wrapped.
+     *
+     * @param invocationContext the {@link InvocationContext} of the function to be invoked
+     * @param invocationNo      the invocation number of the function in the current round
+     * @return the payload of the warmup invocation request
+     */
+    protected ByteBuffer createInvokeRequestPayloadBuffer(InvocationContext invocationContext, int invocationNo) {
+        if (invokeRequestPayloadBytesOverridden) {
+            byte[] payload = createInvokeRequestPayload(invocationContext, invocationNo);
+            return payload != null ? ByteBuffer.wrap(payload) : EMPTY_PAYLOAD.duplicate();
+        }
+        // Every request has its own view of the shared content, so their positions are independent
+        return getInvocationDataPayload(invocationContext).duplicate();
+    }
+
+    /**
+     * Creates payload of the warmup invocation request as byte array.
+     *
+     * @param invocationContext the {@link InvocationContext} of the function to be invoked
+     * @param invocationNo      the invocation number of the function in the current round
+     * @return the payload of the warmup invocation request
+     * @deprecated Override {@link #createInvokeRequestPayloadBuffer(InvocationContext, int)} instead,
+     *             which shares the encoded payloads between the invocation requests.
+     *             This method is only called if it is overridden.
+     */
+    @Deprecated
     protected byte[] createInvokeRequestPayload(InvocationContext invocationContext, int invocationNo) {
+        return toByteArray(getInvocationDataPayload(invocationContext));
+    }
+
+    protected static byte[] toByteArray(ByteBuffer payload) {
+        ByteBuffer view = payload.duplicate();
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return bytes;
+    }
+
+    private ByteBuffer getInvocationDataPayload(InvocationContext invocationContext) {
         String invocationData = invocationContext.functionInfo.getInvocationData();
         if (StringUtils.isNullOrEmpty(invocationData)) {
-            return new byte[0];
-        } else {
-            return invocationData.getBytes();
+            return EMPTY_PAYLOAD;
         }
+        ByteBuffer payload = invocationPayloadCache.get(invocationData);
+        if (payload == null) {
+            payload = ByteBuffer.wrap(invocationData.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+            invocationPayloadCache.put(invocationData, payload);
+        }
+        return payload;
+    }
+
+    private boolean isInvokeRequestPayloadBytesOverridden() {
+        Class<?> bytesDeclaringClass = getPayloadMethodDeclaringClass("createInvokeRequestPayload");
+        Class<?> bufferDeclaringClass = getPayloadMethodDeclaringClass("createInvokeRequestPayloadBuffer");
+        // Overridden below the class which provides the buffer payload
+        return bytesDeclaringClass != bufferDeclaringClass && bufferDeclaringClass.isAssignableFrom(bytesDeclaringClass);
+    }
+
+    private Class<?> getPayloadMethodDeclaringClass(String methodName) {
+        for (Class<?> clazz = getClass(); clazz != StandardWarmupStrategy.class; clazz = clazz.getSuperclass()) {
+            try {
+                clazz.getDeclaredMethod(methodName, InvocationContext.class, int.class);
+                return clazz;
+            } catch (NoSuchMethodException e) {
+                // Not declared by this class, so look at its super class
+            }
+        }
+        return StandardWarmupStrategy.class;
+    }
+
+    /**
+     * Handles the result of a successfully completed warmup invocation as soon as it is retrieved,
+     * so handling of the results overlaps with the invocations still in progress.
+     * Note that this method might be called concurrently from multiple threads.
+     *
+     * @param invokeResultInfo the {@link InvokeResultInfo} of the completed invocation
+     */
+    protected void handleInvokeResult(InvokeResultInfo invokeResultInfo) {
     }
 
     protected void handleInvokeResultInfos(Map<String, List<InvokeResultInfo>> invokeResultInfosMap) {
     }
 
+    protected void publishWarmupMetrics(LambdaService lambdaService) {
+        if (warmupMetricsCollector == null) {
+            return;
+        }
+        List<AdaptiveConcurrencyLimit> concurrencyLimits =
+                lambdaService instanceof ConcurrencyLimitingLambdaService
+                        ? ((ConcurrencyLimitingLambdaService) lambdaService).getConcurrencyLimits()
+                        : Collections.<AdaptiveConcurrencyLimit>emptyList();
+        WarmupMetrics warmupMetrics = warmupMetricsCollector.finishRun(getName(), concurrencyLimits);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Collected warmup metrics: " + warmupMetrics);
+        }
+        try {
+            warmupMetricsSink.publish(warmupMetrics);
+        } catch (Throwable t) {
+            logger.error("Couldn't publish warmup metrics of " + getName() + " warmup strategy!", t);
+        }
+    }
+
+    protected WarmupStateSnapshot loadWarmupState() {
+        try {
+            return warmupStateStore.load(getName());
+        } catch (Throwable t) {
+            logger.error("Couldn't load state of " + getName() + " warmup strategy! Starting with empty state ...", t);
+            return null;
+        }
+    }
+
+    protected void saveWarmupState() {
+        WarmupStateSnapshot warmupState = new WarmupStateSnapshot();
+        fillWarmupState(warmupState);
+        try {
+            warmupStateStore.save(getName(), warmupState);
+        } catch (Throwable t) {
+            logger.error("Couldn't save state of " + getName() + " warmup strategy!", t);
+        }
+    }
+
+    protected void fillWarmupState(WarmupStateSnapshot warmupState) {
+        warmupState.getFunctionCallTimes().putAll(functionCallTimes);
+    }
+
     protected void handleErrors(List<InvokeResultError> errors) {
         StringBuilder errorMessageBuilder = new StringBuilder("[ERRORS]\n");
         int errorCount = 1;
@@ -457,12 +1076,71 @@ public class StandardWarmupStrategy implements WarmupStrategy {
         }
     }
 
+    /**
+     * Dispatches the invocations of an iteration round through a {@link WeightedFairDispatchQueue},
+     * so the invocations of the functions with higher priority are dispatched first
+     * and the ones with the same priority are interleaved by their weights
+     * instead of dispatching all invocations of a function before the next one.
+     */
+    private class WarmupFairDispatcher {
+
+        private final int iterationNo;
+        private final WeightedFairDispatchQueue<InvocationContext> dispatchQueue =
+                new WeightedFairDispatchQueue<InvocationContext>();
+        private final Map<InvocationContext, Integer> invocationNos = new HashMap<InvocationContext, Integer>();
+
+        private WarmupFairDispatcher(int iterationNo) {
+            this.iterationNo = iterationNo;
+        }
+
+        private void add(InvocationContext invocationContext) {
+            WarmupFunctionInfo functionInfo = invocationContext.functionInfo;
+            dispatchQueue.add(
+                    invocationContext,
+                    functionInfo.getPriority(),
+                    functionInfo.getWeight(),
+                    invocationContext.actualInvocationCount);
+        }
+
+        private void dispatch(LambdaService lambdaService,
+                              InvocationResultCounter invocationResultCounter, List<InvokeResultError> errors,
+                              WarmupRoundScheduler roundScheduler,
+                              Map<String, List<InvokeResultInfo>> invokeResultInfosMap) {
+            InvocationContext invocationContext;
+            while ((invocationContext = dispatchQueue.poll()) != null) {
+                if (invocationContext.skipped) {
+                    continue;
+                }
+                Integer lastInvocationNo = invocationNos.get(invocationContext);
+                if (lastInvocationNo == null && isCoveredByProvisionedConcurrency(invocationContext)) {
+                    invocationContext.skipped = true;
+                    continue;
+                }
+                int invocationNo = lastInvocationNo != null ? lastInvocationNo + 1 : 1;
+                invocationNos.put(invocationContext, invocationNo);
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format(
+                            "Invocation round %d of function %s ...",
+                            invocationNo, invocationContext.functionToBeWarmup));
+                }
+                invokeFunction(
+                        lambdaService, invocationContext, iterationNo, invocationNo,
+                        invocationResultCounter, errors, roundScheduler, invokeResultInfosMap);
+            }
+        }
+
+    }
+
     protected static class InvocationContext {
 
         protected final WarmupFunctionInfo functionInfo;
         protected final String functionToBeWarmup;
         protected final String alias;
         protected final int actualInvocationCount;
+        // Null if provisioned concurrency is not taken into account
+        protected Future<Integer> provisionedConcurrencyFuture;
+        // Set if the invocations are skipped as provisioned concurrency already covers them
+        protected boolean skipped;
 
         public InvocationContext(WarmupFunctionInfo functionInfo, String functionToBeWarmup,
                                  String alias, int actualInvocationCount) {
@@ -495,15 +1173,23 @@ public class StandardWarmupStrategy implements WarmupStrategy {
         protected final int iterationNo;
         protected final int invocationNo;
         protected final String functionName;
-        protected final Future<InvokeResult> invokeResultFuture;
+        protected final String alias;
+        protected volatile Future<InvokeResult> invokeResultFuture;
         protected volatile InvokeResult invokeResult;
+        // Id of the function instance which has responded, if it is reported by the function
+        protected volatile String instanceId;
+        // Start time of the invocation in nanoseconds, only to be used for measuring its latency
+        protected volatile long startTime;
+
+        protected InvokeResultInfo(int iterationNo, int invocationNo, String functionName) {
+            this(iterationNo, invocationNo, functionName, null);
+        }
 
-        protected InvokeResultInfo(int iterationNo, int invocationNo,
-                                   String functionName, Future<InvokeResult> invokeResultFuture) {
+        protected InvokeResultInfo(int iterationNo, int invocationNo, String functionName, String alias) {
             this.iterationNo = iterationNo;
             this.invocationNo = invocationNo;
             this.functionName = functionName;
-            this.invokeResultFuture = invokeResultFuture;
+            this.alias = alias;
         }
 
     }
@@ -525,53 +1211,141 @@ public class StandardWarmupStrategy implements WarmupStrategy {
 
     }
 
-    protected class InvocationResultConsumer implements Runnable {
+    /**
+     * Counts the invocations whose results are not retrieved yet
+     * and lets waiting for all of them without polling.
+     */
+    protected static class InvocationResultCounter {
+
+        private final AtomicLong counter = new AtomicLong(0L);
+
+        protected void increment() {
+            counter.incrementAndGet();
+        }
+
+        protected void decrement() {
+            if (counter.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
 
-        protected final AtomicLong invocationResultCounter;
-        protected final LinkedBlockingQueue<InvokeResultInfo> invocationResultFutures;
+        protected long get() {
+            return counter.get();
+        }
+
+        protected synchronized void await() throws InterruptedException {
+            while (counter.get() > 0) {
+                wait();
+            }
+        }
+
+    }
+
+    /**
+     * Completion callback of a warmup invocation
+     * which collects the invocation result (or error) as soon as it arrives.
+     */
+    protected class InvocationResultConsumer implements AsyncHandler<InvokeRequest, InvokeResult> {
+
+        protected final InvokeResultInfo invokeResultInfo;
+        protected final InvocationResultCounter invocationResultCounter;
         protected final List<InvokeResultError> errors;
-        protected final AtomicBoolean stopFlag;
+        protected final WarmupRoundScheduler roundScheduler;
+
+        protected InvocationResultConsumer(InvokeResultInfo invokeResultInfo,
+                                           InvocationResultCounter invocationResultCounter,
+                                           List<InvokeResultError> errors) {
+            this(invokeResultInfo, invocationResultCounter, errors, null);
+        }
 
-        protected InvocationResultConsumer(AtomicLong invocationResultCounter,
-                                           LinkedBlockingQueue<InvokeResultInfo> invocationResultFutures,
+        protected InvocationResultConsumer(InvokeResultInfo invokeResultInfo,
+                                           InvocationResultCounter invocationResultCounter,
                                            List<InvokeResultError> errors,
-                                           AtomicBoolean stopFlag) {
+                                           WarmupRoundScheduler roundScheduler) {
+            this.invokeResultInfo = invokeResultInfo;
             this.invocationResultCounter = invocationResultCounter;
-            this.invocationResultFutures = invocationResultFutures;
             this.errors = errors;
-            this.stopFlag = stopFlag;
+            this.roundScheduler = roundScheduler;
+        }
+
+        private void recordInvocationLatency() {
+            if (roundScheduler != null) {
+                roundScheduler.recordInvocationLatency(
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - invokeResultInfo.startTime));
+            }
         }
 
         @Override
-        public void run() {
-            while (!stopFlag.get()) {
-                InvokeResultInfo invokeResultInfo = null;
+        public void onSuccess(InvokeRequest request, InvokeResult invokeResult) {
+            try {
+                invokeResultInfo.invokeResult = invokeResult;
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format(
+                            "Invocation result has been successfully retrieved at iteration %d and invocation %d for function %s",
+                            invokeResultInfo.iterationNo, invokeResultInfo.invocationNo, invokeResultInfo.functionName));
+                }
                 try {
-                    invokeResultInfo = invocationResultFutures.take();
-                    invokeResultInfo.invokeResult = invokeResultInfo.invokeResultFuture.get();
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(String.format(
-                                "Invocation result has been successfully retrieved at iteration %d and invocation %d for function %s",
-                                invokeResultInfo.iterationNo, invokeResultInfo.invocationNo, invokeResultInfo.functionName));
-                    }
+                    handleInvokeResult(invokeResultInfo);
                 } catch (Throwable t) {
-                    if (t instanceof InterruptedException) {
-                        return;
+                    logger.error(String.format(
+                            "Handling invocation result has failed at iteration %d and invocation %d for function %s!",
+                            invokeResultInfo.iterationNo, invokeResultInfo.invocationNo, invokeResultInfo.functionName),
+                            t);
+                }
+                if (warmupMetricsCollector != null) {
+                    recordInvocationMetrics(invokeResult);
+                }
+                recordInvocationLatency();
+            } finally {
+                invocationResultCounter.decrement();
+            }
+        }
+
+        @Override
+        public void onError(Exception error) {
+            try {
+                if (error instanceof RejectedExecutionException) {
+                    // Invocation couldn't be submitted (e.g. while shutting down), so the function hasn't failed
+                    logger.warn(String.format(
+                            "Invocation has been rejected at iteration %d and invocation %d for function %s",
+                            invokeResultInfo.iterationNo, invokeResultInfo.invocationNo,
+                            invokeResultInfo.functionName));
+                    if (warmupMetricsCollector != null) {
+                        warmupMetricsCollector.recordThrottle(invokeResultInfo.functionName, invokeResultInfo.alias);
                     }
-                    if (invokeResultInfo != null) {
-                        logger.error(String.format(
-                                "Retrieving invocation result has failed at iteration %d and invocation %d for function %s!",
-                                invokeResultInfo.iterationNo, invokeResultInfo.invocationNo, invokeResultInfo.functionName),
-                                t);
-                        errors.add(new InvokeResultError(
-                                invokeResultInfo.iterationNo, invokeResultInfo.invocationNo,
-                                invokeResultInfo.functionName, t));
+                    recordInvocationLatency();
+                    return;
+                }
+                logger.error(String.format(
+                        "Retrieving invocation result has failed at iteration %d and invocation %d for function %s!",
+                        invokeResultInfo.iterationNo, invokeResultInfo.invocationNo, invokeResultInfo.functionName),
+                        error);
+                errors.add(new InvokeResultError(
+                        invokeResultInfo.iterationNo, invokeResultInfo.invocationNo,
+                        invokeResultInfo.functionName, error));
+                if (warmupMetricsCollector != null) {
+                    if (error instanceof TooManyRequestsException) {
+                        warmupMetricsCollector.recordThrottle(invokeResultInfo.functionName, invokeResultInfo.alias);
                     } else {
-                        logger.error("Error occurred while retrieving invocation result!", t);
+                        warmupMetricsCollector.recordError(invokeResultInfo.functionName, invokeResultInfo.alias);
                     }
-                } finally {
-                    invocationResultCounter.decrementAndGet();
                 }
+                recordInvocationLatency();
+            } finally {
+                invocationResultCounter.decrement();
+            }
+        }
+
+        private void recordInvocationMetrics(InvokeResult invokeResult) {
+            if (invokeResult.getFunctionError() != null) {
+                warmupMetricsCollector.recordError(invokeResultInfo.functionName, invokeResultInfo.alias);
+            } else {
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - invokeResultInfo.startTime);
+                warmupMetricsCollector.recordInvocation(
+                        invokeResultInfo.functionName, invokeResultInfo.alias,
+                        latencyMicros, invokeResultInfo.instanceId);
             }
         }
 
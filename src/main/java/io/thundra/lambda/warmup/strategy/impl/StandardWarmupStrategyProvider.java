@@ -1,31 +1,225 @@
 package io.thundra.lambda.warmup.strategy.impl;
 
-import com.opsgenie.core.instance.InstanceDiscovery;
+import com.opsgenie.core.util.ExceptionUtil;
+import io.thundra.lambda.warmup.WarmupHandler;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.ScopedWarmupPropertyProvider;
 import io.thundra.lambda.warmup.strategy.WarmupStrategy;
 import io.thundra.lambda.warmup.strategy.WarmupStrategyProvider;
+import org.apache.log4j.Logger;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Standard/default {@link WarmupStrategyProvider} implementation
- * which provides {@link WarmupStrategy}s by
- * <b>instance discovery</b> (through {@link InstanceDiscovery}) mechanism .
+ * <p>
+ *      Standard/default {@link WarmupStrategyProvider} implementation
+ *      which provides {@link WarmupStrategy}s declared as services in
+ *      <code>META-INF/services/io.thundra.lambda.warmup.strategy.WarmupStrategy</code> resources.
+ * </p>
+ * <p>
+ *      Declared strategy classes are indexed by their names once, without instantiating them,
+ *      through their public static <code>NAME</code> fields.
+ *      A strategy is instantiated lazily when it is requested for the first time,
+ *      so strategies which are never used don't cost anything (such as their thread pools) on cold start.
+ *      Strategy classes without <code>NAME</code> field are instantiated while indexing to get their names.
+ * </p>
+ * <p>
+ *      If a strategy has a public constructor with {@link WarmupPropertyProvider} parameter,
+ *      it is instantiated with a property scope of its own, so properties can be configured per strategy
+ *      in <code>thundra.lambda.warmup.strategies.&lt;strategy-name&gt;.&lt;property&gt;</code> format
+ *      (for example <code>thundra.lambda.warmup.strategies.predictive.warmupScaleFactor</code>)
+ *      which overrides the <code>thundra.lambda.warmup.&lt;property&gt;</code> property for that strategy only.
+ * </p>
  *
  * @author serkan
  */
 public class StandardWarmupStrategyProvider implements WarmupStrategyProvider {
 
-    private static final List<WarmupStrategy> WARMUP_STRATEGIES =
-            InstanceDiscovery.instancesOf(WarmupStrategy.class);
+    private static final Logger LOGGER = Logger.getLogger(StandardWarmupStrategyProvider.class);
+
+    /**
+     * Prefix of the properties which are scoped by the strategies.
+     */
+    public static final String WARMUP_PROPERTY_NAME_PREFIX = "thundra.lambda.warmup.";
+
+    /**
+     * Prefix of the properties to be configured for a specific strategy
+     * in <code>thundra.lambda.warmup.strategies.&lt;strategy-name&gt;.&lt;property&gt;</code> format.
+     */
+    public static final String STRATEGY_PROPERTY_NAME_PREFIX = "thundra.lambda.warmup.strategies.";
+
+    private static final String WARMUP_STRATEGY_SERVICE_RESOURCE =
+            "META-INF/services/" + WarmupStrategy.class.getName();
+    private static final String WARMUP_STRATEGY_NAME_FIELD = "NAME";
+
+    private final WarmupPropertyProvider warmupPropertyProvider;
+    private final ConcurrentMap<String, WarmupStrategy> warmupStrategies =
+            new ConcurrentHashMap<String, WarmupStrategy>();
+
+    public StandardWarmupStrategyProvider() {
+        this(null);
+    }
+
+    /**
+     * @param warmupPropertyProvider the {@link WarmupPropertyProvider} to configure the strategies,
+     *                               {@link WarmupHandler#DEFAULT_WARMUP_PROPERTY_PROVIDER} is used
+     *                               if it is <code>null</code>
+     */
+    public StandardWarmupStrategyProvider(WarmupPropertyProvider warmupPropertyProvider) {
+        this.warmupPropertyProvider = warmupPropertyProvider;
+    }
 
     @Override
     public WarmupStrategy getWarmupStrategy(String warmupStrategyName) {
-        for (WarmupStrategy ws : WARMUP_STRATEGIES) {
-            if (ws.getName().equals(warmupStrategyName)) {
-                return ws;
+        if (warmupStrategyName == null) {
+            return null;
+        }
+        WarmupStrategy warmupStrategy = warmupStrategies.get(warmupStrategyName);
+        if (warmupStrategy != null) {
+            return warmupStrategy;
+        }
+        WarmupStrategyDeclaration declaration = WarmupStrategyIndex.DECLARATIONS.get(warmupStrategyName);
+        if (declaration == null) {
+            return null;
+        }
+        if (declaration.warmupStrategy != null) {
+            return declaration.warmupStrategy;
+        }
+        // Strategies might create resources such as thread pools,
+        // so they must not be instantiated more than once by concurrent requests
+        synchronized (declaration) {
+            warmupStrategy = warmupStrategies.get(warmupStrategyName);
+            if (warmupStrategy == null) {
+                warmupStrategy = createWarmupStrategy(warmupStrategyName, declaration.warmupStrategyClass);
+                warmupStrategies.put(warmupStrategyName, warmupStrategy);
+            }
+            return warmupStrategy;
+        }
+    }
+
+    private WarmupStrategy createWarmupStrategy(String warmupStrategyName,
+                                                Class<? extends WarmupStrategy> warmupStrategyClass) {
+        LOGGER.debug("Creating " + warmupStrategyName + " warmup strategy ...");
+        try {
+            Constructor<? extends WarmupStrategy> constructor;
+            try {
+                constructor = warmupStrategyClass.getConstructor(WarmupPropertyProvider.class);
+            } catch (NoSuchMethodException e) {
+                return warmupStrategyClass.newInstance();
             }
+            WarmupPropertyProvider scopedWarmupPropertyProvider =
+                    new ScopedWarmupPropertyProvider(
+                            warmupPropertyProvider != null
+                                    ? warmupPropertyProvider
+                                    : WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER,
+                            WARMUP_PROPERTY_NAME_PREFIX,
+                            STRATEGY_PROPERTY_NAME_PREFIX + warmupStrategyName + ".");
+            return constructor.newInstance(scopedWarmupPropertyProvider);
+        } catch (Throwable t) {
+            ExceptionUtil.sneakyThrow(t);
+            return null;
         }
-        return null;
+    }
+
+    private static final class WarmupStrategyDeclaration {
+
+        private final Class<? extends WarmupStrategy> warmupStrategyClass;
+        // Only set for the strategies which had to be instantiated to get their names
+        private final WarmupStrategy warmupStrategy;
+
+        private WarmupStrategyDeclaration(Class<? extends WarmupStrategy> warmupStrategyClass,
+                                          WarmupStrategy warmupStrategy) {
+            this.warmupStrategyClass = warmupStrategyClass;
+            this.warmupStrategy = warmupStrategy;
+        }
+
+    }
+
+    /**
+     * Index of the declared {@link WarmupStrategy}s by their names
+     * which is built on the first request of a strategy.
+     */
+    private static final class WarmupStrategyIndex {
+
+        private static final Map<String, WarmupStrategyDeclaration> DECLARATIONS = buildIndex();
+
+        private static Map<String, WarmupStrategyDeclaration> buildIndex() {
+            ClassLoader classLoader = StandardWarmupStrategyProvider.class.getClassLoader();
+            Map<String, WarmupStrategyDeclaration> declarations =
+                    new LinkedHashMap<String, WarmupStrategyDeclaration>();
+            try {
+                Enumeration<URL> resources = classLoader.getResources(WARMUP_STRATEGY_SERVICE_RESOURCE);
+                while (resources.hasMoreElements()) {
+                    URL resource = resources.nextElement();
+                    BufferedReader reader =
+                            new BufferedReader(
+                                    new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8));
+                    try {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            int commentIdx = line.indexOf('#');
+                            String className = (commentIdx >= 0 ? line.substring(0, commentIdx) : line).trim();
+                            if (!className.isEmpty()) {
+                                indexWarmupStrategy(declarations, classLoader, className);
+                            }
+                        }
+                    } finally {
+                        reader.close();
+                    }
+                }
+            } catch (IOException e) {
+                ExceptionUtil.sneakyThrow(e);
+            }
+            LOGGER.debug("Indexed warmup strategies: " + declarations.keySet());
+            return Collections.unmodifiableMap(declarations);
+        }
+
+        private static void indexWarmupStrategy(Map<String, WarmupStrategyDeclaration> declarations,
+                                                ClassLoader classLoader,
+                                                String className) {
+            try {
+                Class<? extends WarmupStrategy> warmupStrategyClass =
+                        Class.forName(className, false, classLoader).asSubclass(WarmupStrategy.class);
+                String warmupStrategyName = null;
+                WarmupStrategy warmupStrategy = null;
+                try {
+                    Field nameField = warmupStrategyClass.getDeclaredField(WARMUP_STRATEGY_NAME_FIELD);
+                    int modifiers = nameField.getModifiers();
+                    if (Modifier.isPublic(modifiers) && Modifier.isStatic(modifiers)
+                            && nameField.getType() == String.class) {
+                        warmupStrategyName = (String) nameField.get(null);
+                    }
+                } catch (NoSuchFieldException e) {
+                    // Name field is not declared by the strategy itself, so its name is taken from its instance
+                }
+                if (warmupStrategyName == null) {
+                    warmupStrategy = warmupStrategyClass.newInstance();
+                    warmupStrategyName = warmupStrategy.getName();
+                }
+                // First declaration wins as the former linear lookup did
+                if (!declarations.containsKey(warmupStrategyName)) {
+                    declarations.put(
+                            warmupStrategyName,
+                            new WarmupStrategyDeclaration(warmupStrategyClass, warmupStrategy));
+                }
+            } catch (Throwable t) {
+                LOGGER.error("Unable to index warmup strategy " + className, t);
+            }
+        }
+
     }
 
 }
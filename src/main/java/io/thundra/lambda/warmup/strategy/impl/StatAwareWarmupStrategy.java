@@ -2,19 +2,27 @@ package io.thundra.lambda.warmup.strategy.impl;
 
 import com.amazonaws.services.lambda.model.InvokeResult;
 import com.amazonaws.util.StringUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.opsgenie.core.util.ExceptionUtil;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import com.opsgenie.sirocco.api.control.ControlRequestBuilder;
 import com.opsgenie.sirocco.api.control.ControlRequestConstants;
 import io.thundra.lambda.warmup.WarmupFunctionInfo;
 import io.thundra.lambda.warmup.WarmupHandler;
 import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.metrics.WarmupMetricsSink;
+import io.thundra.lambda.warmup.state.WarmupStateSnapshot;
+import io.thundra.lambda.warmup.state.WarmupStateStore;
 import io.thundra.lambda.warmup.strategy.WarmupStrategy;
-import org.json.JSONObject;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>
@@ -125,20 +133,82 @@ public class StatAwareWarmupStrategy extends StandardWarmupStrategy {
      */
     public static final int DEFAULT_MAX_INVOCATION_COUNT = Integer.MAX_VALUE;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final Map<String, Map<String, Date>> functionLatestRequestTimeMap =
-            new HashMap<String, Map<String, Date>>();
-    private final long functionInstanceIdleTime;
-    private final float warmupScaleFactor;
-    private final boolean enableWarmupScale;
-    private final int minInvocationCount;
-    private final int maxInvocationCount;
+    /**
+     * Name of the <code>boolean</code> typed property
+     * which enables targeting distinct containers in closed-loop.
+     * When it is enabled, every function is invoked in a single round and then
+     * topped-up by waves only until the <code>instanceId</code>s in the responses
+     * confirm that the desired count of distinct containers have been touched.
+     * A top-up wave occupies the already touched containers too,
+     * so that its invocations exceeding them start the missing containers.
+     * So invocations and warmup time are saved when the containers are already warm.
+     */
+    public static final String ENABLE_CONTAINER_TARGETING_PROP_NAME =
+            "thundra.lambda.warmup.enableContainerTargeting";
+
+    /**
+     * Name of the <code>integer</code> typed property
+     * which configures the maximum count of top-up waves
+     * when container targeting is enabled by {@link #ENABLE_CONTAINER_TARGETING_PROP_NAME} property.
+     */
+    public static final String MAX_TOP_UP_WAVE_COUNT_PROP_NAME =
+            "thundra.lambda.warmup.maxTopUpWaveCount";
+    /**
+     * Default value for {@link #MAX_TOP_UP_WAVE_COUNT_PROP_NAME} property.
+     * The default value is <code>3</code>.
+     */
+    public static final int DEFAULT_MAX_TOP_UP_WAVE_COUNT = 3;
+
+    /**
+     * Name of the <code>float</code> typed property
+     * which configures the maximum count of top-up invocations of a function over all the top-up waves
+     * as ratio to its invocation count
+     * when container targeting is enabled by {@link #ENABLE_CONTAINER_TARGETING_PROP_NAME} property.
+     */
+    public static final String MAX_TOP_UP_INVOCATION_RATIO_PROP_NAME =
+            "thundra.lambda.warmup.maxTopUpInvocationRatio";
+    /**
+     * Default value for {@link #MAX_TOP_UP_INVOCATION_RATIO_PROP_NAME} property.
+     * The default value is <code>1.0</code>, so a function is invoked at most
+     * twice as many times as its invocation count in total.
+     */
+    public static final float DEFAULT_MAX_TOP_UP_INVOCATION_RATIO = 1.0F;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final TimeZone LATEST_REQUEST_TIME_ZONE =
+            (TimeZone) ControlRequestConstants.DATE_FORMAT.getTimeZone().clone();
+    // Responses without instance id are kept by this key as concurrent maps don't support null keys
+    private static final String UNKNOWN_INSTANCE_ID = "";
+
+    private final WarmupRequestPayloadTemplate warmupRequestPayloadTemplate = new WarmupRequestPayloadTemplate();
+    private final ConcurrentMap<String, Map<String, Long>> functionLatestRequestTimeMap =
+            new ConcurrentHashMap<String, Map<String, Long>>();
+    protected final long functionInstanceIdleTime;
+    protected final float warmupScaleFactor;
+    protected final boolean enableWarmupScale;
+    protected final int minInvocationCount;
+    protected final int maxInvocationCount;
+    protected final boolean enableContainerTargeting;
+    protected final int maxTopUpWaveCount;
+    protected final float maxTopUpInvocationRatio;
 
     public StatAwareWarmupStrategy() {
         this(WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
     }
 
     public StatAwareWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider) {
+        this(warmupPropertyProvider, createDefaultWarmupStateStore(warmupPropertyProvider));
+    }
+
+    public StatAwareWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider,
+                                   WarmupStateStore warmupStateStore) {
+        this(warmupPropertyProvider, warmupStateStore, createDefaultWarmupMetricsSink(warmupPropertyProvider));
+    }
+
+    public StatAwareWarmupStrategy(WarmupPropertyProvider warmupPropertyProvider,
+                                   WarmupStateStore warmupStateStore,
+                                   WarmupMetricsSink warmupMetricsSink) {
+        super(warmupPropertyProvider, warmupStateStore, warmupMetricsSink);
         this.functionInstanceIdleTime =
                 warmupPropertyProvider.getLong(
                         FUNCTION_INSTANCE_IDLE_TIME_PROP_NAME,
@@ -153,6 +223,22 @@ public class StatAwareWarmupStrategy extends StandardWarmupStrategy {
                 warmupPropertyProvider.getInteger(MIN_INVOCATION_COUNT_PROP_NAME, DEFAULT_MIN_INVOCATION_COUNT);
         this.maxInvocationCount =
                 warmupPropertyProvider.getInteger(MAX_INVOCATION_COUNT_PROP_NAME, DEFAULT_MAX_INVOCATION_COUNT);
+        this.enableContainerTargeting =
+                warmupPropertyProvider.getBoolean(ENABLE_CONTAINER_TARGETING_PROP_NAME);
+        this.maxTopUpWaveCount =
+                warmupPropertyProvider.getInteger(MAX_TOP_UP_WAVE_COUNT_PROP_NAME, DEFAULT_MAX_TOP_UP_WAVE_COUNT);
+        this.maxTopUpInvocationRatio =
+                warmupPropertyProvider.getFloat(
+                        MAX_TOP_UP_INVOCATION_RATIO_PROP_NAME,
+                        DEFAULT_MAX_TOP_UP_INVOCATION_RATIO);
+        if (restoredWarmupState != null) {
+            for (Map.Entry<String, Map<String, Long>> entry :
+                    restoredWarmupState.getFunctionLatestRequestTimes().entrySet()) {
+                Map<String, Long> latestRequestTimeMap = new ConcurrentHashMap<String, Long>(entry.getValue());
+                functionLatestRequestTimeMap.put(entry.getKey(), latestRequestTimeMap);
+            }
+            evictExpiredLatestRequestTimes();
+        }
     }
 
     @Override
@@ -160,25 +246,58 @@ public class StatAwareWarmupStrategy extends StandardWarmupStrategy {
         return NAME;
     }
 
+    @Override
+    protected boolean isContainerTargetingEnabled() {
+        return enableContainerTargeting;
+    }
+
+    @Override
+    protected int getMaxTopUpWaveCount() {
+        return maxTopUpWaveCount;
+    }
+
+    @Override
+    protected float getMaxTopUpInvocationRatio() {
+        return maxTopUpInvocationRatio;
+    }
+
     @Override
     protected InvocationContext createInvocationContext(WarmupFunctionInfo functionInfo, String functionToBeWarmup,
                                                         String alias, int actualInvocationCount) {
         return new StatAwareInvocationContext(functionInfo, functionToBeWarmup, alias, actualInvocationCount);
     }
 
+    @Override
+    protected ByteBuffer createInvokeRequestPayloadBuffer(InvocationContext invocationContext, int invocationNo) {
+        if (invokeRequestPayloadBytesOverridden) {
+            return super.createInvokeRequestPayloadBuffer(invocationContext, invocationNo);
+        }
+        return getWarmupRequestPayload(invocationContext, invocationNo);
+    }
+
+    /**
+     * @deprecated Override {@link #createInvokeRequestPayloadBuffer(InvocationContext, int)} instead.
+     */
+    @Deprecated
     @Override
     protected byte[] createInvokeRequestPayload(InvocationContext invocationContext, int invocationNo) {
+        return toByteArray(getWarmupRequestPayload(invocationContext, invocationNo));
+    }
+
+    private ByteBuffer getWarmupRequestPayload(InvocationContext invocationContext, int invocationNo) {
         int delay = 100 * (invocationContext.actualInvocationCount / 10); // Additional wait time to default one (100 ms)
         StatAwareInvocationContext statAwareInvocationContext = (StatAwareInvocationContext) invocationContext;
         if (statAwareInvocationContext.longWarmupInvocationNo == invocationNo) {
             delay = delay * 10;
         }
-        String controlRequest =
-                new ControlRequestBuilder().
-                            controlRequestType("warmup").
-                            controlRequestArgument(ControlRequestConstants.WAIT_ARGUMENT, delay).
-                        build();
-        return controlRequest.getBytes();
+        return warmupRequestPayloadTemplate.getPayload(delay);
+    }
+
+    private static String buildWarmupRequest(int delay) {
+        return new ControlRequestBuilder().
+                        controlRequestType("warmup").
+                        controlRequestArgument(ControlRequestConstants.WAIT_ARGUMENT, delay).
+                    build();
     }
 
     private boolean isFunctionInstanceExpired(long currentTime, long latestRequestTime) {
@@ -195,19 +314,8 @@ public class StatAwareWarmupStrategy extends StandardWarmupStrategy {
             logger.info(
                     "Calculated invocation count in standard way for function " + functionName + ": " + invocationCount);
         } else {
-            Map<String, Date> latestRequestTimeMap = functionLatestRequestTimeMap.get(functionName);
-            if (latestRequestTimeMap != null) {
-                long currentTime = System.currentTimeMillis();
-                int activeInstanceCount = 0;
-                Iterator<Date> iter = latestRequestTimeMap.values().iterator();
-                while (iter.hasNext()) {
-                    Long latestRequestTime = iter.next().getTime();
-                    if (isFunctionInstanceExpired(currentTime, latestRequestTime)) {
-                        iter.remove();
-                    } else {
-                        activeInstanceCount++;
-                    }
-                }
+            int activeInstanceCount = getActiveInstanceCount(functionName);
+            if (activeInstanceCount >= 0) {
                 logger.info("Detected active instance count for function " + functionName + ": " + activeInstanceCount);
                 invocationCount = (int) (activeInstanceCount * warmupScaleFactor);
             } else {
@@ -223,73 +331,232 @@ public class StatAwareWarmupStrategy extends StandardWarmupStrategy {
         return invocationCount;
     }
 
+    /**
+     * Gets the count of the instances of the given function
+     * which have served requests (not warmup messages) within the idle time.
+     *
+     * @param functionName name of the function
+     * @return the active instance count of the function,
+     *         <code>-1</code> if there is no stat for the function
+     */
+    protected int getActiveInstanceCount(String functionName) {
+        Map<String, Long> latestRequestTimeMap = functionLatestRequestTimeMap.get(functionName);
+        if (latestRequestTimeMap == null) {
+            return -1;
+        }
+        long currentTime = System.currentTimeMillis();
+        int activeInstanceCount = 0;
+        Iterator<Long> iter = latestRequestTimeMap.values().iterator();
+        while (iter.hasNext()) {
+            long latestRequestTime = iter.next();
+            if (isFunctionInstanceExpired(currentTime, latestRequestTime)) {
+                iter.remove();
+            } else {
+                activeInstanceCount++;
+            }
+        }
+        return activeInstanceCount;
+    }
+
     @Override
-    protected void handleInvokeResultInfos(Map<String, List<InvokeResultInfo>> invokeResultInfosMap) {
-        for (Map.Entry<String, List<InvokeResultInfo>> entry : invokeResultInfosMap.entrySet()) {
-            String functionName = entry.getKey();
-            List<InvokeResultInfo> invokeResultInfos = entry.getValue();
-            for (InvokeResultInfo invokeResultInfo : invokeResultInfos) {
-                InvokeResult invokeResult = invokeResultInfo.invokeResult;
-                String functionError = invokeResult.getFunctionError();
-                if (StringUtils.hasValue(functionError)) {
-                    JSONObject invokeResultJsonObj =
-                            new JSONObject(new String(invokeResult.getPayload().array()));
-                    String errorMessage;
-                    if (invokeResultJsonObj.has("errorMessage")) {
-                        errorMessage = invokeResultJsonObj.getString("errorMessage");
-                    } else {
-                        errorMessage = functionError;
-                    }
-                    logger.error("Warmup invocation for function " + functionName +
-                                 " has returned with error: " + errorMessage);
-                } else {
-                    String response = new String(invokeResult.getPayload().array());
-                    if (StringUtils.isNullOrEmpty(response)) {
-                        continue;
-                    }
-                    Map<String, Object> responseValues = null;
-                    try {
-                        responseValues = objectMapper.readValue(response, Map.class);
-                    } catch (IOException e) {
-                        ExceptionUtil.sneakyThrow(e);
-                    }
-                    if (responseValues == null) {
-                        continue;
-                    }
-                    String instanceId = (String) responseValues.get("instanceId");
-                    String latestRequestTimeStr = (String) responseValues.get("latestRequestTime");
-                    if (latestRequestTimeStr != null) {
-                        Date latestRequestTime = null;
-                        try {
-                            latestRequestTime = ControlRequestConstants.DATE_FORMAT.parse(latestRequestTimeStr);
-                        } catch (ParseException e) {
-                            ExceptionUtil.sneakyThrow(e);
-                        }
-                        if (latestRequestTime.getTime() > 0) {
-                            Map<String, Date> latestRequestTimeMap = functionLatestRequestTimeMap.get(functionName);
-                            if (latestRequestTimeMap == null) {
-                                latestRequestTimeMap = new HashMap<String, Date>();
-                                functionLatestRequestTimeMap.put(functionName, latestRequestTimeMap);
-                            }
-                            latestRequestTimeMap.put(instanceId, latestRequestTime);
-                        }
-                    }
+    protected void handleInvokeResult(InvokeResultInfo invokeResultInfo) {
+        String functionName = invokeResultInfo.functionName;
+        InvokeResult invokeResult = invokeResultInfo.invokeResult;
+        ByteBuffer payload = invokeResult.getPayload();
+        boolean hasPayload = payload != null && payload.hasRemaining();
+        String functionError = invokeResult.getFunctionError();
+        if (StringUtils.hasValue(functionError)) {
+            String errorMessage = null;
+            if (hasPayload) {
+                try {
+                    errorMessage = parseErrorMessage(payload);
+                } catch (IOException e) {
+                    // Error response is not in JSON format, so use function error itself
                 }
             }
+            if (errorMessage == null) {
+                errorMessage = functionError;
+            }
+            logger.error("Warmup invocation for function " + functionName +
+                         " has returned with error: " + errorMessage);
+            return;
+        }
+        if (!hasPayload) {
+            return;
         }
+        long latestRequestTime;
+        try {
+            latestRequestTime = parseWarmupResponse(payload, invokeResultInfo);
+        } catch (IOException e) {
+            logger.error("Couldn't parse warmup response of function " + functionName + "!", e);
+            return;
+        }
+        if (latestRequestTime > 0) {
+            Map<String, Long> latestRequestTimeMap = functionLatestRequestTimeMap.get(functionName);
+            if (latestRequestTimeMap == null) {
+                Map<String, Long> newLatestRequestTimeMap = new ConcurrentHashMap<String, Long>();
+                latestRequestTimeMap = functionLatestRequestTimeMap.putIfAbsent(functionName, newLatestRequestTimeMap);
+                if (latestRequestTimeMap == null) {
+                    latestRequestTimeMap = newLatestRequestTimeMap;
+                }
+            }
+            String instanceId = invokeResultInfo.instanceId;
+            latestRequestTimeMap.put(instanceId != null ? instanceId : UNKNOWN_INSTANCE_ID, latestRequestTime);
+        }
+    }
+
+    @Override
+    protected void handleInvokeResultInfos(Map<String, List<InvokeResultInfo>> invokeResultInfosMap) {
+        // Results have already been handled by "handleInvokeResult" as soon as they are retrieved
 
         logger.info("Latest requests times of functions: " + functionLatestRequestTimeMap);
 
         evictExpiredLatestRequestTimes();
     }
 
+    private static JsonParser createJsonParser(ByteBuffer payload) throws IOException {
+        if (payload.hasArray()) {
+            // Parse directly from the backing array without copying
+            return JSON_FACTORY.createParser(
+                    payload.array(), payload.arrayOffset() + payload.position(), payload.remaining());
+        } else {
+            return JSON_FACTORY.createParser(new ByteBufferBackedInputStream(payload.duplicate()));
+        }
+    }
+
+    private static String parseErrorMessage(ByteBuffer payload) throws IOException {
+        JsonParser parser = createJsonParser(payload);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("errorMessage".equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                    return parser.getText();
+                }
+                parser.skipChildren();
+            }
+            return null;
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Parses <code>instanceId</code> (into the given {@link InvokeResultInfo})
+     * and <code>latestRequestTime</code> from the warmup response
+     * by streaming over the tokens without binding the whole response.
+     *
+     * @return the latest request time in milliseconds, <code>-1</code> if there is no latest request time
+     */
+    private long parseWarmupResponse(ByteBuffer payload, InvokeResultInfo invokeResultInfo) throws IOException {
+        JsonParser parser = createJsonParser(payload);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return -1;
+            }
+            long latestRequestTime = -1;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if ("instanceId".equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                    invokeResultInfo.instanceId = parser.getText();
+                } else if ("latestRequestTime".equals(fieldName) && valueToken == JsonToken.VALUE_STRING) {
+                    latestRequestTime =
+                            decodeLatestRequestTime(
+                                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return latestRequestTime;
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Decodes the latest request time in <code>yyyy-MM-dd HH:mm:ss.SSS</code> format
+     * (in the time zone of {@link ControlRequestConstants#DATE_FORMAT})
+     * without any allocation and synchronization.
+     * Falls back to {@link ControlRequestConstants#DATE_FORMAT} for the values in any other format.
+     */
+    private long decodeLatestRequestTime(char[] chars, int offset, int length) {
+        if (length == 23
+                && chars[offset + 4] == '-' && chars[offset + 7] == '-' && chars[offset + 10] == ' '
+                && chars[offset + 13] == ':' && chars[offset + 16] == ':' && chars[offset + 19] == '.') {
+            int year = decodeDigits(chars, offset, 4);
+            int month = decodeDigits(chars, offset + 5, 2);
+            int day = decodeDigits(chars, offset + 8, 2);
+            int hour = decodeDigits(chars, offset + 11, 2);
+            int minute = decodeDigits(chars, offset + 14, 2);
+            int second = decodeDigits(chars, offset + 17, 2);
+            int millis = decodeDigits(chars, offset + 20, 3);
+            if (year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= 31
+                    && hour >= 0 && hour < 24 && minute >= 0 && minute < 60 && second >= 0 && second < 60
+                    && millis >= 0) {
+                long localTime =
+                        ((((toEpochDay(year, month, day) * 24 + hour) * 60 + minute) * 60 + second) * 1000) + millis;
+                return localTime - LATEST_REQUEST_TIME_ZONE.getOffset(localTime - LATEST_REQUEST_TIME_ZONE.getRawOffset());
+            }
+        }
+        String latestRequestTimeStr = new String(chars, offset, length);
+        try {
+            synchronized (ControlRequestConstants.DATE_FORMAT) {
+                return ControlRequestConstants.DATE_FORMAT.parse(latestRequestTimeStr).getTime();
+            }
+        } catch (ParseException e) {
+            logger.error("Couldn't parse latest request time: " + latestRequestTimeStr, e);
+            return -1;
+        }
+    }
+
+    private static int decodeDigits(char[] chars, int offset, int length) {
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static long toEpochDay(int year, int month, int day) {
+        // Days from civil date in proleptic Gregorian calendar
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    @Override
+    protected void fillWarmupState(WarmupStateSnapshot warmupState) {
+        super.fillWarmupState(warmupState);
+        for (Map.Entry<String, Map<String, Long>> entry : functionLatestRequestTimeMap.entrySet()) {
+            Map<String, Long> latestRequestTimes = new HashMap<String, Long>();
+            for (Map.Entry<String, Long> e : entry.getValue().entrySet()) {
+                // Responses without instance id cannot be distinguished after restore, so they are not kept
+                if (!UNKNOWN_INSTANCE_ID.equals(e.getKey())) {
+                    latestRequestTimes.put(e.getKey(), e.getValue());
+                }
+            }
+            warmupState.getFunctionLatestRequestTimes().put(entry.getKey(), latestRequestTimes);
+        }
+    }
+
     private void evictExpiredLatestRequestTimes() {
         long currentTime = System.currentTimeMillis();
-        for (Map.Entry<String, Map<String, Date>> entry : functionLatestRequestTimeMap.entrySet()) {
-            Map<String, Date> latestRequestTimeMap = entry.getValue();
-            Iterator<Date> iter = latestRequestTimeMap.values().iterator();
+        for (Map.Entry<String, Map<String, Long>> entry : functionLatestRequestTimeMap.entrySet()) {
+            Map<String, Long> latestRequestTimeMap = entry.getValue();
+            Iterator<Long> iter = latestRequestTimeMap.values().iterator();
             while (iter.hasNext()) {
-                Long latestRequestTime = iter.next().getTime();
+                long latestRequestTime = iter.next();
                 if (isFunctionInstanceExpired(currentTime, latestRequestTime)) {
                     iter.remove();
                 }
@@ -297,6 +564,76 @@ public class StatAwareWarmupStrategy extends StandardWarmupStrategy {
         }
     }
 
+    /**
+     * Encodes warmup requests by patching the delay into the pre-encoded warmup request template
+     * and caches encoded payloads of the delays as there are only a few distinct delays.
+     */
+    private static class WarmupRequestPayloadTemplate {
+
+        private static final int DELAY_PLACEHOLDER = 987654321;
+        private static final int MAX_CACHED_PAYLOAD_COUNT = 64;
+
+        private final byte[] prefix;
+        private final byte[] suffix;
+        private final Map<Integer, ByteBuffer> payloads = new ConcurrentHashMap<Integer, ByteBuffer>();
+
+        private WarmupRequestPayloadTemplate() {
+            String template = buildWarmupRequest(DELAY_PLACEHOLDER);
+            String placeholder = String.valueOf(DELAY_PLACEHOLDER);
+            int placeholderIdx = template.indexOf(placeholder);
+            if (placeholderIdx >= 0 && template.indexOf(placeholder, placeholderIdx + 1) < 0) {
+                byte[] prefix = template.substring(0, placeholderIdx).getBytes(StandardCharsets.UTF_8);
+                byte[] suffix = template.substring(placeholderIdx + placeholder.length()).getBytes(StandardCharsets.UTF_8);
+                // Use the template only if it produces exactly the same output with the builder
+                if (Arrays.equals(encode(prefix, suffix, 100), buildWarmupRequest(100).getBytes(StandardCharsets.UTF_8))) {
+                    this.prefix = prefix;
+                    this.suffix = suffix;
+                    return;
+                }
+            }
+            this.prefix = null;
+            this.suffix = null;
+        }
+
+        private ByteBuffer getPayload(int delay) {
+            ByteBuffer payload = payloads.get(delay);
+            if (payload == null) {
+                byte[] encoded =
+                        prefix != null
+                                ? encode(prefix, suffix, delay)
+                                : buildWarmupRequest(delay).getBytes(StandardCharsets.UTF_8);
+                payload = ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+                if (payloads.size() < MAX_CACHED_PAYLOAD_COUNT) {
+                    payloads.put(delay, payload);
+                }
+            }
+            // Every request has its own view of the shared content, so their positions are independent
+            return payload.duplicate();
+        }
+
+        private static byte[] encode(byte[] prefix, byte[] suffix, int delay) {
+            int digitCount = 1;
+            for (int d = delay / 10; d != 0; d /= 10) {
+                digitCount++;
+            }
+            boolean negative = delay < 0;
+            int delayLength = digitCount + (negative ? 1 : 0);
+            byte[] encoded = new byte[prefix.length + delayLength + suffix.length];
+            System.arraycopy(prefix, 0, encoded, 0, prefix.length);
+            if (negative) {
+                encoded[prefix.length] = '-';
+            }
+            int d = delay;
+            for (int i = prefix.length + delayLength - 1; i >= prefix.length + (negative ? 1 : 0); i--) {
+                encoded[i] = (byte) ('0' + Math.abs(d % 10));
+                d /= 10;
+            }
+            System.arraycopy(suffix, 0, encoded, prefix.length + delayLength, suffix.length);
+            return encoded;
+        }
+
+    }
+
     private static class StatAwareInvocationContext extends InvocationContext {
 
         private static final Random RANDOM = new Random();
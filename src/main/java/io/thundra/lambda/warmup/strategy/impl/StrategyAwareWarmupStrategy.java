@@ -4,16 +4,21 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.opsgenie.core.util.ExceptionUtil;
 import io.thundra.lambda.warmup.LambdaService;
 import io.thundra.lambda.warmup.WarmupFunctionInfo;
+import io.thundra.lambda.warmup.WarmupFunctionStream;
+import io.thundra.lambda.warmup.WarmupHandler;
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.concurrency.WarmupExecutionRuntime;
 import io.thundra.lambda.warmup.strategy.WarmupStrategy;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 /**
@@ -30,10 +35,22 @@ public class StrategyAwareWarmupStrategy implements WarmupStrategy {
     public static final String NAME = "strategy-aware";
 
     private final WarmupStrategy warmupStrategy;
-    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final ExecutorService executorService;
 
     public StrategyAwareWarmupStrategy(WarmupStrategy warmupStrategy) {
+        this(warmupStrategy, WarmupHandler.DEFAULT_WARMUP_PROPERTY_PROVIDER);
+    }
+
+    public StrategyAwareWarmupStrategy(WarmupStrategy warmupStrategy, WarmupPropertyProvider warmupPropertyProvider) {
+        this(warmupStrategy,
+             WarmupExecutionRuntime.getInstance(warmupPropertyProvider).getExecutor(
+                     WarmupExecutionRuntime.STRATEGY_POOL_NAME,
+                     WarmupExecutionRuntime.DEFAULT_STRATEGY_POOL_SIZE));
+    }
+
+    public StrategyAwareWarmupStrategy(WarmupStrategy warmupStrategy, ExecutorService executorService) {
         this.warmupStrategy = warmupStrategy;
+        this.executorService = executorService;
     }
 
     @Override
@@ -123,6 +140,62 @@ public class StrategyAwareWarmupStrategy implements WarmupStrategy {
             futures.add(future);
         }
 
+        awaitWarmups(futures);
+    }
+
+    /**
+     * Dispatches the streamed functions to the {@link WarmupFunctionStream}s of their {@link WarmupStrategy}s
+     * as soon as they are streamed. Warmup of a {@link WarmupStrategy} is started
+     * when its first function is streamed, so early streamed functions are warmed-up
+     * while the others are still being discovered.
+     */
+    @Override
+    public void warmup(Context context,
+                       LambdaService lambdaService,
+                       Iterator<Map.Entry<String, WarmupFunctionInfo>> functionsToWarmup) throws IOException {
+        Map<WarmupStrategy, WarmupFunctionStream> functionStreams =
+                new LinkedHashMap<WarmupStrategy, WarmupFunctionStream>();
+        List<Future> futures = new ArrayList<Future>();
+
+        try {
+            while (functionsToWarmup.hasNext()) {
+                Map.Entry<String, WarmupFunctionInfo> entry = functionsToWarmup.next();
+                WarmupStrategy warmupStrategy = entry.getValue().getWarmupStrategy();
+                if (warmupStrategy == null) {
+                    warmupStrategy = this.warmupStrategy;
+                }
+                WarmupFunctionStream functionStream = functionStreams.get(warmupStrategy);
+                if (functionStream == null) {
+                    WarmupStrategy delegatedWarmupStrategy = warmupStrategy;
+                    WarmupFunctionStream delegatedFunctionStream = new WarmupFunctionStream();
+                    functionStream = delegatedFunctionStream;
+                    functionStreams.put(warmupStrategy, functionStream);
+                    Future future =
+                            executorService.submit(new Runnable() {
+                                @Override
+                                public void run() {
+                                    try {
+                                        delegatedWarmupStrategy.warmup(
+                                                context, lambdaService, delegatedFunctionStream);
+                                    } catch (IOException e) {
+                                        ExceptionUtil.sneakyThrow(e);
+                                    }
+                                }
+                            });
+                    futures.add(future);
+                }
+                functionStream.publish(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            for (WarmupFunctionStream functionStream : functionStreams.values()) {
+                functionStream.complete();
+            }
+        }
+
+        awaitWarmups(futures);
+    }
+
+    private void awaitWarmups(List<Future> futures) {
         List<Throwable> errors = new ArrayList<Throwable>();
         for (int i = 0; i < futures.size(); i++) {
             try {
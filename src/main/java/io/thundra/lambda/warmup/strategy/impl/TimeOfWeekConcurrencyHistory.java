@@ -0,0 +1,154 @@
+package io.thundra.lambda.warmup.strategy.impl;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ *      Compact seasonal history of the observed concurrency (active instance count) of a function.
+ *      Week is divided into fixed size time buckets and every bucket keeps
+ *      an exponentially weighted moving average (EWMA) of the concurrencies observed in that time of week,
+ *      so the recurring traffic curves (such as the ramp-up at the start of every weekday)
+ *      are learned in a few weeks while the old observations fade away.
+ *      Multiple observations in the same bucket of the same week are merged by their peak
+ *      before being averaged with the previous weeks, so frequent warmups don't dominate the history.
+ * </p>
+ * <p>
+ *      Times of week are calculated in UTC. Buckets without any observation are kept as {@link Float#NaN}.
+ *      This class is thread-safe.
+ * </p>
+ *
+ * @author serkan
+ */
+public class TimeOfWeekConcurrencyHistory {
+
+    public static final long WEEK_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+
+    // Epoch (1970-01-01) is Thursday, so shift by 3 days for weeks to start on Monday
+    private static final long WEEK_START_OFFSET_MILLIS = 3 * 24 * 60 * 60 * 1000L;
+
+    private final long bucketSizeMillis;
+    private final float smoothingFactor;
+    private final float[] buckets;
+    private long currentPeriod = -1;
+    private float currentPeriodPeak;
+    private float previousAverage;
+
+    /**
+     * @param bucketSizeMillis size of the time buckets in milliseconds
+     * @param smoothingFactor  weight of a new observation against the average of the previous ones,
+     *                         must be in <code>(0, 1]</code> range
+     */
+    public TimeOfWeekConcurrencyHistory(long bucketSizeMillis, float smoothingFactor) {
+        this(bucketSizeMillis, smoothingFactor, null);
+    }
+
+    /**
+     * @param bucketSizeMillis size of the time buckets in milliseconds
+     * @param smoothingFactor  weight of a new observation against the average of the previous ones,
+     *                         must be in <code>(0, 1]</code> range
+     * @param buckets          the previously persisted buckets (see {@link #getBuckets()}) to restore,
+     *                         ignored if it is <code>null</code> or its size doesn't match with the bucket size
+     */
+    public TimeOfWeekConcurrencyHistory(long bucketSizeMillis, float smoothingFactor, float[] buckets) {
+        if (bucketSizeMillis <= 0 || bucketSizeMillis > WEEK_MILLIS) {
+            throw new IllegalArgumentException("Bucket size must be in (0, 1 week] range: " + bucketSizeMillis);
+        }
+        if (smoothingFactor <= 0 || smoothingFactor > 1) {
+            throw new IllegalArgumentException("Smoothing factor must be in (0, 1] range: " + smoothingFactor);
+        }
+        this.bucketSizeMillis = bucketSizeMillis;
+        this.smoothingFactor = smoothingFactor;
+        int bucketCount = (int) ((WEEK_MILLIS + bucketSizeMillis - 1) / bucketSizeMillis);
+        if (buckets != null && buckets.length == bucketCount) {
+            this.buckets = Arrays.copyOf(buckets, bucketCount);
+        } else {
+            this.buckets = new float[bucketCount];
+            Arrays.fill(this.buckets, Float.NaN);
+        }
+    }
+
+    public long getBucketSizeMillis() {
+        return bucketSizeMillis;
+    }
+
+    public float getSmoothingFactor() {
+        return smoothingFactor;
+    }
+
+    private int getBucketIndex(long time) {
+        long timeOfWeek = Math.floorMod(time + WEEK_START_OFFSET_MILLIS, WEEK_MILLIS);
+        return (int) (timeOfWeek / bucketSizeMillis);
+    }
+
+    /**
+     * Records the concurrency observed at the given time.
+     *
+     * @param time        the observation time in milliseconds
+     * @param concurrency the observed concurrency
+     */
+    public synchronized void observe(long time, float concurrency) {
+        int bucketIndex = getBucketIndex(time);
+        long period = Math.floorDiv(time + WEEK_START_OFFSET_MILLIS, bucketSizeMillis);
+        if (period == currentPeriod) {
+            // Another observation in the same bucket of the same week, so revise the average by the peak
+            currentPeriodPeak = Math.max(currentPeriodPeak, concurrency);
+        } else {
+            currentPeriod = period;
+            currentPeriodPeak = concurrency;
+            previousAverage = buckets[bucketIndex];
+        }
+        if (Float.isNaN(previousAverage)) {
+            buckets[bucketIndex] = currentPeriodPeak;
+        } else {
+            buckets[bucketIndex] = smoothingFactor * currentPeriodPeak + (1 - smoothingFactor) * previousAverage;
+        }
+    }
+
+    /**
+     * Predicts the concurrency at the given time.
+     *
+     * @param time the time in milliseconds
+     * @return the predicted concurrency, {@link Float#NaN} if there is no observation for that time of week
+     */
+    public synchronized float predict(long time) {
+        return buckets[getBucketIndex(time)];
+    }
+
+    /**
+     * Predicts the peak concurrency in the given time range,
+     * so the function can be scaled ahead of the predicted ramp-ups.
+     *
+     * @param startTime the start time of the range in milliseconds
+     * @param endTime   the end time of the range in milliseconds
+     * @return the predicted peak concurrency,
+     *         {@link Float#NaN} if there is no observation for any time of week in the range
+     */
+    public synchronized float predictPeak(long startTime, long endTime) {
+        float peak = Float.NaN;
+        long bucketCount = Math.min((Math.max(endTime, startTime) - startTime) / bucketSizeMillis + 1, buckets.length);
+        for (long i = 0; i < bucketCount; i++) {
+            float prediction = buckets[getBucketIndex(startTime + i * bucketSizeMillis)];
+            if (!Float.isNaN(prediction) && (Float.isNaN(peak) || prediction > peak)) {
+                peak = prediction;
+            }
+        }
+        if (bucketCount < buckets.length) {
+            // End of the range might fall into the next bucket which is not covered by the steps above
+            float prediction = buckets[getBucketIndex(endTime)];
+            if (!Float.isNaN(prediction) && (Float.isNaN(peak) || prediction > peak)) {
+                peak = prediction;
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Gets a copy of the buckets to be persisted.
+     *
+     * @return a copy of the buckets
+     */
+    public synchronized float[] getBuckets() {
+        return Arrays.copyOf(buckets, buckets.length);
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.thundra.lambda.warmup.strategy.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ *      Deadline driven scheduler which places warmup invocation rounds of a warmup run
+ *      on the timeline of the execution time budget of the warmup handler.
+ * </p>
+ * <p>
+ *      Tail of the time budget is reserved for draining results of the outstanding invocations.
+ *      Reserved time is the maximum of the configured drain reserve and two times of
+ *      the slowest observed invocation latency, but not more than half of the time budget.
+ *      The rest of the time budget is re-planned before every round by spreading the remaining rounds
+ *      evenly between the start of the last round and the issue deadline, so the time spent
+ *      while issuing the invocations of a round is taken into account.
+ *      If the planned interval between rounds becomes shorter than the minimum round interval
+ *      or the next round cannot be started before the issue deadline,
+ *      the remaining rounds are compressed into a single round to be issued immediately.
+ * </p>
+ * <p>
+ *      Latencies might be recorded concurrently from invocation completion callbacks,
+ *      but rounds must be planned by a single thread.
+ * </p>
+ *
+ * @author serkan
+ */
+public class WarmupRoundScheduler {
+
+    /**
+     * Plan of the next warmup invocation round.
+     */
+    public enum RoundPlan {
+
+        /**
+         * Next round should be started after waiting
+         * {@link WarmupRoundScheduler#getMillisUntilNextRound()} milliseconds.
+         */
+        WAIT,
+
+        /**
+         * Remaining rounds should be compressed into a single round to be started immediately.
+         */
+        COMPRESS
+
+    }
+
+    private final long budgetMillis;
+    private final long deadline;
+    private final long drainReserveMillis;
+    private final long minRoundIntervalMillis;
+    private final AtomicLong maxInvocationLatencyMillis = new AtomicLong();
+    private long lastRoundStartTime;
+    private long nextRoundStartTime;
+
+    /**
+     * @param remainingMillis        the remaining execution time budget in milliseconds
+     * @param drainReserveMillis     the minimum time in milliseconds to be reserved at the end of the budget
+     *                               for draining results of the outstanding invocations
+     * @param minRoundIntervalMillis the minimum interval in milliseconds between rounds,
+     *                               below which the remaining rounds are compressed
+     */
+    public WarmupRoundScheduler(long remainingMillis, long drainReserveMillis, long minRoundIntervalMillis) {
+        long now = System.currentTimeMillis();
+        this.budgetMillis = remainingMillis;
+        this.deadline = now + remainingMillis;
+        this.drainReserveMillis = drainReserveMillis;
+        this.minRoundIntervalMillis = minRoundIntervalMillis;
+        this.lastRoundStartTime = now;
+        this.nextRoundStartTime = now;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Records the observed latency of a completed warmup invocation.
+     *
+     * @param latencyMillis the latency of the invocation in milliseconds
+     */
+    public void recordInvocationLatency(long latencyMillis) {
+        long max;
+        while (latencyMillis > (max = maxInvocationLatencyMillis.get())) {
+            if (maxInvocationLatencyMillis.compareAndSet(max, latencyMillis)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Gets the time in milliseconds reserved at the end of the budget for draining results.
+     *
+     * @return the reserved time in milliseconds
+     */
+    public long getReservedMillis() {
+        long reserve = Math.max(drainReserveMillis, 2 * maxInvocationLatencyMillis.get());
+        return Math.max(0, Math.min(reserve, budgetMillis / 2));
+    }
+
+    /**
+     * Notifies the scheduler that a new round has been started now.
+     */
+    public void onRoundStarted() {
+        lastRoundStartTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Plans the next round.
+     *
+     * @param remainingRoundCount the count of the rounds which have not been started yet
+     * @return the {@link RoundPlan} of the next round
+     */
+    public RoundPlan planNextRound(int remainingRoundCount) {
+        long now = System.currentTimeMillis();
+        long issueDeadline = deadline - getReservedMillis();
+        // Last round's invocations need as much time as the other rounds to complete,
+        // so remaining rounds are spread as if there is one more round.
+        long roundIntervalMillis = (issueDeadline - lastRoundStartTime) / (remainingRoundCount + 1);
+        long plannedStartTime = lastRoundStartTime + roundIntervalMillis;
+        if (roundIntervalMillis < minRoundIntervalMillis || plannedStartTime > issueDeadline) {
+            nextRoundStartTime = now;
+            return RoundPlan.COMPRESS;
+        }
+        nextRoundStartTime = Math.max(now, plannedStartTime);
+        return RoundPlan.WAIT;
+    }
+
+    /**
+     * Gets the time in milliseconds to wait until the start of the planned next round.
+     *
+     * @return the time in milliseconds to wait, never negative
+     */
+    public long getMillisUntilNextRound() {
+        return Math.max(0, nextRoundStartTime - System.currentTimeMillis());
+    }
+
+}
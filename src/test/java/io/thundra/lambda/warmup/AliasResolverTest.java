@@ -0,0 +1,137 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.AliasConfiguration;
+import com.amazonaws.services.lambda.model.ListAliasesRequest;
+import com.amazonaws.services.lambda.model.ListAliasesResult;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author serkan
+ */
+public class AliasResolverTest {
+
+    private LambdaService lambdaService;
+    private AliasResolver aliasResolver;
+
+    @Before
+    public void setup() {
+        lambdaService = mock(LambdaService.class);
+        aliasResolver = new AliasResolver(lambdaService);
+    }
+
+    @Test
+    public void shouldResolveAliasWithLatestVersion() {
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction"))).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(
+                                new AliasConfiguration().withName("v1").withFunctionVersion("1"),
+                                new AliasConfiguration().withName("latest").withFunctionVersion("$LATEST"),
+                                new AliasConfiguration().withName("v2").withFunctionVersion("2")));
+
+        assertThat(aliasResolver.resolve("testFunction"), is("latest"));
+    }
+
+    @Test
+    public void shouldResolveAliasWithMaxVersion() {
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction"))).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(
+                                new AliasConfiguration().withName("v10").withFunctionVersion("10"),
+                                new AliasConfiguration().withName("v2").withFunctionVersion("2"),
+                                new AliasConfiguration().withName("prod").withFunctionVersion("10")));
+
+        // Later alias mapped to the same version overrides the earlier one
+        assertThat(aliasResolver.resolve("testFunction"), is("prod"));
+    }
+
+    @Test
+    public void shouldResolveNoAliasIfFunctionHasNoAlias() {
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction"))).
+                thenReturn(new ListAliasesResult());
+
+        assertThat(aliasResolver.resolve("testFunction") == null, is(true));
+    }
+
+    @Test
+    public void shouldResolveAgainWhenVersionsChange() {
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction"))).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(
+                                new AliasConfiguration().withName("v1").withFunctionVersion("1"),
+                                new AliasConfiguration().withName("v2").withFunctionVersion("2"))).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(
+                                new AliasConfiguration().withName("v1").withFunctionVersion("3"),
+                                new AliasConfiguration().withName("v2").withFunctionVersion("2")));
+
+        assertThat(aliasResolver.resolve("testFunction"), is("v2"));
+        assertThat(aliasResolver.resolve("testFunction"), is("v1"));
+        verify(lambdaService, times(2)).listAliases(any(ListAliasesRequest.class));
+    }
+
+    @Test
+    public void shouldCoalesceConcurrentResolutionsOfSameFunction() throws Exception {
+        final CountDownLatch listingLatch = new CountDownLatch(1);
+        final CountDownLatch releaseLatch = new CountDownLatch(1);
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction"))).
+                thenAnswer(new Answer<ListAliasesResult>() {
+                    @Override
+                    public ListAliasesResult answer(InvocationOnMock invocation) throws Throwable {
+                        listingLatch.countDown();
+                        releaseLatch.await();
+                        return new ListAliasesResult().
+                                withAliases(new AliasConfiguration().withName("v1").withFunctionVersion("1"));
+                    }
+                });
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> future1 = executorService.submit(new ResolveTask("testFunction"));
+            listingLatch.await(10, TimeUnit.SECONDS);
+            Future<String> future2 = executorService.submit(new ResolveTask("testFunction"));
+            // Give the second resolution time to join the in-flight one
+            Thread.sleep(200);
+            releaseLatch.countDown();
+
+            assertThat(future1.get(10, TimeUnit.SECONDS), is("v1"));
+            assertThat(future2.get(10, TimeUnit.SECONDS), is("v1"));
+            verify(lambdaService, times(1)).listAliases(any(ListAliasesRequest.class));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private class ResolveTask implements Callable<String> {
+
+        private final String functionName;
+
+        private ResolveTask(String functionName) {
+            this.functionName = functionName;
+        }
+
+        @Override
+        public String call() {
+            return aliasResolver.resolve(functionName);
+        }
+
+    }
+
+}
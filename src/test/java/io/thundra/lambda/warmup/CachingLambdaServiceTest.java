@@ -0,0 +1,111 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.AliasConfiguration;
+import com.amazonaws.services.lambda.model.FunctionConfiguration;
+import com.amazonaws.services.lambda.model.ListAliasesRequest;
+import com.amazonaws.services.lambda.model.ListAliasesResult;
+import com.amazonaws.services.lambda.model.ListFunctionsRequest;
+import com.amazonaws.services.lambda.model.ListFunctionsResult;
+import com.amazonaws.services.lambda.model.ListProvisionedConcurrencyConfigsRequest;
+import com.amazonaws.services.lambda.model.ListProvisionedConcurrencyConfigsResult;
+import com.amazonaws.services.lambda.model.ProvisionedConcurrencyConfigListItem;
+import io.thundra.lambda.warmup.impl.CachingLambdaService;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author serkan
+ */
+public class CachingLambdaServiceTest {
+
+    private LambdaService lambdaService;
+
+    @Before
+    public void setup() {
+        lambdaService = mock(LambdaService.class);
+    }
+
+    @Test
+    public void shouldListAliasesAgainOnlyIfRevisionHasChanged() {
+        CachingLambdaService cachingLambdaService = new CachingLambdaService(lambdaService, 60 * 1000, 16);
+
+        ListAliasesRequest listAliasesRequest = new ListAliasesRequest().withFunctionName("testFunction");
+        when(lambdaService.listAliases(listAliasesRequest)).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(new AliasConfiguration().withName("v1").withFunctionVersion("1")));
+
+        when(lambdaService.listFunctions(any(ListFunctionsRequest.class))).
+                thenReturn(createListFunctionsResult("testFunction", "revision-1"));
+        cachingLambdaService.listFunctions(new ListFunctionsRequest());
+        cachingLambdaService.listAliases(listAliasesRequest);
+        cachingLambdaService.listFunctions(new ListFunctionsRequest());
+        ListAliasesResult listAliasesResult = cachingLambdaService.listAliases(listAliasesRequest);
+
+        assertThat(listAliasesResult.getAliases().get(0).getName(), is("v1"));
+        verify(lambdaService, times(1)).listAliases(listAliasesRequest);
+
+        when(lambdaService.listFunctions(any(ListFunctionsRequest.class))).
+                thenReturn(createListFunctionsResult("testFunction", "revision-2"));
+        cachingLambdaService.listFunctions(new ListFunctionsRequest());
+        cachingLambdaService.listAliases(listAliasesRequest);
+
+        verify(lambdaService, times(2)).listAliases(listAliasesRequest);
+    }
+
+    @Test
+    public void shouldListAliasesAgainIfCacheIsExpired() {
+        CachingLambdaService cachingLambdaService = new CachingLambdaService(lambdaService, -1, 16);
+
+        ListAliasesRequest listAliasesRequest = new ListAliasesRequest().withFunctionName("testFunction");
+        when(lambdaService.listAliases(listAliasesRequest)).
+                thenReturn(new ListAliasesResult());
+        when(lambdaService.listFunctions(any(ListFunctionsRequest.class))).
+                thenReturn(createListFunctionsResult("testFunction", "revision-1"));
+
+        cachingLambdaService.listFunctions(new ListFunctionsRequest());
+        cachingLambdaService.listAliases(listAliasesRequest);
+        cachingLambdaService.listAliases(listAliasesRequest);
+
+        verify(lambdaService, times(2)).listAliases(listAliasesRequest);
+    }
+
+    @Test
+    public void shouldListProvisionedConcurrencyConfigsAgainOnlyIfCacheIsExpired() {
+        ListProvisionedConcurrencyConfigsRequest request =
+                new ListProvisionedConcurrencyConfigsRequest().withFunctionName("testFunction");
+        when(lambdaService.listProvisionedConcurrencyConfigs(request)).
+                thenReturn(
+                        new ListProvisionedConcurrencyConfigsResult().
+                            withProvisionedConcurrencyConfigs(
+                                new ProvisionedConcurrencyConfigListItem().
+                                    withFunctionArn("arn:aws:lambda:us-west-2:123456789012:function:testFunction:live").
+                                    withAllocatedProvisionedConcurrentExecutions(4)));
+
+        CachingLambdaService cachingLambdaService = new CachingLambdaService(lambdaService, 60 * 1000, 16, 60 * 1000);
+        cachingLambdaService.listProvisionedConcurrencyConfigs(request);
+        ListProvisionedConcurrencyConfigsResult result = cachingLambdaService.listProvisionedConcurrencyConfigs(request);
+
+        assertThat(result.getProvisionedConcurrencyConfigs().get(0).getAllocatedProvisionedConcurrentExecutions(), is(4));
+        verify(lambdaService, times(1)).listProvisionedConcurrencyConfigs(request);
+
+        CachingLambdaService expiringCachingLambdaService = new CachingLambdaService(lambdaService, 60 * 1000, 16, -1);
+        expiringCachingLambdaService.listProvisionedConcurrencyConfigs(request);
+        expiringCachingLambdaService.listProvisionedConcurrencyConfigs(request);
+
+        verify(lambdaService, times(3)).listProvisionedConcurrencyConfigs(request);
+    }
+
+    private static ListFunctionsResult createListFunctionsResult(String functionName, String revisionId) {
+        return new ListFunctionsResult().
+                    withFunctions(
+                        new FunctionConfiguration().
+                            withFunctionName(functionName).
+                            withRevisionId(revisionId));
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.AccountLimit;
+import com.amazonaws.services.lambda.model.GetAccountSettingsRequest;
+import com.amazonaws.services.lambda.model.GetAccountSettingsResult;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static io.thundra.lambda.warmup.InvocationBudgetPlanner.*;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author serkan
+ */
+public class InvocationBudgetPlannerTest {
+
+    private LambdaService lambdaService;
+
+    @Before
+    public void setup() {
+        lambdaService = mock(LambdaService.class);
+        when(lambdaService.getAccountSettings(any(GetAccountSettingsRequest.class))).
+                thenReturn(
+                        new GetAccountSettingsResult().
+                            withAccountLimit(
+                                new AccountLimit().
+                                    withConcurrentExecutions(1000).
+                                    withUnreservedConcurrentExecutions(100)));
+    }
+
+    @Test
+    public void shouldAllocateBudgetByWeightsAndDemands() {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(INVOCATION_BUDGET_FRACTION_PROP_NAME, 0.2F);
+        InvocationBudgetPlanner planner = new InvocationBudgetPlanner(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new LinkedHashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("smallFunction", new WarmupFunctionInfo().setInvocationCount(2));
+        functionsToWarmup.put("lightFunction", new WarmupFunctionInfo().setInvocationCount(50));
+        functionsToWarmup.put("heavyFunction", new WarmupFunctionInfo().setInvocationCount(50).setWeight(3));
+        planner.plan(lambdaService, functionsToWarmup);
+
+        // Budget is 20 (0.2 of the unreserved concurrency) and what the small function leaves is shared by weights
+        assertThat(functionsToWarmup.get("smallFunction").getInvocationBudget(), is(2));
+        assertThat(functionsToWarmup.get("lightFunction").getInvocationBudget(), is(4));
+        assertThat(functionsToWarmup.get("heavyFunction").getInvocationBudget(), is(14));
+    }
+
+    @Test
+    public void shouldAllocateBudgetByObservedDemands() {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(INVOCATION_BUDGET_FRACTION_PROP_NAME, 0.5F);
+        warmupPropertyMap.put(ACCOUNT_CONCURRENCY_LIMIT_PROP_NAME, 40);
+        InvocationBudgetPlanner planner = new InvocationBudgetPlanner(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new LinkedHashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("function1", new WarmupFunctionInfo().setDemandedInvocationCount(3));
+        functionsToWarmup.put("function2", new WarmupFunctionInfo().setDemandedInvocationCount(30));
+        planner.recordDemands(functionsToWarmup);
+
+        functionsToWarmup.put("function1", new WarmupFunctionInfo());
+        functionsToWarmup.put("function2", new WarmupFunctionInfo());
+        planner.plan(lambdaService, functionsToWarmup);
+
+        assertThat(functionsToWarmup.get("function1").getInvocationBudget(), is(3));
+        assertThat(functionsToWarmup.get("function2").getInvocationBudget(), is(17));
+        verify(lambdaService, never()).getAccountSettings(any(GetAccountSettingsRequest.class));
+    }
+
+    @Test
+    public void shouldGiveRemainingInvocationsByPriority() {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(INVOCATION_BUDGET_FRACTION_PROP_NAME, 0.5F);
+        warmupPropertyMap.put(ACCOUNT_CONCURRENCY_LIMIT_PROP_NAME, 4);
+        InvocationBudgetPlanner planner = new InvocationBudgetPlanner(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new LinkedHashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("function1", new WarmupFunctionInfo());
+        functionsToWarmup.put("function2", new WarmupFunctionInfo().setPriority(1));
+        functionsToWarmup.put("function3", new WarmupFunctionInfo().setPriority(2));
+        planner.plan(lambdaService, functionsToWarmup);
+
+        // Budget is 2, which is not enough for a single invocation of every function
+        assertThat(functionsToWarmup.get("function1").getInvocationBudget(), is(0));
+        assertThat(functionsToWarmup.get("function2").getInvocationBudget(), is(1));
+        assertThat(functionsToWarmup.get("function3").getInvocationBudget(), is(1));
+    }
+
+}
@@ -0,0 +1,126 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.model.*;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author serkan
+ */
+public class LambdaServiceTest {
+
+    @Test
+    public void shouldNotifyAsyncHandlerOnSuccessByDefault() throws Exception {
+        final InvokeResult invokeResult = new InvokeResult().withStatusCode(200);
+        LambdaService lambdaService = new FutureReturningLambdaService(CompletableFuture.completedFuture(invokeResult));
+        RecordingAsyncHandler asyncHandler = new RecordingAsyncHandler();
+
+        Future<InvokeResult> future = lambdaService.invokeAsync(new InvokeRequest(), asyncHandler);
+
+        assertThat(future.get(10, TimeUnit.SECONDS) == invokeResult, is(true));
+        assertThat(asyncHandler.result.get() == invokeResult, is(true));
+        assertThat(asyncHandler.error.get() == null, is(true));
+    }
+
+    @Test
+    public void shouldNotifyAsyncHandlerOnErrorByDefault() throws Exception {
+        CompletableFuture<InvokeResult> failedFuture = new CompletableFuture<InvokeResult>();
+        TooManyRequestsException error = new TooManyRequestsException("Rate exceeded");
+        failedFuture.completeExceptionally(error);
+        LambdaService lambdaService = new FutureReturningLambdaService(failedFuture);
+        RecordingAsyncHandler asyncHandler = new RecordingAsyncHandler();
+
+        lambdaService.invokeAsync(new InvokeRequest(), asyncHandler);
+
+        assertThat(asyncHandler.error.get() == error, is(true));
+        assertThat(asyncHandler.result.get() == null, is(true));
+    }
+
+    @Test
+    public void shouldNotifyAsyncHandlerOnCompletionOfPlainFutureByDefault() throws Exception {
+        final InvokeResult invokeResult = new InvokeResult().withStatusCode(200);
+        FutureTask<InvokeResult> futureTask = new FutureTask<InvokeResult>(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }, invokeResult);
+        LambdaService lambdaService = new FutureReturningLambdaService(futureTask);
+        RecordingAsyncHandler asyncHandler = new RecordingAsyncHandler();
+
+        Future<InvokeResult> future = lambdaService.invokeAsync(new InvokeRequest(), asyncHandler);
+        futureTask.run();
+
+        assertThat(future.get(10, TimeUnit.SECONDS) == invokeResult, is(true));
+        assertThat(asyncHandler.result.get() == invokeResult, is(true));
+    }
+
+    @Test
+    public void shouldReturnEmptyResultsForOptionalOperationsByDefault() {
+        LambdaService lambdaService = new FutureReturningLambdaService(null);
+
+        assertThat(
+                lambdaService.listProvisionedConcurrencyConfigs(
+                        new ListProvisionedConcurrencyConfigsRequest()) == null,
+                is(true));
+        assertThat(
+                lambdaService.getAccountSettings(new GetAccountSettingsRequest()) == null,
+                is(true));
+    }
+
+    private static class RecordingAsyncHandler implements AsyncHandler<InvokeRequest, InvokeResult> {
+
+        private final AtomicReference<InvokeResult> result = new AtomicReference<InvokeResult>();
+        private final AtomicReference<Exception> error = new AtomicReference<Exception>();
+
+        @Override
+        public void onSuccess(InvokeRequest request, InvokeResult invokeResult) {
+            result.set(invokeResult);
+        }
+
+        @Override
+        public void onError(Exception e) {
+            error.set(e);
+        }
+
+    }
+
+    private static class FutureReturningLambdaService implements LambdaService {
+
+        private final Future<InvokeResult> future;
+
+        private FutureReturningLambdaService(Future<InvokeResult> future) {
+            this.future = future;
+        }
+
+        @Override
+        public InvokeResult invoke(InvokeRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<InvokeResult> invokeAsync(InvokeRequest request) {
+            return future;
+        }
+
+        @Override
+        public ListFunctionsResult listFunctions(ListFunctionsRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ListAliasesResult listAliases(ListAliasesRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -0,0 +1,151 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.FunctionConfiguration;
+import com.amazonaws.services.lambda.model.InvokeRequest;
+import com.amazonaws.services.lambda.model.ListFunctionsRequest;
+import com.amazonaws.services.lambda.model.ListFunctionsResult;
+import io.thundra.lambda.warmup.impl.RoutingLambdaService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author serkan
+ */
+public class RoutingLambdaServiceTest {
+
+    private LambdaService usEast1LambdaService;
+    private LambdaService usEast1RoleLambdaService;
+    private LambdaService euWest1LambdaService;
+    private ExecutorService executorService;
+    private RoutingLambdaService routingLambdaService;
+
+    @Before
+    public void setup() {
+        usEast1LambdaService = mock(LambdaService.class);
+        usEast1RoleLambdaService = mock(LambdaService.class);
+        euWest1LambdaService = mock(LambdaService.class);
+        executorService = Executors.newFixedThreadPool(3);
+        routingLambdaService =
+                new RoutingLambdaService(
+                        Arrays.asList(
+                                new RoutingLambdaService.Target("us-east-1", null, usEast1LambdaService),
+                                new RoutingLambdaService.Target("us-east-1", "222222222222", usEast1RoleLambdaService),
+                                new RoutingLambdaService.Target("eu-west-1", null, euWest1LambdaService)),
+                        executorService);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    private static String functionArn(String region, String accountId, String functionName) {
+        return "arn:aws:lambda:" + region + ":" + accountId + ":function:" + functionName;
+    }
+
+    private static ListFunctionsResult createListFunctionsResult(String nextMarker, String... functionArns) {
+        List<FunctionConfiguration> functions = new ArrayList<FunctionConfiguration>();
+        for (String functionArn : functionArns) {
+            functions.add(
+                    new FunctionConfiguration().
+                            withFunctionName(functionArn.substring(functionArn.lastIndexOf(':') + 1)).
+                            withFunctionArn(functionArn));
+        }
+        return new ListFunctionsResult().withFunctions(functions).withNextMarker(nextMarker);
+    }
+
+    @Test
+    public void shouldRouteInvocationsByRegionAndAccountOfFunctionArn() {
+        InvokeRequest ownAccountRequest =
+                new InvokeRequest().withFunctionName(functionArn("us-east-1", "111111111111", "func1"));
+        InvokeRequest roleAccountRequest =
+                new InvokeRequest().withFunctionName(functionArn("us-east-1", "222222222222", "func2") + ":prod");
+        InvokeRequest otherRegionRequest =
+                new InvokeRequest().withFunctionName(functionArn("eu-west-1", "111111111111", "func3"));
+        InvokeRequest plainNameRequest =
+                new InvokeRequest().withFunctionName("func4");
+
+        routingLambdaService.invokeAsync(ownAccountRequest, null);
+        routingLambdaService.invokeAsync(roleAccountRequest, null);
+        routingLambdaService.invokeAsync(otherRegionRequest, null);
+        routingLambdaService.invokeAsync(plainNameRequest, null);
+
+        verify(usEast1LambdaService).invokeAsync(ownAccountRequest, null);
+        verify(usEast1RoleLambdaService).invokeAsync(roleAccountRequest, null);
+        verify(euWest1LambdaService).invokeAsync(otherRegionRequest, null);
+        verify(usEast1LambdaService).invokeAsync(plainNameRequest, null);
+    }
+
+    @Test
+    public void shouldListFunctionsOfAllTargetsPageByPage() {
+        ListFunctionsResult usEast1FirstPage =
+                createListFunctionsResult("page-2", functionArn("us-east-1", "111111111111", "func1"));
+        ListFunctionsResult euWest1FirstPage =
+                createListFunctionsResult(null, functionArn("eu-west-1", "111111111111", "func1"));
+        when(usEast1LambdaService.listFunctions(argThat(new PageMatcher(null)))).
+                thenReturn(usEast1FirstPage);
+        when(usEast1LambdaService.listFunctions(argThat(new PageMatcher("page-2")))).
+                thenReturn(createListFunctionsResult(null, functionArn("us-east-1", "111111111111", "func2")));
+        when(usEast1RoleLambdaService.listFunctions(any(ListFunctionsRequest.class))).
+                thenThrow(new IllegalStateException("access denied"));
+        when(euWest1LambdaService.listFunctions(any(ListFunctionsRequest.class))).
+                thenReturn(euWest1FirstPage);
+
+        List<List<String>> pages = new ArrayList<List<String>>();
+        String marker = null;
+        do {
+            ListFunctionsRequest listFunctionsRequest = new ListFunctionsRequest();
+            if (marker != null) {
+                listFunctionsRequest.withMarker(marker);
+            }
+            ListFunctionsResult listFunctionsResult = routingLambdaService.listFunctions(listFunctionsRequest);
+            List<String> functionNames = new ArrayList<String>();
+            for (FunctionConfiguration config : listFunctionsResult.getFunctions()) {
+                functionNames.add(config.getFunctionName());
+            }
+            pages.add(functionNames);
+            marker = listFunctionsResult.getNextMarker();
+        } while (marker != null);
+
+        // Functions of the default target keep their names and the others are named by their ARNs
+        assertThat(pages,
+                is(Arrays.asList(
+                        Arrays.asList("func1"),
+                        Arrays.asList("func2"),
+                        Arrays.<String>asList(),
+                        Arrays.asList(functionArn("eu-west-1", "111111111111", "func1")))));
+        // Listed configurations are not modified
+        assertThat(euWest1FirstPage.getFunctions().get(0).getFunctionName(), is("func1"));
+        verify(usEast1LambdaService, times(2)).listFunctions(any(ListFunctionsRequest.class));
+        verify(euWest1LambdaService, times(1)).listFunctions(any(ListFunctionsRequest.class));
+    }
+
+    private static class PageMatcher implements ArgumentMatcher<ListFunctionsRequest> {
+
+        private final String marker;
+
+        private PageMatcher(String marker) {
+            this.marker = marker;
+        }
+
+        @Override
+        public boolean matches(ListFunctionsRequest request) {
+            return request != null &&
+                    (marker == null ? request.getMarker() == null : marker.equals(request.getMarker()));
+        }
+
+    }
+
+}
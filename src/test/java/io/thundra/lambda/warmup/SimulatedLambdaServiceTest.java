@@ -0,0 +1,137 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.model.InvokeRequest;
+import com.amazonaws.services.lambda.model.InvokeResult;
+import com.amazonaws.services.lambda.model.ListFunctionsRequest;
+import com.amazonaws.services.lambda.model.ListFunctionsResult;
+import com.amazonaws.services.lambda.model.TooManyRequestsException;
+import io.thundra.lambda.warmup.impl.SimulatedLambdaService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.StringContains.containsString;
+import static org.junit.Assert.fail;
+
+/**
+ * @author serkan
+ */
+public class SimulatedLambdaServiceTest {
+
+    private SimulatedLambdaService lambdaService;
+
+    @Before
+    public void setup() {
+        lambdaService = new SimulatedLambdaService(2, 60 * 1000, 0.01);
+    }
+
+    @After
+    public void tearDown() {
+        lambdaService.shutdown();
+    }
+
+    @Test
+    public void shouldListFunctionsByPages() {
+        for (int i = 0; i < 120; i++) {
+            lambdaService.addFunction(new SimulatedLambdaService.SimulatedFunction(String.format("function-%03d", i)));
+        }
+
+        Set<String> functionNames = new HashSet<String>();
+        int pageCount = 0;
+        String marker = null;
+        do {
+            ListFunctionsResult result = lambdaService.listFunctions(new ListFunctionsRequest().withMarker(marker));
+            for (int i = 0; i < result.getFunctions().size(); i++) {
+                functionNames.add(result.getFunctions().get(i).getFunctionName());
+            }
+            marker = result.getNextMarker();
+            pageCount++;
+        } while (marker != null);
+
+        assertThat(pageCount, is(3));
+        assertThat(functionNames.size(), is(120));
+    }
+
+    @Test
+    public void shouldReuseIdleContainer() throws Exception {
+        lambdaService.addFunction(new SimulatedLambdaService.SimulatedFunction("testFunction"));
+
+        InvokeResult result1 = lambdaService.invoke(new InvokeRequest().withFunctionName("testFunction"));
+        InvokeResult result2 = lambdaService.invoke(new InvokeRequest().withFunctionName("testFunction"));
+
+        assertThat(getPayload(result1), is(getPayload(result2)));
+        assertThat(lambdaService.getColdStartCount(), is(1L));
+        assertThat(lambdaService.getContainerCount("testFunction"), is(1));
+    }
+
+    @Test
+    public void shouldReturnLatestRequestTimeOfContainer() throws Exception {
+        lambdaService.addFunction(
+                new SimulatedLambdaService.SimulatedFunction("testFunction").
+                    withAlias("live", "1"));
+
+        String warmupResponse =
+                getPayload(lambdaService.invoke(
+                        new InvokeRequest().withFunctionName("testFunction").withQualifier("live")));
+        lambdaService.simulateRequest("testFunction", "live").get();
+        String warmupResponseAfterRequest =
+                getPayload(lambdaService.invoke(
+                        new InvokeRequest().withFunctionName("testFunction").withQualifier("live")));
+
+        assertThat(warmupResponse, containsString("\"instanceId\""));
+        assertThat(warmupResponse.contains("\"latestRequestTime\""), is(false));
+        assertThat(warmupResponseAfterRequest, containsString("\"latestRequestTime\""));
+    }
+
+    @Test
+    public void shouldThrottleWhenAccountConcurrencyLimitIsReached() throws Exception {
+        lambdaService.addFunction(new SimulatedLambdaService.SimulatedFunction("testFunction"));
+
+        List<Future<InvokeResult>> futures = new ArrayList<Future<InvokeResult>>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(lambdaService.invokeAsync(new InvokeRequest().withFunctionName("testFunction")));
+        }
+
+        int throttledCount = 0;
+        for (Future<InvokeResult> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(TooManyRequestsException.class));
+                throttledCount++;
+            }
+        }
+
+        assertThat(throttledCount, is(1));
+        assertThat(lambdaService.getThrottleCount(), is(1L));
+        assertThat(lambdaService.getContainerCount("testFunction"), is(2));
+    }
+
+    @Test
+    public void shouldFailForUnknownQualifier() throws Exception {
+        lambdaService.addFunction(new SimulatedLambdaService.SimulatedFunction("testFunction"));
+
+        try {
+            lambdaService.invoke(new InvokeRequest().withFunctionName("testFunction").withQualifier("live"));
+            fail("Invocation with unknown qualifier must fail");
+        } catch (RuntimeException e) {
+            assertThat(e.getMessage(), containsString("testFunction:live"));
+        }
+    }
+
+    private static String getPayload(InvokeResult result) {
+        return StandardCharsets.UTF_8.decode(result.getPayload().duplicate()).toString();
+    }
+
+}
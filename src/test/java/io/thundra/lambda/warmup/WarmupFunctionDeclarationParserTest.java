@@ -0,0 +1,133 @@
+package io.thundra.lambda.warmup;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author serkan
+ */
+public class WarmupFunctionDeclarationParserTest {
+
+    private static final WarmupFunctionDeclarationParser.InfoHandler INFO_HANDLER =
+            new WarmupFunctionDeclarationParser.InfoHandler() {
+                @Override
+                public void handleInfo(WarmupFunctionInfo info, String infoKey, String infoValue) {
+                    if ("alias".equals(infoKey)) {
+                        info.alias = infoValue;
+                    } else if ("invocationCount".equals(infoKey)) {
+                        info.invocationCount = Integer.parseInt(infoValue);
+                    } else if ("invocationData".equals(infoKey)) {
+                        info.invocationData = infoValue;
+                    } else {
+                        throw new IllegalArgumentException("Not supported function information key: " + infoKey);
+                    }
+                }
+            };
+
+    @Test
+    public void shouldParseDeclarationsWithSeparatorsInConfigurationValues() {
+        WarmupFunctionDeclarationParser parser = new WarmupFunctionDeclarationParser("{}", INFO_HANDLER);
+
+        parser.parse(
+                "function_1",
+                " testFunction1 , testFunction2[invocationData={\"a\":1,\"b\":\"x=y\"};invocationCount=4],testFunction3[],");
+        parser.parse("function_2", "testFunction1[alias=live]");
+
+        assertTrue(parser.getErrors().isEmpty());
+
+        WarmupFunctionRegistry registry = parser.build();
+        assertEquals(3, registry.size());
+        assertEquals(new WarmupFunctionInfo().setAlias("live").setInvocationData("{}"),
+                     registry.getFunctionInfo("testFunction1"));
+        assertEquals(new WarmupFunctionInfo().setInvocationCount(4).setInvocationData("{\"a\":1,\"b\":\"x=y\"}"),
+                     registry.getFunctionInfo("testFunction2"));
+        assertEquals(new WarmupFunctionInfo().setInvocationData("{}"),
+                     registry.getFunctionInfo("testFunction3"));
+    }
+
+    @Test
+    public void shouldParseDeclarationsWithNestedSeparatorsInJsonValues() {
+        WarmupFunctionDeclarationParser parser = new WarmupFunctionDeclarationParser(null, INFO_HANDLER);
+
+        parser.parse(
+                "function",
+                "testFunction1[invocationData=[1,2,{\"a\":\"]\"}];alias=live]," +
+                "testFunction2[invocationData={\"x\":\"a;b\\\"]\",\"y\":[3]}]");
+
+        assertTrue(parser.getErrors().isEmpty());
+
+        WarmupFunctionRegistry registry = parser.build();
+        assertEquals(2, registry.size());
+        assertEquals(new WarmupFunctionInfo().setAlias("live").setInvocationData("[1,2,{\"a\":\"]\"}]"),
+                     registry.getFunctionInfo("testFunction1"));
+        assertEquals(new WarmupFunctionInfo().setInvocationData("{\"x\":\"a;b\\\"]\",\"y\":[3]}"),
+                     registry.getFunctionInfo("testFunction2"));
+    }
+
+    @Test
+    public void shouldReportAllInvalidDeclarations() {
+        WarmupFunctionDeclarationParser parser = new WarmupFunctionDeclarationParser(null, INFO_HANDLER);
+
+        parser.parse("function_1", "testFunction1[invocationCount=abc],testFunction2[unknown=1]");
+        parser.parse("function_2", "[alias=live],testFunction3[alias]x,testFunction4");
+        parser.parse("function_3", "testFunction5[alias=live");
+
+        assertEquals(5, parser.getErrors().size());
+        try {
+            parser.build();
+            fail("Invalid declarations should have been reported");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("function_1: invalid number for 'invocationCount': abc"));
+            assertTrue(e.getMessage().contains("function_1: Not supported function information key: unknown"));
+            assertTrue(e.getMessage().contains("function_2: missing function name"));
+            assertTrue(e.getMessage().contains("function_2: unexpected character 'x'"));
+            assertTrue(e.getMessage().contains("function_3: missing ']'"));
+        }
+    }
+
+    @Test
+    public void shouldLoadDeclarationsFromJson() {
+        WarmupFunctionDeclarationParser parser = new WarmupFunctionDeclarationParser(null, INFO_HANDLER);
+        String json =
+                "{ \"functions\": { " +
+                    "\"testFunction1\": { \"alias\": \"live\", \"invocationCount\": 16, " +
+                                         "\"invocationData\": { \"warmup\": true } }, " +
+                    "\"testFunction2\": {} " +
+                "} }";
+
+        parser.load("test.json", new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        parser.parse("function", "testFunction2[invocationCount=2]");
+
+        assertTrue(parser.getErrors().isEmpty());
+
+        WarmupFunctionRegistry registry = parser.build();
+        assertEquals(
+                new WarmupFunctionInfo().
+                        setAlias("live").
+                        setInvocationCount(16).
+                        setInvocationData("{\"warmup\":true}"),
+                registry.getFunctionInfo("testFunction1"));
+        assertEquals(new WarmupFunctionInfo().setInvocationCount(2),
+                     registry.getFunctionInfo("testFunction2"));
+    }
+
+    @Test
+    public void shouldNotChangeRegisteredFunctionsByCallers() {
+        WarmupFunctionDeclarationParser parser = new WarmupFunctionDeclarationParser(null, INFO_HANDLER);
+        parser.parse("function", "testFunction1[alias=live]");
+        WarmupFunctionRegistry registry = parser.build();
+
+        Map<String, WarmupFunctionInfo> functionInfos = registry.getFunctionInfos();
+        functionInfos.get("testFunction1").setAlias("v2");
+        functionInfos.remove("testFunction1");
+        registry.getFunctionInfo("testFunction1").setInvocationCount(8);
+
+        assertEquals(new WarmupFunctionInfo().setAlias("live"), registry.getFunctionInfo("testFunction1"));
+    }
+
+}
@@ -1,7 +1,10 @@
 package io.thundra.lambda.warmup;
 
+import com.amazonaws.services.lambda.model.AliasConfiguration;
 import com.amazonaws.services.lambda.model.EnvironmentResponse;
 import com.amazonaws.services.lambda.model.FunctionConfiguration;
+import com.amazonaws.services.lambda.model.ListAliasesRequest;
+import com.amazonaws.services.lambda.model.ListAliasesResult;
 import com.amazonaws.services.lambda.model.ListFunctionsRequest;
 import com.amazonaws.services.lambda.model.ListFunctionsResult;
 import com.amazonaws.services.lambda.runtime.Context;
@@ -13,6 +16,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import static io.thundra.lambda.warmup.WarmupHandler.*;
@@ -101,4 +105,176 @@ public class WarmupHandlerTest {
         verify(warmupStrategy3, times(1)).warmup(context, lambdaService, functionsToWarmup3);
     }
 
+    @Test
+    public void shouldConfigurePriorityAndWeightOfFunctions() throws IOException {
+        WarmupStrategyProvider warmupStrategyProvider = mock(WarmupStrategyProvider.class);
+        WarmupStrategy warmupStrategy = mock(WarmupStrategy.class);
+        when(warmupStrategy.getName()).thenReturn("warmupStrategy");
+
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(
+                WARMUP_STRATEGY_PROP_NAME,
+                "warmupStrategy");
+        warmupPropertyMap.put(
+                DISABLE_ALIAS_DISCOVERY_PROP_NAME,
+                true);
+        warmupPropertyMap.put(
+                WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX + "_1",
+                "testFunction1[priority=2;weight=3]");
+        WarmupPropertyProvider warmupPropertyProvider = new MapWarmupPropertyProvider(warmupPropertyMap);
+
+        ListFunctionsResult listFunctionsResult =
+                new ListFunctionsResult().
+                    withFunctions(
+                        new FunctionConfiguration().
+                            withFunctionName("testFunction2").
+                            withEnvironment(
+                                new EnvironmentResponse().
+                                    withVariables(
+                                        new HashMap<String, String>() {{
+                                            put(WARMUP_AWARE_ENV_VAR_NAME, "true");
+                                            put(PRIORITY_ENV_VAR_NAME, "-1");
+                                            put(WEIGHT_ENV_VAR_NAME, "5");
+                                        }}
+                                    )
+                            )
+                    );
+        when(lambdaService.listFunctions(any(ListFunctionsRequest.class))).
+                thenReturn(listFunctionsResult);
+        when(warmupStrategyProvider.getWarmupStrategy("warmupStrategy")).
+                thenReturn(warmupStrategy);
+
+        WarmupHandler warmupHandler =
+                new WarmupHandler(
+                        lambdaService,
+                        warmupPropertyProvider,
+                        warmupStrategyProvider,
+                        WarmupHandler.createDefaultWarmupStrategy(warmupPropertyProvider, warmupStrategyProvider));
+
+        warmupHandler.handleRequest(new Object(), context);
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("testFunction1", new WarmupFunctionInfo().setPriority(2).setWeight(3));
+        functionsToWarmup.put("testFunction2", new WarmupFunctionInfo().setPriority(-1).setWeight(5));
+        verify(warmupStrategy, times(1)).warmup(context, lambdaService, functionsToWarmup);
+    }
+
+    @Test
+    public void shouldDiscoverAliasesOfFunctionsInAllPages() throws IOException {
+        WarmupStrategyProvider warmupStrategyProvider = mock(WarmupStrategyProvider.class);
+        WarmupStrategy warmupStrategy = mock(WarmupStrategy.class);
+        when(warmupStrategy.getName()).thenReturn("warmupStrategy");
+
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(
+                WARMUP_STRATEGY_PROP_NAME,
+                "warmupStrategy");
+        WarmupPropertyProvider warmupPropertyProvider = new MapWarmupPropertyProvider(warmupPropertyMap);
+
+        when(lambdaService.listFunctions(new ListFunctionsRequest())).
+                thenReturn(
+                        new ListFunctionsResult().
+                            withFunctions(createWarmupAwareFunction("testFunction1")).
+                            withNextMarker("page2"));
+        when(lambdaService.listFunctions(new ListFunctionsRequest().withMarker("page2"))).
+                thenReturn(
+                        new ListFunctionsResult().
+                            withFunctions(createWarmupAwareFunction("testFunction2")));
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction1"))).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(
+                                new AliasConfiguration().withName("v1").withFunctionVersion("1"),
+                                new AliasConfiguration().withName("v2").withFunctionVersion("2")));
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction2"))).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(
+                                new AliasConfiguration().withName("latest").withFunctionVersion("$LATEST")));
+        when(warmupStrategyProvider.getWarmupStrategy("warmupStrategy")).
+                thenReturn(warmupStrategy);
+
+        WarmupHandler warmupHandler =
+                new WarmupHandler(
+                        lambdaService,
+                        warmupPropertyProvider,
+                        warmupStrategyProvider,
+                        WarmupHandler.createDefaultWarmupStrategy(warmupPropertyProvider, warmupStrategyProvider));
+
+        warmupHandler.handleRequest(new Object(), context);
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("testFunction1", new WarmupFunctionInfo().setAlias("v2"));
+        functionsToWarmup.put("testFunction2", new WarmupFunctionInfo().setAlias("latest"));
+        verify(warmupStrategy, times(1)).warmup(context, lambdaService, functionsToWarmup);
+    }
+
+    @Test
+    public void shouldStreamDiscoveredFunctionsToWarmupStrategy() throws IOException {
+        WarmupStrategyProvider warmupStrategyProvider = mock(WarmupStrategyProvider.class);
+        WarmupStrategy warmupStrategy = mock(WarmupStrategy.class);
+        when(warmupStrategy.getName()).thenReturn("warmupStrategy");
+        doCallRealMethod().when(warmupStrategy).
+                warmup(any(Context.class), any(LambdaService.class), any(Iterator.class));
+
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(
+                WARMUP_STRATEGY_PROP_NAME,
+                "warmupStrategy");
+        warmupPropertyMap.put(
+                ENABLE_STREAMING_DISCOVERY_PROP_NAME,
+                true);
+        warmupPropertyMap.put(
+                WARMUP_FUNCTION_DECLARATION_PROP_NAME_PREFIX + "_1",
+                "testFunction3");
+        WarmupPropertyProvider warmupPropertyProvider = new MapWarmupPropertyProvider(warmupPropertyMap);
+
+        when(lambdaService.listFunctions(new ListFunctionsRequest())).
+                thenReturn(
+                        new ListFunctionsResult().
+                            withFunctions(createWarmupAwareFunction("testFunction1")).
+                            withNextMarker("page2"));
+        when(lambdaService.listFunctions(new ListFunctionsRequest().withMarker("page2"))).
+                thenReturn(
+                        new ListFunctionsResult().
+                            withFunctions(createWarmupAwareFunction("testFunction2")));
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction1"))).
+                thenReturn(
+                        new ListAliasesResult().
+                            withAliases(
+                                new AliasConfiguration().withName("v1").withFunctionVersion("1")));
+        when(lambdaService.listAliases(new ListAliasesRequest().withFunctionName("testFunction2"))).
+                thenReturn(new ListAliasesResult());
+        when(warmupStrategyProvider.getWarmupStrategy("warmupStrategy")).
+                thenReturn(warmupStrategy);
+
+        WarmupHandler warmupHandler =
+                new WarmupHandler(
+                        lambdaService,
+                        warmupPropertyProvider,
+                        warmupStrategyProvider,
+                        WarmupHandler.createDefaultWarmupStrategy(warmupPropertyProvider, warmupStrategyProvider));
+
+        warmupHandler.handleRequest(new Object(), context);
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("testFunction1", new WarmupFunctionInfo().setAlias("v1"));
+        functionsToWarmup.put("testFunction2", new WarmupFunctionInfo());
+        functionsToWarmup.put("testFunction3", new WarmupFunctionInfo());
+        verify(warmupStrategy, times(1)).warmup(context, lambdaService, functionsToWarmup);
+    }
+
+    private static FunctionConfiguration createWarmupAwareFunction(String functionName) {
+        return new FunctionConfiguration().
+                    withFunctionName(functionName).
+                    withEnvironment(
+                        new EnvironmentResponse().
+                            withVariables(
+                                new HashMap<String, String>() {{
+                                    put(WARMUP_AWARE_ENV_VAR_NAME, "true");
+                                }}
+                            )
+                    );
+    }
+
 }
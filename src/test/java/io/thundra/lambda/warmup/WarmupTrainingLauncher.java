@@ -0,0 +1,48 @@
+package io.thundra.lambda.warmup;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+
+/**
+ * <p>
+ *      Launcher of {@link WarmupTrainingRun} which is run from its source file
+ *      (<code>java -cp &lt;jar-file&gt; WarmupTrainingLauncher.java ...</code>)
+ *      by the <code>cold-start</code> build profile.
+ *      As the training run and the simulated Lambda service are not shipped in the jar,
+ *      they are loaded from the given training classpath (first argument) by a separate class loader
+ *      on top of the application class loader. So the classpath of the archive is the jar alone,
+ *      as it is in the Lambda function, while the handler classes are still loaded from the jar.
+ * </p>
+ * <p>
+ *      Rest of the arguments are passed to the training run.
+ * </p>
+ *
+ * @author serkan
+ */
+public final class WarmupTrainingLauncher {
+
+    private static final String TRAINING_RUN_CLASS_NAME = "io.thundra.lambda.warmup.WarmupTrainingRun";
+
+    private WarmupTrainingLauncher() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Training classpath must be given as the first argument");
+        }
+        String[] trainingClassPath = args[0].split(File.pathSeparator);
+        URL[] urls = new URL[trainingClassPath.length];
+        for (int i = 0; i < trainingClassPath.length; i++) {
+            urls[i] = new File(trainingClassPath[i]).toURI().toURL();
+        }
+        // Parent first, so the classes in the jar are always loaded from the jar
+        ClassLoader trainingClassLoader = new URLClassLoader(urls, ClassLoader.getSystemClassLoader());
+        Class<?> trainingRunClass = Class.forName(TRAINING_RUN_CLASS_NAME, true, trainingClassLoader);
+        Method mainMethod = trainingRunClass.getMethod("main", String[].class);
+        mainMethod.invoke(null, (Object) Arrays.copyOfRange(args, 1, args.length));
+    }
+
+}
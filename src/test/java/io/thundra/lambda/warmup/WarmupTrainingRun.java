@@ -0,0 +1,164 @@
+package io.thundra.lambda.warmup;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.SimulatedLambdaService;
+import io.thundra.lambda.warmup.strategy.impl.PredictiveWarmupStrategy;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategyProvider;
+import io.thundra.lambda.warmup.strategy.impl.StatAwareWarmupStrategy;
+import org.apache.log4j.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ *      Training run of {@link WarmupHandler} against {@link SimulatedLambdaService}
+ *      to record the classes loaded from the start of the handler to the end of its first warmup.
+ *      It is run through {@link WarmupTrainingLauncher} by the <code>cold-start</code> build profile with
+ *      <code>-XX:ArchiveClassesAtExit</code> on the shaded jar
+ *      to generate the AppCDS (application class-data sharing) archive,
+ *      so the warmup Lambda function can map these classes from the archive
+ *      instead of loading and verifying them on its own cold start.
+ * </p>
+ * <p>
+ *      Runs of the handler are repeated by the given count (first argument, <code>1</code> by default)
+ *      and the process is exited after them, as the archive is dumped on exit.
+ * </p>
+ *
+ * @author serkan
+ */
+public final class WarmupTrainingRun {
+
+    private static final Logger LOGGER = Logger.getLogger(WarmupTrainingRun.class);
+
+    private static final int FUNCTION_COUNT = 8;
+    private static final int REMAINING_TIME_MILLIS = 60 * 1000;
+
+    private WarmupTrainingRun() {
+    }
+
+    public static void main(String[] args) {
+        int runCount = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int exitCode = 0;
+        try {
+            train(runCount);
+        } catch (Throwable t) {
+            LOGGER.error("Training run has failed", t);
+            exitCode = 1;
+        }
+        // Pools of the handler are not daemon, so the process is exited explicitly to dump the archive
+        System.exit(exitCode);
+    }
+
+    private static void train(int runCount) {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(StandardWarmupStrategy.ITERATION_COUNT_PROP_NAME, 1);
+        props.put(StandardWarmupStrategy.INVOCATION_COUNT_PROP_NAME, 2);
+        props.put(StandardWarmupStrategy.DONT_WAIT_BETWEEN_INVOCATION_ROUNDS, true);
+        WarmupPropertyProvider warmupPropertyProvider = new MapWarmupPropertyProvider(props);
+
+        // Scaled down, so simulated cold starts and warmup waits don't slow down the build
+        SimulatedLambdaService lambdaService =
+                new SimulatedLambdaService(
+                        SimulatedLambdaService.DEFAULT_ACCOUNT_CONCURRENCY_LIMIT,
+                        SimulatedLambdaService.DEFAULT_CONTAINER_IDLE_TIMEOUT_MILLIS,
+                        0.01);
+        String[] warmupStrategyNames = {
+                StandardWarmupStrategy.NAME, StatAwareWarmupStrategy.NAME, PredictiveWarmupStrategy.NAME
+        };
+        for (int i = 0; i < FUNCTION_COUNT; i++) {
+            lambdaService.addFunction(
+                    new SimulatedLambdaService.SimulatedFunction("training-function-" + i).
+                            withEnvironmentVariable(WarmupHandler.WARMUP_AWARE_ENV_VAR_NAME, "true").
+                            withEnvironmentVariable(
+                                    WarmupHandler.WARMUP_STRATEGY_ENV_VAR_NAME,
+                                    warmupStrategyNames[i % warmupStrategyNames.length]).
+                            withAlias("live", String.valueOf(i + 1)));
+        }
+
+        WarmupHandler warmupHandler =
+                new WarmupHandler(
+                        lambdaService,
+                        warmupPropertyProvider,
+                        new StandardWarmupStrategyProvider(warmupPropertyProvider),
+                        null);
+        for (int i = 0; i < runCount; i++) {
+            long start = System.currentTimeMillis();
+            warmupHandler.handleRequest(null, new TrainingContext());
+            LOGGER.info("Training run " + (i + 1) + " has finished in " +
+                        (System.currentTimeMillis() - start) + " milliseconds");
+        }
+    }
+
+    private static class TrainingContext implements Context {
+
+        private final long deadline = System.currentTimeMillis() + REMAINING_TIME_MILLIS;
+
+        @Override
+        public String getAwsRequestId() {
+            return "training-request";
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return "/aws/lambda/thundra-lambda-warmup";
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return "training";
+        }
+
+        @Override
+        public String getFunctionName() {
+            return "thundra-lambda-warmup";
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return "$LATEST";
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return "arn:aws:lambda:us-west-2:123456789012:function:thundra-lambda-warmup";
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return (int) Math.max(0, deadline - System.currentTimeMillis());
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return 512;
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                    LOGGER.info(message);
+                }
+            };
+        }
+
+    }
+
+}
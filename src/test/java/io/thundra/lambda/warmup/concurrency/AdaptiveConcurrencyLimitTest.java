@@ -0,0 +1,59 @@
+package io.thundra.lambda.warmup.concurrency;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author serkan
+ */
+public class AdaptiveConcurrencyLimitTest {
+
+    @Test
+    public void shouldIncreaseLimitAdditivelyBySuccesses() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 4, 1, 100, 0.5);
+
+        for (int i = 0; i < 4; i++) {
+            limit.release(limit.acquire(), false);
+        }
+
+        assertThat(limit.getLimit(), is(4));
+
+        for (int i = 0; i < 2; i++) {
+            limit.release(limit.acquire(), false);
+        }
+
+        assertThat(limit.getLimit(), is(5));
+        assertThat(limit.getInFlight(), is(0));
+    }
+
+    @Test
+    public void shouldDecreaseLimitMultiplicativelyOnlyOnceForThrottlesOfSameWindow() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 16, 1, 100, 0.5);
+
+        long[] tickets = new long[8];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = limit.acquire();
+        }
+        for (long ticket : tickets) {
+            limit.release(ticket, true);
+        }
+
+        assertThat(limit.getLimit(), is(8));
+
+        limit.release(limit.acquire(), true);
+
+        assertThat(limit.getLimit(), is(4));
+    }
+
+    @Test
+    public void shouldNotDecreaseLimitBelowMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit("test", 2, 2, 100, 0.5);
+
+        limit.release(limit.acquire(), true);
+
+        assertThat(limit.getLimit(), is(2));
+    }
+
+}
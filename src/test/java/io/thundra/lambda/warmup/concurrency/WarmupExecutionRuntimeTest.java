@@ -0,0 +1,222 @@
+package io.thundra.lambda.warmup.concurrency;
+
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.ScopedWarmupPropertyProvider;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.hamcrest.core.StringStartsWith.startsWith;
+
+/**
+ * @author serkan
+ */
+public class WarmupExecutionRuntimeTest {
+
+    @Test
+    public void shouldCreateNamedBoundedPoolsOnce() throws Exception {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put("thundra.lambda.warmup.testPoolSize", 2);
+        WarmupExecutionRuntime runtime = new WarmupExecutionRuntime(new MapWarmupPropertyProvider(warmupPropertyMap));
+        try {
+            ExecutorService executor = runtime.getExecutor("test", 8);
+
+            assertThat(runtime.getExecutor("test", 16), sameInstance(executor));
+            assertThat(((MonitoredThreadPoolExecutor) executor).getMaximumPoolSize(), is(2));
+            assertThat(((MonitoredThreadPoolExecutor) executor).getQueueCapacity(),
+                    is(WarmupExecutionRuntime.DEFAULT_QUEUE_CAPACITY));
+
+            final AtomicReference<Thread> threadRef = new AtomicReference<Thread>();
+            Future future = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    threadRef.set(Thread.currentThread());
+                }
+            });
+            future.get();
+
+            assertThat(threadRef.get().getName(), startsWith("thundra-warmup-test-"));
+            assertThat(threadRef.get().isDaemon(), is(true));
+        } finally {
+            runtime.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRunTasksOnCallerThreadWhenPoolIsSaturated() throws Exception {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put("thundra.lambda.warmup.testQueueCapacity", 2);
+        WarmupExecutionRuntime runtime = new WarmupExecutionRuntime(new MapWarmupPropertyProvider(warmupPropertyMap));
+        try {
+            MonitoredThreadPoolExecutor executor = (MonitoredThreadPoolExecutor) runtime.getExecutor("test", 1);
+            final CountDownLatch latch = new CountDownLatch(1);
+            Runnable blockingTask = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            // One task occupies the single thread and two tasks fill the queue
+            for (int i = 0; i < 3; i++) {
+                executor.execute(blockingTask);
+            }
+
+            final AtomicReference<Thread> threadRef = new AtomicReference<Thread>();
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    threadRef.set(Thread.currentThread());
+                }
+            });
+
+            assertThat(threadRef.get(), sameInstance(Thread.currentThread()));
+            assertThat(executor.getQueueDepth(), is(2));
+            assertThat(executor.getPeakQueueDepth(), is(2));
+
+            latch.countDown();
+            executor.shutdown();
+
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS), is(true));
+            assertThat(executor.getQueueDepth(), is(0));
+            assertThat(executor.getPeakQueueDepth(), is(2));
+        } finally {
+            runtime.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldBlockTasksWhenBlockingPoolIsSaturated() throws Exception {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put("thundra.lambda.warmup.testQueueCapacity", 1);
+        WarmupExecutionRuntime runtime = new WarmupExecutionRuntime(new MapWarmupPropertyProvider(warmupPropertyMap));
+        final CountDownLatch latch = new CountDownLatch(1);
+        try {
+            final ExecutorService executor = runtime.getExecutor("test", 1, true);
+            Runnable blockingTask = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            // One task occupies the single thread and one task fills the queue
+            executor.execute(blockingTask);
+            executor.execute(blockingTask);
+
+            final CountDownLatch submittedLatch = new CountDownLatch(1);
+            final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+            Thread submitter = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            executingThread.set(Thread.currentThread());
+                        }
+                    });
+                    submittedLatch.countDown();
+                }
+            });
+            submitter.start();
+
+            assertThat(submittedLatch.await(200, TimeUnit.MILLISECONDS), is(false));
+
+            latch.countDown();
+
+            assertThat(submittedLatch.await(5, TimeUnit.SECONDS), is(true));
+            submitter.join(5000);
+            executor.submit(blockingTask).get(5, TimeUnit.SECONDS);
+            assertThat(executingThread.get().getName(), startsWith("thundra-warmup-test-"));
+        } finally {
+            latch.countDown();
+            runtime.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldShareRuntimeOfSamePropertyProvider() {
+        WarmupPropertyProvider warmupPropertyProvider1 =
+                new MapWarmupPropertyProvider(new HashMap<String, Object>());
+        WarmupPropertyProvider warmupPropertyProvider2 =
+                new MapWarmupPropertyProvider(new HashMap<String, Object>());
+
+        WarmupExecutionRuntime runtime1 = WarmupExecutionRuntime.getInstance(warmupPropertyProvider1);
+        WarmupExecutionRuntime runtime2 = WarmupExecutionRuntime.getInstance(warmupPropertyProvider2);
+
+        assertThat(WarmupExecutionRuntime.getInstance(warmupPropertyProvider1), sameInstance(runtime1));
+        assertThat(runtime1 == runtime2, is(false));
+    }
+
+    @Test
+    public void shouldShareRuntimeOfRootPropertyProviderWithScopedOnes() {
+        WarmupPropertyProvider warmupPropertyProvider =
+                new MapWarmupPropertyProvider(new HashMap<String, Object>());
+        WarmupPropertyProvider scopedWarmupPropertyProvider1 =
+                new ScopedWarmupPropertyProvider(
+                        warmupPropertyProvider,
+                        "thundra.lambda.warmup.",
+                        "thundra.lambda.warmup.strategies.standard.");
+        WarmupPropertyProvider scopedWarmupPropertyProvider2 =
+                new ScopedWarmupPropertyProvider(
+                        warmupPropertyProvider,
+                        "thundra.lambda.warmup.",
+                        "thundra.lambda.warmup.strategies.stat-aware.");
+
+        WarmupExecutionRuntime runtime = WarmupExecutionRuntime.getInstance(warmupPropertyProvider);
+
+        assertThat(WarmupExecutionRuntime.getInstance(scopedWarmupPropertyProvider1), sameInstance(runtime));
+        assertThat(WarmupExecutionRuntime.getInstance(scopedWarmupPropertyProvider2), sameInstance(runtime));
+    }
+
+    @Test
+    public void shouldUseVirtualThreadsOnlyIfSupported() throws Exception {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(WarmupExecutionRuntime.ENABLE_VIRTUAL_THREADS_PROP_NAME, true);
+        WarmupExecutionRuntime runtime = new WarmupExecutionRuntime(new MapWarmupPropertyProvider(warmupPropertyMap));
+        try {
+            ExecutorService executor = runtime.getExecutor("test", 1);
+
+            assertThat(runtime.isUsingVirtualThreads(), is(VirtualThreads.isSupported()));
+            assertThat(executor instanceof MonitoredThreadPoolExecutor, is(!VirtualThreads.isSupported()));
+            assertThat(runtime.getPools().size(), is(VirtualThreads.isSupported() ? 0 : 1));
+
+            final AtomicReference<Thread> threadRef = new AtomicReference<Thread>();
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    threadRef.set(Thread.currentThread());
+                }
+            }).get();
+
+            assertThat(threadRef.get().getName(), startsWith("thundra-warmup-test-"));
+        } finally {
+            runtime.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotCreatePoolAfterShutdown() {
+        WarmupExecutionRuntime runtime =
+                new WarmupExecutionRuntime(new MapWarmupPropertyProvider(new HashMap<String, Object>()));
+        runtime.shutdown();
+        runtime.getExecutor("test", 1);
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.thundra.lambda.warmup.concurrency;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author serkan
+ */
+public class WeightedFairDispatchQueueTest {
+
+    @Test
+    public void shouldDispatchHigherPriorityFlowsFirst() {
+        WeightedFairDispatchQueue<String> queue = new WeightedFairDispatchQueue<String>();
+        queue.add("low", 0, 1, 2);
+        queue.add("high", 1, 1, 2);
+        queue.add("none", 2, 1, 0);
+
+        assertThat(queue.size(), is(4));
+        assertThat(pollAll(queue), is(Arrays.asList("high", "high", "low", "low")));
+        assertThat(queue.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldInterleaveFlowsInProportionToTheirWeights() {
+        WeightedFairDispatchQueue<String> queue = new WeightedFairDispatchQueue<String>();
+        queue.add("light", 0, 1, 3);
+        queue.add("heavy", 0, 2, 6);
+
+        assertThat(
+                pollAll(queue),
+                is(Arrays.asList(
+                        "heavy", "light", "heavy",
+                        "heavy", "light", "heavy",
+                        "heavy", "light", "heavy")));
+    }
+
+    @Test
+    public void shouldStartLateFlowsFromVirtualTimeOfTheirTier() {
+        WeightedFairDispatchQueue<String> queue = new WeightedFairDispatchQueue<String>();
+        queue.add("early", 0, 1, 4);
+
+        assertThat(queue.poll(), is("early"));
+        assertThat(queue.poll(), is("early"));
+
+        // Late flow neither waits for the early one to complete nor takes over the tier
+        queue.add("late", 0, 1, 2);
+
+        assertThat(pollAll(queue), is(Arrays.asList("late", "early", "late", "early")));
+        assertThat(queue.poll() == null, is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNonPositiveWeight() {
+        new WeightedFairDispatchQueue<String>().add("flow", 0, 0, 1);
+    }
+
+    private static List<String> pollAll(WeightedFairDispatchQueue<String> queue) {
+        List<String> items = new ArrayList<String>();
+        String item;
+        while ((item = queue.poll()) != null) {
+            items.add(item);
+        }
+        return items;
+    }
+
+}
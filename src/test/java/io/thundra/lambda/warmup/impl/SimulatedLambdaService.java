@@ -0,0 +1,688 @@
+package io.thundra.lambda.warmup.impl;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.model.*;
+import com.amazonaws.util.StringUtils;
+import com.opsgenie.sirocco.api.control.ControlRequestConstants;
+import io.thundra.lambda.warmup.LambdaService;
+import org.apache.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>
+ *      In-process simulated AWS Lambda fleet as {@link LambdaService} implementation
+ *      to see how warmup strategies behave at scale (thousands of functions) without touching AWS.
+ * </p>
+ * <p>
+ *      Every function version has its own container pool. An invocation is routed to
+ *      the most recently used idle container of the function version if there is,
+ *      otherwise a new container is started with a cold start latency
+ *      which is drawn from log-normal distribution of the function.
+ *      Containers are evicted after they stay idle for the configured idle timeout.
+ *      Invocations are throttled by {@link TooManyRequestsException}
+ *      when busy containers of the account reach to the account concurrency limit.
+ * </p>
+ * <p>
+ *      Warmup invocations (empty messages or <code>#warmup wait=&lt;wait_time&gt;</code> control requests)
+ *      keep the container busy for <code>100 + &lt;wait_time&gt;</code> milliseconds
+ *      and other invocations keep the container busy for execution time of the function.
+ *      Warmup invocations are responded with <code>instanceId</code> and <code>latestRequestTime</code>
+ *      of the container as expected by {@link io.thundra.lambda.warmup.strategy.impl.StatAwareWarmupStrategy},
+ *      where <code>latestRequestTime</code> is the time of the latest non-warmup request
+ *      and it is omitted if the container has not received any non-warmup request yet.
+ * </p>
+ * <p>
+ *      All the durations are multiplied by the time scale of the simulation,
+ *      so simulations can be run faster (by time scale less than <code>1</code>) than the real time.
+ * </p>
+ *
+ * @author serkan
+ */
+public class SimulatedLambdaService implements LambdaService {
+
+    /**
+     * The default concurrency limit of the simulated account.
+     */
+    public static final int DEFAULT_ACCOUNT_CONCURRENCY_LIMIT = 1000;
+    /**
+     * The default idle time in milliseconds for containers to be evicted.
+     */
+    public static final long DEFAULT_CONTAINER_IDLE_TIMEOUT_MILLIS = 10 * 60 * 1000; // 10 min
+    /**
+     * The default maximum number of functions returned in a {@link ListFunctionsResult} page.
+     */
+    public static final int DEFAULT_LIST_FUNCTIONS_PAGE_SIZE = 50;
+    /**
+     * The default time for warmup invocations to keep the containers busy.
+     */
+    public static final long DEFAULT_WARMUP_WAIT_MILLIS = 100;
+
+    private static final Logger LOGGER = Logger.getLogger(SimulatedLambdaService.class);
+
+    private static final String LATEST_VERSION = "$LATEST";
+    private static final Pattern WARMUP_WAIT_PATTERN =
+            Pattern.compile(ControlRequestConstants.WAIT_ARGUMENT + "\\s*=\\s*(\\d+)");
+
+    private final String region;
+    private final String accountId;
+    private final int accountConcurrencyLimit;
+    private final long containerIdleTimeoutMillis;
+    private final int listFunctionsPageSize;
+    private final double timeScale;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final Random random = new Random();
+    private final TreeMap<String, SimulatedFunction> functions = new TreeMap<String, SimulatedFunction>();
+    private final Map<String, List<Container>> containerPools = new HashMap<String, List<Container>>();
+    private final AtomicLong containerIdGenerator = new AtomicLong();
+    private int busyContainerCount;
+
+    private final AtomicLong invocationCount = new AtomicLong();
+    private final AtomicLong coldStartCount = new AtomicLong();
+    private final AtomicLong throttleCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public SimulatedLambdaService() {
+        this(DEFAULT_ACCOUNT_CONCURRENCY_LIMIT, DEFAULT_CONTAINER_IDLE_TIMEOUT_MILLIS, 1.0);
+    }
+
+    public SimulatedLambdaService(int accountConcurrencyLimit, long containerIdleTimeoutMillis, double timeScale) {
+        this("us-west-2", "123456789012",
+             accountConcurrencyLimit, containerIdleTimeoutMillis,
+             DEFAULT_LIST_FUNCTIONS_PAGE_SIZE, timeScale);
+    }
+
+    public SimulatedLambdaService(String region, String accountId,
+                                  int accountConcurrencyLimit, long containerIdleTimeoutMillis,
+                                  int listFunctionsPageSize, double timeScale) {
+        if (accountConcurrencyLimit <= 0) {
+            throw new IllegalArgumentException(
+                    "Account concurrency limit must be positive: " + accountConcurrencyLimit);
+        }
+        if (listFunctionsPageSize <= 0) {
+            throw new IllegalArgumentException(
+                    "List functions page size must be positive: " + listFunctionsPageSize);
+        }
+        if (timeScale <= 0) {
+            throw new IllegalArgumentException("Time scale must be positive: " + timeScale);
+        }
+        this.region = region;
+        this.accountId = accountId;
+        this.accountConcurrencyLimit = accountConcurrencyLimit;
+        this.containerIdleTimeoutMillis = containerIdleTimeoutMillis;
+        this.listFunctionsPageSize = listFunctionsPageSize;
+        this.timeScale = timeScale;
+        this.scheduledExecutorService =
+                Executors.newScheduledThreadPool(
+                        java.lang.Runtime.getRuntime().availableProcessors(),
+                        new ThreadFactory() {
+                            private final AtomicLong threadCounter = new AtomicLong();
+                            @Override
+                            public Thread newThread(Runnable r) {
+                                Thread thread =
+                                        new Thread(r, "simulated-lambda-service-" + threadCounter.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            }
+                        });
+    }
+
+    /**
+     * Adds the given function to the simulated account.
+     *
+     * @param function the {@link SimulatedFunction} to add
+     * @return this {@link SimulatedLambdaService}
+     */
+    public SimulatedLambdaService addFunction(SimulatedFunction function) {
+        synchronized (functions) {
+            functions.put(function.name, function);
+        }
+        return this;
+    }
+
+    /**
+     * Simulates a real (non-warmup) request to the given function.
+     *
+     * @param functionName name of the function
+     * @param qualifier    version or alias of the function, <code>null</code> for <code>$LATEST</code>
+     * @return the {@link Future} which provides the {@link InvokeResult invocation result}
+     */
+    public Future<InvokeResult> simulateRequest(String functionName, String qualifier) {
+        return invokeAsync(
+                new InvokeRequest().
+                    withFunctionName(functionName).
+                    withQualifier(qualifier).
+                    withPayload("{}"));
+    }
+
+    @Override
+    public InvokeResult invoke(InvokeRequest request) {
+        try {
+            return invokeAsync(request).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting invocation result", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(InvokeRequest request) {
+        return invokeAsync(request, null);
+    }
+
+    @Override
+    public Future<InvokeResult> invokeAsync(final InvokeRequest request,
+                                            final AsyncHandler<InvokeRequest, InvokeResult> asyncHandler) {
+        invocationCount.incrementAndGet();
+
+        final CompletableFuture<InvokeResult> future = new CompletableFuture<InvokeResult>();
+        SimulatedFunction function;
+        synchronized (functions) {
+            function = functions.get(request.getFunctionName());
+        }
+        if (function == null) {
+            fail(request, asyncHandler, future,
+                 createServiceException(
+                         new ResourceNotFoundException("Function not found: " + request.getFunctionName()),
+                         "ResourceNotFoundException", 404));
+            return future;
+        }
+        String version = function.resolveVersion(request.getQualifier());
+        if (version == null) {
+            fail(request, asyncHandler, future,
+                 createServiceException(
+                         new ResourceNotFoundException(
+                                 "Function not found: " + request.getFunctionName() + ":" + request.getQualifier()),
+                         "ResourceNotFoundException", 404));
+            return future;
+        }
+
+        final boolean warmupRequest;
+        final long busyMillis;
+        String payload = getPayload(request);
+        if (StringUtils.isNullOrEmpty(payload)) {
+            warmupRequest = true;
+            busyMillis = DEFAULT_WARMUP_WAIT_MILLIS;
+        } else if (payload.startsWith("#warmup")) {
+            warmupRequest = true;
+            Matcher matcher = WARMUP_WAIT_PATTERN.matcher(payload);
+            busyMillis = DEFAULT_WARMUP_WAIT_MILLIS + (matcher.find() ? Long.parseLong(matcher.group(1)) : 0);
+        } else {
+            warmupRequest = false;
+            busyMillis = function.executionMillis;
+        }
+
+        final Container container;
+        long latencyMillis;
+        synchronized (containerPools) {
+            if (busyContainerCount >= accountConcurrencyLimit) {
+                throttleCount.incrementAndGet();
+                container = null;
+                latencyMillis = 0;
+            } else {
+                String poolKey = function.name + ":" + version;
+                List<Container> containerPool = containerPools.get(poolKey);
+                if (containerPool == null) {
+                    containerPool = new ArrayList<Container>();
+                    containerPools.put(poolKey, containerPool);
+                }
+                Container idleContainer = acquireIdleContainer(containerPool);
+                if (idleContainer != null) {
+                    container = idleContainer;
+                    latencyMillis = busyMillis;
+                } else {
+                    container = new Container(function.name + "-" + containerIdGenerator.incrementAndGet());
+                    container.busy = true;
+                    containerPool.add(container);
+                    coldStartCount.incrementAndGet();
+                    latencyMillis = function.nextColdStartMillis(random) + busyMillis;
+                }
+                busyContainerCount++;
+            }
+        }
+        if (container == null) {
+            fail(request, asyncHandler, future,
+                 createServiceException(
+                         new TooManyRequestsException("Rate Exceeded."),
+                         "TooManyRequestsException", 429));
+            return future;
+        }
+
+        if (!warmupRequest) {
+            container.latestRequestTime = System.currentTimeMillis();
+        }
+        scheduledExecutorService.schedule(new Runnable() {
+            @Override
+            public void run() {
+                InvokeResult result =
+                        new InvokeResult().
+                            withStatusCode(200).
+                            withExecutedVersion(version).
+                            withPayload(createResponsePayload(container, warmupRequest));
+                synchronized (containerPools) {
+                    container.busy = false;
+                    container.lastUsedTime = System.nanoTime();
+                    busyContainerCount--;
+                }
+                if (asyncHandler != null) {
+                    try {
+                        asyncHandler.onSuccess(request, result);
+                    } catch (Throwable t) {
+                        LOGGER.error("Error occurred while notifying invocation result", t);
+                    }
+                }
+                future.complete(result);
+            }
+        }, scale(latencyMillis), TimeUnit.MICROSECONDS);
+
+        return future;
+    }
+
+    private Container acquireIdleContainer(List<Container> containerPool) {
+        long currentTime = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MICROSECONDS.toNanos(scale(containerIdleTimeoutMillis));
+        Container mostRecentlyUsedContainer = null;
+        Iterator<Container> iter = containerPool.iterator();
+        while (iter.hasNext()) {
+            Container container = iter.next();
+            if (container.busy) {
+                continue;
+            }
+            if (currentTime - container.lastUsedTime > idleTimeoutNanos) {
+                iter.remove();
+                evictionCount.incrementAndGet();
+                continue;
+            }
+            if (mostRecentlyUsedContainer == null
+                    || container.lastUsedTime > mostRecentlyUsedContainer.lastUsedTime) {
+                mostRecentlyUsedContainer = container;
+            }
+        }
+        if (mostRecentlyUsedContainer != null) {
+            mostRecentlyUsedContainer.busy = true;
+        }
+        return mostRecentlyUsedContainer;
+    }
+
+    private long scale(long millis) {
+        return (long) (TimeUnit.MILLISECONDS.toMicros(millis) * timeScale);
+    }
+
+    private static String getPayload(InvokeRequest request) {
+        ByteBuffer payload = request.getPayload();
+        if (payload == null || !payload.hasRemaining()) {
+            return null;
+        }
+        return StandardCharsets.UTF_8.decode(payload.duplicate()).toString().trim();
+    }
+
+    private static ByteBuffer createResponsePayload(Container container, boolean warmupRequest) {
+        if (!warmupRequest) {
+            return ByteBuffer.wrap("{}".getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"instanceId\":\"").append(container.id).append("\"");
+        if (container.latestRequestTime > 0) {
+            String latestRequestTime;
+            synchronized (ControlRequestConstants.DATE_FORMAT) {
+                latestRequestTime = ControlRequestConstants.DATE_FORMAT.format(new Date(container.latestRequestTime));
+            }
+            sb.append(",\"latestRequestTime\":\"").append(latestRequestTime).append("\"");
+        }
+        sb.append("}");
+        return ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AmazonServiceException createServiceException(AmazonServiceException e,
+                                                                 String errorCode, int statusCode) {
+        e.setErrorCode(errorCode);
+        e.setStatusCode(statusCode);
+        e.setServiceName("AWSLambda");
+        return e;
+    }
+
+    private static void fail(InvokeRequest request,
+                             AsyncHandler<InvokeRequest, InvokeResult> asyncHandler,
+                             CompletableFuture<InvokeResult> future,
+                             Exception error) {
+        if (asyncHandler != null) {
+            try {
+                asyncHandler.onError(error);
+            } catch (Throwable t) {
+                LOGGER.error("Error occurred while notifying invocation error", t);
+            }
+        }
+        future.completeExceptionally(error);
+    }
+
+    @Override
+    public ListFunctionsResult listFunctions(ListFunctionsRequest request) {
+        int pageSize = listFunctionsPageSize;
+        if (request.getMaxItems() != null) {
+            pageSize = Math.min(pageSize, request.getMaxItems());
+        }
+        List<FunctionConfiguration> functionConfigs = new ArrayList<FunctionConfiguration>(pageSize);
+        String nextMarker = null;
+        synchronized (functions) {
+            SortedMap<String, SimulatedFunction> page =
+                    request.getMarker() != null
+                            ? functions.tailMap(request.getMarker())
+                            : functions;
+            for (SimulatedFunction function : page.values()) {
+                if (functionConfigs.size() == pageSize) {
+                    nextMarker = function.name;
+                    break;
+                }
+                functionConfigs.add(createFunctionConfiguration(function));
+            }
+        }
+        return new ListFunctionsResult().
+                    withFunctions(functionConfigs).
+                    withNextMarker(nextMarker);
+    }
+
+    @Override
+    public ListAliasesResult listAliases(ListAliasesRequest request) {
+        SimulatedFunction function;
+        synchronized (functions) {
+            function = functions.get(request.getFunctionName());
+        }
+        if (function == null) {
+            throw createServiceException(
+                    new ResourceNotFoundException("Function not found: " + request.getFunctionName()),
+                    "ResourceNotFoundException", 404);
+        }
+        List<AliasConfiguration> aliasConfigs = new ArrayList<AliasConfiguration>();
+        for (Map.Entry<String, String> entry : function.aliases.entrySet()) {
+            if (request.getFunctionVersion() != null && !request.getFunctionVersion().equals(entry.getValue())) {
+                continue;
+            }
+            aliasConfigs.add(
+                    new AliasConfiguration().
+                        withName(entry.getKey()).
+                        withFunctionVersion(entry.getValue()).
+                        withAliasArn(getFunctionArn(function.name) + ":" + entry.getKey()));
+        }
+        return new ListAliasesResult().withAliases(aliasConfigs);
+    }
+
+    @Override
+    public ListProvisionedConcurrencyConfigsResult listProvisionedConcurrencyConfigs(
+            ListProvisionedConcurrencyConfigsRequest request) {
+        SimulatedFunction function;
+        synchronized (functions) {
+            function = functions.get(request.getFunctionName());
+        }
+        if (function == null) {
+            throw createServiceException(
+                    new ResourceNotFoundException("Function not found: " + request.getFunctionName()),
+                    "ResourceNotFoundException", 404);
+        }
+        List<ProvisionedConcurrencyConfigListItem> provisionedConcurrencyConfigs =
+                new ArrayList<ProvisionedConcurrencyConfigListItem>();
+        for (Map.Entry<String, Integer> entry : function.provisionedConcurrencies.entrySet()) {
+            provisionedConcurrencyConfigs.add(
+                    new ProvisionedConcurrencyConfigListItem().
+                        withFunctionArn(getFunctionArn(function.name) + ":" + entry.getKey()).
+                        withRequestedProvisionedConcurrentExecutions(entry.getValue()).
+                        withAllocatedProvisionedConcurrentExecutions(entry.getValue()).
+                        withAvailableProvisionedConcurrentExecutions(entry.getValue()).
+                        withStatus(ProvisionedConcurrencyStatusEnum.READY));
+        }
+        return new ListProvisionedConcurrencyConfigsResult().
+                    withProvisionedConcurrencyConfigs(provisionedConcurrencyConfigs);
+    }
+
+    @Override
+    public GetAccountSettingsResult getAccountSettings(GetAccountSettingsRequest request) {
+        return new GetAccountSettingsResult().
+                    withAccountLimit(
+                        new AccountLimit().
+                            withConcurrentExecutions(accountConcurrencyLimit).
+                            withUnreservedConcurrentExecutions(accountConcurrencyLimit));
+    }
+
+    private FunctionConfiguration createFunctionConfiguration(SimulatedFunction function) {
+        return new FunctionConfiguration().
+                    withFunctionName(function.name).
+                    withFunctionArn(getFunctionArn(function.name)).
+                    withRuntime(com.amazonaws.services.lambda.model.Runtime.Java8).
+                    withMemorySize(function.memorySize).
+                    withVersion(LATEST_VERSION).
+                    withRevisionId(function.revisionId).
+                    withEnvironment(
+                        new EnvironmentResponse().
+                            withVariables(new HashMap<String, String>(function.environmentVariables)));
+    }
+
+    private String getFunctionArn(String functionName) {
+        return "arn:aws:lambda:" + region + ":" + accountId + ":function:" + functionName;
+    }
+
+    /**
+     * Gets the total count of the invocations including the throttled and the failed ones.
+     *
+     * @return the total count of the invocations
+     */
+    public long getInvocationCount() {
+        return invocationCount.get();
+    }
+
+    /**
+     * Gets the count of the invocations which have started new containers.
+     *
+     * @return the count of the cold starts
+     */
+    public long getColdStartCount() {
+        return coldStartCount.get();
+    }
+
+    /**
+     * Gets the count of the invocations throttled by the account concurrency limit.
+     *
+     * @return the count of the throttled invocations
+     */
+    public long getThrottleCount() {
+        return throttleCount.get();
+    }
+
+    /**
+     * Gets the count of the containers evicted as they have been idle for long time.
+     *
+     * @return the count of the evicted containers
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Gets the count of the containers of the given function (over all of its versions)
+     * which are busy or have not been idle for long time yet.
+     *
+     * @param functionName name of the function
+     * @return the count of the live containers of the function
+     */
+    public int getContainerCount(String functionName) {
+        long currentTime = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MICROSECONDS.toNanos(scale(containerIdleTimeoutMillis));
+        int containerCount = 0;
+        synchronized (containerPools) {
+            for (Map.Entry<String, List<Container>> entry : containerPools.entrySet()) {
+                if (!entry.getKey().startsWith(functionName + ":")) {
+                    continue;
+                }
+                for (Container container : entry.getValue()) {
+                    if (container.busy || currentTime - container.lastUsedTime <= idleTimeoutNanos) {
+                        containerCount++;
+                    }
+                }
+            }
+        }
+        return containerCount;
+    }
+
+    /**
+     * Gets the count of the containers of the account which are busy with an invocation currently.
+     *
+     * @return the count of the busy containers
+     */
+    public int getBusyContainerCount() {
+        synchronized (containerPools) {
+            return busyContainerCount;
+        }
+    }
+
+    /**
+     * Shutdowns the simulation. The invocations in progress are not completed after shutdown.
+     */
+    public void shutdown() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    private static class Container {
+
+        private final String id;
+        private boolean busy;
+        private long lastUsedTime;
+        private volatile long latestRequestTime;
+
+        private Container(String id) {
+            this.id = id;
+        }
+
+    }
+
+    /**
+     * Function to be simulated by {@link SimulatedLambdaService}.
+     */
+    public static class SimulatedFunction {
+
+        private final String name;
+        private final Map<String, String> environmentVariables = new HashMap<String, String>();
+        private final Map<String, String> aliases = new LinkedHashMap<String, String>();
+        private final Set<String> versions = new HashSet<String>();
+        private final Map<String, Integer> provisionedConcurrencies = new LinkedHashMap<String, Integer>();
+        private String revisionId = UUID.randomUUID().toString();
+        private int memorySize = 512;
+        private long coldStartMedianMillis = 500;
+        private double coldStartSigma = 0.5;
+        private long executionMillis = 20;
+
+        public SimulatedFunction(String name) {
+            this.name = name;
+            this.versions.add(LATEST_VERSION);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public SimulatedFunction withEnvironmentVariable(String name, String value) {
+            environmentVariables.put(name, value);
+            return this;
+        }
+
+        /**
+         * Publishes the given version of the function and points the given alias to that version.
+         *
+         * @param alias   name of the alias
+         * @param version the version to be pointed by the alias
+         * @return this {@link SimulatedFunction}
+         */
+        public SimulatedFunction withAlias(String alias, String version) {
+            versions.add(version);
+            aliases.put(alias, version);
+            return this;
+        }
+
+        /**
+         * Configures provisioned concurrency of the given alias.
+         * Note that provisioned concurrency is only reported by
+         * {@link SimulatedLambdaService#listProvisionedConcurrencyConfigs(ListProvisionedConcurrencyConfigsRequest)},
+         * so invocations are still served by the on-demand containers.
+         *
+         * @param alias                  name of the alias
+         * @param provisionedConcurrency provisioned concurrency of the alias
+         * @return this {@link SimulatedFunction}
+         */
+        public SimulatedFunction withProvisionedConcurrency(String alias, int provisionedConcurrency) {
+            provisionedConcurrencies.put(alias, provisionedConcurrency);
+            return this;
+        }
+
+        public SimulatedFunction withRevisionId(String revisionId) {
+            this.revisionId = revisionId;
+            return this;
+        }
+
+        public SimulatedFunction withMemorySize(int memorySize) {
+            this.memorySize = memorySize;
+            return this;
+        }
+
+        /**
+         * Configures the log-normal distribution of the cold start latencies of the function.
+         *
+         * @param coldStartMedianMillis median of the cold start latencies in milliseconds
+         * @param coldStartSigma        standard deviation of the logarithms of the cold start latencies
+         * @return this {@link SimulatedFunction}
+         */
+        public SimulatedFunction withColdStart(long coldStartMedianMillis, double coldStartSigma) {
+            this.coldStartMedianMillis = coldStartMedianMillis;
+            this.coldStartSigma = coldStartSigma;
+            return this;
+        }
+
+        public SimulatedFunction withExecutionMillis(long executionMillis) {
+            this.executionMillis = executionMillis;
+            return this;
+        }
+
+        private String resolveVersion(String qualifier) {
+            if (StringUtils.isNullOrEmpty(qualifier)) {
+                return LATEST_VERSION;
+            }
+            String version = aliases.get(qualifier);
+            if (version != null) {
+                return version;
+            }
+            return versions.contains(qualifier) ? qualifier : null;
+        }
+
+        private long nextColdStartMillis(Random random) {
+            return (long) (coldStartMedianMillis * Math.exp(coldStartSigma * random.nextGaussian()));
+        }
+
+        @Override
+        public String toString() {
+            return "SimulatedFunction{" +
+                    "name='" + name + '\'' +
+                    ", aliases=" + aliases +
+                    ", coldStartMedianMillis=" + coldStartMedianMillis +
+                    ", coldStartSigma=" + coldStartSigma +
+                    ", executionMillis=" + executionMillis +
+                    '}';
+        }
+
+    }
+
+}
@@ -0,0 +1,71 @@
+package io.thundra.lambda.warmup.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author serkan
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldReturnZeroWhenThereIsNoRecordedValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getTotalCount(), is(0L));
+        assertThat(histogram.getMinValue(), is(0L));
+        assertThat(histogram.getMaxValue(), is(0L));
+        assertThat(histogram.getValueAtPercentile(99), is(0L));
+    }
+
+    @Test
+    public void shouldTrackSmallValuesExactly() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+
+        assertThat(histogram.getTotalCount(), is(10L));
+        assertThat(histogram.getMinValue(), is(1L));
+        assertThat(histogram.getMaxValue(), is(10L));
+        assertThat(histogram.getValueAtPercentile(50), is(5L));
+        assertThat(histogram.getValueAtPercentile(90), is(9L));
+        assertThat(histogram.getValueAtPercentile(100), is(10L));
+        assertThat(histogram.getMean(), is(5.5));
+    }
+
+    @Test
+    public void shouldTrackLargeValuesWithBoundedRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // 1 ms ... 1000 ms
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+
+        assertTrue(p50 >= 500000L && p50 <= 500000L + 500000L / 16);
+        assertTrue(p99 >= 990000L && p99 <= 1000000L);
+        assertThat(histogram.getValueAtPercentile(100), is(1000000L));
+    }
+
+    @Test
+    public void shouldClampValuesOutOfTrackableRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-1);
+        histogram.record(LatencyHistogram.MAX_TRACKABLE_VALUE * 2);
+
+        assertThat(histogram.getTotalCount(), is(2L));
+        assertThat(histogram.getMinValue(), is(0L));
+        assertThat(histogram.getMaxValue(), is(LatencyHistogram.MAX_TRACKABLE_VALUE));
+        assertThat(histogram.getValueAtPercentile(100), is(LatencyHistogram.MAX_TRACKABLE_VALUE));
+    }
+
+}
@@ -0,0 +1,135 @@
+package io.thundra.lambda.warmup.metrics;
+
+import io.thundra.lambda.warmup.concurrency.AdaptiveConcurrencyLimit;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * @author serkan
+ */
+public class WarmupMetricsCollectorTest {
+
+    private static Map<String, FunctionWarmupMetrics> toMap(WarmupMetrics warmupMetrics) {
+        Map<String, FunctionWarmupMetrics> map = new HashMap<String, FunctionWarmupMetrics>();
+        for (FunctionWarmupMetrics functionMetrics : warmupMetrics.getFunctionMetrics()) {
+            String key = functionMetrics.getAlias() != null
+                    ? functionMetrics.getFunctionName() + ":" + functionMetrics.getAlias()
+                    : functionMetrics.getFunctionName();
+            map.put(key, functionMetrics);
+        }
+        return map;
+    }
+
+    @Test
+    public void shouldClassifyColdStartsByInstanceIds() {
+        WarmupMetricsCollector collector = new WarmupMetricsCollector(1000);
+
+        // There is no previous run yet, so new containers are classified by their latencies
+        collector.startRun();
+        collector.recordInvocation("func1", null, 2000000, "instance-1");
+        collector.recordInvocation("func1", null, 2000, "instance-2");
+        collector.recordInvocation("func1", null, 2000000, "instance-1");
+        WarmupMetrics firstRunMetrics = collector.finishRun("test");
+
+        FunctionWarmupMetrics firstRunFunctionMetrics = toMap(firstRunMetrics).get("func1");
+        assertThat(firstRunMetrics.getWarmupStrategyName(), is("test"));
+        assertThat(firstRunFunctionMetrics.getInvocationCount(), is(3L));
+        assertThat(firstRunFunctionMetrics.getColdStartCount(), is(1L));
+        assertThat(firstRunFunctionMetrics.getWarmStartCount(), is(2L));
+        assertThat(firstRunFunctionMetrics.getContainerCount(), is(2));
+
+        collector.startRun();
+        collector.recordInvocation("func1", null, 2000000, "instance-1");
+        collector.recordInvocation("func1", null, 2000, "instance-3");
+        WarmupMetrics secondRunMetrics = collector.finishRun("test");
+
+        FunctionWarmupMetrics secondRunFunctionMetrics = toMap(secondRunMetrics).get("func1");
+        assertThat(secondRunFunctionMetrics.getInvocationCount(), is(2L));
+        assertThat(secondRunFunctionMetrics.getColdStartCount(), is(1L));
+        assertThat(secondRunFunctionMetrics.getWarmStartCount(), is(1L));
+        assertThat(secondRunFunctionMetrics.getContainerCount(), is(2));
+    }
+
+    @Test
+    public void shouldClassifyColdStartsByLatencyWhenInstanceIdIsNotReported() {
+        WarmupMetricsCollector collector = new WarmupMetricsCollector(1000);
+
+        collector.startRun();
+        collector.recordInvocation("func1", null, 1500000, null);
+        collector.recordInvocation("func1", null, 500000, null);
+        collector.recordInvocation("func1", null, 400000, null);
+        FunctionWarmupMetrics functionMetrics = toMap(collector.finishRun("test")).get("func1");
+
+        assertThat(functionMetrics.getColdStartCount(), is(1L));
+        assertThat(functionMetrics.getWarmStartCount(), is(2L));
+        assertThat(functionMetrics.getContainerCount(), is(0));
+        assertThat(functionMetrics.getLatencyHistogram().getMaxValue(), is(1500000L));
+    }
+
+    @Test
+    public void shouldCollectMetricsPerFunctionAndAlias() {
+        WarmupMetricsCollector collector = new WarmupMetricsCollector(1000);
+
+        collector.startRun();
+        collector.recordInvocation("func1", "prod", 1000, "instance-1");
+        collector.recordThrottle("func1", "prod");
+        collector.recordInvocation("func1", null, 1000, "instance-2");
+        collector.recordError("func1", null);
+        collector.recordError("func1", null);
+        collector.recordThrottle("func2", null);
+        Map<String, FunctionWarmupMetrics> metricsMap = toMap(collector.finishRun("test"));
+
+        assertThat(metricsMap.size(), is(3));
+
+        FunctionWarmupMetrics prodMetrics = metricsMap.get("func1:prod");
+        assertThat(prodMetrics.getAlias(), is("prod"));
+        assertThat(prodMetrics.getInvocationCount(), is(1L));
+        assertThat(prodMetrics.getThrottleCount(), is(1L));
+        assertThat(prodMetrics.getErrorCount(), is(0L));
+
+        FunctionWarmupMetrics latestMetrics = metricsMap.get("func1");
+        assertThat(latestMetrics.getInvocationCount(), is(1L));
+        assertThat(latestMetrics.getThrottleCount(), is(0L));
+        assertThat(latestMetrics.getErrorCount(), is(2L));
+
+        FunctionWarmupMetrics func2Metrics = metricsMap.get("func2");
+        assertThat(func2Metrics.getInvocationCount(), is(0L));
+        assertThat(func2Metrics.getThrottleCount(), is(1L));
+    }
+
+    @Test
+    public void shouldCollectConcurrencyLimitWindowChangesOfEveryRun() throws InterruptedException {
+        WarmupMetricsCollector collector = new WarmupMetricsCollector(1000);
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit("global", 4, 1, 100, 0.5);
+
+        collector.startRun();
+        for (int i = 0; i < 6; i++) {
+            concurrencyLimit.release(concurrencyLimit.acquire(), false);
+        }
+        ConcurrencyLimitMetrics firstRunMetrics =
+                collector.finishRun("test", Collections.singletonList(concurrencyLimit)).
+                        getConcurrencyLimitMetrics().iterator().next();
+
+        assertThat(firstRunMetrics.getName(), is("global"));
+        assertThat(firstRunMetrics.getLimit(), is(5));
+        assertThat(firstRunMetrics.getIncreaseCount(), is(1L));
+        assertThat(firstRunMetrics.getDecreaseCount(), is(0L));
+
+        collector.startRun();
+        concurrencyLimit.release(concurrencyLimit.acquire(), true);
+        ConcurrencyLimitMetrics secondRunMetrics =
+                collector.finishRun("test", Collections.singletonList(concurrencyLimit)).
+                        getConcurrencyLimitMetrics().iterator().next();
+
+        assertThat(secondRunMetrics.getLimit(), is(2));
+        assertThat(secondRunMetrics.getIncreaseCount(), is(0L));
+        assertThat(secondRunMetrics.getDecreaseCount(), is(1L));
+    }
+
+}
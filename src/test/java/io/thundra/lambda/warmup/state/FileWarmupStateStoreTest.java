@@ -0,0 +1,78 @@
+package io.thundra.lambda.warmup.state;
+
+import io.thundra.lambda.warmup.state.impl.FileWarmupStateStore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author serkan
+ */
+public class FileWarmupStateStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldRestoreSavedStateSuccessfully() throws IOException {
+        long currentTime = System.currentTimeMillis();
+        WarmupStateSnapshot snapshot = new WarmupStateSnapshot();
+        snapshot.getFunctionCallTimes().put("testFunction1", currentTime);
+        snapshot.getFunctionCallTimes().put("testFunction2", currentTime - 60 * 1000);
+        Map<String, Long> latestRequestTimes = new HashMap<String, Long>();
+        latestRequestTimes.put("instance1", currentTime - 1000);
+        latestRequestTimes.put("instance2", currentTime - 2000);
+        snapshot.getFunctionLatestRequestTimes().put("testFunction1", latestRequestTimes);
+
+        new FileWarmupStateStore(temporaryFolder.getRoot()).save("test", snapshot);
+        WarmupStateSnapshot restoredSnapshot = new FileWarmupStateStore(temporaryFolder.getRoot()).load("test");
+
+        assertThat(restoredSnapshot.getFunctionCallTimes(), is(snapshot.getFunctionCallTimes()));
+        assertThat(restoredSnapshot.getFunctionLatestRequestTimes(), is(snapshot.getFunctionLatestRequestTimes()));
+    }
+
+    @Test
+    public void shouldRestoreSavedConcurrencyHistoriesSuccessfully() throws IOException {
+        WarmupStateSnapshot snapshot = new WarmupStateSnapshot();
+        snapshot.getFunctionConcurrencyHistories().put("testFunction1", new float[] { Float.NaN, 0.0F, 2.5F, 100.0F });
+
+        new FileWarmupStateStore(temporaryFolder.getRoot()).save("test", snapshot);
+        WarmupStateSnapshot restoredSnapshot = new FileWarmupStateStore(temporaryFolder.getRoot()).load("test");
+
+        float[] restoredHistory = restoredSnapshot.getFunctionConcurrencyHistories().get("testFunction1");
+        assertThat(restoredHistory.length, is(4));
+        assertThat(Float.isNaN(restoredHistory[0]), is(true));
+        assertThat(restoredHistory[1], is(0.0F));
+        assertThat(restoredHistory[2], is(2.5F));
+        assertThat(restoredHistory[3], is(100.0F));
+    }
+
+    @Test
+    public void shouldReturnNullIfThereIsNoSavedState() throws IOException {
+        assertThat(new FileWarmupStateStore(temporaryFolder.getRoot()).load("test"), is(nullValue()));
+    }
+
+    @Test
+    public void shouldThrowErrorIfSavedStateIsCorrupted() throws IOException {
+        File stateFile = new File(temporaryFolder.getRoot(), "test.state");
+        Files.write(stateFile.toPath(), new byte[] { 1, 2, 3, 4, 5 });
+
+        try {
+            new FileWarmupStateStore(temporaryFolder.getRoot()).load("test");
+            fail("Should load fail with error");
+        } catch (IOException e) {
+        }
+    }
+
+}
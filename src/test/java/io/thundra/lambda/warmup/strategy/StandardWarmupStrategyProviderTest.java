@@ -0,0 +1,67 @@
+package io.thundra.lambda.warmup.strategy;
+
+import io.thundra.lambda.warmup.WarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.ScopedWarmupPropertyProvider;
+import io.thundra.lambda.warmup.strategy.impl.PredictiveWarmupStrategy;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy;
+import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategyProvider;
+import io.thundra.lambda.warmup.strategy.impl.StatAwareWarmupStrategy;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author serkan
+ */
+public class StandardWarmupStrategyProviderTest {
+
+    @Test
+    public void shouldProvideDeclaredWarmupStrategiesByName() {
+        StandardWarmupStrategyProvider warmupStrategyProvider =
+                new StandardWarmupStrategyProvider(new MapWarmupPropertyProvider(new HashMap<String, Object>()));
+
+        WarmupStrategy standardWarmupStrategy = warmupStrategyProvider.getWarmupStrategy(StandardWarmupStrategy.NAME);
+        WarmupStrategy statAwareWarmupStrategy = warmupStrategyProvider.getWarmupStrategy(StatAwareWarmupStrategy.NAME);
+
+        assertEquals(StandardWarmupStrategy.class, standardWarmupStrategy.getClass());
+        assertEquals(StatAwareWarmupStrategy.class, statAwareWarmupStrategy.getClass());
+        assertSame(standardWarmupStrategy, warmupStrategyProvider.getWarmupStrategy(StandardWarmupStrategy.NAME));
+        assertNull(warmupStrategyProvider.getWarmupStrategy("unknown"));
+        assertNull(warmupStrategyProvider.getWarmupStrategy(null));
+    }
+
+    @Test
+    public void shouldOverridePropertiesInStrategyScope() {
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put(StatAwareWarmupStrategy.WARMUP_SCALE_FACTOR_PROP_NAME, 1.5F);
+        props.put(StatAwareWarmupStrategy.MAX_INVOCATION_COUNT_PROP_NAME, 16);
+        props.put(
+                StandardWarmupStrategyProvider.STRATEGY_PROPERTY_NAME_PREFIX +
+                        PredictiveWarmupStrategy.NAME + ".warmupScaleFactor",
+                2.0F);
+        props.put(
+                StandardWarmupStrategyProvider.STRATEGY_PROPERTY_NAME_PREFIX +
+                        StatAwareWarmupStrategy.NAME + ".warmupScaleFactor",
+                3.0F);
+        WarmupPropertyProvider warmupPropertyProvider =
+                new ScopedWarmupPropertyProvider(
+                        new MapWarmupPropertyProvider(props),
+                        StandardWarmupStrategyProvider.WARMUP_PROPERTY_NAME_PREFIX,
+                        StandardWarmupStrategyProvider.STRATEGY_PROPERTY_NAME_PREFIX +
+                                PredictiveWarmupStrategy.NAME + ".");
+
+        assertEquals(
+                2.0F,
+                warmupPropertyProvider.getFloat(StatAwareWarmupStrategy.WARMUP_SCALE_FACTOR_PROP_NAME),
+                0.0F);
+        assertEquals(
+                16,
+                warmupPropertyProvider.getInteger(StatAwareWarmupStrategy.MAX_INVOCATION_COUNT_PROP_NAME).intValue());
+        assertNull(warmupPropertyProvider.getInteger(StatAwareWarmupStrategy.MIN_INVOCATION_COUNT_PROP_NAME));
+    }
+
+}
@@ -1,7 +1,11 @@
 package io.thundra.lambda.warmup.strategy;
 
+import com.amazonaws.handlers.AsyncHandler;
 import com.amazonaws.services.lambda.model.InvokeRequest;
 import com.amazonaws.services.lambda.model.InvokeResult;
+import com.amazonaws.services.lambda.model.ListProvisionedConcurrencyConfigsRequest;
+import com.amazonaws.services.lambda.model.ListProvisionedConcurrencyConfigsResult;
+import com.amazonaws.services.lambda.model.ProvisionedConcurrencyConfigListItem;
 import com.amazonaws.services.lambda.runtime.Context;
 import io.thundra.lambda.warmup.LambdaService;
 import io.thundra.lambda.warmup.WarmupFunctionInfo;
@@ -9,16 +13,21 @@ import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
 import io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
 
 import static io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy.DEFAULT_INVOCATION_COUNT;
 import static io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy.ITERATION_COUNT_PROP_NAME;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
@@ -47,15 +56,20 @@ public class StandardWarmupStrategyTest {
                 new StandardWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
 
         when(context.getRemainingTimeInMillis()).thenReturn(2000);
-        Future<InvokeResult> resultFuture = mock(Future.class);
-        when(resultFuture.get()).thenReturn(new InvokeResult());
-        when(lambdaService.invokeAsync(any(InvokeRequest.class))).thenReturn(resultFuture);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                AsyncHandler<InvokeRequest, InvokeResult> asyncHandler = invocation.getArgument(1);
+                asyncHandler.onSuccess(invocation.<InvokeRequest>getArgument(0), new InvokeResult());
+                return null;
+            }
+        }).when(lambdaService).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
 
         Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
         functionsToWarmup.put("testFunction", new WarmupFunctionInfo());
         standardWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
 
-        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT)).invokeAsync(any(InvokeRequest.class));
+        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT)).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
     }
 
     @Test
@@ -67,9 +81,14 @@ public class StandardWarmupStrategyTest {
                 new StandardWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
 
         when(context.getRemainingTimeInMillis()).thenReturn(2000);
-        Future<InvokeResult> resultFuture = mock(Future.class);
-        when(resultFuture.get()).thenThrow(new RuntimeException("no warmup"));
-        when(lambdaService.invokeAsync(any(InvokeRequest.class))).thenReturn(resultFuture);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                AsyncHandler<InvokeRequest, InvokeResult> asyncHandler = invocation.getArgument(1);
+                asyncHandler.onError(new RuntimeException("no warmup"));
+                return null;
+            }
+        }).when(lambdaService).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
 
         Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
         functionsToWarmup.put("testFunction", new WarmupFunctionInfo());
@@ -80,7 +99,95 @@ public class StandardWarmupStrategyTest {
             assertThat(e.getMessage(), containsString("no warmup"));
         }
 
-        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT)).invokeAsync(any(InvokeRequest.class));
+        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT)).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void shouldInvokeWithUTF8EncodedInvocationData()
+            throws IOException, ExecutionException, InterruptedException {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(ITERATION_COUNT_PROP_NAME, 1);
+        StandardWarmupStrategy standardWarmupStrategy =
+                new StandardWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        final List<String> payloads = new CopyOnWriteArrayList<String>();
+        when(context.getRemainingTimeInMillis()).thenReturn(2000);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                InvokeRequest invokeRequest = invocation.getArgument(0);
+                // Consumes the payload, so the payloads of the other requests must not be affected
+                payloads.add(StandardCharsets.UTF_8.decode(invokeRequest.getPayload()).toString());
+                AsyncHandler<InvokeRequest, InvokeResult> asyncHandler = invocation.getArgument(1);
+                asyncHandler.onSuccess(invokeRequest, new InvokeResult());
+                return null;
+            }
+        }).when(lambdaService).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+
+        String invocationData = "{\"message\":\"ısınma\"}";
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("testFunction", new WarmupFunctionInfo().setInvocationData(invocationData));
+        standardWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+
+        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT)).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+        assertThat(payloads.size(), is(DEFAULT_INVOCATION_COUNT));
+        for (String payload : payloads) {
+            assertThat(payload, is(invocationData));
+        }
+    }
+
+    @Test
+    public void shouldSkipOnlyFunctionsCoveredByProvisionedConcurrency()
+            throws IOException, ExecutionException, InterruptedException {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(ITERATION_COUNT_PROP_NAME, 1);
+        StandardWarmupStrategy standardWarmupStrategy =
+                new StandardWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        final List<String> invokedFunctions = new CopyOnWriteArrayList<String>();
+        when(context.getRemainingTimeInMillis()).thenReturn(2000);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                InvokeRequest invokeRequest = invocation.getArgument(0);
+                invokedFunctions.add(invokeRequest.getFunctionName() + ":" + invokeRequest.getQualifier());
+                AsyncHandler<InvokeRequest, InvokeResult> asyncHandler = invocation.getArgument(1);
+                asyncHandler.onSuccess(invokeRequest, new InvokeResult());
+                return null;
+            }
+        }).when(lambdaService).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+        when(lambdaService.listProvisionedConcurrencyConfigs(any(ListProvisionedConcurrencyConfigsRequest.class))).
+                thenAnswer(new Answer<ListProvisionedConcurrencyConfigsResult>() {
+                    @Override
+                    public ListProvisionedConcurrencyConfigsResult answer(InvocationOnMock invocation) {
+                        ListProvisionedConcurrencyConfigsRequest request = invocation.getArgument(0);
+                        String functionName = request.getFunctionName();
+                        String functionArn = "arn:aws:lambda:us-west-2:123456789012:function:" + functionName;
+                        return new ListProvisionedConcurrencyConfigsResult().
+                                    withProvisionedConcurrencyConfigs(
+                                        new ProvisionedConcurrencyConfigListItem().
+                                            withFunctionArn(functionArn + ":live").
+                                            withAllocatedProvisionedConcurrentExecutions(
+                                                "partiallyProvisionedFunction".equals(functionName)
+                                                        ? 2
+                                                        : DEFAULT_INVOCATION_COUNT),
+                                        new ProvisionedConcurrencyConfigListItem().
+                                            withFunctionArn(functionArn + ":test").
+                                            withAllocatedProvisionedConcurrentExecutions(DEFAULT_INVOCATION_COUNT));
+                    }
+                });
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("partiallyProvisionedFunction", new WarmupFunctionInfo().setAlias("live"));
+        functionsToWarmup.put("fullyProvisionedFunction", new WarmupFunctionInfo().setAlias("live"));
+        standardWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+
+        // Partially provisioned function is invoked for the whole invocation count,
+        // as the invocations are routed to its provisioned containers first
+        assertThat(invokedFunctions.size(), is(DEFAULT_INVOCATION_COUNT));
+        for (String invokedFunction : invokedFunctions) {
+            assertThat(invokedFunction, is("partiallyProvisionedFunction:live"));
+        }
     }
 
 }
@@ -0,0 +1,213 @@
+package io.thundra.lambda.warmup.strategy;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.lambda.model.InvokeRequest;
+import com.amazonaws.services.lambda.model.InvokeResult;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.opsgenie.sirocco.api.control.ControlRequestConstants;
+import io.thundra.lambda.warmup.LambdaService;
+import io.thundra.lambda.warmup.WarmupFunctionInfo;
+import io.thundra.lambda.warmup.impl.MapWarmupPropertyProvider;
+import io.thundra.lambda.warmup.impl.SimulatedLambdaService;
+import io.thundra.lambda.warmup.strategy.impl.StatAwareWarmupStrategy;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy.DEFAULT_INVOCATION_COUNT;
+import static io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy.DISABLE_RANDOMIZATION_PROP_NAME;
+import static io.thundra.lambda.warmup.strategy.impl.StandardWarmupStrategy.ITERATION_COUNT_PROP_NAME;
+import static io.thundra.lambda.warmup.strategy.impl.StatAwareWarmupStrategy.ENABLE_CONTAINER_TARGETING_PROP_NAME;
+import static io.thundra.lambda.warmup.strategy.impl.StatAwareWarmupStrategy.ENABLE_WARMUP_SCALE_PROP_NAME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author serkan
+ */
+public class StatAwareWarmupStrategyTest {
+
+    private Context context;
+
+    private LambdaService lambdaService;
+
+    @Before
+    public void setup() {
+        context = mock(Context.class);
+        lambdaService = mock(LambdaService.class);
+    }
+
+    @Test
+    public void shouldScaleInvocationCountByActiveInstances() throws IOException {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(ITERATION_COUNT_PROP_NAME, 1);
+        warmupPropertyMap.put(DISABLE_RANDOMIZATION_PROP_NAME, true);
+        warmupPropertyMap.put(ENABLE_WARMUP_SCALE_PROP_NAME, true);
+        StatAwareWarmupStrategy statAwareWarmupStrategy =
+                new StatAwareWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        final String latestRequestTime;
+        synchronized (ControlRequestConstants.DATE_FORMAT) {
+            latestRequestTime = ControlRequestConstants.DATE_FORMAT.format(new Date());
+        }
+        final AtomicInteger invocationCounter = new AtomicInteger();
+        when(context.getRemainingTimeInMillis()).thenReturn(2000);
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                int invocationNo = invocationCounter.getAndIncrement();
+                byte[] response =
+                        ("{" +
+                            "\"instanceId\":\"instance-" + (invocationNo % 3) + "\"," +
+                            "\"extra\":{\"values\":[1,2,3]}," +
+                            "\"latestRequestTime\":\"" + latestRequestTime + "\"" +
+                        "}").getBytes(StandardCharsets.UTF_8);
+                ByteBuffer payload;
+                // Responses are parsed from both of array backed and direct buffers
+                if (invocationNo % 2 == 0) {
+                    payload = ByteBuffer.wrap(response);
+                } else {
+                    payload = ByteBuffer.allocateDirect(response.length);
+                    payload.put(response);
+                    payload.flip();
+                }
+                AsyncHandler<InvokeRequest, InvokeResult> asyncHandler = invocation.getArgument(1);
+                asyncHandler.onSuccess(
+                        invocation.<InvokeRequest>getArgument(0),
+                        new InvokeResult().withPayload(payload));
+                return null;
+            }
+        }).when(lambdaService).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("testFunction", new WarmupFunctionInfo());
+
+        statAwareWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+
+        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT)).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+
+        statAwareWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+
+        // 3 active instances are scaled by the default scale factor (2.0)
+        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT + 6)).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void shouldTopUpMissingContainersWhenContainerTargetingIsEnabled() throws Exception {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(DISABLE_RANDOMIZATION_PROP_NAME, true);
+        warmupPropertyMap.put(ENABLE_CONTAINER_TARGETING_PROP_NAME, true);
+        StatAwareWarmupStrategy statAwareWarmupStrategy =
+                new StatAwareWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        final SimulatedLambdaService simulatedLambdaService =
+                new SimulatedLambdaService(
+                        SimulatedLambdaService.DEFAULT_ACCOUNT_CONCURRENCY_LIMIT,
+                        SimulatedLambdaService.DEFAULT_CONTAINER_IDLE_TIMEOUT_MILLIS,
+                        0.01);
+        simulatedLambdaService.addFunction(new SimulatedLambdaService.SimulatedFunction("testFunction"));
+        try {
+            final AtomicInteger invocationCounter = new AtomicInteger();
+            when(context.getRemainingTimeInMillis()).thenReturn(60000);
+            doAnswer(new Answer() {
+                @Override
+                public Object answer(InvocationOnMock invocation) throws Exception {
+                    Future<InvokeResult> future =
+                            simulatedLambdaService.invokeAsync(
+                                    invocation.<InvokeRequest>getArgument(0),
+                                    invocation.<AsyncHandler<InvokeRequest, InvokeResult>>getArgument(1));
+                    // First wave is not concurrent, so all of its invocations land on the same container
+                    if (invocationCounter.getAndIncrement() < DEFAULT_INVOCATION_COUNT) {
+                        future.get();
+                    }
+                    return future;
+                }
+            }).when(lambdaService).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+
+            Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+            functionsToWarmup.put("testFunction", new WarmupFunctionInfo());
+
+            statAwareWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+
+            // Single top-up wave occupies the touched container and starts the missing ones
+            assertThat(simulatedLambdaService.getContainerCount("testFunction"), is(DEFAULT_INVOCATION_COUNT));
+            verify(lambdaService, times(2 * DEFAULT_INVOCATION_COUNT)).
+                    invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+        } finally {
+            simulatedLambdaService.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldNotTopUpWhenContainersAreAlreadyWarm() throws Exception {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(DISABLE_RANDOMIZATION_PROP_NAME, true);
+        warmupPropertyMap.put(ENABLE_CONTAINER_TARGETING_PROP_NAME, true);
+        StatAwareWarmupStrategy statAwareWarmupStrategy =
+                new StatAwareWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        when(context.getRemainingTimeInMillis()).thenReturn(60000);
+        answerByInstances(DEFAULT_INVOCATION_COUNT);
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("testFunction", new WarmupFunctionInfo());
+
+        statAwareWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+
+        // All the containers are touched by the initial invocations, so there is no top-up wave
+        verify(lambdaService, times(DEFAULT_INVOCATION_COUNT)).
+                invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+    }
+
+    @Test
+    public void shouldLimitTopUpInvocations() throws Exception {
+        Map<String, Object> warmupPropertyMap = new HashMap<String, Object>();
+        warmupPropertyMap.put(DISABLE_RANDOMIZATION_PROP_NAME, true);
+        warmupPropertyMap.put(ENABLE_CONTAINER_TARGETING_PROP_NAME, true);
+        StatAwareWarmupStrategy statAwareWarmupStrategy =
+                new StatAwareWarmupStrategy(new MapWarmupPropertyProvider(warmupPropertyMap));
+
+        when(context.getRemainingTimeInMillis()).thenReturn(60000);
+        // Invocations always land on the same container, so containers are always missing
+        answerByInstances(1);
+
+        Map<String, WarmupFunctionInfo> functionsToWarmup = new HashMap<String, WarmupFunctionInfo>();
+        functionsToWarmup.put("testFunction", new WarmupFunctionInfo());
+
+        statAwareWarmupStrategy.warmup(context, lambdaService, functionsToWarmup);
+
+        // Top-up invocations are limited by the default ratio (1.0) instead of running all the waves
+        verify(lambdaService, times(2 * DEFAULT_INVOCATION_COUNT)).
+                invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+    }
+
+    private void answerByInstances(final int instanceCount) {
+        final AtomicInteger invocationCounter = new AtomicInteger();
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                int invocationNo = invocationCounter.getAndIncrement();
+                byte[] response =
+                        ("{\"instanceId\":\"instance-" + (invocationNo % instanceCount) + "\"}").
+                                getBytes(StandardCharsets.UTF_8);
+                AsyncHandler<InvokeRequest, InvokeResult> asyncHandler = invocation.getArgument(1);
+                asyncHandler.onSuccess(
+                        invocation.<InvokeRequest>getArgument(0),
+                        new InvokeResult().withPayload(ByteBuffer.wrap(response)));
+                return null;
+            }
+        }).when(lambdaService).invokeAsync(any(InvokeRequest.class), any(AsyncHandler.class));
+    }
+
+}
@@ -0,0 +1,86 @@
+package io.thundra.lambda.warmup.strategy;
+
+import io.thundra.lambda.warmup.strategy.impl.TimeOfWeekConcurrencyHistory;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author serkan
+ */
+public class TimeOfWeekConcurrencyHistoryTest {
+
+    private static final long BUCKET_SIZE = TimeUnit.MINUTES.toMillis(30);
+    // 2017-07-31 (Monday) 09:00:00 UTC
+    private static final long MONDAY_MORNING = 1501491600000L;
+
+    @Test
+    public void shouldPredictNothingWithoutObservation() {
+        TimeOfWeekConcurrencyHistory history = new TimeOfWeekConcurrencyHistory(BUCKET_SIZE, 0.5F);
+
+        assertTrue(Float.isNaN(history.predict(MONDAY_MORNING)));
+        assertTrue(Float.isNaN(history.predictPeak(MONDAY_MORNING, MONDAY_MORNING + BUCKET_SIZE)));
+    }
+
+    @Test
+    public void shouldPredictSameTimeOfNextWeek() {
+        TimeOfWeekConcurrencyHistory history = new TimeOfWeekConcurrencyHistory(BUCKET_SIZE, 0.5F);
+
+        history.observe(MONDAY_MORNING, 10);
+
+        assertEquals(10.0F, history.predict(MONDAY_MORNING + TimeOfWeekConcurrencyHistory.WEEK_MILLIS), 0.001F);
+        assertTrue(Float.isNaN(history.predict(MONDAY_MORNING + BUCKET_SIZE)));
+        assertTrue(Float.isNaN(history.predict(MONDAY_MORNING + TimeUnit.DAYS.toMillis(1))));
+    }
+
+    @Test
+    public void shouldAverageObservationsOfDifferentWeeks() {
+        TimeOfWeekConcurrencyHistory history = new TimeOfWeekConcurrencyHistory(BUCKET_SIZE, 0.5F);
+
+        history.observe(MONDAY_MORNING, 10);
+        history.observe(MONDAY_MORNING + TimeOfWeekConcurrencyHistory.WEEK_MILLIS, 20);
+
+        assertEquals(15.0F, history.predict(MONDAY_MORNING), 0.001F);
+    }
+
+    @Test
+    public void shouldMergeObservationsOfSameWeekByPeak() {
+        TimeOfWeekConcurrencyHistory history = new TimeOfWeekConcurrencyHistory(BUCKET_SIZE, 0.5F);
+
+        history.observe(MONDAY_MORNING, 10);
+        history.observe(MONDAY_MORNING + TimeOfWeekConcurrencyHistory.WEEK_MILLIS, 20);
+        history.observe(MONDAY_MORNING + TimeOfWeekConcurrencyHistory.WEEK_MILLIS + 1000, 30);
+        history.observe(MONDAY_MORNING + TimeOfWeekConcurrencyHistory.WEEK_MILLIS + 2000, 5);
+
+        assertEquals(20.0F, history.predict(MONDAY_MORNING), 0.001F);
+    }
+
+    @Test
+    public void shouldPredictPeakAhead() {
+        TimeOfWeekConcurrencyHistory history = new TimeOfWeekConcurrencyHistory(BUCKET_SIZE, 0.5F);
+
+        history.observe(MONDAY_MORNING - BUCKET_SIZE, 2);
+        history.observe(MONDAY_MORNING, 40);
+
+        assertEquals(2.0F, history.predictPeak(MONDAY_MORNING - BUCKET_SIZE, MONDAY_MORNING - 1), 0.001F);
+        assertEquals(40.0F, history.predictPeak(MONDAY_MORNING - BUCKET_SIZE, MONDAY_MORNING), 0.001F);
+    }
+
+    @Test
+    public void shouldRestoreBuckets() {
+        TimeOfWeekConcurrencyHistory history = new TimeOfWeekConcurrencyHistory(BUCKET_SIZE, 0.5F);
+        history.observe(MONDAY_MORNING, 10);
+
+        TimeOfWeekConcurrencyHistory restoredHistory =
+                new TimeOfWeekConcurrencyHistory(BUCKET_SIZE, 0.5F, history.getBuckets());
+        assertEquals(10.0F, restoredHistory.predict(MONDAY_MORNING), 0.001F);
+
+        TimeOfWeekConcurrencyHistory discardedHistory =
+                new TimeOfWeekConcurrencyHistory(2 * BUCKET_SIZE, 0.5F, history.getBuckets());
+        assertTrue(Float.isNaN(discardedHistory.predict(MONDAY_MORNING)));
+    }
+
+}
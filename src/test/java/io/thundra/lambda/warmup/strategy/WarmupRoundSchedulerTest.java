@@ -0,0 +1,63 @@
+package io.thundra.lambda.warmup.strategy;
+
+import io.thundra.lambda.warmup.strategy.impl.WarmupRoundScheduler;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author serkan
+ */
+public class WarmupRoundSchedulerTest {
+
+    @Test
+    public void shouldSpreadRoundsOverBudgetExceptReservedTime() {
+        WarmupRoundScheduler roundScheduler = new WarmupRoundScheduler(300000, 3000, 100);
+
+        roundScheduler.onRoundStarted();
+
+        assertThat(roundScheduler.getReservedMillis(), is(3000L));
+        assertThat(roundScheduler.planNextRound(2), is(WarmupRoundScheduler.RoundPlan.WAIT));
+        long millisUntilNextRound = roundScheduler.getMillisUntilNextRound();
+        // (300000 - 3000) / 3 = 99000
+        assertTrue(millisUntilNextRound > 98000 && millisUntilNextRound <= 99000);
+    }
+
+    @Test
+    public void shouldExtendReservedTimeByObservedLatencyButNotMoreThanHalfOfBudget() {
+        WarmupRoundScheduler roundScheduler = new WarmupRoundScheduler(10000, 1000, 100);
+
+        roundScheduler.recordInvocationLatency(2000);
+        roundScheduler.recordInvocationLatency(1000);
+
+        assertThat(roundScheduler.getReservedMillis(), is(4000L));
+
+        roundScheduler.recordInvocationLatency(6000);
+
+        assertThat(roundScheduler.getReservedMillis(), is(5000L));
+    }
+
+    @Test
+    public void shouldCompressRemainingRoundsWhenBudgetIsTight() {
+        WarmupRoundScheduler roundScheduler = new WarmupRoundScheduler(1000, 3000, 100);
+
+        roundScheduler.onRoundStarted();
+
+        // Reserved time is capped to 500 millis, so there is no room for 5 more rounds with 100 millis interval
+        assertThat(roundScheduler.planNextRound(5), is(WarmupRoundScheduler.RoundPlan.COMPRESS));
+        assertThat(roundScheduler.getMillisUntilNextRound(), is(0L));
+    }
+
+    @Test
+    public void shouldNotWaitNegativeTimeWhenRoundTakesLongerThanPlanned() {
+        WarmupRoundScheduler roundScheduler = new WarmupRoundScheduler(0, 0, 0);
+
+        roundScheduler.onRoundStarted();
+
+        roundScheduler.planNextRound(1);
+        assertThat(roundScheduler.getMillisUntilNextRound(), is(0L));
+    }
+
+}